@@ -0,0 +1,147 @@
+package data;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tools.database.ConnectionSQL;
+import tools.database.NameDatabase;
+import tools.other.HourlySeries;
+
+/**
+ * Hourly demand and renewable profiles of all market areas. Each profile
+ * table is read with one streaming query when the first market area requests
+ * it, the values of the other market areas are kept until they are requested
+ * as well. This avoids one query per market area and renewable type during
+ * the initialization of the market areas.
+ * <p>
+ * Values are handed out only once, i.e. each market area takes its own
+ * profiles. Remaining values are removed via {@link #clear()} after the
+ * model is built.
+ */
+public final class ProfileCache {
+
+	/** Number of rows fetched from the database at once */
+	private static final int FETCH_SIZE = 10000;
+	/** Demand profiles [tableName[area]] */
+	private static final Map<String, Map<String, HourlySeries>> demandProfiles = new HashMap<>();
+	private static final Object lockDemand = new Object();
+	private static final Object lockRenewable = new Object();
+	/**
+	 * Instance of logger to give out warnings, errors to console and or files
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(ProfileCache.class.getName());
+	/** Renewable profiles [tableName[area[type]]] */
+	private static final Map<String, Map<String, Map<String, HourlySeries>>> renewableProfiles = new HashMap<>();
+
+	/** Remove all values that have not been requested */
+	public static void clear() {
+		synchronized (lockDemand) {
+			demandProfiles.clear();
+		}
+		synchronized (lockRenewable) {
+			renewableProfiles.clear();
+		}
+	}
+
+	/**
+	 * Demand profile of the area. Table has the columns area, hour of year and
+	 * one column for each profile year.
+	 *
+	 * @return profile, empty if no values are available
+	 */
+	public static HourlySeries takeDemandProfile(NameDatabase database, String tableName,
+			String area) throws SQLException {
+		synchronized (lockDemand) {
+			Map<String, HourlySeries> profiles = demandProfiles.get(tableName);
+			if (profiles == null) {
+				profiles = readDemandProfiles(database, tableName);
+				demandProfiles.put(tableName, profiles);
+			}
+			final HourlySeries profile = profiles.remove(area.toUpperCase());
+			return profile == null ? new HourlySeries() : profile;
+		}
+	}
+
+	/**
+	 * Renewable profiles of the area. Table has the columns area, type, year,
+	 * hour_of_year and value.
+	 *
+	 * @return profiles with the type in lower case as key
+	 */
+	public static Map<String, HourlySeries> takeRenewableProfiles(NameDatabase database,
+			String tableName, String area) throws SQLException {
+		synchronized (lockRenewable) {
+			Map<String, Map<String, HourlySeries>> profiles = renewableProfiles.get(tableName);
+			if (profiles == null) {
+				profiles = readRenewableProfiles(database, tableName);
+				renewableProfiles.put(tableName, profiles);
+			}
+			final Map<String, HourlySeries> profilesArea = profiles.remove(area.toUpperCase());
+			return profilesArea == null ? new HashMap<>() : profilesArea;
+		}
+	}
+
+	private static Map<String, HourlySeries> readDemandProfiles(NameDatabase database,
+			String tableName) throws SQLException {
+		final long startTime = System.currentTimeMillis();
+		final Map<String, HourlySeries> profiles = new HashMap<>();
+		final String sqlQuery = "SELECT * FROM `" + tableName + "`;";
+		try (ConnectionSQL conn = new ConnectionSQL(database)) {
+			conn.setResultSetStreaming(sqlQuery, FETCH_SIZE);
+			final ResultSet resultSet = conn.getResultSet();
+
+			// First column is area, second hourOfYear, the others are the
+			// profile years
+			final ResultSetMetaData metaData = resultSet.getMetaData();
+			final int numberOfColumns = metaData.getColumnCount();
+			final int[] profileYears = new int[numberOfColumns + 1];
+			for (int columnIndex = 3; columnIndex <= numberOfColumns; columnIndex++) {
+				profileYears[columnIndex] = Integer.parseInt(metaData.getColumnName(columnIndex));
+			}
+
+			while (resultSet.next()) {
+				final HourlySeries profile = profiles
+						.computeIfAbsent(resultSet.getString(1).toUpperCase(),
+								key -> new HourlySeries());
+				final int hourOfYear = resultSet.getInt(2);
+				for (int columnIndex = 3; columnIndex <= numberOfColumns; columnIndex++) {
+					profile.set(profileYears[columnIndex], hourOfYear,
+							resultSet.getFloat(columnIndex));
+				}
+			}
+		}
+		logger.debug("Demand profiles of " + profiles.size() + " areas read from " + tableName
+				+ " (" + (System.currentTimeMillis() - startTime) + "ms)");
+		return profiles;
+	}
+
+	private static Map<String, Map<String, HourlySeries>> readRenewableProfiles(
+			NameDatabase database, String tableName) throws SQLException {
+		final long startTime = System.currentTimeMillis();
+		final Map<String, Map<String, HourlySeries>> profiles = new HashMap<>();
+		final String sqlQuery = "SELECT "
+				+ ConnectionSQL.columns("area", "type", "year", "hour_of_year", "value")
+				+ " FROM `" + tableName + "`";
+		try (ConnectionSQL conn = new ConnectionSQL(database)) {
+			conn.query(sqlQuery, resultSet -> {
+				final Map<String, HourlySeries> profilesArea = profiles.computeIfAbsent(
+						resultSet.getString(1).toUpperCase(), key -> new HashMap<>());
+				final HourlySeries profile = profilesArea.computeIfAbsent(
+						resultSet.getString(2).toLowerCase(), key -> new HourlySeries());
+				profile.set(resultSet.getInt(3), resultSet.getInt(4), resultSet.getFloat(5));
+			});
+		}
+		logger.debug("Renewable profiles of " + profiles.size() + " areas read from " + tableName
+				+ " (" + (System.currentTimeMillis() - startTime) + "ms)");
+		return profiles;
+	}
+
+	private ProfileCache() {
+	}
+}
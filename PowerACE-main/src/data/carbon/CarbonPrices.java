@@ -96,24 +96,28 @@ public final class CarbonPrices implements Callable<Void> {
 	private static void loadDailyCO2Prices(String scenario) {
 		// TODO set databasename
 		try (final ConnectionSQL conn = new ConnectionSQL(NameDatabase.NAME_OF_DATABASED)) {
-			final String query = "SELECT * FROM `" + scenario + "` ORDER BY `dayoftheyear`";
-			conn.setResultSet(query);
-
-			for (int year = Date.getStartYear(); year <= Date.getLastYear(); year++) {
-				conn.getResultSet().beforeFirst();
-				// Setting counter
-				int day = 1;
-				// Reading daily CO2 prices
-				while (conn.getResultSet().next()) {
-
-					final float price = conn.getResultSet().getFloat(Integer.toString(year));
+			// Select only the needed years and read all years at once
+			final int startYear = Date.getStartYear();
+			final String[] columns = new String[(Date.getLastYear() - startYear) + 1];
+			for (int year = startYear; year <= Date.getLastYear(); year++) {
+				columns[year - startYear] = Integer.toString(year);
+			}
+			final String query = "SELECT " + ConnectionSQL.columns(columns) + " FROM `" + scenario
+					+ "` ORDER BY `dayoftheyear`";
+
+			// Setting counter
+			final int[] day = {1};
+			// Reading daily CO2 prices
+			conn.query(query, resultSet -> {
+				for (int year = startYear; year <= Date.getLastYear(); year++) {
+					final float price = resultSet.getFloat((year - startYear) + 1);
 					// SQL returns 0 for null
-					if (!conn.getResultSet().wasNull()) {
-						carbonPricesDaily.put(Date.getKeyDaily(year, day), price);
+					if (!resultSet.wasNull()) {
+						carbonPricesDaily.put(Date.getKeyDaily(year, day[0]), price);
 					}
-					day++;
 				}
-			}
+				day[0]++;
+			});
 		} catch (final SQLException e) {
 			logger.error(e.getMessage(), e);
 		}
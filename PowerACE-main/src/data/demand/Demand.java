@@ -4,23 +4,20 @@ import static simulations.scheduling.Date.HOURS_PER_DAY;
 import static simulations.scheduling.Date.HOURS_PER_YEAR;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.concurrent.Callable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import data.ProfileCache;
 import simulations.MarketArea;
 import simulations.scheduling.Date;
-import tools.database.ConnectionSQL;
 import tools.database.NameDatabase;
 import tools.math.Interpolation;
-import tools.math.Statistics;
+import tools.other.HourlySeries;
 
 /**
  * Reads the demand data from the SQL database. If the DemandSupplierBidder is
@@ -43,14 +40,14 @@ public final class Demand implements Callable<Void> {
 
 	/**
 	 * Contains the total electricity demand excluding grid losses in the form
-	 * <code>{dateKey[year,hourOfYear],{hourlyDemand}}</code>
+	 * <code>[year[hourOfYear]]</code>
 	 */
-	private Map<Integer, Float> demandData = new TreeMap<>();
+	private final HourlySeries demandData = new HourlySeries();
 	private Map<Integer, Float> demandMax = new HashMap<>();
 	private Map<Integer, Float> demandMin = new HashMap<>();
 	private int firstYearAvail;
 	private int firstYearNeeded;
-	private Map<Integer, Map<Integer, Float>> hourlyProfile = new HashMap<>();
+	private final HourlySeries hourlyProfile = new HourlySeries();
 	private int lastYearAvail;
 	private int lastYearNeeded;
 	private final MarketArea marketArea;
@@ -103,15 +100,7 @@ public final class Demand implements Callable<Void> {
 	 */
 	public float getDemandYearlySum(int year) {
 
-		final int startIndex = Date.getKeyHourlyWithHourOfYear(year, 0);
-		final int endIndex = Date.getKeyHourlyWithHourOfYear(year, Date.getLastHourOfYear() - 1);
-
-		final List<Float> yearlyDemand = new ArrayList<>();
-		for (int index = startIndex; index <= endIndex; index++) {
-			yearlyDemand.add(demandData.get(index));
-		}
-
-		return Statistics.calcSum(yearlyDemand);
+		return demandData.sum(year, 0, Date.getLastHourOfYear() - 1);
 	}
 
 	public int getFirstYearDemand() {
@@ -142,7 +131,7 @@ public final class Demand implements Callable<Void> {
 	 * 
 	 */
 	public float getHourlyDemand(int year, int hourOfYear) {
-		return demandData.get(Date.getKeyHourlyWithHourOfYear(year, hourOfYear));
+		return demandData.get(year, hourOfYear);
 	}
 
 	/**
@@ -178,8 +167,8 @@ public final class Demand implements Callable<Void> {
 	 * @return The hourly demand in MWh for the requested range.
 	 * 
 	 */
-	public List<Float> getRangeList(int day, int range) {
-		return getRangeList(day, 0, range - 1);
+	public float[] getRange(int day, int range) {
+		return getRange(day, 0, range - 1);
 	}
 
 	/**
@@ -204,39 +193,10 @@ public final class Demand implements Callable<Void> {
 
 		final float[] demand = new float[Date
 				.getLastHourOfYear(Math.min(year, Date.getLastYear()))];
-
-		for (int hourOfYear = 0; hourOfYear < demand.length; hourOfYear++) {
-			try {
-				final Float value = demandData
-						.get(Date.getKeyHourlyWithHourOfYear(year, hourOfYear));
-				demand[hourOfYear] = value == null ? Float.NaN : value;
-			} catch (final IndexOutOfBoundsException e) {
-				logger.error(e.getMessage(), e);
-				return demand;
-			}
-		}
-
+		demandData.getRange(year, 0, demand, 0, demand.length);
 		return demand;
 	}
 
-	/**
-	 * Returns the electricity demand for the corresponding yearIf the requested
-	 * year is <b>not</b> available, last available year will be used instead.
-	 * 
-	 * @param year
-	 *            in 4-digits form, e.g., 2010
-	 */
-	public List<Float> getYearlyDemandList(int year) {
-		final List<Float> values = new ArrayList<>();
-		year = Math.min(year, Date.getLastYear());
-
-		for (int hourOfDay = 0; hourOfDay < Date.getLastHourOfYear(year); hourOfDay++) {
-			values.add(demandData.get(Date.getKeyHourlyWithHourOfYear(year, hourOfDay)));
-		}
-
-		return values;
-	}
-
 	/**
 	 * Returns the electricity demand for the corresponding year including grid
 	 * losses. If the requested year is <b>not</b> available, last available
@@ -246,35 +206,21 @@ public final class Demand implements Callable<Void> {
 	 * @return map of hourly demand
 	 */
 	public Map<Integer, Float> getYearlyDemandMap(int year) {
-		final Map<Integer, Float> values = new HashMap<>();
 		year = Math.min(year, Date.getLastYear());
-
-		for (int hourOfYear = 0; hourOfYear < Date.getLastHourOfYear(year); hourOfYear++) {
-			values.put(hourOfYear,
-					demandData.get(Date.getKeyHourlyWithHourOfYear(year, hourOfYear)));
-		}
-
-		return values;
+		return demandData.toMap(year, Date.getLastHourOfYear(year));
 	}
 
 	private void calculateDemand() {
 		try {
 
 			for (int year = firstYearAvail; year <= lastYearAvail; year++) {
-				if (!hourlyProfile.containsKey(year)) {
+				if (!hourlyProfile.containsYear(year)) {
 					logger.debug("year: " + year + " in demand Scenario not available!");
 					continue;
 				}
-				for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
-
-					final int dateKey = Date.getKeyHourlyWithHourOfYear(year, hourOfYear);
-
-					final float demand = hourlyProfile.get(year).get(hourOfYear);
-
-					if (!demandData.containsKey(dateKey)) {
-						demandData.put(dateKey, demand);
-					}
-
+				// Profiles are not changed anymore, so they can be shared
+				if (!demandData.containsYear(year)) {
+					demandData.putYear(year, hourlyProfile.getYear(year));
 				}
 			}
 		} catch (final Exception e) {
@@ -286,50 +232,12 @@ public final class Demand implements Callable<Void> {
 	private void findExtrema() {
 
 		for (int year = firstYearNeeded; year <= lastYearNeeded; year++) {
-
-			float maximalYearlyDemand = Float.NEGATIVE_INFINITY;
-			float minimalYearlyDemand = Float.POSITIVE_INFINITY;
-
-			for (int hour = 0; hour < HOURS_PER_YEAR; hour++) {
-				final int dateKey = Date.getKeyHourlyWithHourOfYear(year, hour);
-
-				final Float value = demandData.get(dateKey);
-				// Check if value for current exists after all
-				if (value == null) {
-					continue;
-				}
-
-				if (value > maximalYearlyDemand) {
-					maximalYearlyDemand = value;
-				}
-
-				if (value < minimalYearlyDemand) {
-					minimalYearlyDemand = value;
-				}
-			}
-
-			demandMax.put(year, maximalYearlyDemand);
-			demandMin.put(year, minimalYearlyDemand);
+			// Missing values are skipped
+			demandMax.put(year, demandData.max(year));
+			demandMin.put(year, demandData.min(year));
 		}
 	}
 
-	/**
-	 * Returns the daily electricity demand for the range, starting from
-	 * <code>day</code> at hour 0 and finishing at range. If the requested data
-	 * is <b>not</b> available, the data from the last available year will be
-	 * used instead.
-	 * 
-	 * @param day
-	 *            [1,365]
-	 * @param range
-	 *            length in hours
-	 * @return The hourly demand in MWh for the requested range.
-	 * 
-	 */
-	private float[] getRange(int day, int range) {
-		return getRange(day, 0, range - 1);
-	}
-
 	/**
 	 * Returns the daily electricity demand for the range, starting from
 	 * <code>day</code> at hour 0 and finishing at range. If the requested data
@@ -364,66 +272,12 @@ public final class Demand implements Callable<Void> {
 
 		// Write values for current year
 		final int year = Date.getYear();
-
-		for (int hour = 0; (start + hour) <= lastHourCurrentYear; hour++) {
-			dailyDemand[hour] = demandData.get(Date.getKeyHourlyWithHourOfYear(year, start + hour));
-		}
+		demandData.getRange(year, start, dailyDemand, 0, (lastHourCurrentYear - start) + 1);
 
 		// Write values for next year
 		if (end > HOURS_PER_YEAR) {
-			for (int hour = 0; hour <= (end - HOURS_PER_YEAR); hour++) {
-				dailyDemand[(hour + HOURS_PER_YEAR) - start] = demandData
-						.get(Date.getKeyHourlyWithHourOfYear(year + 1, hour));
-			}
-		}
-
-		return dailyDemand;
-	}
-
-	/**
-	 * Returns the daily electricity demand for the range, starting from
-	 * <code>day</code> at hour 0 and finishing at range. If the requested data
-	 * is <b>not</b> available, the data from the last available year will be
-	 * used instead.
-	 * 
-	 * @param day
-	 *            [1,365]
-	 * @param startHour
-	 * 
-	 * @param endHour
-	 * 
-	 * @return The hourly demand in MWh for the requested range [startHour,
-	 *         endHour].
-	 * 
-	 */
-	private List<Float> getRangeList(int day, int startHour, int endHour) {
-
-		final List<Float> dailyDemand = new ArrayList<>((endHour - startHour) + 1);
-
-		// Hours in year and counting for next year
-		final int start = ((day - 1) * HOURS_PER_DAY) + startHour;
-		final int end = ((day - 1) * HOURS_PER_DAY) + endHour;
-
-		// If data from next year is required different limits are required
-		final int lastHourCurrentYear;
-		if (end > HOURS_PER_YEAR) {
-			lastHourCurrentYear = HOURS_PER_YEAR - 1;
-		} else {
-			lastHourCurrentYear = end;
-		}
-
-		// Write values for current year
-		final int year = Date.getYear();
-		for (int hour = 0; (start + hour) <= lastHourCurrentYear; hour++) {
-			dailyDemand.add(demandData.get(Date.getKeyHourlyWithHourOfYear(year, start + hour)));
-		}
-
-		// Write values for next year
-		if (end > HOURS_PER_YEAR) {
-			for (int hour = 0; hour <= (end - HOURS_PER_YEAR); hour++) {
-				dailyDemand.add(
-						demandData.get(Date.getKeyHourlyWithHourOfYear(year + 1, start + hour)));
-			}
+			demandData.getRange(year + 1, 0, dailyDemand, HOURS_PER_YEAR - start,
+					(end - HOURS_PER_YEAR) + 1);
 		}
 
 		return dailyDemand;
@@ -434,7 +288,7 @@ public final class Demand implements Callable<Void> {
 	 * direction, false in negative.
 	 */
 	private int getYearAvailable(int startYear, boolean add) {
-		if (hourlyProfile.containsKey(startYear)) {
+		if (hourlyProfile.containsYear(startYear)) {
 			return startYear;
 		}
 		if (add) {
@@ -464,8 +318,6 @@ public final class Demand implements Callable<Void> {
 			findExtrema();
 
 			// Make sure no changes are made!
-			demandData = Collections.unmodifiableMap(demandData);
-			demandData = Collections.unmodifiableMap(demandData);
 			demandMax = Collections.unmodifiableMap(demandMax);
 			demandMin = Collections.unmodifiableMap(demandMin);
 		} catch (final Exception e) {
@@ -473,39 +325,39 @@ public final class Demand implements Callable<Void> {
 		}
 	}
 
-	private Map<Integer, Float> interpolateHourlyProfile(int year) {
-		firstYearAvail = Collections.min(hourlyProfile.keySet());
-		lastYearAvail = Collections.max(hourlyProfile.keySet());
+	private float[] interpolateHourlyProfile(int year) {
+		firstYearAvail = hourlyProfile.getFirstYear();
+		lastYearAvail = hourlyProfile.getLastYear();
 		// Use first available data or just one value is available
 		if ((year < firstYearAvail) || (firstYearAvail == lastYearAvail)) {
-			return hourlyProfile.get(firstYearAvail);
+			return hourlyProfile.getYear(firstYearAvail);
 		}
 		if (year > lastYearAvail) {
-			return hourlyProfile.get(lastYearAvail);
+			return hourlyProfile.getYear(lastYearAvail);
 		}
 		// Linear Interpolate the hours
 		final int yearSecondPoint = getYearAvailable(year, true);
 		final int yearFirstPoint = getYearAvailable(yearSecondPoint - 1, false);
-		final Map<Integer, Float> valueMap = new HashMap<>();
+		final float[] values = new float[Date.HOURS_PER_YEAR];
 		for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
-			final float capacitySecondPoint = hourlyProfile.get(yearSecondPoint).get(hourOfYear);
+			final float capacitySecondPoint = hourlyProfile.get(yearSecondPoint, hourOfYear);
 
 			// Point(x1,y1)
-			final float capacityFirstPoint = hourlyProfile.get(yearFirstPoint).get(hourOfYear);
-			valueMap.put(hourOfYear, Interpolation.linear(yearFirstPoint, yearSecondPoint,
-					capacityFirstPoint, capacitySecondPoint, year));
+			final float capacityFirstPoint = hourlyProfile.get(yearFirstPoint, hourOfYear);
+			values[hourOfYear] = Interpolation.linear(yearFirstPoint, yearSecondPoint,
+					capacityFirstPoint, capacitySecondPoint, year);
 		}
-		return valueMap;
+		return values;
 	}
 
 	private void interpolateProfileData() {
 
 		for (int year = Date.getStartYear(); year <= Date.getLastDetailedForecastYear(); year++) {
 
-			if (hourlyProfile.containsKey(year)) {
+			if (hourlyProfile.containsYear(year)) {
 				continue;
 			}
-			hourlyProfile.put(year, interpolateHourlyProfile(year));
+			hourlyProfile.putYear(year, interpolateHourlyProfile(year));
 		}
 	}
 
@@ -514,32 +366,14 @@ public final class Demand implements Callable<Void> {
 	 * @throws SQLException
 	 */
 	private void readProfileData() throws SQLException {
-		final String columnHourOfYear = "hour_of_year";
+		// Profiles of all market areas are read at once
 		final String tableName = marketArea.getTotalDemandScenario();
-		final String sqlQuery = "SELECT FROM `" + tableName + "` AND `area` LIKE '"
-				+ marketArea.getInitials() + "' ORDER BY `" + columnHourOfYear + "`;";
-		try (ConnectionSQL conn = new ConnectionSQL(databaseName)) {
-			conn.setResultSet(sqlQuery);
-
-			// Check number of available profile years by counting columns
-			// of result set (first column of table is for the hour of year)
-			final int numberOfColumns = conn.getResultSetMetaData().getColumnCount();
-			// First Column is area, second hourOfYear, so start with third
-			// column
-			for (int columnIndex = 3; columnIndex <= numberOfColumns; columnIndex++) {
-				final Integer profileYear = Integer
-						.parseInt(conn.getResultSetMetaData().getColumnName(columnIndex));
-				if (!hourlyProfile.containsKey(profileYear)) {
-					hourlyProfile.put(profileYear, new HashMap<>());
-				}
-				// Read values from database
-				while (conn.getResultSet().next()) {
-					final int hourOfYear = conn.getResultSet().getInt(columnHourOfYear);
-					final float value = conn.getResultSet().getFloat(profileYear.toString());
-					hourlyProfile.get(profileYear).put(hourOfYear, value);
-				}
-				// Reset cursor
-				conn.getResultSet().beforeFirst();
+		final HourlySeries profile = ProfileCache.takeDemandProfile(databaseName, tableName,
+				marketArea.getInitials());
+		for (int profileYear = profile.getFirstYear(); profileYear <= profile
+				.getLastYear(); profileYear++) {
+			if (profile.containsYear(profileYear)) {
+				hourlyProfile.putYear(profileYear, profile.getYear(profileYear));
 			}
 		}
 	}
@@ -556,15 +390,7 @@ public final class Demand implements Callable<Void> {
 				valuesMissingStart = true;
 			}
 
-			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
-
-				final int keyAvailable = Date.getKeyHourlyWithHourOfYear(firstYearAvail,
-						hourOfYear);
-				final int keyNeeded = Date.getKeyHourlyWithHourOfYear(year, hourOfYear);
-
-				demandData.put(keyNeeded, demandData.get(keyAvailable));
-				demandData.put(keyNeeded, demandData.get(keyAvailable));
-			}
+			demandData.putYear(year, demandData.getYear(firstYearAvail));
 		}
 
 		boolean valuesMissingEnd = false;
@@ -577,13 +403,7 @@ public final class Demand implements Callable<Void> {
 				valuesMissingEnd = true;
 			}
 
-			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
-				final int keyAvailable = Date.getKeyHourlyWithHourOfYear(lastYearAvail, hourOfYear);
-				final int keyNeeded = Date.getKeyHourlyWithHourOfYear(year, hourOfYear);
-
-				demandData.put(keyNeeded, demandData.get(keyAvailable));
-				demandData.put(keyNeeded, demandData.get(keyAvailable));
-			}
+			demandData.putYear(year, demandData.getYear(lastYearAvail));
 		}
 	}
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,9 +35,47 @@ import tools.types.InterconnectionScenario;
  */
 public class Capacities {
 
+	/**
+	 * Interconnection capacities of one year with the seasonal values already
+	 * resolved. Market areas are indexed by their market coupling id - 1, so
+	 * that the capacity of an interconnector is found via array access.
+	 */
+	private static final class CapacitiesYear {
+
+		/**
+		 * Hourly capacities of the interconnectors with hourly data, otherwise
+		 * <code>null</code> [fromIndex * numberOfMarketAreas + toIndex][hourOfYear]
+		 */
+		private final float[][] capacitiesHourly;
+		/** Capacities [season][fromIndex * numberOfMarketAreas + toIndex] */
+		private final float[][] capacitiesSeason;
+		private final int numberOfMarketAreas;
+
+		private CapacitiesYear(int numberOfMarketAreas) {
+			this.numberOfMarketAreas = numberOfMarketAreas;
+			capacitiesHourly = new float[numberOfMarketAreas * numberOfMarketAreas][];
+			capacitiesSeason = new float[SeasonNTC.values().length][numberOfMarketAreas
+					* numberOfMarketAreas];
+		}
+
+		/** See {@link Interconnector#getCapacity(int, int)} */
+		private float getCapacity(int fromIndex, int toIndex, int hourOfYear) {
+			final int index = (fromIndex * numberOfMarketAreas) + toIndex;
+			final float[] capacityHourly = capacitiesHourly[index];
+			if ((capacityHourly != null) && (hourOfYear < capacityHourly.length)
+					&& !Float.isNaN(capacityHourly[hourOfYear])) {
+				return capacityHourly[hourOfYear];
+			}
+			return capacitiesSeason[SeasonNTC.getSeason(hourOfYear).ordinal()][index];
+		}
+	}
+
 	/** Instance of logger */
 	private static final Logger logger = LoggerFactory.getLogger(Capacities.class.getName());
 
+	/** Interconnection capacities of each year, created on first request */
+	private final Map<Integer, CapacitiesYear> capacitiesYearly = new ConcurrentHashMap<>();
+
 	/**
 	 * Hourly availability of interconnectors for current year (for all
 	 * deterministic runs full availability is assumed; adjusted for each Monte
@@ -53,6 +92,37 @@ public class Capacities {
 	private final List<InterconnectorBidirectional> interconnectorsBidirectional = new ArrayList<>();
 	/** Interconnectors mapped to market areas */
 	private final Map<MarketArea, Map<MarketArea, Interconnector>> interconnectorsMappedtoMarketAreas = new LinkedHashMap<>();
+	/** Number of market areas in market coupling */
+	private int numberOfMarketAreas;
+
+	/**
+	 * Resolve the capacities of all interconnectors for the specified year
+	 */
+	private CapacitiesYear createCapacitiesYear(int year) {
+		final CapacitiesYear capacitiesYear = new CapacitiesYear(numberOfMarketAreas);
+		for (final Interconnector interconnector : interconnectors) {
+			final int fromIndex = getIndex(interconnector.getFromMarketArea());
+			final int toIndex = getIndex(interconnector.getToMarketArea());
+			if ((fromIndex < 0) || (toIndex < 0)) {
+				continue;
+			}
+			final int index = (fromIndex * numberOfMarketAreas) + toIndex;
+			for (final SeasonNTC season : SeasonNTC.values()) {
+				capacitiesYear.capacitiesSeason[season.ordinal()][index] = interconnector
+						.getCapacitySeason(year, season);
+			}
+			final List<Double> valuesHourly = interconnector.getCapacityHourly(year);
+			if (valuesHourly != null) {
+				final float[] capacityHourly = new float[valuesHourly.size()];
+				for (int hourOfYear = 0; hourOfYear < capacityHourly.length; hourOfYear++) {
+					final Double value = valuesHourly.get(hourOfYear);
+					capacityHourly[hourOfYear] = value == null ? Float.NaN : value.floatValue();
+				}
+				capacitiesYear.capacitiesHourly[index] = capacityHourly;
+			}
+		}
+		return capacitiesYear;
+	}
 
 	/** Create bi-directional interconnectors */
 	private void createInterconnectorsBidirectional() {
@@ -67,6 +137,11 @@ public class Capacities {
 		}
 	}
 
+	/** Get capacities of the specified year, resolved on first request */
+	private CapacitiesYear getCapacitiesYear(int year) {
+		return capacitiesYearly.computeIfAbsent(year, this::createCapacitiesYear);
+	}
+
 	/**
 	 * Get the total export capacity for the specified market area and hourOfDay
 	 * in the current year.
@@ -77,14 +152,14 @@ public class Capacities {
 
 		double exportCapacity = 0;
 		// In case of just one Market area
-		if (interconnectorsMappedtoMarketAreas.isEmpty()) {
+		final int fromIndex = getIndex(fromMarketArea);
+		if (interconnectorsMappedtoMarketAreas.isEmpty() || (fromIndex < 0)) {
 			return exportCapacity;
 		}
-		for (final MarketArea toMarketArea : interconnectorsMappedtoMarketAreas.get(fromMarketArea)
-				.keySet()) {
-			if (!fromMarketArea.equals(toMarketArea)) {
-				exportCapacity += getInterconnectionCapacityHour(fromMarketArea, toMarketArea, year,
-						hourOfYear);
+		final CapacitiesYear capacitiesYear = getCapacitiesYear(year);
+		for (int toIndex = 0; toIndex < numberOfMarketAreas; toIndex++) {
+			if (toIndex != fromIndex) {
+				exportCapacity += capacitiesYear.getCapacity(fromIndex, toIndex, hourOfYear);
 			}
 		}
 		return exportCapacity;
@@ -125,16 +200,14 @@ public class Capacities {
 
 		double importCapacity = 0;
 		// In case of just one MarketArea and no interconnectors
-		if (interconnectorsMappedtoMarketAreas.isEmpty()) {
+		final int toIndex = getIndex(toMarketArea);
+		if (interconnectorsMappedtoMarketAreas.isEmpty() || (toIndex < 0)) {
 			return importCapacity;
 		}
-		for (final MarketArea fromMarketArea : interconnectorsMappedtoMarketAreas.keySet()) {
-			if (!interconnectorsMappedtoMarketAreas.get(fromMarketArea).containsKey(toMarketArea)) {
-				continue;
-			}
-			if (!toMarketArea.equals(fromMarketArea)) {
-				importCapacity += getInterconnectionCapacityHour(fromMarketArea, toMarketArea, year,
-						hourOfYear);
+		final CapacitiesYear capacitiesYear = getCapacitiesYear(year);
+		for (int fromIndex = 0; fromIndex < numberOfMarketAreas; fromIndex++) {
+			if (fromIndex != toIndex) {
+				importCapacity += capacitiesYear.getCapacity(fromIndex, toIndex, hourOfYear);
 			}
 		}
 		return importCapacity;
@@ -146,6 +219,12 @@ public class Capacities {
 	 */
 	public float getInterconnectionCapacityHour(MarketArea fromMarketArea, MarketArea toMarketArea,
 			int year, int hourOfYear) {
+		final int fromIndex = getIndex(fromMarketArea);
+		final int toIndex = getIndex(toMarketArea);
+		if ((fromIndex >= 0) && (toIndex >= 0)) {
+			return getCapacitiesYear(year).getCapacity(fromIndex, toIndex, hourOfYear);
+		}
+		// Market area is not part of market coupling
 		if (interconnectorsMappedtoMarketAreas.get(fromMarketArea).containsKey(toMarketArea)) {
 			return interconnectorsMappedtoMarketAreas.get(fromMarketArea).get(toMarketArea)
 					.getCapacity(year, hourOfYear);
@@ -173,6 +252,15 @@ public class Capacities {
 		return values;
 	}
 
+	/**
+	 * Index of the market area in the capacity matrices or -1 if market area is
+	 * not part of market coupling
+	 */
+	private int getIndex(MarketArea marketArea) {
+		final int index = marketArea.getIdMarketCoupling() - 1;
+		return index < numberOfMarketAreas ? index : -1;
+	}
+
 	/** Get interconnector */
 	private Interconnector getInterconnector(MarketArea fromMarketArea, MarketArea toMarketArea) {
 
@@ -297,6 +385,8 @@ public class Capacities {
 			PowerMarkets model) {
 		logger.info("Load interconnector capacities");
 
+		numberOfMarketAreas = marketCouplingOperator.getMarketAreas().size();
+		capacitiesYearly.clear();
 		try {
 			/* Load yearly interconnector values */
 			loadInterconnectionDataYearly(model, marketCouplingOperator);
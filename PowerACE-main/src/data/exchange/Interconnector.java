@@ -102,7 +102,7 @@ public class Interconnector {
 				2160);
 
 		/** Get season of specified hour of year */
-		private static SeasonNTC getSeason(int hourOfYear) {
+		static SeasonNTC getSeason(int hourOfYear) {
 			if ((hourOfYear >= SUMMER.hourOfYearStart) && (hourOfYear <= SUMMER.hourOfYearEnd)) {
 				return SUMMER;
 			} else {
@@ -305,4 +305,12 @@ public class Interconnector {
 		// Get seasonal capacity
 		return getCapacitySeason(year, hourOfYear);
 	}
+
+	/**
+	 * Get hourly interconnection capacities of the specified year or
+	 * <code>null</code> if only seasonal values are available
+	 */
+	protected List<Double> getCapacityHourly(int year) {
+		return interconnectionCapacityHourly.get(year);
+	}
 }
@@ -1,6 +1,8 @@
 package data.fuel;
 
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -44,9 +46,10 @@ public final class FuelPrices implements Callable<Void> {
 	private Map<FuelName, Float> fuelPricesToday;
 	/**
 	 * Contains the yearly fuel prices in Euro/MWh for each fuel from
-	 * {@link FuelName}.
+	 * {@link FuelName} [year - firstYearNeeded], <code>NaN</code> if not
+	 * available.
 	 */
-	private Map<FuelName, Map<Integer, Float>> fuelPricesYearly;
+	private Map<FuelName, float[]> fuelPricesYearly;
 	/**
 	 * Contains the avg yearly fuel prices in Euro/MWh for each fuel from
 	 * {@link FuelName}.
@@ -97,6 +100,18 @@ public final class FuelPrices implements Callable<Void> {
 		return new HashMap<>(fuelPricesDaily);
 	}
 
+	/**
+	 * @return yearly price or <code>NaN</code> if not available
+	 */
+	private float getPriceYearly(FuelName fuel, int year) {
+		final float[] prices = fuelPricesYearly.get(fuel);
+		final int index = year - firstYearNeeded;
+		if ((prices == null) || (index < 0) || (index >= prices.length)) {
+			return Float.NaN;
+		}
+		return prices[index];
+	}
+
 	/**
 	 * Returns the fuel price of a specific fuel, day and year. Uses daily
 	 * prices for coal, oil and gas, yearly prices elsewise.
@@ -108,9 +123,9 @@ public final class FuelPrices implements Callable<Void> {
 	 * @param day
 	 *            in day of the year format, e.g. 1-365
 	 */
-	public Float getPricesDaily(FuelName fuel, int year, int day) {
+	public float getPricesDaily(FuelName fuel, int year, int day) {
 
-		Float price;
+		float price;
 
 		FuelName requestedFuel;
 		switch (fuel) {
@@ -157,7 +172,7 @@ public final class FuelPrices implements Callable<Void> {
 	 * @param day
 	 *            in day of the year format, e.g. 1-365
 	 */
-	public Float getPricesDaily(FuelName fuel, int day) {
+	public float getPricesDaily(FuelName fuel, int day) {
 		return getPricesDaily(fuel, Date.getYear(), day);
 	}
 
@@ -182,14 +197,14 @@ public final class FuelPrices implements Callable<Void> {
 	/**
 	 * Return the fuel price of the current year.
 	 */
-	public Float getPricesYearly(FuelName fuel) {
+	public float getPricesYearly(FuelName fuel) {
 		return getPricesYearly(fuel, Date.getYear());
 	}
 
 	/**
 	 * Return the fuel price of the requested year.
 	 */
-	public Float getPricesYearly(FuelName fuel, int year) {
+	public float getPricesYearly(FuelName fuel, int year) {
 		if (fuel == FuelName.CLEAN_COAL) {
 			fuel = FuelName.COAL;
 		}
@@ -223,13 +238,11 @@ public final class FuelPrices implements Callable<Void> {
 		if (fuel.isRenewableType()) {
 			return 0f;
 		}
-		if (!fuelPricesYearly.get(fuel).containsKey(year)) {
-			return 0f;
-		}
-		if (fuelPricesYearly.get(fuel).get(year) == null) {
+		final float price = getPriceYearly(fuel, year);
+		if (Float.isNaN(price)) {
 			return 0f;
 		}
-		return fuelPricesYearly.get(fuel).get(year);
+		return price;
 	}
 
 	/**
@@ -256,7 +269,8 @@ public final class FuelPrices implements Callable<Void> {
 				&& fuelPricesYearlyAvg.get(fuel).containsKey(year)) {
 			return fuelPricesYearlyAvg.get(fuel).get(year);
 		}
-		return fuelPricesYearly.get(fuel).get(year);
+		final float price = getPriceYearly(fuel, year);
+		return Float.isNaN(price) ? null : price;
 	}
 
 	/** loads FuelPriceScenario */
@@ -291,9 +305,11 @@ public final class FuelPrices implements Callable<Void> {
 	private void loadYearlyPrices() {
 
 		// Initialize Prices
-		fuelPricesYearly = new HashMap<>(FuelName.values().length);
+		fuelPricesYearly = new EnumMap<>(FuelName.class);
 		for (final FuelName fuelName : FuelName.values()) {
-			fuelPricesYearly.put(fuelName, new HashMap<>());
+			final float[] prices = new float[(lastYearNeeded - firstYearNeeded) + 1];
+			Arrays.fill(prices, Float.NaN);
+			fuelPricesYearly.put(fuelName, prices);
 		}
 
 		try {
@@ -301,25 +317,29 @@ public final class FuelPrices implements Callable<Void> {
 			// Connection to Database
 
 			final String tableName = marketArea.getFuelPriceScenario();
+			// Select only number of fuel and needed years
+			final String[] columns = new String[(lastAvailYearScenarioYearly
+					- firstAvailYearScenarioYearly) + 2];
+			columns[0] = "Nr";
+			for (int year = firstAvailYearScenarioYearly; year <= lastAvailYearScenarioYearly; year++) {
+				columns[(year - firstAvailYearScenarioYearly) + 1] = Integer.toString(year);
+			}
+			final String query = "SELECT " + ConnectionSQL.columns(columns) + " FROM `" + tableName
+					+ "`";
 			// TODO set database name
-			final ConnectionSQL conn = new ConnectionSQL(NameDatabase.NAME_OF_DATABASED);
-			final String query = "SELECT * FROM  `" + tableName + "`";
-			conn.setResultSet(query);
-
-			// each fuel
-			while (conn.getResultSet().next()) {
-
-				final FuelName fuel = FuelName.getFuelName(conn.getResultSet().getInt("Nr"));
-
-				for (int year = firstAvailYearScenarioYearly; year <= lastAvailYearScenarioYearly; year++) {
-					final Float price = conn.getResultSet().getFloat(year);
-					fuelPricesYearly.get(fuel).put(year, price);
-				}
-
+			try (ConnectionSQL conn = new ConnectionSQL(NameDatabase.NAME_OF_DATABASED)) {
+				// each fuel
+				conn.query(query, resultSet -> {
+					final float[] prices = fuelPricesYearly
+							.get(FuelName.getFuelName(resultSet.getInt(1)));
+
+					for (int year = firstAvailYearScenarioYearly; year <= lastAvailYearScenarioYearly; year++) {
+						prices[year - firstYearNeeded] = resultSet
+								.getFloat((year - firstAvailYearScenarioYearly) + 2);
+					}
+				});
 			}
 
-			conn.close();
-
 		} catch (final SQLException e) {
 			logger.error(e.getMessage(), e);
 		}
@@ -338,12 +358,9 @@ public final class FuelPrices implements Callable<Void> {
 				valuesMissingStart = true;
 			}
 
-			for (final FuelName fuelName : fuelPricesYearly.keySet()) {
-				if (fuelPricesYearly.isEmpty()) {
-					continue;
-				}
-				fuelPricesYearly.get(fuelName).put(year,
-						fuelPricesYearly.get(fuelName).get(firstAvailYearScenarioYearly));
+			for (final float[] prices : fuelPricesYearly.values()) {
+				prices[year - firstYearNeeded] = prices[firstAvailYearScenarioYearly
+						- firstYearNeeded];
 			}
 
 		}
@@ -358,12 +375,9 @@ public final class FuelPrices implements Callable<Void> {
 				valuesMissingEnd = true;
 			}
 
-			for (final FuelName fuelName : fuelPricesYearly.keySet()) {
-				if (fuelPricesYearly.isEmpty()) {
-					continue;
-				}
-				fuelPricesYearly.get(fuelName).put(year,
-						fuelPricesYearly.get(fuelName).get(lastAvailYearScenarioYearly));
+			for (final float[] prices : fuelPricesYearly.values()) {
+				prices[year - firstYearNeeded] = prices[lastAvailYearScenarioYearly
+						- firstYearNeeded];
 			}
 		}
 
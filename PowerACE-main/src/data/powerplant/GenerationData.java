@@ -91,6 +91,12 @@ public final class GenerationData extends Agent implements Callable<Void> {
 
 	/** List of all available power plants */
 	private List<CostCap> actualUnits = new ArrayList<>();
+	/**
+	 * Actual units prepared in advance for the day with the key
+	 * {@link #actualUnitsPreparedKey}, see {@link #prepareActualUnits()}
+	 */
+	private volatile List<CostCap> actualUnitsPrepared;
+	private volatile int actualUnitsPreparedKey;
 	/** List of all capacity options */
 	private List<PlantOption> capacityOptionsAll = new ArrayList<>();
 	/** Map of capacity options grouped by year of availability */
@@ -152,6 +158,29 @@ public final class GenerationData extends Agent implements Callable<Void> {
 		return null;
 	}
 
+	/**
+	 * Compare the actual units prepared in advance with the actual units
+	 * calculated sequentially and log deviations.
+	 */
+	private void checkActualUnitsPrepared(List<CostCap> prepared, List<CostCap> sequential) {
+		boolean identical = prepared.size() == sequential.size();
+		for (int index = 0; identical && (index < prepared.size()); index++) {
+			final CostCap unitPrepared = prepared.get(index);
+			final CostCap unitSequential = sequential.get(index);
+			identical = (unitPrepared.getUnitID() == unitSequential.getUnitID())
+					&& (Float.compare(unitPrepared.getCostsVar(), unitSequential.getCostsVar()) == 0)
+					&& (Float.compare(unitPrepared.getNetCapacity(),
+							unitSequential.getNetCapacity()) == 0)
+					&& (Float.compare(unitPrepared.getCumulatedNetCapacity(),
+							unitSequential.getCumulatedNetCapacity()) == 0);
+		}
+		if (!identical) {
+			logger.error("Actual units prepared in advance differ from sequential calculation in "
+					+ marketArea.getInitials() + " (y" + Date.getYear() + "_d"
+					+ Date.getDayOfYear() + ")");
+		}
+	}
+
 	private void checkCapacityOptionInitialization(int year) {
 		if (!capacityOptionsByYear.containsKey(year)) {
 			setCapacityOptionsByYear(year);
@@ -768,9 +797,34 @@ public final class GenerationData extends Agent implements Callable<Void> {
 	 * @param day
 	 */
 	public void setActualUnits(int day) {
+		final List<CostCap> prepared = actualUnitsPrepared;
+		actualUnitsPrepared = null;
+		if ((prepared != null) && (actualUnitsPreparedKey == Date.getKeyDaily(day))) {
+			actualUnits = prepared;
+			if (Settings.isPipelinedStepsCheck()) {
+				checkActualUnitsPrepared(prepared, calculateActualUnits());
+			}
+		} else {
+			actualUnits = calculateActualUnits();
+		}
+	}
+
+	/**
+	 * Calculate the actual units for the current date in advance, so that
+	 * {@link #setActualUnits(int)} only has to take them over. Called with the
+	 * date of the next day while the markets of the current day are cleared.
+	 */
+	public void prepareActualUnits() {
+		actualUnitsPrepared = null;
+		final List<CostCap> prepared = calculateActualUnits();
+		actualUnitsPreparedKey = Date.getKeyDaily();
+		actualUnitsPrepared = prepared;
+	}
+
+	private List<CostCap> calculateActualUnits() {
 
 		final int year = Date.getYear();
-		actualUnits = new ArrayList<>();
+		final List<CostCap> units = new ArrayList<>();
 
 		for (final CostCap meritOrderUnitOrg : meritOrderUnitsByYear.get(year)) {
 			final CostCap meritOrderUnit = new CostCap(meritOrderUnitOrg);
@@ -783,15 +837,16 @@ public final class GenerationData extends Agent implements Callable<Void> {
 			}
 			// other fuels
 
-			actualUnits.add(meritOrderUnit);
+			units.add(meritOrderUnit);
 		}
 
 		// Sort units
-		Collections.sort(actualUnits);
+		Collections.sort(units);
 
 		// Cumulate net capacity
-		setCumulatedNetCapacity(actualUnits);
+		setCumulatedNetCapacity(units);
 
+		return units;
 	}
 
 	/** Set capacity options for specified <code>year</code> */
@@ -81,53 +81,44 @@ public final class OperationMaintenanceCost implements Callable<Void> {
 		loadCostsVar();
 	}
 
-	private void loadCostsFixed() {
+	/** Loads the costs of each power plant category for the scenario */
+	private Map<Type, Float> loadCosts(String scenario) {
 
-		fixedCosts = new HashMap<>(Type.values().length);
+		final Map<Type, Float> costs = new HashMap<>(Type.values().length);
 
 		// TODO set table name
 		final String tableName = NameTable.EXAMPLE.getTableName();
 		// TODO Set database name
 		final NameDatabase nameDatabase = NameDatabase.NAME_OF_DATABASED;
 
+		// Select one column for each power plant category
+		final Type[] powerPlantCategories = Type.values();
+		final String[] columns = new String[powerPlantCategories.length];
+		for (int index = 0; index < powerPlantCategories.length; index++) {
+			columns[index] = powerPlantCategories[index].toString();
+		}
+		final String sqlQuery = "SELECT " + ConnectionSQL.columns(columns) + " FROM `"
+				+ tableName + "` WHERE `scenario`=?";
+
 		try (ConnectionSQL connector = new ConnectionSQL(nameDatabase)) {
-			final String sqlQuery = "SELECT * FROM `" + tableName + "` WHERE `scenario`='"
-					+ Settings.getOperationMaintenanceScenarioFixed() + "'";
-			connector.setResultSet(sqlQuery);
-			connector.getResultSet().next();
-
-			for (final Type powerPlantCategory : Type.values()) {
-				// set fixed costs
-				fixedCosts.put(powerPlantCategory,
-						connector.getResultSet().getFloat(powerPlantCategory.toString()));
-			}
+			connector.query(sqlQuery, resultSet -> {
+				// Only first row of the scenario is used
+				for (int index = 0; index < powerPlantCategories.length; index++) {
+					costs.putIfAbsent(powerPlantCategories[index], resultSet.getFloat(index + 1));
+				}
+			}, scenario);
 		} catch (final SQLException e) {
 			logger.error("SQLException", e);
 		}
+		return costs;
 	}
 
-	private void loadCostsVar() {
-
-		varCosts = new HashMap<>(Type.values().length);
+	private void loadCostsFixed() {
+		fixedCosts = loadCosts(Settings.getOperationMaintenanceScenarioFixed());
+	}
 
-		// TODO set table name
-		final String tableName = NameTable.EXAMPLE.getTableName();
-		// TODO Set database name
-		final NameDatabase nameDatabase = NameDatabase.NAME_OF_DATABASED;
-		try (ConnectionSQL connector = new ConnectionSQL(nameDatabase)) {
-			final String sqlQuery = "SELECT * FROM `" + tableName + "` WHERE `scenario`='"
-					+ Settings.getOperationMaintenanceScenarioVar() + "'";
-			connector.setResultSet(sqlQuery);
-			connector.getResultSet().next();
-
-			for (final Type powerPlantCategory : Type.values()) {
-				// set fixed costs
-				varCosts.put(powerPlantCategory,
-						connector.getResultSet().getFloat(powerPlantCategory.toString()));
-			}
-		} catch (final SQLException e) {
-			logger.error("SQLException", e);
-		}
+	private void loadCostsVar() {
+		varCosts = loadCosts(Settings.getOperationMaintenanceScenarioVar());
 	}
 
 }
\ No newline at end of file
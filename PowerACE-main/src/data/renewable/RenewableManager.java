@@ -1,22 +1,24 @@
 package data.renewable;
 
 import static simulations.scheduling.Date.HOURS_PER_YEAR;
+import java.nio.FloatBuffer;
 
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import data.ProfileCache;
 import simulations.MarketArea;
 import simulations.initialization.Settings;
 import simulations.scheduling.Date;
@@ -24,6 +26,7 @@ import tools.database.ConnectionSQL;
 import tools.database.NameDatabase;
 import tools.math.Interpolation;
 import tools.math.Statistics;
+import tools.other.HourlySeries;
 import tools.types.FuelName;
 
 /**
@@ -47,7 +50,7 @@ public final class RenewableManager implements Callable<Void> {
 	private final MarketArea marketArea;
 	// TODO set Database name
 	private final NameDatabase nameDatabase = NameDatabase.NAME_OF_DATABASED;
-	private Map<Integer, Map<Integer, Float>> remainingSystemLoad;
+	private HourlySeries remainingSystemLoad;
 	/**
 	 * Renewable capacity in MW for each technology and year.
 	 */
@@ -57,8 +60,8 @@ public final class RenewableManager implements Callable<Void> {
 	 * The hourly load for each hour of the year [MWh] based on the load
 	 * profiles (not actual feed-in!)
 	 */
-	private Map<FuelName, Map<Integer, Map<Integer, Float>>> renewableLoad = new HashMap<>();
-	private final Map<Integer, Float> renewableLoadHourlyTotal = new TreeMap<>();
+	private Map<FuelName, HourlySeries> renewableLoad = new HashMap<>();
+	private final HourlySeries renewableLoadHourlyTotal = new HourlySeries();
 	/**
 	 * The generation profile for each hour of the year normalized by the total
 	 * energy produced [MWh/MWh]. If only one yearly profile is available the
@@ -101,16 +104,17 @@ public final class RenewableManager implements Callable<Void> {
 
 	/** Calculates the load to be covered by non-res plants */
 	public void calculateRemainingSystemLoad() {
-		remainingSystemLoad = new HashMap<>();
+		remainingSystemLoad = new HourlySeries();
 		for (int year = Date.getStartYear(); year < Date.getLastDetailedForecastYear(); year++) {
-			remainingSystemLoad.put(year, new HashMap<>());
+			final float[] remainingLoad = new float[Date.HOURS_PER_YEAR];
 
 			for (int hour = 0; hour < Date.HOURS_PER_YEAR; hour++) {
 				final float totalRenewable = getTotalRenewableLoad(year, hour);
 				final float totalDemand = marketArea.getDemandData().getHourlyDemand(year, hour);
 
-				remainingSystemLoad.get(year).put(hour, totalDemand - totalRenewable);
+				remainingLoad[hour] = totalDemand - totalRenewable;
 			}
+			remainingSystemLoad.putYear(year, remainingLoad);
 		}
 	}
 
@@ -120,14 +124,14 @@ public final class RenewableManager implements Callable<Void> {
 	public void calculateRenewableLoad() {
 		for (final FuelName type : renewableTypes) {
 			for (int year = startYear; year <= endYear; year++) {
-				if (renewableLoad.get(type).containsKey(year)) {
+				if (renewableLoad.get(type).containsYear(year)) {
 					continue;
 				}
-				renewableLoad.get(type).put(year, new HashMap<>());
+				final float[] values = new float[HOURS_PER_YEAR];
 				for (int hourOfYear = 0; hourOfYear < HOURS_PER_YEAR; hourOfYear++) {
-					renewableLoad.get(type).get(year).put(hourOfYear,
-							getRenewableLoadUtilisationBased(type, year, hourOfYear));
+					values[hourOfYear] = getRenewableLoadUtilisationBased(type, year, hourOfYear);
 				}
+				renewableLoad.get(type).putYear(year, values);
 			}
 		}
 	}
@@ -135,18 +139,17 @@ public final class RenewableManager implements Callable<Void> {
 	/** Calculate total renewable load for each hour of simulation */
 	public void calculateRenewableLoadHourlyTotalNew() throws Exception {
 		for (int year = startYear; year <= endYear; year++) {
-
-			for (int hour = 0; hour < HOURS_PER_YEAR; hour++) {
-				float value = 0f;
-				for (final FuelName type : renewableTypes) {
-					if ((renewableLoad.get(type).get(year).get(hour) == Float.NaN)
-							|| (renewableLoad.get(type).get(year).get(hour) == null)) {
+			final float[] values = new float[HOURS_PER_YEAR];
+			for (final FuelName type : renewableTypes) {
+				final float[] valuesType = renewableLoad.get(type).getYear(year);
+				for (int hour = 0; hour < HOURS_PER_YEAR; hour++) {
+					if (Float.isNaN(valuesType[hour])) {
 						logger.error("Not a number. Problems while reading renewable values");
 					}
-					value += renewableLoad.get(type).get(year).get(hour);
+					values[hour] += valuesType[hour];
 				}
-				renewableLoadHourlyTotal.put(Date.getKeyHourlyWithHourOfYear(year, hour), value);
 			}
+			renewableLoadHourlyTotal.putYear(year, values);
 		}
 	}
 
@@ -156,27 +159,33 @@ public final class RenewableManager implements Callable<Void> {
 		return null;
 	}
 
-	private boolean checkSize(Map<Integer, Float> values) {
-		if (values.entrySet().size() == Date.HOURS_PER_YEAR) {
+	private boolean checkSize(HourlySeries values, int year) {
+		if (values.getNumberOfValues(year) == Date.HOURS_PER_YEAR) {
 			return true;
 		}
 		return false;
 	}
 
-	public Map<Integer, Float> getRemainingLoad(int year) {
-		return remainingSystemLoad.get(year);
+	/** Read-only view of the remaining load of the year [hourOfYear] */
+	public FloatBuffer getRemainingLoad(int year) {
+		return remainingSystemLoad.getYearView(year);
+	}
+
+	public float getRemainingLoad(int year, int hourOfYear) {
+		return remainingSystemLoad.get(year, hourOfYear);
 	}
 
 	public Float getRemainingLoadMax(int year) {
-		return Collections.max(remainingSystemLoad.get(year).values());
+		return remainingSystemLoad.max(year);
 	}
 
-	public Map<Integer, Float> getRemainingSystemLoad() {
+	/** Read-only view of the remaining load of the current year [hourOfYear] */
+	public FloatBuffer getRemainingSystemLoad() {
 		return getRemainingLoad(Date.getYear());
 	}
 
 	public float getRemainingSystemLoadOfDay(int hourOfDay) {
-		return getRemainingLoad(Date.getYear()).get(Date.getFirstHourOfToday() + hourOfDay);
+		return getRemainingLoad(Date.getYear(), Date.getFirstHourOfToday() + hourOfDay);
 	}
 
 	/**
@@ -220,10 +229,10 @@ public final class RenewableManager implements Callable<Void> {
 		if (!renewableLoad.containsKey(type)) {
 			return 0f;
 		}
-		if (!renewableLoad.get(type).containsKey(year)) {
+		if (!renewableLoad.get(type).containsYear(year)) {
 			return 0f;
 		}
-		return renewableLoad.get(type).get(year).get(hourOfYear);
+		return renewableLoad.get(type).get(year, hourOfYear);
 
 	}
 
@@ -239,7 +248,7 @@ public final class RenewableManager implements Callable<Void> {
 		for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
 			float value = 0f;
 			for (final FuelName type : types) {
-				value += renewableLoad.get(type).get(year).get(hourOfYear);
+				value += renewableLoad.get(type).get(year, hourOfYear);
 			}
 			loadProfile.add(value);
 		}
@@ -247,7 +256,7 @@ public final class RenewableManager implements Callable<Void> {
 	}
 
 	public float getRenewableLoadHourlyTotal(int year, int hourOfYear) {
-		return renewableLoadHourlyTotal.get(Date.getKeyHourlyWithHourOfYear(year, hourOfYear));
+		return renewableLoadHourlyTotal.get(year, hourOfYear);
 	}
 
 	public Map<Integer, Float> getRenewableLoadHourlyTotalMap(int year) {
@@ -256,19 +265,7 @@ public final class RenewableManager implements Callable<Void> {
 			year = endYear;
 		}
 
-		final Map<Integer, Float> values = new HashMap<>();
-		try {
-			for (int hourOfYear = 0; hourOfYear < HOURS_PER_YEAR; hourOfYear++) {
-				values.put(hourOfYear, getRenewableLoadHourlyTotal(year, hourOfYear));
-			}
-		} catch (final Exception e) {
-			logger.error(e.getLocalizedMessage(), e);
-		}
-		return values;
-	}
-
-	public Map<Integer, Float> getRenewableLoadOfYear(FuelName type, int year) {
-		return renewableLoad.get(type).get(year);
+		return renewableLoadHourlyTotal.toMap(year, HOURS_PER_YEAR);
 	}
 
 	/**
@@ -337,7 +334,7 @@ public final class RenewableManager implements Callable<Void> {
 		if (!renewableLoad.containsKey(type)) {
 			return 0f;
 		}
-		return Statistics.calcSum(renewableLoad.get(type).get(year).values());
+		return renewableLoad.get(type).sum(year, 0, HOURS_PER_YEAR - 1);
 	}
 
 	/** Get relevant renewables types for current market area */
@@ -352,7 +349,7 @@ public final class RenewableManager implements Callable<Void> {
 	public float getTotalRenewableLoad(int year, int hourOfYear) {
 		float value = 0f;
 		for (final FuelName type : renewableTypes) {
-			value += renewableLoad.get(type).get(year).get(hourOfYear);
+			value += renewableLoad.get(type).get(year, hourOfYear);
 		}
 		return value;
 	}
@@ -371,7 +368,7 @@ public final class RenewableManager implements Callable<Void> {
 	 * direction, false in negative.
 	 */
 	private int getYearAvailable(FuelName type, int startYear, boolean add) {
-		if (renewableLoad.get(type).containsKey(startYear)) {
+		if (renewableLoad.get(type).containsYear(startYear)) {
 			return startYear;
 		}
 		if (add) {
@@ -463,30 +460,29 @@ public final class RenewableManager implements Callable<Void> {
 		}
 	}
 
-	private Map<Integer, Float> interpolateHourlyProfile(FuelName type, int year) {
+	private float[] interpolateHourlyProfile(FuelName type, int year) {
 
-		final int firstYearAvailScenario = Collections.min(renewableLoad.get(type).keySet());
-		final int lastYearAvailScenario = Collections.max(renewableLoad.get(type).keySet());
+		final int firstYearAvailScenario = renewableLoad.get(type).getFirstYear();
+		final int lastYearAvailScenario = renewableLoad.get(type).getLastYear();
 		// Use first available data or just one value is available
 		if ((year < firstYearAvailScenario) || (firstYearAvailScenario == lastYearAvailScenario)) {
-			return renewableLoad.get(type).get(firstYearAvailScenario);
+			return renewableLoad.get(type).getYear(firstYearAvailScenario);
 		}
 		if (year > lastYearAvailScenario) {
-			return renewableLoad.get(type).get(lastYearAvailScenario);
+			return renewableLoad.get(type).getYear(lastYearAvailScenario);
 		}
 		// Linear Interpolate the hours
 		final int yearSecondPoint = getYearAvailable(type, year, true);
 		final int yearFirstPoint = getYearAvailable(type, yearSecondPoint - 1, false);
-		final Map<Integer, Float> values = new HashMap<>();
+		final float[] values = new float[Date.HOURS_PER_YEAR];
 		for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
-			final float valueSecondPoint = renewableLoad.get(type).get(yearSecondPoint)
-					.get(hourOfYear);
+			final float valueSecondPoint = renewableLoad.get(type).get(yearSecondPoint,
+					hourOfYear);
 
 			// Point(x1,y1)
-			final float valueFirstPoint = renewableLoad.get(type).get(yearFirstPoint)
-					.get(hourOfYear);
-			values.put(hourOfYear, Interpolation.linear(yearFirstPoint, yearSecondPoint,
-					valueFirstPoint, valueSecondPoint, year));
+			final float valueFirstPoint = renewableLoad.get(type).get(yearFirstPoint, hourOfYear);
+			values[hourOfYear] = Interpolation.linear(yearFirstPoint, yearSecondPoint,
+					valueFirstPoint, valueSecondPoint, year);
 		}
 		return values;
 	}
@@ -497,10 +493,10 @@ public final class RenewableManager implements Callable<Void> {
 			}
 			// Interpolate profile
 			for (int year = startYear; year <= endYear; year++) {
-				if (renewableLoad.get(type).containsKey(year)) {
+				if (renewableLoad.get(type).containsYear(year)) {
 					continue;
 				}
-				renewableLoad.get(type).put(year, interpolateHourlyProfile(type, year));
+				renewableLoad.get(type).putYear(year, interpolateHourlyProfile(type, year));
 			}
 		}
 	}
@@ -508,41 +504,48 @@ public final class RenewableManager implements Callable<Void> {
 	private void readCapacityData() {
 		try (ConnectionSQL conn = new ConnectionSQL(nameDatabase, marketArea)) {
 			// Scenario data
-			final String tableName = Settings.getResCapacityScenario();
-			final String query = "SELECT * FROM `tbl_" + tableName + "` WHERE `area_code`='"
-					+ marketArea.getInitials() + "';";
-			conn.setResultSet(query);
+			final String tableName = "tbl_" + Settings.getResCapacityScenario();
+
+			// Columns of years are not known in advance, so read them from the
+			// meta data of an empty result
+			conn.setResultSet("SELECT * FROM `" + tableName + "` LIMIT 0");
+			final ResultSetMetaData metaData = conn.getResultSetMetaData();
+			final List<String> columns = new ArrayList<>();
+			columns.add("res_type");
+			for (int column = 1; column <= metaData.getColumnCount(); column++) {
+				if (metaData.getColumnType(column) == Types.REAL) {
+					columns.add(metaData.getColumnName(column));
+				}
+			}
+			final int[] years = new int[columns.size() - 1];
+			for (int index = 0; index < years.length; index++) {
+				years[index] = Integer.parseInt(columns.get(index + 1));
+			}
+			final String query = "SELECT " + ConnectionSQL.columns(columns.toArray(new String[0]))
+					+ " FROM `" + tableName + "` WHERE `area_code`=?";
 
 			// Read values from database for each year and renewable type
-			while (conn.getResultSet().next()) {
+			conn.query(query, resultSet -> {
+				final String resType = resultSet.getString(1);
 				for (final FuelName type : FuelName.getRenewableTypes()) {
 
-					if (conn.getResultSet().getString("res_type")
-							.equals(type.toString().toLowerCase())) {
+					if (resType.equals(type.toString().toLowerCase())) {
 						renewableTypes.add(type);
 						renewableCapacity.put(type, new HashMap<Integer, Float>());
-						int year;
-						for (int column = 1; column <= conn.getResultSetMetaData()
-								.getColumnCount(); column++) {
-
-							if (conn.getResultSetMetaData().getColumnTypeName(column)
-									.equals("FLOAT")) {
-								year = Integer.parseInt(
-										conn.getResultSetMetaData().getColumnName(column));
-								final float capacity = conn.getResultSet().getFloat("" + year);
-								renewableCapacity.get(type).put(year, capacity);
-							}
+						for (int index = 0; index < years.length; index++) {
+							renewableCapacity.get(type).put(years[index],
+									resultSet.getFloat(index + 2));
 						}
 						break;
 					}
 				}
-			}
+			}, marketArea.getInitials());
 
 			// Initialize fields
 			for (final FuelName type : renewableTypes) {
 				utilisationfactor.put(type, new HashMap<>());
 				yearlyFullLoadHours.put(type, new HashMap<>());
-				renewableLoad.put(type, new HashMap<>());
+				renewableLoad.put(type, new HourlySeries());
 				renewableLoadProfile.put(type, new HashMap<>());
 			}
 
@@ -557,41 +560,34 @@ public final class RenewableManager implements Callable<Void> {
 	 *            Scenario
 	 */
 	private void readProfileDataOneTable(String renewableScenario) throws SQLException {
-		final String columnHourOfYear = "hour_of_year";
+		// Profiles of all market areas are read at once
+		final String tableName = "tbl_" + renewableScenario;
+		final Map<String, HourlySeries> profiles = ProfileCache
+				.takeRenewableProfiles(nameDatabase, tableName, marketArea.getInitials());
 		for (final FuelName type : renewableTypes) {
-			final String tableName = "tbl_" + renewableScenario;
-			final String sqlQuery = "SELECT * FROM `" + tableName + "` WHERE type='"
-					+ type.toString().toLowerCase() + "' AND area='" + marketArea.getInitials()
-					+ "' ORDER BY `" + columnHourOfYear + "`;";
-
-			try (ConnectionSQL conn = new ConnectionSQL(nameDatabase)) {
-				conn.setResultSet(sqlQuery);
-				final HashSet<Integer> profileYears = new HashSet<>();
-				while (conn.getResultSet().next()) {
-					// Read values from database
-					final Integer profileYear = conn.getResultSet().getInt("year");
-					profileYears.add(profileYear);
-					if (!renewableLoad.get(type).containsKey(profileYear)) {
-						renewableLoad.get(type).put(profileYear, new HashMap<>());
-					}
-
-					final int hourOfYear = conn.getResultSet().getInt(columnHourOfYear);
-					final float value = conn.getResultSet().getFloat("value");
-					renewableLoad.get(type).get(profileYear).put(hourOfYear, value);
+			final HourlySeries profile = profiles.get(type.toString().toLowerCase());
+			if (profile == null) {
+				continue;
+			}
+			for (int profileYear = profile.getFirstYear(); profileYear <= profile
+					.getLastYear(); profileYear++) {
+				if (!profile.containsYear(profileYear)) {
+					continue;
+				}
+				renewableLoad.get(type).putYear(profileYear, profile.getYear(profileYear));
 
-					// Set first year
-					if (profileYear < firstAvailableYear) {
-						firstAvailableYear = profileYear;
-					}
+				// Set first year
+				if (profileYear < firstAvailableYear) {
+					firstAvailableYear = profileYear;
 				}
+
 				// Check size
-				for (final Integer profileYear : profileYears) {
-					if (!checkSize(renewableLoad.get(type).get(profileYear))) {
-						logger.error("Renewable values of type " + type.toString() + " in area "
-								+ marketArea.getInitials() + " for profile year" + profileYear
-								+ " has not 8760 but "
-								+ renewableLoad.get(type).get(profileYear).size() + " enties.");
-					}
+				if (!checkSize(renewableLoad.get(type), profileYear)) {
+					logger.error("Renewable values of type " + type.toString() + " in area "
+							+ marketArea.getInitials() + " for profile year" + profileYear
+							+ " has not 8760 but "
+							+ renewableLoad.get(type).getNumberOfValues(profileYear)
+							+ " enties.");
 				}
 			}
 		}
@@ -612,10 +608,7 @@ public final class RenewableManager implements Callable<Void> {
 
 		for (int yearDelete = Date.getStartYear(); yearDelete < (year
 				- yearOlderThan); yearDelete++) {
-			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
-				final int key = Date.getKeyHourlyWithHourOfYear(yearDelete, hourOfYear);
-				renewableLoadHourlyTotal.remove(key);
-			}
+			renewableLoadHourlyTotal.removeYear(yearDelete);
 		}
 	}
 
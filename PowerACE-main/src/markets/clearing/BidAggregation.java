@@ -0,0 +1,139 @@
+package markets.clearing;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import markets.bids.Bid;
+import markets.bids.Bid.BidType;
+import markets.trader.TraderType;
+
+/**
+ * Presolve of the simple bids of one market area for the market coupling.
+ * <p>
+ * Demand bids that have to be accepted are removed from the model, their
+ * volume is added to the market area balance as a constant. All other bids of
+ * the same type and price are merged into one price step, since the welfare
+ * does not depend on how the accepted volume of a step is shared between its
+ * bids. Each bid of a step gets the acceptance rate of the step, which does not
+ * change prices or flows.
+ */
+final class BidAggregation {
+
+	/** Demand bids that have to be accepted, i.e. have no acceptance variable */
+	private static final int FIXED = -1;
+
+	/** Index of the price step of each bid or {@link #FIXED} */
+	private final int[] bidSteps;
+	/** Volume of all demand bids that have to be accepted */
+	private double fixedVolume;
+	/** Number of bids in each price step */
+	private final int[] numberOfBids;
+	/** Price of each price step */
+	private final double[] prices;
+	/** Type of each price step */
+	private final BidType[] types;
+	/** Volume of each price step, positive for demand, negative for supply */
+	private final double[] volumes;
+
+	BidAggregation(List<Bid> bids) {
+		bidSteps = new int[bids.size()];
+		final Map<BidType, Map<Float, Integer>> stepIndices = new HashMap<>();
+		int numberOfSteps = 0;
+		for (int bid = 0; bid < bids.size(); bid++) {
+			final Bid simpleBid = bids.get(bid);
+			if (isFixedDemand(simpleBid)) {
+				bidSteps[bid] = FIXED;
+				continue;
+			}
+			Integer step = stepIndices.computeIfAbsent(simpleBid.getType(), type -> new HashMap<>())
+					.get(simpleBid.getPrice());
+			if (step == null) {
+				step = numberOfSteps++;
+				stepIndices.get(simpleBid.getType()).put(simpleBid.getPrice(), step);
+			}
+			bidSteps[bid] = step;
+		}
+
+		numberOfBids = new int[numberOfSteps];
+		prices = new double[numberOfSteps];
+		types = new BidType[numberOfSteps];
+		volumes = new double[numberOfSteps];
+		for (int bid = 0; bid < bids.size(); bid++) {
+			final Bid simpleBid = bids.get(bid);
+			final double volume = getSignedVolume(simpleBid);
+			final int step = bidSteps[bid];
+			if (step == FIXED) {
+				fixedVolume += volume;
+			} else {
+				numberOfBids[step]++;
+				prices[step] = simpleBid.getPrice();
+				types[step] = simpleBid.getType();
+				volumes[step] += volume;
+			}
+		}
+	}
+
+	/**
+	 * Acceptance rate of each bid
+	 *
+	 * @param stepAcceptanceRates
+	 *            acceptance rate of each price step
+	 */
+	double[] getAcceptanceRates(double[] stepAcceptanceRates) {
+		final double[] acceptanceRates = new double[bidSteps.length];
+		for (int bid = 0; bid < bidSteps.length; bid++) {
+			acceptanceRates[bid] = bidSteps[bid] == FIXED
+					? 1
+					: stepAcceptanceRates[bidSteps[bid]];
+		}
+		return acceptanceRates;
+	}
+
+	/** Volume of all demand bids that have to be accepted */
+	double getFixedVolume() {
+		return fixedVolume;
+	}
+
+	int getNumberOfBids(int step) {
+		return numberOfBids[step];
+	}
+
+	int getNumberOfSteps() {
+		return prices.length;
+	}
+
+	double getPrice(int step) {
+		return prices[step];
+	}
+
+	BidType getType(int step) {
+		return types[step];
+	}
+
+	/** Volume of the price step, positive for demand, negative for supply */
+	double getVolume(int step) {
+		return volumes[step];
+	}
+
+	/** Volume as in the market area balance, positive for demand */
+	private double getSignedVolume(Bid bid) {
+		if (bid.getType() == BidType.ASK) {
+			return bid.getVolume();
+		} else if (bid.getType() == BidType.SELL) {
+			return -bid.getVolume();
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Demand bids have to be accepted, except for pumped storage and hydrogen
+	 * bids which should be price dependent. Used by all market coupling
+	 * algorithms.
+	 */
+	static boolean isFixedDemand(Bid bid) {
+		return (bid.getBidType() == BidType.ASK)
+				&& (bid.getTraderType() != TraderType.PUMPED_STORAGE)
+				&& (bid.getTraderType() != TraderType.POWER_TO_HYDROGEN);
+	}
+}
@@ -0,0 +1,198 @@
+package markets.clearing;
+
+import java.util.Arrays;
+
+/**
+ * Hourly bids of a call market stored column-wise in primitive arrays
+ * (price, volume, type and identifier for each hour), so that bid curves can
+ * be calculated without creating and sorting bid objects.
+ * <p>
+ * The arrays of each hour are only grown, never shrunk, so that a bid book
+ * can be reused via {@link #clear()}.
+ */
+final class BidBook {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** [hour[bid]] */
+	private int[][] identifiers;
+	/** [hour[bid]] */
+	private float[][] prices;
+	/** [hour[bid]], <code>true</code> for sell bids, else ask bids */
+	private boolean[][] sell;
+	/** Number of bids for each hour */
+	private int[] sizes;
+	/**
+	 * Columns for applying the sort order, swapped with the columns of the
+	 * sorted hour
+	 */
+	private int[] sortedIdentifiers = new int[0];
+	private float[] sortedPrices = new float[0];
+	private boolean[] sortedSell = new boolean[0];
+	private float[] sortedVolumes = new float[0];
+	/** Buffers for sorting */
+	private int[] sortBuffer = new int[0];
+	private int[] sortIndex = new int[0];
+	/** [hour[bid]] */
+	private float[][] volumes;
+
+	BidBook(int numberOfHours) {
+		identifiers = new int[numberOfHours][INITIAL_CAPACITY];
+		prices = new float[numberOfHours][INITIAL_CAPACITY];
+		sell = new boolean[numberOfHours][INITIAL_CAPACITY];
+		sizes = new int[numberOfHours];
+		volumes = new float[numberOfHours][INITIAL_CAPACITY];
+	}
+
+	/** Add bid to the end of the list of the hour */
+	void add(int hour, float price, float volume, boolean sellBid, int identifier) {
+		final int size = sizes[hour];
+		if (size == prices[hour].length) {
+			final int capacity = Math.max(INITIAL_CAPACITY, 2 * size);
+			identifiers[hour] = Arrays.copyOf(identifiers[hour], capacity);
+			prices[hour] = Arrays.copyOf(prices[hour], capacity);
+			sell[hour] = Arrays.copyOf(sell[hour], capacity);
+			volumes[hour] = Arrays.copyOf(volumes[hour], capacity);
+		}
+		identifiers[hour][size] = identifier;
+		prices[hour][size] = price;
+		sell[hour][size] = sellBid;
+		volumes[hour][size] = volume;
+		sizes[hour]++;
+	}
+
+	/** Remove all bids, keeping the allocated arrays */
+	void clear() {
+		Arrays.fill(sizes, 0);
+	}
+
+	int getIdentifier(int hour, int bid) {
+		return identifiers[hour][bid];
+	}
+
+	int getNumberOfHours() {
+		return sizes.length;
+	}
+
+	float getPrice(int hour, int bid) {
+		return prices[hour][bid];
+	}
+
+	int getSize(int hour) {
+		return sizes[hour];
+	}
+
+	/**
+	 * @return the distinct prices of the hour in ascending order. Bids have to
+	 *         be sorted via {@link #sort()} before.
+	 */
+	float[] getUniquePrices(int hour) {
+		final float[] pricesHour = prices[hour];
+		final float[] uniquePrices = new float[sizes[hour]];
+		int numberOfUniquePrices = 0;
+		for (int bid = 0; bid < sizes[hour]; bid++) {
+			if ((numberOfUniquePrices == 0) || (Float.compare(pricesHour[bid],
+					uniquePrices[numberOfUniquePrices - 1]) != 0)) {
+				uniquePrices[numberOfUniquePrices++] = pricesHour[bid];
+			}
+		}
+		return Arrays.copyOf(uniquePrices, numberOfUniquePrices);
+	}
+
+	float getVolume(int hour, int bid) {
+		return volumes[hour][bid];
+	}
+
+	boolean isAsk(int hour, int bid) {
+		return !sell[hour][bid];
+	}
+
+	boolean isSell(int hour, int bid) {
+		return sell[hour][bid];
+	}
+
+	/**
+	 * Sorts the bids of each hour by price (ascending) and volume (descending)
+	 * where price is identical. The sort is stable, i.e. bids that are equal
+	 * in price and volume keep their order.
+	 */
+	void sort() {
+		for (int hour = 0; hour < sizes.length; hour++) {
+			sortHour(hour);
+		}
+	}
+
+	private int compare(int hour, int bid1, int bid2) {
+		final int comparePrice = Float.compare(prices[hour][bid1], prices[hour][bid2]);
+		if (comparePrice != 0) {
+			return comparePrice;
+		}
+		return Float.compare(volumes[hour][bid2], volumes[hour][bid1]);
+	}
+
+	/** Stable merge sort of the bid indices */
+	private void mergeSort(int hour, int[] index, int[] buffer, int from, int to) {
+		if ((to - from) < 2) {
+			return;
+		}
+		final int middle = (from + to) >>> 1;
+		mergeSort(hour, index, buffer, from, middle);
+		mergeSort(hour, index, buffer, middle, to);
+		if (compare(hour, index[middle - 1], index[middle]) <= 0) {
+			return;
+		}
+		System.arraycopy(index, from, buffer, from, to - from);
+		int left = from;
+		int right = middle;
+		for (int position = from; position < to; position++) {
+			if ((right >= to)
+					|| ((left < middle) && (compare(hour, buffer[left], buffer[right]) <= 0))) {
+				index[position] = buffer[left++];
+			} else {
+				index[position] = buffer[right++];
+			}
+		}
+	}
+
+	private void sortHour(int hour) {
+		final int size = sizes[hour];
+		if (sortIndex.length < size) {
+			sortIndex = new int[size];
+			sortBuffer = new int[size];
+		}
+		for (int bid = 0; bid < size; bid++) {
+			sortIndex[bid] = bid;
+		}
+		mergeSort(hour, sortIndex, sortBuffer, 0, size);
+
+		// Apply permutation column by column into the sorted columns, which
+		// need at least the capacity of the hour
+		final int capacity = prices[hour].length;
+		if (sortedPrices.length < capacity) {
+			sortedIdentifiers = new int[capacity];
+			sortedPrices = new float[capacity];
+			sortedSell = new boolean[capacity];
+			sortedVolumes = new float[capacity];
+		}
+		for (int bid = 0; bid < size; bid++) {
+			sortedIdentifiers[bid] = identifiers[hour][sortIndex[bid]];
+			sortedPrices[bid] = prices[hour][sortIndex[bid]];
+			sortedSell[bid] = sell[hour][sortIndex[bid]];
+			sortedVolumes[bid] = volumes[hour][sortIndex[bid]];
+		}
+
+		// Swap columns, the previous columns are reused for the next hour
+		final int[] identifiersHour = identifiers[hour];
+		identifiers[hour] = sortedIdentifiers;
+		sortedIdentifiers = identifiersHour;
+		final float[] pricesHour = prices[hour];
+		prices[hour] = sortedPrices;
+		sortedPrices = pricesHour;
+		final boolean[] sellHour = sell[hour];
+		sell[hour] = sortedSell;
+		sortedSell = sellHour;
+		final float[] volumesHour = volumes[hour];
+		volumes[hour] = sortedVolumes;
+		sortedVolumes = volumesHour;
+	}
+}
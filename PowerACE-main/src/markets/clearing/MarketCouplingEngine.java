@@ -0,0 +1,46 @@
+package markets.clearing;
+
+import java.util.List;
+import java.util.Map;
+
+import com.gurobi.gurobi.GRBException;
+import data.exchange.Capacities;
+import markets.bids.Bid;
+import markets.operator.spot.MarketCouplingOperator;
+import simulations.MarketArea;
+
+/**
+ * Algorithm that clears the coupled day-ahead markets for one hour. The
+ * results (flows, market clearing prices and accepted volumes) are handed to
+ * the {@link MarketCouplingOperator} via <code>setFlows</code>,
+ * <code>setMarketClearingPricesDaily</code> and
+ * <code>setAcceptedVolume</code>.
+ *
+ * @see MarketCouplingEngineType
+ */
+@FunctionalInterface
+public interface MarketCouplingEngine {
+
+	/**
+	 * Clear the coupled markets for the specified hour of the current day.
+	 *
+	 * @param hourOfDay
+	 *            [0..23]
+	 * @param simpleBids
+	 *            sorted simple bids of each market area
+	 * @throws GRBException
+	 *             if market coupling failed and the fall-back mechanism of
+	 *             the market coupling operator should take effect
+	 */
+	public void marketCouplingAlgorithmHourly(int hourOfDay, List<MarketArea> marketAreas,
+			Map<MarketArea, List<Bid>> simpleBids, MarketCouplingOperator marketCouplingOperator,
+			Capacities capacitiesData) throws GRBException;
+
+	/**
+	 * Release resources held by the engine (e.g. solver environments). Called
+	 * by the {@link MarketCouplingOperator} at the end of the simulation run.
+	 */
+	public default void dispose() {
+	}
+
+}
@@ -0,0 +1,37 @@
+package markets.clearing;
+
+import java.util.function.Supplier;
+
+/**
+ * Available algorithms for the hourly market coupling. Can be set via the
+ * static field <code>marketCouplingEngine</code> in the settings xml file.
+ */
+public enum MarketCouplingEngineType {
+	/** Linear program solved by Gurobi, see {@link MarketCouplingHourly} */
+	GUROBI(() -> MarketCouplingHourly::marketCouplingAlgorithmHourly),
+	/**
+	 * Same linear program as {@link #GUROBI}, but the model of each hour of
+	 * the day is reused and warm-started, see
+	 * {@link MarketCouplingHourlyWarmStart}
+	 */
+	GUROBI_WARM_START(MarketCouplingHourlyWarmStart::new),
+	/**
+	 * Min-cost flow algorithm in pure Java, see
+	 * {@link MarketCouplingNetworkFlow}
+	 */
+	NETWORK_FLOW(() -> MarketCouplingNetworkFlow::marketCouplingAlgorithmHourly);
+
+	private final Supplier<MarketCouplingEngine> engineSupplier;
+
+	private MarketCouplingEngineType(Supplier<MarketCouplingEngine> engineSupplier) {
+		this.engineSupplier = engineSupplier;
+	}
+
+	/**
+	 * @return new engine for one market coupling operator, which has to
+	 *         {@link MarketCouplingEngine#dispose() dispose} it
+	 */
+	public MarketCouplingEngine createEngine() {
+		return engineSupplier.get();
+	}
+}
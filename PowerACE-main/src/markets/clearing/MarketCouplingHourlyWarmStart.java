@@ -0,0 +1,89 @@
+package markets.clearing;
+
+import static simulations.scheduling.Date.HOURS_PER_DAY;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gurobi.gurobi.GRB;
+import com.gurobi.gurobi.GRBEnv;
+import com.gurobi.gurobi.GRBException;
+import data.exchange.Capacities;
+import markets.bids.Bid;
+import markets.operator.spot.MarketCouplingOperator;
+import simulations.MarketArea;
+
+/**
+ * Market coupling algorithm for one hour with the same linear program as
+ * {@link MarketCouplingHourly}, but the {@link MarketCouplingModel} of each
+ * hour of the day is kept and reused on the following days, also across
+ * years. Since the structure stays the same, Gurobi starts from the basis of
+ * the previous day.
+ * <p>
+ * Each hour of the day has its own model and environment, so the hours can
+ * still be cleared concurrently. An instance belongs to one
+ * {@link MarketCouplingOperator}, which disposes the models and environments
+ * at the end of the simulation run.
+ */
+public final class MarketCouplingHourlyWarmStart implements MarketCouplingEngine {
+
+	/**
+	 * Instance of logger to give out warnings, errors to console and or files
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(MarketCouplingHourlyWarmStart.class.getName());
+
+	/** Environment of the model for each hour of the day */
+	private final GRBEnv[] envs = new GRBEnv[HOURS_PER_DAY];
+	/** Persistent model for each hour of the day */
+	private final MarketCouplingModel[] models = new MarketCouplingModel[HOURS_PER_DAY];
+
+	/** Dispose all models and their environments */
+	@Override
+	public synchronized void dispose() {
+		for (int hourOfDay = 0; hourOfDay < HOURS_PER_DAY; hourOfDay++) {
+			try {
+				if (models[hourOfDay] != null) {
+					models[hourOfDay].dispose();
+				}
+				if (envs[hourOfDay] != null) {
+					envs[hourOfDay].dispose();
+				}
+			} catch (final GRBException e) {
+				logger.error(e.getLocalizedMessage(), e);
+			}
+			models[hourOfDay] = null;
+			envs[hourOfDay] = null;
+		}
+	}
+
+	private synchronized MarketCouplingModel getModel(int hourOfDay,
+			List<MarketArea> marketAreas) throws GRBException {
+		if (models[hourOfDay] == null) {
+			if (envs[hourOfDay] == null) {
+				envs[hourOfDay] = new GRBEnv();
+				// Enables (1) or disables (0) console logging.
+				envs[hourOfDay].set(GRB.IntParam.LogToConsole, 0);
+			}
+			models[hourOfDay] = new MarketCouplingModel(envs[hourOfDay], marketAreas);
+		}
+		return models[hourOfDay];
+	}
+
+	/**
+	 * Implements the market coupling algorithm on the persistent model of the
+	 * hour of the day.
+	 *
+	 * @throws GRBException
+	 */
+	@Override
+	public void marketCouplingAlgorithmHourly(final int hourOfDay, List<MarketArea> marketAreas,
+			Map<MarketArea, List<Bid>> simpleBids, MarketCouplingOperator marketCouplingOperator,
+			Capacities capacitiesData) throws GRBException {
+		getModel(hourOfDay, marketAreas).clear(hourOfDay, simpleBids, marketCouplingOperator,
+				capacitiesData);
+	}
+}
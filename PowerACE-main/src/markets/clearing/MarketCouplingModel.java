@@ -0,0 +1,277 @@
+package markets.clearing;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import data.exchange.Capacities;
+import com.gurobi.gurobi.GRB;
+import com.gurobi.gurobi.GRBConstr;
+import com.gurobi.gurobi.GRBEnv;
+import com.gurobi.gurobi.GRBException;
+import com.gurobi.gurobi.GRBLinExpr;
+import com.gurobi.gurobi.GRBModel;
+import com.gurobi.gurobi.GRBVar;
+import markets.bids.Bid;
+import markets.operator.spot.MarketCouplingOperator;
+import simulations.MarketArea;
+import simulations.initialization.Settings;
+import simulations.scheduling.Date;
+import tools.other.Concurrency;
+
+/**
+ * Linear program of the hourly market coupling, used by
+ * {@link MarketCouplingHourly} (new model for each hour) and
+ * {@link MarketCouplingHourlyWarmStart} (model of each hour of the day is
+ * kept).
+ * <p>
+ * Flow variables and market area balances are created once. For each hour the
+ * interconnection capacities are set as bounds of the flow variables and the
+ * bids are presolved by {@link BidAggregation}: each price step gets an
+ * acceptance variable and fixed demand is the right-hand side of the market
+ * area balance. Acceptance variables of previous hours are reused, only their
+ * bounds, objective and balance coefficients are changed and unused variables
+ * are fixed to zero, so Gurobi can start from the previous basis.
+ */
+final class MarketCouplingModel {
+
+	/**
+	 * Instance of logger to give out warnings, errors to console and or files
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(MarketCouplingModel.class.getName());
+
+	/** [marketArea[price step]] */
+	private final GRBVar[][] accept;
+	/** Presolved bids of the current hour */
+	private final BidAggregation[] aggregations;
+	/** [fromMarketArea[toMarketArea]] */
+	private final GRBVar[][] flowMatrix;
+	private final List<MarketArea> marketAreas;
+	/** Sum(Accept * Volume) + exports - imports = -fixed demand */
+	private final GRBConstr[] marketAreaBalance;
+	private final GRBModel model;
+	/** Number of acceptance variables in use for each market area */
+	private final int[] numberOfSteps;
+
+	MarketCouplingModel(GRBEnv env, List<MarketArea> marketAreas) throws GRBException {
+		this.marketAreas = marketAreas;
+		model = new GRBModel(env);
+		// Enables (1) or disables (0) console logging.
+		model.set(GRB.IntParam.LogToConsole, 0);
+		model.set(GRB.IntParam.Method, GRB.METHOD_DUAL);
+		model.set(GRB.IntAttr.ModelSense, GRB.MAXIMIZE);
+
+		final int numberOfMarketAreas = marketAreas.size();
+		accept = new GRBVar[numberOfMarketAreas][0];
+		aggregations = new BidAggregation[numberOfMarketAreas];
+		numberOfSteps = new int[numberOfMarketAreas];
+
+		// Flow variables, bounds are set for each hour
+		flowMatrix = new GRBVar[numberOfMarketAreas][numberOfMarketAreas];
+		for (final MarketArea fromMarketArea : marketAreas) {
+			for (final MarketArea toMarketArea : marketAreas) {
+				final String name = "flow_from_" + fromMarketArea + "_to_" + toMarketArea;
+				// Add penalty for exchange flows
+				final double penalty = fromMarketArea.equals(toMarketArea)
+						? 0
+						: MarketCouplingHourly.getPenaltyInterconnectorFlows();
+				flowMatrix[fromMarketArea.getIdMarketCoupling()
+						- 1][toMarketArea.getIdMarketCoupling() - 1] = model.addVar(0, 0, penalty,
+								GRB.CONTINUOUS, name);
+			}
+		}
+		model.update();
+
+		// Market area balance, bids and fixed demand are set for each hour
+		marketAreaBalance = new GRBConstr[numberOfMarketAreas];
+		for (final MarketArea marketArea : marketAreas) {
+			final int marketAreaId = marketArea.getIdMarketCoupling() - 1;
+			final GRBLinExpr expr = new GRBLinExpr();
+			for (int i = 0; i < numberOfMarketAreas; i++) {
+				// Exports
+				expr.addTerm(1, flowMatrix[marketAreaId][i]);
+				// Imports
+				expr.addTerm(-1, flowMatrix[i][marketAreaId]);
+			}
+			marketAreaBalance[marketAreaId] = model.addConstr(expr, GRB.EQUAL, 0,
+					"market_area_balance" + marketArea);
+		}
+		model.update();
+	}
+
+	/**
+	 * Clear the coupled markets for the hour of the day and hand the results
+	 * to the market coupling operator.
+	 *
+	 * @throws GRBException
+	 *             if the model has no optimal solution
+	 */
+	void clear(int hourOfDay, Map<MarketArea, List<Bid>> simpleBids,
+			MarketCouplingOperator marketCouplingOperator, Capacities capacitiesData)
+			throws GRBException {
+
+		// Names are only needed if the model is written
+		final boolean writeModel = Date.isFirstDayOfYear() && (hourOfDay == 0);
+		update(hourOfDay, simpleBids, capacitiesData, writeModel || logger.isDebugEnabled());
+
+		// Write LP in file (each year the files are overwritten)
+		final String fileName = marketCouplingOperator.getMarketCouplingFolderPath()
+				+ File.separator + "MarketCouplingGurobi_" + Date.getYear() + "_";
+		if (writeModel) {
+			model.write(fileName + Date.getDayOfYear() + "_" + hourOfDay + ".lp");
+		}
+
+		/* Solve model */
+		Concurrency.executeBlocking(model::optimize);
+		if (model.get(GRB.IntAttr.Status) != GRB.Status.OPTIMAL) {
+			logger.error("Market clearing infeasible! Please check the bid lists for Bugs.");
+			model.write(fileName + Date.getDayOfYear() + "_" + hourOfDay + "_Status_"
+					+ model.get(GRB.IntAttr.Status) + ".lp");
+			// compute IIS to find restrictive constraints
+			model.computeIIS();
+			for (final GRBConstr constr : model.getConstrs()) {
+				if (constr.get(GRB.IntAttr.IISConstr) > 0) {
+					logger.error("IIS-constraint (y" + Date.getYear() + "_d" + Date.getDayOfYear()
+							+ "_h" + hourOfDay + "): " + constr.get(GRB.StringAttr.ConstrName));
+				}
+			}
+		}
+
+		/* Results */
+		// Get flows and calculate net flows by market area
+		marketCouplingOperator.setFlows(model.get(GRB.DoubleAttr.X, flowMatrix), hourOfDay);
+
+		// Get shadow prices (equal to market area prices)
+		final double[] prices = model.get(GRB.DoubleAttr.Pi, marketAreaBalance);
+		marketCouplingOperator.setMarketClearingPricesDaily(prices, hourOfDay);
+
+		// Set accepted volume for each bid
+		final double[][] acceptanceRates = new double[accept.length][];
+		for (int marketAreaId = 0; marketAreaId < accept.length; marketAreaId++) {
+			final double[] stepAcceptanceRates = numberOfSteps[marketAreaId] == 0
+					? new double[0]
+					: model.get(GRB.DoubleAttr.X,
+							Arrays.copyOf(accept[marketAreaId], numberOfSteps[marketAreaId]));
+			acceptanceRates[marketAreaId] = aggregations[marketAreaId]
+					.getAcceptanceRates(stepAcceptanceRates);
+		}
+		marketCouplingOperator.setAcceptedVolume(hourOfDay, acceptanceRates);
+
+		if (Settings.isMarketCouplingParityCheck()) {
+			MarketCouplingHourly.checkParity(hourOfDay, marketAreas, simpleBids, capacitiesData,
+					prices);
+		}
+
+		// Log optimization model permanently if maximum prices occur in any
+		// market area
+		for (final MarketArea marketArea : marketAreas) {
+			final float marketClearingPrice = (float) prices[marketArea.getIdMarketCoupling() - 1];
+			final float maxPriceAllowed = marketArea.getDayAheadMarketOperator()
+					.getMaxPriceAllowed();
+			if (Math.round(marketClearingPrice) == maxPriceAllowed) {
+				model.write(fileName + Date.getHourOfYearFromHourOfDay(hourOfDay) + ".lp");
+				break;
+			}
+		}
+	}
+
+	void dispose() {
+		model.dispose();
+	}
+
+	/**
+	 * Set the interconnection capacities and the presolved bids of the hour of
+	 * the day.
+	 *
+	 * @param setNames
+	 *            whether the acceptance variables are named after their price
+	 *            steps
+	 */
+	private void update(int hourOfDay, Map<MarketArea, List<Bid>> simpleBids,
+			Capacities capacitiesData, boolean setNames) throws GRBException {
+
+		/* Interconnection capacities */
+		final int hourOfYear = Date.getHourOfYearFromHourOfDay(hourOfDay);
+		for (final MarketArea fromMarketArea : marketAreas) {
+			for (final MarketArea toMarketArea : marketAreas) {
+				if (fromMarketArea.equals(toMarketArea)) {
+					continue;
+				}
+				flowMatrix[fromMarketArea.getIdMarketCoupling()
+						- 1][toMarketArea.getIdMarketCoupling() - 1].set(GRB.DoubleAttr.UB,
+								capacitiesData.getInterconnectionCapacityHour(fromMarketArea,
+										toMarketArea, Date.getYear(), hourOfYear));
+			}
+		}
+
+		/* Bids */
+		// Merge bids into price steps, add variables if there are more steps
+		// than before
+		boolean variablesAdded = false;
+		final double[] fixedDemand = new double[marketAreas.size()];
+		for (final MarketArea marketArea : marketAreas) {
+			final int marketAreaId = marketArea.getIdMarketCoupling() - 1;
+			final BidAggregation aggregation = new BidAggregation(simpleBids.get(marketArea));
+			aggregations[marketAreaId] = aggregation;
+			fixedDemand[marketAreaId] = -aggregation.getFixedVolume();
+
+			final int numberOfVariables = accept[marketAreaId].length;
+			if (numberOfVariables < aggregation.getNumberOfSteps()) {
+				accept[marketAreaId] = Arrays.copyOf(accept[marketAreaId],
+						aggregation.getNumberOfSteps());
+				for (int step = numberOfVariables; step < aggregation.getNumberOfSteps(); step++) {
+					// Coefficient in the market area balance is set below
+					accept[marketAreaId][step] = model.addVar(0, 0, 0.0, GRB.CONTINUOUS,
+							"accept_" + marketArea + "_" + step);
+				}
+				variablesAdded = true;
+			}
+		}
+		if (variablesAdded) {
+			model.update();
+		}
+
+		// Acceptance of each price step, objective: -q * p * Acceptance
+		for (final MarketArea marketArea : marketAreas) {
+			final int marketAreaId = marketArea.getIdMarketCoupling() - 1;
+			final BidAggregation aggregation = aggregations[marketAreaId];
+			final int numberOfVariables = Math.max(aggregation.getNumberOfSteps(),
+					numberOfSteps[marketAreaId]);
+			if (numberOfVariables == 0) {
+				continue;
+			}
+			final GRBVar[] variables = Arrays.copyOf(accept[marketAreaId], numberOfVariables);
+			final GRBConstr[] constraints = new GRBConstr[numberOfVariables];
+			final double[] upperBounds = new double[numberOfVariables];
+			final double[] objective = new double[numberOfVariables];
+			final double[] coefficients = new double[numberOfVariables];
+			Arrays.fill(constraints, marketAreaBalance[marketAreaId]);
+			for (int step = 0; step < aggregation.getNumberOfSteps(); step++) {
+				upperBounds[step] = 1;
+				objective[step] = aggregation.getVolume(step) * aggregation.getPrice(step);
+				coefficients[step] = aggregation.getVolume(step);
+				if (setNames) {
+					variables[step].set(GRB.StringAttr.VarName,
+							"accept_" + marketArea + "_" + aggregation.getType(step) + "_price_"
+									+ aggregation.getPrice(step) + "_volume_"
+									+ aggregation.getVolume(step) + "_bids_"
+									+ aggregation.getNumberOfBids(step));
+				}
+			}
+			// Unused variables are fixed to zero
+			model.set(GRB.DoubleAttr.UB, variables, upperBounds);
+			model.set(GRB.DoubleAttr.Obj, variables, objective);
+			model.chgCoeffs(constraints, variables, coefficients);
+			numberOfSteps[marketAreaId] = aggregation.getNumberOfSteps();
+		}
+
+		// Accepted demand bids are part of the market area balance as constant
+		model.set(GRB.DoubleAttr.RHS, marketAreaBalance, fixedDemand);
+		model.update();
+	}
+}
@@ -0,0 +1,459 @@
+package markets.clearing;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gurobi.gurobi.GRBException;
+import data.exchange.Capacities;
+import markets.bids.Bid;
+import markets.bids.Bid.BidType;
+import markets.operator.spot.MarketCouplingOperator;
+import simulations.MarketArea;
+import simulations.scheduling.Date;
+
+/**
+ * Market coupling algorithm for one hour that does not need an external
+ * solver.
+ * <p>
+ * Maximizing social welfare over the simple bids of all coupled market areas
+ * subject to the interconnection capacities is a min-cost flow problem. Sell
+ * bids are arcs from a source into their market area (cost: bid price), ask
+ * bids are arcs from their market area into a sink (cost: negative bid price)
+ * and interconnectors are arcs between the market areas (capacity: NTC, cost:
+ * penalty for interconnector flows of {@link MarketCouplingHourly}). Demand
+ * bids that have to be accepted get a very high value so that they are always
+ * served first.
+ * <p>
+ * The problem is solved by successive shortest paths. Each path leaves the
+ * source via the cheapest sell bid that is not fully accepted and enters the
+ * sink via the most valuable ask bid that is not fully accepted, so shortest
+ * paths only have to be searched in the small graph of market areas. The
+ * market clearing price of a market area is the potential of its node in the
+ * final residual graph, i.e. the cost of supplying one additional MWh to the
+ * market area, which equals the shadow price of the market area balance in
+ * {@link MarketCouplingHourly}. If the price is not unique (the bid curves
+ * intersect at a vertical step) the upper end of the price interval is taken.
+ */
+public final class MarketCouplingNetworkFlow {
+
+	/** Results of the hourly market coupling */
+	public static final class Solution {
+
+		/** [marketArea[bid[acceptance rate]]] */
+		private final double[][] acceptanceRates;
+		/** Whether the successive shortest paths terminated regularly */
+		private boolean converged = true;
+		/** Whether all price-independent demand could be covered */
+		private boolean demandCovered = true;
+		/** [fromMarketArea[toMarketArea[flow]]] */
+		private final double[][] flows;
+		/** [marketArea[price]] */
+		private final double[] prices;
+
+		private Solution(int numberOfMarketAreas) {
+			acceptanceRates = new double[numberOfMarketAreas][];
+			flows = new double[numberOfMarketAreas][numberOfMarketAreas];
+			prices = new double[numberOfMarketAreas];
+		}
+
+		public double[][] getAcceptanceRates() {
+			return acceptanceRates;
+		}
+
+		public double[][] getFlows() {
+			return flows;
+		}
+
+		public double[] getPrices() {
+			return prices;
+		}
+
+		public boolean isConverged() {
+			return converged;
+		}
+
+		public boolean isDemandCovered() {
+			return demandCovered;
+		}
+	}
+
+	/**
+	 * Cost tolerance for the shortest paths. Has to be clearly smaller than
+	 * the penalty for interconnector flows.
+	 */
+	private static final double COST_TOLERANCE = 1E-7;
+
+	/** Value of demand bids that have to be accepted [EUR/MWh] */
+	static final double FIXED_DEMAND_VALUE = 1E6;
+
+	/**
+	 * Instance of logger to give out warnings, errors to console and or files
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(MarketCouplingNetworkFlow.class.getName());
+
+	/** Volume tolerance [MWh] */
+	private static final double VOLUME_TOLERANCE = 1E-6;
+
+	/**
+	 * Relax the market area distances along the residual interconnector arcs
+	 * (Bellman-Ford; costs can be negative when existing flows are reduced).
+	 */
+	private static void calculateShortestPaths(double[] distance, int[] predecessor,
+			double[][] flows, double[][] capacities, double flowCost) {
+		final int numberOfMarketAreas = distance.length;
+		for (int round = 0; round < numberOfMarketAreas; round++) {
+			boolean changed = false;
+			for (int from = 0; from < numberOfMarketAreas; from++) {
+				if (distance[from] == Double.POSITIVE_INFINITY) {
+					continue;
+				}
+				for (int to = 0; to < numberOfMarketAreas; to++) {
+					if (from == to) {
+						continue;
+					}
+					final double arcCost = getArcCost(flows, capacities, flowCost, from, to);
+					if (arcCost == Double.POSITIVE_INFINITY) {
+						continue;
+					}
+					if ((distance[from] + arcCost) < (distance[to] - COST_TOLERANCE)) {
+						distance[to] = distance[from] + arcCost;
+						predecessor[to] = from;
+						changed = true;
+					}
+				}
+			}
+			if (!changed) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Cost of the residual arc between two market areas. Flows in opposite
+	 * direction are reduced first.
+	 *
+	 * @return cost or {@link Double#POSITIVE_INFINITY} if no residual capacity
+	 *         is left
+	 */
+	private static double getArcCost(double[][] flows, double[][] capacities, double flowCost,
+			int from, int to) {
+		if (flows[to][from] > VOLUME_TOLERANCE) {
+			return -flowCost;
+		}
+		if (flows[from][to] < (capacities[from][to] - VOLUME_TOLERANCE)) {
+			return flowCost;
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+
+	/** Remaining capacity of the residual arc between two market areas */
+	private static double getArcResidual(double[][] flows, double[][] capacities, int from,
+			int to) {
+		if (flows[to][from] > VOLUME_TOLERANCE) {
+			return flows[to][from];
+		}
+		return capacities[from][to] - flows[from][to];
+	}
+
+	/**
+	 * Implements the market coupling algorithm and hands the results to the
+	 * market coupling operator.
+	 *
+	 * @throws GRBException
+	 *             if demand cannot be covered or the algorithm did not
+	 *             converge, same as an infeasible model of
+	 *             {@link MarketCouplingHourly}, so that the fall-back
+	 *             mechanism of the market coupling operator takes effect
+	 */
+	public static void marketCouplingAlgorithmHourly(final int hourOfDay,
+			List<MarketArea> marketAreas, Map<MarketArea, List<Bid>> simpleBids,
+			MarketCouplingOperator marketCouplingOperator, Capacities capacitiesData)
+			throws GRBException {
+
+		final Solution solution = solve(hourOfDay, marketAreas, simpleBids, capacitiesData);
+		if (!solution.isConverged()) {
+			throw new GRBException("Market coupling did not converge (y" + Date.getYear() + "_d"
+					+ Date.getDayOfYear() + "_h" + hourOfDay + ").");
+		}
+		if (!solution.isDemandCovered()) {
+			throw new GRBException("Market clearing infeasible! Demand cannot be covered (y"
+					+ Date.getYear() + "_d" + Date.getDayOfYear() + "_h" + hourOfDay + ").");
+		}
+
+		/* Results */
+		marketCouplingOperator.setFlows(solution.getFlows(), hourOfDay);
+		marketCouplingOperator.setMarketClearingPricesDaily(solution.getPrices(), hourOfDay);
+		marketCouplingOperator.setAcceptedVolume(hourOfDay, solution.getAcceptanceRates());
+	}
+
+	/**
+	 * Maximize social welfare for one hour based on the bids from all market
+	 * areas and the interconnection capacities.
+	 *
+	 * @param hourOfDay
+	 *            [0..23]
+	 * @return prices, flows and acceptance rates indexed by the market coupling
+	 *         id of the market areas
+	 */
+	public static Solution solve(final int hourOfDay, List<MarketArea> marketAreas,
+			Map<MarketArea, List<Bid>> simpleBids, Capacities capacitiesData) {
+
+		final int numberOfMarketAreas = marketAreas.size();
+		final int hourOfYear = Date.getHourOfYearFromHourOfDay(hourOfDay);
+
+		/* Bids */
+		final double[][] values = new double[numberOfMarketAreas][];
+		final double[][] volumes = new double[numberOfMarketAreas][];
+		final boolean[][] sell = new boolean[numberOfMarketAreas][];
+		for (final MarketArea marketArea : marketAreas) {
+			final int marketAreaId = marketArea.getIdMarketCoupling() - 1;
+			final List<Bid> bids = simpleBids.get(marketArea);
+			values[marketAreaId] = new double[bids.size()];
+			volumes[marketAreaId] = new double[bids.size()];
+			sell[marketAreaId] = new boolean[bids.size()];
+			for (int bid = 0; bid < bids.size(); bid++) {
+				final Bid simpleBid = bids.get(bid);
+				values[marketAreaId][bid] = BidAggregation.isFixedDemand(simpleBid)
+						? FIXED_DEMAND_VALUE
+						: simpleBid.getPrice();
+				// Bids without volume are never accepted
+				volumes[marketAreaId][bid] = simpleBid.getVolume() > 0 ? simpleBid.getVolume() : 0;
+				sell[marketAreaId][bid] = simpleBid.getBidType() == BidType.SELL;
+			}
+		}
+
+		/* Interconnection capacities */
+		final double[][] capacities = new double[numberOfMarketAreas][numberOfMarketAreas];
+		for (final MarketArea fromMarketArea : marketAreas) {
+			for (final MarketArea toMarketArea : marketAreas) {
+				if (!fromMarketArea.equals(toMarketArea)) {
+					capacities[fromMarketArea.getIdMarketCoupling()
+							- 1][toMarketArea.getIdMarketCoupling() - 1] = capacitiesData
+									.getInterconnectionCapacityHour(fromMarketArea,
+											toMarketArea, Date.getYear(), hourOfYear);
+				}
+			}
+		}
+
+		final Solution solution = solve(values, volumes, sell, capacities,
+				-MarketCouplingHourly.getPenaltyInterconnectorFlows());
+		if (!solution.isConverged()) {
+			logger.error("Market coupling did not converge in hour " + hourOfDay + " on day "
+					+ Date.getDayOfYear() + " in year " + Date.getYear() + ".");
+		}
+		return solution;
+	}
+
+	/**
+	 * Maximize social welfare for one hour.
+	 *
+	 * @param values
+	 *            [marketArea[bid[price]]], {@link #FIXED_DEMAND_VALUE} for
+	 *            demand that has to be accepted
+	 * @param volumes
+	 *            [marketArea[bid[volume]]], non-negative
+	 * @param sell
+	 *            [marketArea[bid[is sell bid]]]
+	 * @param capacities
+	 *            [fromMarketArea[toMarketArea[capacity]]]
+	 * @param flowCost
+	 *            cost of interconnector flows [EUR/MWh]
+	 */
+	static Solution solve(double[][] values, double[][] volumes, boolean[][] sell,
+			double[][] capacities, double flowCost) {
+
+		final int numberOfMarketAreas = values.length;
+		final Solution solution = new Solution(numberOfMarketAreas);
+
+		/* Bid curves */
+		// Sell bids by ascending price, ask bids by descending value
+		final int[][] sellBids = new int[numberOfMarketAreas][];
+		final int[][] askBids = new int[numberOfMarketAreas][];
+		final double[][] volumesAccepted = new double[numberOfMarketAreas][];
+		final int[] sellIndex = new int[numberOfMarketAreas];
+		final int[] askIndex = new int[numberOfMarketAreas];
+		int numberOfBids = 0;
+
+		for (int marketAreaId = 0; marketAreaId < numberOfMarketAreas; marketAreaId++) {
+			final int numberOfBidsMarketArea = values[marketAreaId].length;
+			volumesAccepted[marketAreaId] = new double[numberOfBidsMarketArea];
+			solution.acceptanceRates[marketAreaId] = new double[numberOfBidsMarketArea];
+
+			int numberOfSellBids = 0;
+			for (int bid = 0; bid < numberOfBidsMarketArea; bid++) {
+				if (sell[marketAreaId][bid]) {
+					numberOfSellBids++;
+				}
+			}
+
+			final Integer[] sellOrder = new Integer[numberOfSellBids];
+			final Integer[] askOrder = new Integer[numberOfBidsMarketArea - numberOfSellBids];
+			numberOfSellBids = 0;
+			int numberOfAskBids = 0;
+			for (int bid = 0; bid < numberOfBidsMarketArea; bid++) {
+				if (sell[marketAreaId][bid]) {
+					sellOrder[numberOfSellBids++] = bid;
+				} else {
+					askOrder[numberOfAskBids++] = bid;
+				}
+			}
+			// Stable sorts, so ties keep the order of the bid list
+			final double[] valuesMarketArea = values[marketAreaId];
+			Arrays.sort(sellOrder,
+					(b1, b2) -> Double.compare(valuesMarketArea[b1], valuesMarketArea[b2]));
+			Arrays.sort(askOrder,
+					(b1, b2) -> Double.compare(valuesMarketArea[b2], valuesMarketArea[b1]));
+			sellBids[marketAreaId] = Arrays.stream(sellOrder).mapToInt(Integer::intValue)
+					.toArray();
+			askBids[marketAreaId] = Arrays.stream(askOrder).mapToInt(Integer::intValue).toArray();
+			numberOfBids += numberOfBidsMarketArea;
+		}
+
+		/* Successive shortest paths */
+		final double[][] flows = solution.flows;
+		final double[] distance = new double[numberOfMarketAreas];
+		final int[] predecessor = new int[numberOfMarketAreas];
+		final int maxIterations = (10 * (numberOfBids + (numberOfMarketAreas
+				* numberOfMarketAreas))) + 100;
+		int iteration = 0;
+		for (; iteration < maxIterations; iteration++) {
+			// Skip fully accepted bids
+			for (int marketAreaId = 0; marketAreaId < numberOfMarketAreas; marketAreaId++) {
+				while ((sellIndex[marketAreaId] < sellBids[marketAreaId].length)
+						&& ((volumes[marketAreaId][sellBids[marketAreaId][sellIndex[marketAreaId]]]
+								- volumesAccepted[marketAreaId][sellBids[marketAreaId][sellIndex[marketAreaId]]]) <= VOLUME_TOLERANCE)) {
+					sellIndex[marketAreaId]++;
+				}
+				while ((askIndex[marketAreaId] < askBids[marketAreaId].length)
+						&& ((volumes[marketAreaId][askBids[marketAreaId][askIndex[marketAreaId]]]
+								- volumesAccepted[marketAreaId][askBids[marketAreaId][askIndex[marketAreaId]]]) <= VOLUME_TOLERANCE)) {
+					askIndex[marketAreaId]++;
+				}
+			}
+
+			// Cheapest supply for each market area
+			for (int marketAreaId = 0; marketAreaId < numberOfMarketAreas; marketAreaId++) {
+				predecessor[marketAreaId] = -1;
+				distance[marketAreaId] = sellIndex[marketAreaId] < sellBids[marketAreaId].length
+						? values[marketAreaId][sellBids[marketAreaId][sellIndex[marketAreaId]]]
+						: Double.POSITIVE_INFINITY;
+			}
+			calculateShortestPaths(distance, predecessor, flows, capacities, flowCost);
+
+			// Find the path with the highest gain in welfare
+			int sinkMarketAreaId = -1;
+			double pathCost = -COST_TOLERANCE;
+			for (int marketAreaId = 0; marketAreaId < numberOfMarketAreas; marketAreaId++) {
+				if ((distance[marketAreaId] == Double.POSITIVE_INFINITY)
+						|| (askIndex[marketAreaId] >= askBids[marketAreaId].length)) {
+					continue;
+				}
+				final double cost = distance[marketAreaId]
+						- values[marketAreaId][askBids[marketAreaId][askIndex[marketAreaId]]];
+				if (cost < pathCost) {
+					pathCost = cost;
+					sinkMarketAreaId = marketAreaId;
+				}
+			}
+			// Welfare cannot be increased any further
+			if (sinkMarketAreaId == -1) {
+				break;
+			}
+
+			// Maximal volume along path
+			final int askBid = askBids[sinkMarketAreaId][askIndex[sinkMarketAreaId]];
+			double volume = volumes[sinkMarketAreaId][askBid]
+					- volumesAccepted[sinkMarketAreaId][askBid];
+			int sourceMarketAreaId = sinkMarketAreaId;
+			for (int step = 0; predecessor[sourceMarketAreaId] != -1; step++) {
+				if (step > numberOfMarketAreas) {
+					logger.error("Cycle in shortest path of market coupling");
+					solution.converged = false;
+					return solution;
+				}
+				volume = Math.min(volume, getArcResidual(flows, capacities,
+						predecessor[sourceMarketAreaId], sourceMarketAreaId));
+				sourceMarketAreaId = predecessor[sourceMarketAreaId];
+			}
+			final int sellBid = sellBids[sourceMarketAreaId][sellIndex[sourceMarketAreaId]];
+			volume = Math.min(volume, volumes[sourceMarketAreaId][sellBid]
+					- volumesAccepted[sourceMarketAreaId][sellBid]);
+
+			// Augment along path
+			volumesAccepted[sinkMarketAreaId][askBid] += volume;
+			volumesAccepted[sourceMarketAreaId][sellBid] += volume;
+			for (int to = sinkMarketAreaId; predecessor[to] != -1; to = predecessor[to]) {
+				final int from = predecessor[to];
+				if (flows[to][from] > VOLUME_TOLERANCE) {
+					flows[to][from] -= volume;
+				} else {
+					flows[from][to] += volume;
+				}
+			}
+		}
+		if (iteration == maxIterations) {
+			solution.converged = false;
+		}
+
+		/* Acceptance */
+		for (int marketAreaId = 0; marketAreaId < numberOfMarketAreas; marketAreaId++) {
+			for (int bid = 0; bid < volumes[marketAreaId].length; bid++) {
+				if (volumes[marketAreaId][bid] > 0) {
+					solution.acceptanceRates[marketAreaId][bid] = Math
+							.min(volumesAccepted[marketAreaId][bid] / volumes[marketAreaId][bid], 1);
+				}
+			}
+			for (final int askBid : askBids[marketAreaId]) {
+				if ((values[marketAreaId][askBid] == FIXED_DEMAND_VALUE)
+						&& ((volumes[marketAreaId][askBid]
+								- volumesAccepted[marketAreaId][askBid]) > VOLUME_TOLERANCE)) {
+					solution.demandCovered = false;
+				}
+			}
+		}
+
+		/* Prices */
+		// Potentials of the residual graph. The sink can be reached at no
+		// cost once any volume is traded, from there market areas can be
+		// reached by reducing their least valuable accepted demand.
+		boolean traded = false;
+		for (int marketAreaId = 0; marketAreaId < numberOfMarketAreas; marketAreaId++) {
+			for (final int askBid : askBids[marketAreaId]) {
+				traded |= volumesAccepted[marketAreaId][askBid] > VOLUME_TOLERANCE;
+			}
+		}
+		for (int marketAreaId = 0; marketAreaId < numberOfMarketAreas; marketAreaId++) {
+			predecessor[marketAreaId] = -1;
+			distance[marketAreaId] = sellIndex[marketAreaId] < sellBids[marketAreaId].length
+					? values[marketAreaId][sellBids[marketAreaId][sellIndex[marketAreaId]]]
+					: Double.POSITIVE_INFINITY;
+			if (traded) {
+				for (int index = askBids[marketAreaId].length - 1; index >= 0; index--) {
+					final int askBid = askBids[marketAreaId][index];
+					if (volumesAccepted[marketAreaId][askBid] > VOLUME_TOLERANCE) {
+						distance[marketAreaId] = Math.min(distance[marketAreaId],
+								values[marketAreaId][askBid]);
+						break;
+					}
+				}
+			}
+		}
+		calculateShortestPaths(distance, predecessor, flows, capacities, flowCost);
+		for (int marketAreaId = 0; marketAreaId < numberOfMarketAreas; marketAreaId++) {
+			// Neither supply nor demand in reach of market area
+			solution.prices[marketAreaId] = distance[marketAreaId] == Double.POSITIVE_INFINITY
+					? 0
+					: distance[marketAreaId];
+		}
+
+		return solution;
+	}
+
+	private MarketCouplingNetworkFlow() {
+	}
+}
@@ -1,7 +1,6 @@
 package markets.clearing;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.BitSet;
 
 /**
  * A price curve point that is part of price curve function. For a price it
@@ -10,18 +9,18 @@ import java.util.Set;
  */
 public class PriceCurvePoint {
 	/**
-	 * Contains the identifier of all ask bid points that have the same price as
-	 * the current price.
+	 * Contains the index of all ask bid points that have the same price as the
+	 * current price. The index refers to the sorted bids of the clearing.
 	 */
-	private Set<Integer> askPoints = new HashSet<Integer>();
+	private BitSet askPoints = new BitSet();
 	private float askVolumeMaximum;
 	private float askVolumeMinimum;
 	private final float price;
 	/**
-	 * Contains the identifier of all sell bid points that have the same price
-	 * as the current price.
+	 * Contains the index of all sell bid points that have the same price as
+	 * the current price. The index refers to the sorted bids of the clearing.
 	 */
-	private Set<Integer> sellPoints;
+	private BitSet sellPoints;
 	private float sellVolumeMaximum;
 	private float sellVolumeMinimum;
 
@@ -29,7 +28,7 @@ public class PriceCurvePoint {
 		this.price = price;
 	}
 
-	public Set<Integer> getAskPoints() {
+	public BitSet getAskPoints() {
 		return askPoints;
 	}
 
@@ -45,7 +44,7 @@ public class PriceCurvePoint {
 		return price;
 	}
 
-	public Set<Integer> getSellPoints() {
+	public BitSet getSellPoints() {
 		return sellPoints;
 	}
 
@@ -64,7 +63,7 @@ public class PriceCurvePoint {
 				+ getSellVolumeMaximum();
 	}
 
-	protected void setAskPoints(Set<Integer> askPoints) {
+	protected void setAskPoints(BitSet askPoints) {
 		this.askPoints = askPoints;
 	}
 
@@ -76,7 +75,7 @@ public class PriceCurvePoint {
 		this.askVolumeMinimum = askVolumeMinimum;
 	}
 
-	protected void setSellPoints(Set<Integer> sellPoints) {
+	protected void setSellPoints(BitSet sellPoints) {
 		this.sellPoints = sellPoints;
 	}
 
@@ -4,6 +4,7 @@ import static simulations.scheduling.Date.HOURS_PER_DAY;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -13,7 +14,6 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
@@ -41,6 +41,7 @@ import simulations.MarketArea;
 import simulations.initialization.Settings;
 import simulations.scheduling.Date;
 import tools.other.AccessFields;
+import tools.other.Concurrency;
 
 /**
  * Carries out a call market with bids of type markets.bids.BidPoint and forms a
@@ -339,6 +340,11 @@ public class RegularCallMarket {
 	 */
 	private Map<Integer, Boolean> exogenousAccepted;
 	private Map<Integer, Float> exogenousUnaccepted;
+	/**
+	 * Hours for which the bid curves have changed since the last market
+	 * clearing, i.e. only these hours have to be cleared again.
+	 */
+	private final BitSet hoursChanged = new BitSet();
 	private final MarketArea marketArea;
 	/** Upper bound of the price scale in EUR/MWh. */
 	private final float maximumPrice;
@@ -354,10 +360,10 @@ public class RegularCallMarket {
 	/** All temporary accepted volumes for all bids submitted */
 	private Map<Integer, Float> temporaryAcceptedVolumes;
 	/**
-	 * List of all hourly bids submitted and block bids transformed into hourly
-	 * bids.
+	 * All hourly bids submitted and block bids transformed into hourly bids,
+	 * stored column-wise for each hour.
 	 */
-	private List<List<Bid>> temporaryBids;
+	private BidBook temporaryBids;
 	/** All price volume combination for temporaryBids */
 	private final List<List<PriceCurvePoint>> temporaryPriceFunction = new ArrayList<>(
 			HOURS_PER_DAY);
@@ -963,7 +969,7 @@ public class RegularCallMarket {
 
 			// Solve model
 			model.setObjective(objective);
-			model.optimize();
+			Concurrency.executeBlocking(model::optimize);
 
 			// Show results
 			int hour = 0;
@@ -1037,6 +1043,8 @@ public class RegularCallMarket {
 		final float volume = blockBid.getVolume();
 		final float price = blockBid.getPrice();
 
+		hoursChanged.set(start, end + 1);
+
 		if (blockBid.getBidType() == BidType.SELL) {
 			for (int hour = start; hour <= end; hour++) {
 				final ListIterator<PriceCurvePoint> iterator = temporaryPriceFunction.get(hour)
@@ -1112,15 +1120,10 @@ public class RegularCallMarket {
 
 		initializePriceFunction();
 
-		for (int hour = 0; hour < temporaryBids.size(); hour++) {
+		for (int hour = 0; hour < temporaryBids.getNumberOfHours(); hour++) {
 
-			final ListIterator<Bid> bidIterator = temporaryBids.get(hour).listIterator();
-
-			final TreeSet<Float> hourlyPrices = new TreeSet<>();
-			// Find unique list of prices for each hour
-			while (bidIterator.hasNext()) {
-				hourlyPrices.add(bidIterator.next().getPrice());
-			}
+			// Find unique list of prices for each hour, bids are already sorted
+			final float[] hourlyPrices = temporaryBids.getUniquePrices(hour);
 			// Write unique prices into hourly price set
 			for (final float price : hourlyPrices) {
 				temporaryPriceFunction.get(hour).add(new PriceCurvePoint(price));
@@ -1762,12 +1765,16 @@ public class RegularCallMarket {
 	}
 
 	/**
-	 * Find the market outcomes for each hour of the day.
+	 * Find the market outcomes for each hour of the day whose bid curves have
+	 * changed since the last call (see {@link #hoursChanged}). The outcomes of
+	 * all other hours are still valid.
 	 */
 	private void findMarketOutcomes() {
-		for (int hour = 0; hour < temporaryPriceFunction.size(); hour++) {
+		for (int hour = hoursChanged.nextSetBit(0); hour >= 0; hour = hoursChanged
+				.nextSetBit(hour + 1)) {
 			findMarketOutcomesHourly(hour, 0, temporaryPriceFunction.get(hour).size() - 1);
 		}
+		hoursChanged.clear();
 	}
 
 	/**
@@ -1947,26 +1954,32 @@ public class RegularCallMarket {
 	/** Set temporary prices for the whole day */
 	private void initializePriceFunction() {
 		temporaryPriceFunction.clear();
-		for (int hour = 0; hour < temporaryBids.size(); hour++) {
+		hoursChanged.clear();
+		for (int hour = 0; hour < temporaryBids.getNumberOfHours(); hour++) {
 			temporaryPriceFunction.add(new ArrayList<PriceCurvePoint>());
 		}
+		hoursChanged.set(0, temporaryBids.getNumberOfHours());
 	}
 
 	/**
-	 * Writes all bids from {@link #bidPointsDay} into {@link #temporaryBids}
-	 * (shallow copy). Also, make hourly bids out of {@link #blockBidsDay} and
-	 * writes them into {@link #temporaryBids}
+	 * Writes all bids from {@link #bidPointsDay} into {@link #temporaryBids}.
+	 * Also, make hourly bids out of {@link #blockBidsDay} and writes them into
+	 * {@link #temporaryBids}
 	 */
 	private void makeTemporaryHourlyBids() {
 
-		final List<List<Bid>> copybidPointList = new ArrayList<>(bidPointsDay.size());
+		if ((temporaryBids == null)
+				|| (temporaryBids.getNumberOfHours() != bidPointsDay.size())) {
+			temporaryBids = new BidBook(bidPointsDay.size());
+		} else {
+			temporaryBids.clear();
+		}
 		for (final Integer hour : bidPointsDay.keySet()) {
-			copybidPointList.add(new ArrayList<Bid>(bidPointsDay.get(hour).size()));
 			for (final Bid bidPoint : bidPointsDay.get(hour)) {
-				copybidPointList.get(hour).add(bidPoint);
+				temporaryBids.add(hour, bidPoint.getPrice(), bidPoint.getVolume(),
+						bidPoint.getType() == BidType.SELL, bidPoint.getIdentifier());
 			}
 		}
-		temporaryBids = copybidPointList;
 
 		if (blockBidsDay != null) {
 			final ListIterator<BlockBidPower> iterator = blockBidsDay.listIterator();
@@ -1974,12 +1987,11 @@ public class RegularCallMarket {
 				final BlockBidPower blockBid = iterator.next();
 				// If BlockBid is still in the market, add to ask or sell list
 				if (blockBid.isAccepted()) {
+					// Only positive volumes are allowed for hourly bids
+					final float volume = Math.max(0, blockBid.getVolume());
 					for (int hour = blockBid.getStart(); hour <= blockBid.getEnd(); hour++) {
-						temporaryBids.get(hour)
-								.add(new HourlyBidPower.Builder(blockBid.getVolume(),
-										blockBid.getPrice(), hour, blockBid.getBidType(),
-										marketArea).traderType(blockBid.getTraderType())
-												.identifier(blockBid.getIdentifier()).build());
+						temporaryBids.add(hour, blockBid.getPrice(), volume,
+								blockBid.getBidType() == BidType.SELL, blockBid.getIdentifier());
 					}
 				}
 			}
@@ -2128,12 +2140,12 @@ public class RegularCallMarket {
 		for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
 			final PriceCurvePoint point = outcomes.get(hour);
 
-			// check for empty values
-			final Set<Integer> sell;
+			// check for empty values, index in temporaryBids
+			final BitSet sell;
 			if (point != null) {
 				sell = point.getSellPoints();
 			} else {
-				sell = new HashSet<>();
+				sell = new BitSet();
 			}
 
 			// set costs
@@ -2146,7 +2158,7 @@ public class RegularCallMarket {
 				// is regarded here) (it is pretty unlikely that bids with
 				// different start-up costs will have the exact same
 				// price)
-				final int identifier = sell.iterator().next();
+				final int identifier = temporaryBids.getIdentifier(hour, sell.nextSetBit(0));
 				final float startupCost = ((PowerBid) allBidsMap.get(hour).get(identifier))
 						.getStartupCosts();
 				clearingStartupCosts.add(startupCost);
@@ -2221,55 +2233,42 @@ public class RegularCallMarket {
 	 * @see markets.bids.power.HourlyBidPower#compareTo(Object) compareTo
 	 */
 	private void sortTemporaryBids() {
-		for (final List<Bid> temporaryBid : temporaryBids) {
-			// First: Sort by lowest price
-			final Comparator<Bid> compPrice = (Bid b1, Bid b2) -> Float.compare(b1.getPrice(),
-					b2.getPrice());
-			// Second: Sort by highest volume
-			final Comparator<Bid> compVolume = (Bid b1, Bid b2) -> -1
-					* Float.compare(b1.getVolume(), b2.getVolume());
-			Collections.sort(temporaryBid, compPrice.thenComparing(compVolume));
-		}
+		// First: Sort by lowest price, second: Sort by highest volume
+		temporaryBids.sort();
 	}
 
 	/**
 	 * Write ask volumes for each price in <code>hourlyPrices</code> based on
 	 * <code>temporaryBids</code>
 	 */
-	private void writeTemporaryAskVolumes(int hour, Set<Float> hourlyPrices) {
+	private void writeTemporaryAskVolumes(int hour, float[] hourlyPrices) {
 
 		float askVolumeCurrent = 0;
 		float askVolumeLast = 0;
-		final Set<Integer> askSet = new HashSet<>();
-		int hourlyPriceIndex = 0;
-		int bidCounter = temporaryBids.get(hour).size();
-
-		// Copy unique prices to an array in order to reversely iterate through
-		// that array
-		final Float[] hourlyPricesArray = hourlyPrices.toArray(new Float[hourlyPrices.size()]);
+		// Index in temporaryBids
+		final BitSet askSet = new BitSet();
+		int bidCounter = temporaryBids.getSize(hour);
 
-		for (hourlyPriceIndex = hourlyPricesArray.length
+		// Reversely iterate through unique prices
+		for (int hourlyPriceIndex = hourlyPrices.length
 				- 1; hourlyPriceIndex >= 0; hourlyPriceIndex--) {
-			final float currentPrice = hourlyPricesArray[hourlyPriceIndex];
-			for (final ListIterator<Bid> bidIterator = temporaryBids.get(hour)
-					.listIterator(bidCounter); bidIterator.hasPrevious();) {
-				final Bid bidPoint = bidIterator.previous();
-				bidCounter--;
+			final float currentPrice = hourlyPrices[hourlyPriceIndex];
+			for (; bidCounter > 0; bidCounter--) {
+				final int bid = bidCounter - 1;
 
 				// only asking bids
-				if (bidPoint.getType() != BidType.ASK) {
+				if (!temporaryBids.isAsk(hour, bid)) {
 					continue;
 				}
 
 				// price add volume until ask prices are higher than
 				// current market price
-				if (bidPoint.getPrice() >= currentPrice) {
-					askVolumeCurrent += bidPoint.getVolume();
-					askSet.add(bidPoint.getIdentifier());
+				if (temporaryBids.getPrice(hour, bid) >= currentPrice) {
+					askVolumeCurrent += temporaryBids.getVolume(hour, bid);
+					askSet.set(bid);
 				}
 				// consider bid for next price
 				else {
-					bidCounter++;
 					break;
 				}
 			}
@@ -2287,31 +2286,28 @@ public class RegularCallMarket {
 	 * Write sell volumes for each price in <code>hourlyPrices</code> based on
 	 * <code>temporaryBids</code>
 	 */
-	private void writeTemporarySellVolumes(int hour, Set<Float> hourlyPrices) {
+	private void writeTemporarySellVolumes(int hour, float[] hourlyPrices) {
 		float sellVolumeLast = 0;
 		float sellVolumeCurrent = 0;
-		int hourlyPriceIndex = 0;
 		int bidCounter = 0;
-		ListIterator<Bid> bidIterator = temporaryBids.get(hour).listIterator();
+		final int numberOfBids = temporaryBids.getSize(hour);
 		// For all prices
-		for (final float price : hourlyPrices) {
-			final float currentPrice = price;
-			final Set<Integer> sellSet = new HashSet<>();
-			while (bidIterator.hasNext()) {
-				final Bid bidPoint = bidIterator.next();
-				bidCounter++;
+		for (int hourlyPriceIndex = 0; hourlyPriceIndex < hourlyPrices.length; hourlyPriceIndex++) {
+			final float currentPrice = hourlyPrices[hourlyPriceIndex];
+			// Index in temporaryBids
+			final BitSet sellSet = new BitSet();
+			for (; bidCounter < numberOfBids; bidCounter++) {
 				// only selling bids
-				if (bidPoint.getType() != BidType.SELL) {
+				if (!temporaryBids.isSell(hour, bidCounter)) {
 					continue;
 				}
 				// price add volume until bid prices are smaller than
 				// current market
-				if (bidPoint.getPrice() <= currentPrice) {
-					sellVolumeCurrent += bidPoint.getVolume();
-					sellSet.add(bidPoint.getIdentifier());
+				if (temporaryBids.getPrice(hour, bidCounter) <= currentPrice) {
+					sellVolumeCurrent += temporaryBids.getVolume(hour, bidCounter);
+					sellSet.set(bidCounter);
 				} else {
 					// consider bid for next price
-					bidIterator = temporaryBids.get(hour).listIterator(--bidCounter);
 					break;
 				}
 			}
@@ -2321,7 +2317,6 @@ public class RegularCallMarket {
 			temp.setSellVolumeMinimum(Math.abs(sellVolumeLast));
 			temp.setSellVolumeMaximum(Math.abs(sellVolumeCurrent));
 			sellVolumeLast = sellVolumeCurrent;
-			hourlyPriceIndex++;
 		}
 	}
 
@@ -1,10 +1,10 @@
 package markets.clearing;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -412,7 +412,8 @@ public class SimpleClearing {
 
 		float askVolumeCurrent = 0;
 		float askVolumeLast = 0;
-		final Set<Integer> askSet = new HashSet<>();
+		// Index in askBidPoints
+		final BitSet askSet = new BitSet();
 		int priceIndex = 0;
 		int bidCounter = askBidPoints.size();
 
@@ -431,7 +432,7 @@ public class SimpleClearing {
 				// current market price
 				if (bidPoint.getPrice() >= currentPrice) {
 					askVolumeCurrent += bidPoint.getVolume();
-					askSet.add(bidPoint.getIdentifier());
+					askSet.set(bidCounter);
 				}
 				// consider bid for next price
 				else {
@@ -464,7 +465,8 @@ public class SimpleClearing {
 		// For all prices
 		for (final float price : prices) {
 			final float currentPrice = price;
-			final Set<Integer> sellSet = new HashSet<>();
+			// Index in sellBidPoints
+			final BitSet sellSet = new BitSet();
 			while (bidIterator.hasNext()) {
 				final Bid bidPoint = bidIterator.next();
 				bidCounter++;
@@ -473,7 +475,7 @@ public class SimpleClearing {
 				// current market
 				if (bidPoint.getPrice() <= currentPrice) {
 					sellVolumeCurrent += bidPoint.getVolume();
-					sellSet.add(bidPoint.getIdentifier());
+					sellSet.set(bidCounter - 1);
 				} else {
 					// consider bid for next price
 					bidIterator = sellBidPoints.listIterator(--bidCounter);
@@ -57,9 +57,19 @@ public class DayAheadMarketOperator extends Operator {
 	 */
 	private static final Logger logger = LoggerFactory
 			.getLogger(DayAheadMarketOperator.class.getName());
-	private static ExecutorService exec;
+	private static volatile ExecutorService exec;
 
-	public static void shutdown() throws InterruptedException {
+	/**
+	 * Create the executor if none is running. Synchronized since the market
+	 * areas, and with them their operators, can be initialized concurrently.
+	 */
+	private static synchronized void initializeExecutor() {
+		if ((exec == null) || exec.isTerminated()) {
+			exec = Executors.newFixedThreadPool(Settings.getNumberOfCores());
+		}
+	}
+
+	public static synchronized void shutdown() throws InterruptedException {
 		exec.shutdown();
 		exec.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
 	}
@@ -108,9 +118,7 @@ public class DayAheadMarketOperator extends Operator {
 			Collections.nCopies(HOURS_PER_DAY, Float.NaN));
 
 	public DayAheadMarketOperator() {
-		if ((exec == null) || exec.isTerminated()) {
-			exec = Executors.newFixedThreadPool(Settings.getNumberOfCores());
-		}
+		initializeExecutor();
 	}
 
 	private void checkBidPointsAllocation() {
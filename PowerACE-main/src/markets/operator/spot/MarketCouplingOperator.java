@@ -19,13 +19,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import data.exchange.Capacities;
-import com.gurobi.gurobi.GRB;
 import com.gurobi.gurobi.GRBException;
-import com.gurobi.gurobi.GRBModel;
-import com.gurobi.gurobi.GRBVar;
 import markets.bids.Bid;
 import markets.bids.Bid.BidType;
-import markets.clearing.MarketCouplingHourly;
+import markets.clearing.MarketCouplingEngine;
 import markets.operator.spot.tools.ExchangeForecastMarketCoupling;
 import markets.operator.spot.tools.MarginalBid;
 import markets.operator.spot.tools.StorageOperationForecast;
@@ -39,10 +36,13 @@ import simulations.MarketArea;
 import simulations.PowerMarkets;
 import simulations.initialization.Settings;
 import simulations.scheduling.Date;
+import tools.logging.ColumnHeader;
 import tools.logging.Folder;
-import tools.logging.LoggerCSV;
+import tools.logging.LoggerBinary.ColumnType;
+import tools.logging.LoggerTable;
 import tools.math.Statistics;
 import tools.other.Concurrency;
+import tools.types.Unit;
 
 /**
  * This day ahead market coupling operator is called by the market scheduler
@@ -93,6 +93,8 @@ public final class MarketCouplingOperator {
 	private Map<MarketArea, List<Float>> hourlyStorageOperationForecastAllMarketAreas = new LinkedHashMap<>();
 	private int logIDPriceForecast;
 	private int logIDStorageForecast;
+	/** Algorithm used to clear the coupled markets */
+	private MarketCouplingEngine marketCouplingEngine;
 	/** List of market areas to be coupled */
 	private final List<MarketArea> marketAreas = new ArrayList<>();
 
@@ -205,15 +207,14 @@ public final class MarketCouplingOperator {
 			// Module needs some data for calibration
 			if (!Date.isFirstYear()
 					|| (Date.isFirstYear() && (Date.getDayOfYear() >= startDayOfYear))) {
+				// New estimate of models
+				estimateExchangeForecastModels();
 				for (final MarketArea marketAreaFrom : exchangeForecastMarketCoupling.keySet()) {
 					if (hourlyExchangeForecast.get(marketAreaFrom) == null) {
 						hourlyExchangeForecast.put(marketAreaFrom, new LinkedHashMap<>());
 					}
 					for (final MarketArea marketAreaTo : exchangeForecastMarketCoupling
 							.get(marketAreaFrom).keySet()) {
-						// New estimate of model
-						exchangeForecastMarketCoupling.get(marketAreaFrom).get(marketAreaTo)
-								.estimateModel();
 						// Get exchange forecast
 						hourlyExchangeForecast.get(marketAreaFrom).put(marketAreaTo,
 								new ArrayList<>());
@@ -264,6 +265,8 @@ public final class MarketCouplingOperator {
 				if (!Date.isFirstYear()
 						|| (Date.isFirstYear() && (Date.getDayOfYear() >= startDayOfYear))) {
 
+					// New estimate of models
+					estimateExchangeForecastModels();
 					for (final MarketArea marketAreaFrom : exchangeForecastMarketCoupling
 							.keySet()) {
 						if (hourlyExchangeForecast.get(marketAreaFrom) == null) {
@@ -272,10 +275,6 @@ public final class MarketCouplingOperator {
 						for (final MarketArea marketAreaTo : exchangeForecastMarketCoupling
 								.get(marketAreaFrom).keySet()) {
 
-							// New estimate of model
-							exchangeForecastMarketCoupling.get(marketAreaFrom).get(marketAreaTo)
-									.estimateModel();
-
 							// Get exchange forecast
 							hourlyExchangeForecast.get(marketAreaFrom).put(marketAreaTo,
 									new ArrayList<>());
@@ -391,7 +390,11 @@ public final class MarketCouplingOperator {
 		}
 	}
 
-	private Callable<Void> clearMarket(int hourOfDay) throws GRBException {
+	/**
+	 * Clear the coupled markets for the hour of day. If market coupling
+	 * fails, the exception is stored in <code>exceptions[hourOfDay]</code>.
+	 */
+	private Callable<Void> clearMarket(int hourOfDay, GRBException[] exceptions) {
 		return () -> {
 			try {
 				final String threadName = "Clear Markets for hour of day: " + hourOfDay;
@@ -406,8 +409,10 @@ public final class MarketCouplingOperator {
 				/* 3. Clear market */
 
 				// Market coupling
-				MarketCouplingHourly.marketCouplingAlgorithmHourly(hourOfDay, marketAreas,
+				marketCouplingEngine.marketCouplingAlgorithmHourly(hourOfDay, marketAreas,
 						Collections.unmodifiableMap(simpleBidsTemp), this, capacitiesData);
+			} catch (final GRBException e) {
+				exceptions[hourOfDay] = e;
 			} catch (final Exception e) {
 				logger.error("Clear market problems", e);
 			}
@@ -436,6 +441,36 @@ public final class MarketCouplingOperator {
 		};
 	}
 
+	/**
+	 * Release the resources of the market coupling algorithm, e.g. the
+	 * solver environments. Called at the end of the simulation run.
+	 */
+	public void dispose() {
+		if (marketCouplingEngine != null) {
+			marketCouplingEngine.dispose();
+			marketCouplingEngine = null;
+		}
+	}
+
+	/**
+	 * Estimate the exchange forecast models of all interconnectors with the
+	 * data of the previous day. The models are independent of each other and
+	 * are therefore estimated concurrently.
+	 */
+	private void estimateExchangeForecastModels() {
+		final Collection<Callable<Void>> tasks = new ArrayList<>();
+		for (final Map<MarketArea, ExchangeForecastMarketCoupling> forecasts : exchangeForecastMarketCoupling
+				.values()) {
+			for (final ExchangeForecastMarketCoupling forecast : forecasts.values()) {
+				tasks.add(() -> {
+					forecast.estimateModel();
+					return null;
+				});
+			}
+		}
+		Concurrency.executeConcurrently(tasks);
+	}
+
 	/**
 	 * Execute market coupling for registered market areas. Method is called
 	 * daily in PowerMarkets.
@@ -480,10 +515,17 @@ public final class MarketCouplingOperator {
 			try {
 
 				final Collection<Callable<Void>> tasksClearing = new ArrayList<>();
+				final GRBException[] exceptionsClearing = new GRBException[HOURS_PER_DAY];
 				for (int hourOfDay = 0; hourOfDay < HOURS_PER_DAY; hourOfDay++) {
-					tasksClearing.add(clearMarket(hourOfDay));
+					tasksClearing.add(clearMarket(hourOfDay, exceptionsClearing));
 				}
 				Concurrency.executeConcurrently(tasksClearing);
+				// Fall-back mechanism if market coupling failed in any hour
+				for (final GRBException exception : exceptionsClearing) {
+					if (exception != null) {
+						throw exception;
+					}
+				}
 				final long time4 = System.currentTimeMillis() / 1000;
 				final long timeGurobiSolver = time4 - time3;
 				t3 += timeGurobiSolver;
@@ -509,8 +551,8 @@ public final class MarketCouplingOperator {
 				logPriceForecast();
 				logStorageForecast();
 				if (Date.isLastDayOfYear()) {
-					LoggerCSV.close(logIDPriceForecast);
-					LoggerCSV.close(logIDStorageForecast);
+					LoggerTable.close(logIDPriceForecast);
+					LoggerTable.close(logIDStorageForecast);
 				}
 
 				final long time5 = System.currentTimeMillis() / 1000;
@@ -734,6 +776,8 @@ public final class MarketCouplingOperator {
 		congestionRevenue = new CongestionRevenue(marketAreas);
 		exchangeFlows = new ExchangeFlows(marketAreas);
 		pricesMarketArea = new PricesMarketArea(model);
+		// Engine is created after the settings have been read
+		marketCouplingEngine = Settings.getMarketCouplingEngine().createEngine();
 
 		// Create log folder
 		final File folder = new File(marketCouplingFolderPath);
@@ -780,22 +824,30 @@ public final class MarketCouplingOperator {
 	}
 
 	private void logInitializePriceForecast() {
-		final String fileName = "Price_forecast_" + Date.getYear() + Settings.LOG_FILE_SUFFIX_CSV;
-		final String unitLine = "marketArea;year;hourOfYear;opt;"
-				+ Settings.getDayAheadPriceForecastType() + ";sim";
-		final String titleLine = "#";
-		final String description = "#";
-		logIDPriceForecast = LoggerCSV.newLogObject(Folder.MAIN, fileName, description, titleLine,
-				unitLine, "Price_forecast");
+		final List<ColumnHeader> columns = new ArrayList<>();
+		columns.add(new ColumnHeader("marketArea", Unit.NONE));
+		columns.add(new ColumnHeader("year", Unit.YEAR, ColumnType.INT));
+		columns.add(new ColumnHeader("hourOfYear", Unit.HOUR, ColumnType.INT));
+		columns.add(new ColumnHeader("opt", Unit.ENERGY_PRICE));
+		columns.add(new ColumnHeader(Settings.getDayAheadPriceForecastType().toString(),
+				Unit.ENERGY_PRICE));
+		columns.add(new ColumnHeader("sim", Unit.ENERGY_PRICE));
+		logIDPriceForecast = LoggerTable.newLogObject(Folder.MAIN,
+				"Price_forecast_" + Date.getYear(),
+				"Day-ahead price forecasts and simulated prices", columns, "Price_forecast");
 	}
 
 	private void logInitializeStorageForecast() {
-		final String fileName = "Storage_forecast_" + Date.getYear() + Settings.LOG_FILE_SUFFIX_CSV;
-		final String unitLine = "marketArea;year;hourOfYear;forecast;sim";
-		final String titleLine = "#";
-		final String description = "#";
-		logIDStorageForecast = LoggerCSV.newLogObject(Folder.MAIN, fileName, description, titleLine,
-				unitLine, "Storage_forecast");
+		final List<ColumnHeader> columns = new ArrayList<>();
+		columns.add(new ColumnHeader("marketArea", Unit.NONE));
+		columns.add(new ColumnHeader("year", Unit.YEAR, ColumnType.INT));
+		columns.add(new ColumnHeader("hourOfYear", Unit.HOUR, ColumnType.INT));
+		columns.add(new ColumnHeader("forecast", Unit.ENERGY_VOLUME));
+		columns.add(new ColumnHeader("sim", Unit.ENERGY_VOLUME));
+		logIDStorageForecast = LoggerTable.newLogObject(Folder.MAIN,
+				"Storage_forecast_" + Date.getYear(),
+				"Storage operation forecasts and simulated operation", columns,
+				"Storage_forecast");
 	}
 
 	private void logPriceForecast() {
@@ -809,12 +861,10 @@ public final class MarketCouplingOperator {
 			}
 
 			for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
-				String dataLine = "";
-				dataLine = dataLine + marketArea + ";" + Date.getYear() + ";"
-						+ Date.getHourOfYearFromHourOfDay(hourOfDay) + ";" + ";"
-						+ priceForecasts.get(hourOfDay) + ";"
-						+ marketClearingPricesDaily.get(marketArea).get(hourOfDay) + ";";
-				LoggerCSV.writeLine(logIDPriceForecast, dataLine);
+				LoggerTable.writeLine(logIDPriceForecast, marketArea.toString(), Date.getYear(),
+						Date.getHourOfYearFromHourOfDay(hourOfDay), Float.NaN,
+						priceForecasts.get(hourOfDay),
+						marketClearingPricesDaily.get(marketArea).get(hourOfDay));
 			}
 		}
 	}
@@ -822,15 +872,12 @@ public final class MarketCouplingOperator {
 	private void logStorageForecast() {
 		for (final MarketArea marketArea : marketAreas) {
 			for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
-				String dataLine = "";
-				dataLine = dataLine + marketArea + ";" + Date.getYear() + ";"
-						+ Date.getHourOfYearFromHourOfDay(hourOfDay) + ";"
-						+ hourlyStorageOperationForecastAllMarketAreas.get(marketArea)
-								.get(hourOfDay)
-						+ ";" + (-marketArea.getElectricityProduction().getElectricityPumpedStorage(
-								Date.getYear(), Date.getFirstHourOfToday() + hourOfDay))
-						+ ";";
-				LoggerCSV.writeLine(logIDStorageForecast, dataLine);
+				LoggerTable.writeLine(logIDStorageForecast, marketArea.toString(), Date.getYear(),
+						Date.getHourOfYearFromHourOfDay(hourOfDay),
+						hourlyStorageOperationForecastAllMarketAreas.get(marketArea)
+								.get(hourOfDay),
+						-marketArea.getElectricityProduction().getElectricityPumpedStorage(
+								Date.getYear(), Date.getFirstHourOfToday() + hourOfDay));
 			}
 		}
 	}
@@ -877,13 +924,10 @@ public final class MarketCouplingOperator {
 	 * Set accepted volume for each optimized bid
 	 * 
 	 * @param hourOfDay
-	 * @param acceptResults
-	 * @param model
-	 * @param accept
-	 * @throws GRBException
+	 * @param acceptanceRates
+	 *            [marketArea[bid[acceptance rate]]]
 	 */
-	public void setAcceptedVolume(int hourOfDay, GRBModel model, GRBVar[][] accept)
-			throws GRBException {
+	public void setAcceptedVolume(int hourOfDay, double[][] acceptanceRates) {
 
 		for (final MarketArea marketArea : marketAreas) {
 
@@ -892,8 +936,8 @@ public final class MarketCouplingOperator {
 			for (int bid = 0; bid < simpleBids.get(marketArea).get(hourOfDay).size(); bid++) {
 				final Bid simpleBid = simpleBids.get(marketArea).get(hourOfDay).get(bid);
 				// Save cleared volume: accept * volume
-				final double acceptanceRate = model.get(GRB.DoubleAttr.X,
-						accept[marketArea.getIdMarketCoupling() - 1])[bid];
+				final double acceptanceRate = acceptanceRates[marketArea.getIdMarketCoupling()
+						- 1][bid];
 				final double volume = acceptanceRate * simpleBid.getVolume();
 				simpleBid.setVolumeAccepted((float) volume);
 			}
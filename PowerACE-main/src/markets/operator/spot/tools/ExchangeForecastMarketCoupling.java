@@ -3,8 +3,6 @@ package markets.operator.spot.tools;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.commons.math3.linear.MatrixUtils;
-import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,14 +36,17 @@ public class ExchangeForecastMarketCoupling {
 		 */
 		private boolean excluded;
 		private Float exponent;
-		/** (Hourly) Forecast data for next prediction */
-		private List<Float> forecastData;
+		/**
+		 * (Hourly) Forecast data for next prediction, buffer is reused for
+		 * each forecast (therefore forecasts are synchronized)
+		 */
+		private double[] forecastData = new double[0];
 		/** Index in regression model */
 		private int index;
 		/** (Hourly) Input data for next model estimation */
-		private final List<Float> inputDataAll = new ArrayList<>();
+		private final List<Double> inputDataAll = new ArrayList<>();
 		/** (Hourly) Input data for model estimation on current day */
-		private List<Float> inputDataUpdateDaily;
+		private final double[] inputDataUpdateDaily = new double[Date.HOURS_PER_DAY];
 		/** Reference to market area (e.g. relevant for scarcity indicator) */
 		private MarketArea marketArea;
 		/** Type of independent variable */
@@ -98,7 +99,10 @@ public class ExchangeForecastMarketCoupling {
 	private double[] coefficientsRegressionFull;
 	/** Current estimate of constant in regression model */
 	private double constant;
-	private List<Double> exchangeForecast = new ArrayList<>();
+	/** Simulated exchange of all days, only used for full regression model */
+	private final List<Double> exchangeForecast = new ArrayList<>();
+	/** Simulated exchange of the last day */
+	private final double[] exchangeForecastUpdateDaily = new double[Date.HOURS_PER_DAY];
 	/** Maximum value of simulated exchange */
 	private double exchangeMaximum = Double.MIN_VALUE;
 	/** Minimum value of simulated exchange */
@@ -142,7 +146,7 @@ public class ExchangeForecastMarketCoupling {
 	}
 
 	/** Estimate regression model with most recent data */
-	public void estimateModel() {
+	public synchronized void estimateModel() {
 
 		try {
 			/* Set period */
@@ -153,8 +157,6 @@ public class ExchangeForecastMarketCoupling {
 				dayOfYear = Date.DAYS_PER_YEAR;
 			}
 
-			final List<Double> exchangeForecastUpdateDaily = new ArrayList<>();
-
 			for (int hour = 0; hour < Date.HOURS_PER_DAY; hour++) {
 				final int hourOfYear = Date.getFirstHourOfDay(dayOfYear) + hour;
 				final double hourlyInterconnectorBalance = (marketCouplingOperator
@@ -162,44 +164,39 @@ public class ExchangeForecastMarketCoupling {
 						.getHourlyFlow(marketAreaFrom, marketAreaTo, year, hourOfYear)
 						- marketCouplingOperator.getExchangeFlows().getHourlyFlow(marketAreaTo,
 								marketAreaFrom, year, hourOfYear));
-				exchangeForecastUpdateDaily.add(hourlyInterconnectorBalance);
+				exchangeForecastUpdateDaily[hour] = hourlyInterconnectorBalance;
 			}
 
-			exchangeForecast.addAll(exchangeForecastUpdateDaily);
-
 			// Independent variables (-> regressors)
-			final List<List<Float>> inputDataAllVariables = collectDataIndependentVariables(year,
-					dayOfYear, dayOfYear);
-			for (final IndependentVariable independentVariable : independentVariables) {
-				independentVariable.inputDataUpdateDaily = inputDataAllVariables
-						.get(independentVariable.index);
-				if (testRegressionFull) {
-					independentVariable.inputDataAll
-							.addAll(inputDataAllVariables.get(independentVariable.index));
+			collectDataIndependentVariables(year, dayOfYear, dayOfYear, false);
+
+			if (testRegressionFull) {
+				for (int hour = 0; hour < Date.HOURS_PER_DAY; hour++) {
+					exchangeForecast.add(exchangeForecastUpdateDaily[hour]);
+					for (final IndependentVariable independentVariable : independentVariables) {
+						independentVariable.inputDataAll
+								.add(independentVariable.inputDataUpdateDaily[hour]);
+					}
 				}
 			}
 
 			/* Perform iterations in recursive least squares filter */
+			final double[] sampleUpdate = new double[independentVariables.size() + 1];
+			// Set data value of constant to 1d
+			sampleUpdate[0] = 1d;
 			for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
 				try {
 
 					// Get hourly sample update
-					final double[] sampleUpdate = new double[independentVariables.size() + 1];
-					// Set data value of constant to 1d
-					sampleUpdate[0] = 1d;
 					int indexVar = 0;
 					for (final IndependentVariable independentVariable : independentVariables) {
-						sampleUpdate[indexVar + 1] = independentVariable.inputDataUpdateDaily
-								.get(hourOfDay);
+						sampleUpdate[indexVar + 1] = independentVariable.inputDataUpdateDaily[hourOfDay];
 						indexVar++;
 					}
-					final RealMatrix sampleUpdateMatrix = MatrixUtils
-							.createColumnRealMatrix(sampleUpdate);
 
 					// Perform iteration
 					recursiveLeastSquaresModel.performIteration(
-							exchangeForecastUpdateDaily.get(hourOfDay), sampleUpdateMatrix,
-							hourOfDay);
+							exchangeForecastUpdateDaily[hourOfDay], sampleUpdate, hourOfDay);
 
 					// Set updated coefficients of independent variables
 					final double[] coefficientsRecursive = recursiveLeastSquaresModel
@@ -212,9 +209,9 @@ public class ExchangeForecastMarketCoupling {
 					}
 
 					// Cache maximum and minimum values
-					exchangeMaximum = Math.max(exchangeForecastUpdateDaily.get(hourOfDay),
+					exchangeMaximum = Math.max(exchangeForecastUpdateDaily[hourOfDay],
 							exchangeMaximum);
-					exchangeMinimum = Math.min(exchangeForecastUpdateDaily.get(hourOfDay),
+					exchangeMinimum = Math.min(exchangeForecastUpdateDaily[hourOfDay],
 							exchangeMinimum);
 				} catch (final Exception e) {
 					logger.error(e.getMessage(), e);
@@ -273,7 +270,7 @@ public class ExchangeForecastMarketCoupling {
 	/**
 	 * Estimate hourly exchange over interconnector
 	 */
-	public List<Float> getExchangeForecast(int forecastLengthInHours, int year) {
+	public synchronized List<Float> getExchangeForecast(int forecastLengthInHours, int year) {
 		final List<Float> exchangeForecast = new ArrayList<>();
 
 		/* Define forecast period */
@@ -294,16 +291,7 @@ public class ExchangeForecastMarketCoupling {
 		final boolean isDayAheadForecast = (forecastLengthInHours == Date.HOURS_PER_DAY);
 
 		/* Get forecasts for all independent variable */
-		final List<List<Float>> inputDataAllVariables = collectDataIndependentVariables(year,
-				firstDayOfYear, lastDayOfYear);
-		for (final IndependentVariable independentVariable : independentVariables) {
-			try {
-				independentVariable.forecastData = inputDataAllVariables
-						.get(independentVariable.index);
-			} catch (final Exception e) {
-				logger.error(e.getMessage(), e);
-			}
-		}
+		collectDataIndependentVariables(year, firstDayOfYear, lastDayOfYear, true);
 
 		/* Determine expected exchange for each hour of day */
 		for (int hourOfForecastPeriod = 0; hourOfForecastPeriod < forecastLengthInHours; hourOfForecastPeriod++) {
@@ -312,8 +300,7 @@ public class ExchangeForecastMarketCoupling {
 			if (isDayAheadForecast && testRegressionFull) {
 				double predictionRegressionCurrentHour = coefficientsRegressionFull[0];
 				for (final IndependentVariable independentVariable : independentVariables) {
-					predictionRegressionCurrentHour += independentVariable.forecastData
-							.get(hourOfForecastPeriod)
+					predictionRegressionCurrentHour += independentVariable.forecastData[hourOfForecastPeriod]
 							* coefficientsRegressionFull[independentVariable.index + 1];
 				}
 
@@ -348,85 +335,67 @@ public class ExchangeForecastMarketCoupling {
 		return exchangeForecast;
 	}
 
-	private List<Float> collectDataIndependentVariables(IndependentVariableTypes type,
+	/**
+	 * Write the hourly values of the independent variable for the period into
+	 * <code>values</code>, starting at index 0.
+	 */
+	private void collectDataIndependentVariables(IndependentVariableTypes type,
 			MarketArea interconnectedMarketArea, Integer dummyIndex, Float exponent, int year,
-			int dayOfYearStart, int dayOfYearEnd) {
-		List<Float> values = new ArrayList<>();
-		List<Float> valuesCurrentVariable;
+			int dayOfYearStart, int dayOfYearEnd, double[] values) {
+		final int numberOfHours = ((dayOfYearEnd - dayOfYearStart) + 1) * Date.HOURS_PER_DAY;
 
 		switch (type) {
 
 			case DUMMY_HOUR_OF_DAY:
-				valuesCurrentVariable = new ArrayList<>();
-				for (int dayOfYear = dayOfYearStart; dayOfYear <= dayOfYearEnd; dayOfYear++) {
-					for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
-						if (hourOfDay == dummyIndex) {
-							valuesCurrentVariable.add(1f);
-						} else {
-							valuesCurrentVariable.add(0f);
-						}
-					}
+				for (int hour = 0; hour < numberOfHours; hour++) {
+					values[hour] = (hour % Date.HOURS_PER_DAY) == dummyIndex ? 1d : 0d;
 				}
-				values = valuesCurrentVariable;
 				break;
 
 			case DUMMY_MONTH_OF_YEAR:
-				valuesCurrentVariable = new ArrayList<>();
 				for (int dayOfYear = dayOfYearStart; dayOfYear <= dayOfYearEnd; dayOfYear++) {
 					int tempDayOfYear = dayOfYear;
 					if (dayOfYear > Date.DAYS_PER_YEAR) {
 						tempDayOfYear -= Date.DAYS_PER_YEAR;
 					}
-					if (Date.getMonth(tempDayOfYear) == dummyIndex) {
-						for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
-							valuesCurrentVariable.add(1f);
-						}
-					} else {
-						for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
-							valuesCurrentVariable.add(0f);
-						}
+					final double value = Date.getMonth(tempDayOfYear) == dummyIndex ? 1d : 0d;
+					final int offset = (dayOfYear - dayOfYearStart) * Date.HOURS_PER_DAY;
+					for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
+						values[offset + hourOfDay] = value;
 					}
 				}
-				values = valuesCurrentVariable;
 				break;
 
 			case DUMMY_SCARCITY:
-				valuesCurrentVariable = collectDataIndependentVariables(
+				collectDataIndependentVariables(
 						IndependentVariableTypes.SCARCITY_INTERCONNECTED_MARKET_AREA,
-						interconnectedMarketArea, null, null, year, dayOfYearStart, dayOfYearEnd);
-				for (int hour = 0; hour < valuesCurrentVariable.size(); hour++) {
-					if (valuesCurrentVariable.get(hour) > 1f) {
-						valuesCurrentVariable.set(hour, 0f);
-					} else {
-						valuesCurrentVariable.set(hour, 1f);
-					}
+						interconnectedMarketArea, null, null, year, dayOfYearStart, dayOfYearEnd,
+						values);
+				for (int hour = 0; hour < numberOfHours; hour++) {
+					values[hour] = values[hour] > 1d ? 0d : 1d;
 				}
-				values = valuesCurrentVariable;
 				break;
 
 			case RESIDUAL_DEMAND:
-				valuesCurrentVariable = new ArrayList<>();
 				for (int dayOfYear = dayOfYearStart; dayOfYear <= dayOfYearEnd; dayOfYear++) {
-
-					if (dayOfYear > Date.DAYS_PER_YEAR) {
-						valuesCurrentVariable.addAll(getResidualLoadWithoutMarketCouplingDaily(
-								interconnectedMarketArea, year, dayOfYear - Date.DAYS_PER_YEAR));
-					} else {
-						valuesCurrentVariable.addAll(getResidualLoadWithoutMarketCouplingDaily(
-								interconnectedMarketArea, year, dayOfYear));
+					final int dayOfYearData = dayOfYear > Date.DAYS_PER_YEAR
+							? dayOfYear - Date.DAYS_PER_YEAR
+							: dayOfYear;
+					final int offset = (dayOfYear - dayOfYearStart) * Date.HOURS_PER_DAY;
+					for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
+						values[offset + hourOfDay] = getResidualLoadWithoutMarketCouplingHourly(
+								interconnectedMarketArea, year, dayOfYearData, hourOfDay);
 					}
 				}
-				values = valuesCurrentVariable;
 				break;
 
 			case RESIDUAL_DEMAND_DIFFERENCES:
-				valuesCurrentVariable = collectDataIndependentVariables(
-						IndependentVariableTypes.RESIDUAL_DEMAND, interconnectedMarketArea, null,
-						null, year, dayOfYearStart, dayOfYearEnd);
+				collectDataIndependentVariables(IndependentVariableTypes.RESIDUAL_DEMAND,
+						interconnectedMarketArea, null, null, year, dayOfYearStart, dayOfYearEnd,
+						values);
 				// Calculation of differences, first hour is handled separately
-				for (int hour = valuesCurrentVariable.size() - 1; hour > 0; hour--) {
-					valuesCurrentVariable.set(hour,
-							valuesCurrentVariable.get(hour) - valuesCurrentVariable.get(hour - 1));
+				for (int hour = numberOfHours - 1; hour > 0; hour--) {
+					values[hour] = (float) (values[hour] - values[hour - 1]);
 				}
 
 				final int yearYesterday;
@@ -440,55 +409,44 @@ public class ExchangeForecastMarketCoupling {
 					dayOfYearYesterday = dayOfYearStart - 1;
 				}
 
-				valuesCurrentVariable.set(0,
-						valuesCurrentVariable.get(0) - getResidualLoadWithoutMarketCouplingHourly(
-								interconnectedMarketArea, yearYesterday, dayOfYearYesterday,
-								Date.HOURS_PER_DAY - 1));
-
-				values = valuesCurrentVariable;
+				values[0] = (float) (values[0] - getResidualLoadWithoutMarketCouplingHourly(
+						interconnectedMarketArea, yearYesterday, dayOfYearYesterday,
+						Date.HOURS_PER_DAY - 1));
 				break;
 
 			case RESIDUAL_DEMAND_EXPONENTIATED:
-				valuesCurrentVariable = collectDataIndependentVariables(
-						IndependentVariableTypes.RESIDUAL_DEMAND, interconnectedMarketArea, null,
-						null, year, dayOfYearStart, dayOfYearEnd);
-				for (int hour = 0; hour < valuesCurrentVariable.size(); hour++) {
+				collectDataIndependentVariables(IndependentVariableTypes.RESIDUAL_DEMAND,
+						interconnectedMarketArea, null, null, year, dayOfYearStart, dayOfYearEnd,
+						values);
+				for (int hour = 0; hour < numberOfHours; hour++) {
 					// If negative value and exponent<1, calculate absolute
 					// value, exponentiate,correct sign to minus.
-					if ((valuesCurrentVariable.get(hour) < 0f) && (exponent < 1f)) {
-						valuesCurrentVariable.set(hour, (float) -Math
-								.pow(Math.abs(valuesCurrentVariable.get(hour)), exponent));
+					if ((values[hour] < 0d) && (exponent < 1f)) {
+						values[hour] = (float) -Math.pow(Math.abs(values[hour]), exponent);
 					} else {
-						valuesCurrentVariable.set(hour,
-								(float) Math.pow(valuesCurrentVariable.get(hour), exponent));
+						values[hour] = (float) Math.pow(values[hour], exponent);
 					}
 				}
-				values = valuesCurrentVariable;
 				break;
 
 			case SCARCITY_INTERCONNECTED_MARKET_AREA:
-				valuesCurrentVariable = new ArrayList<>();
 				for (int dayOfYear = dayOfYearStart; dayOfYear <= dayOfYearEnd; dayOfYear++) {
 					// If last day of the year is exceeded within forecast
 					// period, corresponding values at the beginning of the
 					// current year will be used
-					if (dayOfYear > Date.DAYS_PER_YEAR) {
-						valuesCurrentVariable.addAll(determineScarcityInterconnectedMarketArea(
-								interconnectedMarketArea, year, dayOfYear - Date.DAYS_PER_YEAR));
-					} else {
-						valuesCurrentVariable.addAll(determineScarcityInterconnectedMarketArea(
-								interconnectedMarketArea, year, dayOfYear));
-					}
+					final int dayOfYearData = dayOfYear > Date.DAYS_PER_YEAR
+							? dayOfYear - Date.DAYS_PER_YEAR
+							: dayOfYear;
+					final int offset = (dayOfYear - dayOfYearStart) * Date.HOURS_PER_DAY;
+					determineScarcityInterconnectedMarketArea(interconnectedMarketArea, year,
+							dayOfYearData, values, offset);
 				}
-				values = valuesCurrentVariable;
 				break;
 
 			default:
 				logger.warn("Type of independet variable undefined!");
 				break;
 		}
-
-		return values;
 	}
 
 	/**
@@ -503,49 +461,53 @@ public class ExchangeForecastMarketCoupling {
 	 *            first day (including)
 	 * @param dayOfYearEnd
 	 *            last day (including)
+	 * @param forecast
+	 *            write into the forecast data of each variable, otherwise into
+	 *            the input data of the current day
 	 */
-	private List<List<Float>> collectDataIndependentVariables(int year, int dayOfYearStart,
-			int dayOfYearEnd) {
-
-		/* Initialize list */
-		final List<List<Float>> values = new ArrayList<>();
+	private void collectDataIndependentVariables(int year, int dayOfYearStart,
+			int dayOfYearEnd, boolean forecast) {
+		final int numberOfHours = ((dayOfYearEnd - dayOfYearStart) + 1) * Date.HOURS_PER_DAY;
 
 		/* Get data */
 		for (final IndependentVariable independentVariable : independentVariables) {
 			try {
-				values.add(collectDataIndependentVariables(independentVariable.type,
+				final double[] values;
+				if (forecast) {
+					if (independentVariable.forecastData.length < numberOfHours) {
+						independentVariable.forecastData = new double[numberOfHours];
+					}
+					values = independentVariable.forecastData;
+				} else {
+					values = independentVariable.inputDataUpdateDaily;
+				}
+				collectDataIndependentVariables(independentVariable.type,
 						independentVariable.marketArea, independentVariable.dummyIndex,
-						independentVariable.exponent, year, dayOfYearStart, dayOfYearEnd));
+						independentVariable.exponent, year, dayOfYearStart, dayOfYearEnd, values);
 			} catch (final Exception e) {
 				logger.error(e.getLocalizedMessage(), e);
 			}
 		}
-
-		return values;
 	}
 
 	/**
-	 * Determine hourly scarcity in interconnected market area
+	 * Determine hourly scarcity in interconnected market area and write it into
+	 * <code>scarcity</code> starting at <code>offset</code>
 	 * <p>
 	 * Scarcity = available capacity [MW] / residual load [MW]
 	 */
-	private List<Float> determineScarcityInterconnectedMarketArea(
-			MarketArea interconnectedMarketArea, int year, int dayOfYear) {
-		final List<Float> scarcity = new ArrayList<>();
-
-		final List<Float> residualLoad = getResidualLoadWithoutMarketCouplingDaily(
-				interconnectedMarketArea, year, dayOfYear);
-
-		final List<Float> availableCapacity = getAvailableCapacityDaily(interconnectedMarketArea,
-				dayOfYear);
+	private void determineScarcityInterconnectedMarketArea(MarketArea interconnectedMarketArea,
+			int year, int dayOfYear, double[] scarcity, int offset) {
 
 		// Set hourly scarcity
 		for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
 			float scarcityCurrentHourOfDay;
 
 			// No negative values for residual load should be considered here
-			scarcityCurrentHourOfDay = availableCapacity.get(hourOfDay)
-					/ Math.max(residualLoad.get(hourOfDay), 0.1f);
+			scarcityCurrentHourOfDay = getAvailableCapacityHourly(interconnectedMarketArea,
+					dayOfYear, hourOfDay)
+					/ Math.max(getResidualLoadWithoutMarketCouplingHourly(
+							interconnectedMarketArea, year, dayOfYear, hourOfDay), 0.1f);
 			// Limit value of scarcity
 			final float maxValue = 2f;
 			final float minValue = 0.5f;
@@ -556,47 +518,32 @@ public class ExchangeForecastMarketCoupling {
 				scarcityCurrentHourOfDay = minValue;
 			}
 
-			scarcity.add(scarcityCurrentHourOfDay);
+			scarcity[offset + hourOfDay] = scarcityCurrentHourOfDay;
 		}
-		return scarcity;
 	}
 
-	private List<Float> getAvailableCapacityDaily(MarketArea marketArea, int dayOfYear) {
-		final List<Float> availableCapacityDaily = new ArrayList<>();
-		for (int hour = 0; hour < Date.HOURS_PER_DAY; hour++) {
-			Float availableCapacityHourly = 0f;
-			for (final Generator generator : marketArea.getGenerators()) {
-				for (final Plant plant : generator.getAvailablePlants()) {
-					availableCapacityHourly += plant.getCapacityUnusedExpected(
-							((dayOfYear - 1) * Date.HOURS_PER_DAY) + hour);
-				}
+	private float getAvailableCapacityHourly(MarketArea marketArea, int dayOfYear,
+			int hourOfDay) {
+		float availableCapacityHourly = 0f;
+		for (final Generator generator : marketArea.getGenerators()) {
+			for (final Plant plant : generator.getAvailablePlants()) {
+				availableCapacityHourly += plant.getCapacityUnusedExpected(
+						((dayOfYear - 1) * Date.HOURS_PER_DAY) + hourOfDay);
 			}
-			availableCapacityDaily.add(availableCapacityHourly);
 		}
-		return availableCapacityDaily;
+		return availableCapacityHourly;
 	}
 
 	/** Get expected hourly exchange from market coupling */
 	private double getExchangeForecastHourly(int hourOfForecastPeriod) {
 		double prediction = constant;
 		for (final IndependentVariable independentVariable : independentVariables) {
-			prediction += independentVariable.forecastData.get(hourOfForecastPeriod)
+			prediction += independentVariable.forecastData[hourOfForecastPeriod]
 					* independentVariable.coefficient;
 		}
 		return prediction;
 	}
 
-	private List<Float> getResidualLoadWithoutMarketCouplingDaily(MarketArea marketArea, int year,
-			int dayOfYear) {
-		final List<Float> residualLoadDaily = new ArrayList<>();
-		for (int hour = 0; hour < Date.HOURS_PER_DAY; hour++) {
-			final Float residualLoadHourly = getResidualLoadWithoutMarketCouplingHourly(marketArea,
-					year, dayOfYear, hour);
-			residualLoadDaily.add(residualLoadHourly);
-		}
-		return residualLoadDaily;
-	}
-
 	private float getResidualLoadWithoutMarketCouplingHourly(MarketArea marketArea, int year,
 			int dayOfYear, int hourOfDay) {
 		final float residualLoadHourly = marketArea.getDemandData().getHourlyDemand(year,
@@ -1,9 +1,7 @@
 package markets.operator.spot.tools;
 
-import org.apache.commons.math3.linear.MatrixUtils;
-import org.apache.commons.math3.linear.NonPositiveDefiniteMatrixException;
-import org.apache.commons.math3.linear.RealMatrix;
-import org.apache.commons.math3.linear.RectangularCholeskyDecomposition;
+import java.util.Arrays;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,9 +16,15 @@ import simulations.scheduling.Date;
  * The model can be used e.g. for estimating a multiple linear regression model
  * by continuously updating the coefficients with new data instead of estimating
  * always the full model. Thereby, requirements for data storage are limited.
+ * <p>
+ * Coefficients and covariance matrix are stored in arrays and updated in place
+ * (rank-one update of the covariance matrix), so no objects are created during
+ * the iterations.
  */
 public class RecursiveLeastSquaresModel {
 
+	/** Initial weight of the identity matrix as covariance matrix */
+	private static final double INITIAL_WEIGHT_COVARIANCE_MATRIX = 100d;
 	/**
 	 * Instance of logger to give out warnings, errors to console and or files
 	 */
@@ -34,20 +38,28 @@ public class RecursiveLeastSquaresModel {
 	 * activated
 	 */
 	private boolean checkCovarianceMatrix;
+	/** Working copy of covariance matrix for the Cholesky decomposition */
+	private final double[] choleskyMatrix;
+	/** Row permutation of the Cholesky decomposition */
+	private final int[] choleskyPermutation;
 	/** Current coefficients */
-	private RealMatrix coefficientsMatrix;
-	/** Current covariance matrix */
-	private RealMatrix covarianceMatrix;
+	private final double[] coefficients;
+	/** Current covariance matrix, row by row */
+	private final double[] covarianceMatrix;
 	/**
 	 * Factor which gives exponentially less weight to older error samples [0 <
 	 * factor <= 1]
 	 */
 	private final double forgettingFactor;
+	/** Gain vector of current iteration */
+	private final double[] gain;
 	/**
 	 * Number of system variables (in a regression model these correspond to the
 	 * independent variables without the constant)
 	 */
 	private final int numberOfSystemVars;
+	/** Product of sample update (transposed) and covariance matrix */
+	private final double[] sampleCovariance;
 	/** Current lower threshold for determining numerical stability */
 	private double thresholdLower;
 	/** Current upper threshold for determining numerical stability */
@@ -57,34 +69,50 @@ public class RecursiveLeastSquaresModel {
 	protected RecursiveLeastSquaresModel(int numberOfSystemVars, double forgettingFactor) {
 		this.numberOfSystemVars = numberOfSystemVars;
 		this.forgettingFactor = forgettingFactor;
+		final int size = numberOfSystemVars + 1;
+		choleskyMatrix = new double[size * size];
+		choleskyPermutation = new int[size];
+		coefficients = new double[size];
+		covarianceMatrix = new double[size * size];
+		gain = new double[size];
+		sampleCovariance = new double[size];
 	}
 
 	/**
 	 * Get current estimates of coefficients
 	 * 
 	 * @return Coefficients with constant at index 0 and other system variables
-	 *         in same order as specified through input data
+	 *         in same order as specified through input data. The array is
+	 *         updated by the next iteration and must not be changed.
 	 */
 	public double[] getCoefficients() {
-		return coefficientsMatrix.getColumn(0);
+		return coefficients;
 	}
 
 	/**
 	 * Calculate gain vector based on previous covariance matrix and sample
 	 * update
 	 * 
-	 * @param covarianceMatrix
 	 * @param sampleUpdate
-	 * @return
 	 */
-	private RealMatrix calculateGainVector(RealMatrix covarianceMatrix, RealMatrix sampleUpdate) {
-		final RealMatrix enumerator = covarianceMatrix.multiply(sampleUpdate);
-		final RealMatrix denominator = (sampleUpdate.transpose()).multiply(covarianceMatrix)
-				.multiply(sampleUpdate);
-		final RealMatrix product = enumerator
-				.scalarMultiply(1 / (forgettingFactor + denominator.getEntry(0, 0)));
-
-		return product;
+	private void calculateGainVector(double[] sampleUpdate) {
+		final int size = coefficients.length;
+		double denominator = 0;
+		for (int row = 0; row < size; row++) {
+			double enumerator = 0;
+			double product = 0;
+			for (int column = 0; column < size; column++) {
+				enumerator += covarianceMatrix[(row * size) + column] * sampleUpdate[column];
+				product += sampleUpdate[column] * covarianceMatrix[(column * size) + row];
+			}
+			gain[row] = enumerator;
+			sampleCovariance[row] = product;
+			denominator += product * sampleUpdate[row];
+		}
+		final double factor = 1 / (forgettingFactor + denominator);
+		for (int row = 0; row < size; row++) {
+			gain[row] *= factor;
+		}
 	}
 
 	/**
@@ -96,39 +124,101 @@ public class RecursiveLeastSquaresModel {
 	 *            variables)
 	 * @param sampleUpdateDepdendentVar
 	 *            new value of dependent variable
-	 * @param coefficients
-	 *            previous coefficients
 	 * @return
 	 */
-	private RealMatrix calculatePredictionError(RealMatrix sampleUpdate,
-			double sampleUpdateDepdendentVar, RealMatrix coefficients) {
-		final RealMatrix prediction = (sampleUpdate.transpose()).multiply(coefficients);
-		final RealMatrix predictionError = prediction.scalarAdd(-sampleUpdateDepdendentVar)
-				.scalarMultiply(-1);
+	private double calculatePredictionError(double[] sampleUpdate,
+			double sampleUpdateDepdendentVar) {
+		double prediction = 0;
+		for (int index = 0; index < coefficients.length; index++) {
+			prediction += sampleUpdate[index] * coefficients[index];
+		}
 
 		// If prediciton error exceeds thresholds, activate checking covariance
 		// matrix for positive definiteness
-		if ((prediction.getEntry(0, 0) > thresholdUpper)
-				|| (prediction.getEntry(0, 0) < thresholdLower)) {
+		if ((prediction > thresholdUpper) || (prediction < thresholdLower)) {
 			checkCovarianceMatrix = true;
 		}
 
-		return predictionError;
+		return sampleUpdateDepdendentVar - prediction;
 	}
 
 	/**
-	 * Recursive update of covariance matrix
-	 * 
-	 * @param covarianceMatrix
-	 * @param gainVector
-	 * @param sampleUpdate
-	 * @return
+	 * Check whether the covariance matrix is positive semidefinite via a
+	 * Cholesky decomposition with pivoting (same criterion as
+	 * RectangularCholeskyDecomposition of commons math).
+	 */
+	private boolean isCovarianceMatrixPositiveSemidefinite() {
+		final int size = coefficients.length;
+		final double[] matrix = choleskyMatrix;
+		final int[] index = choleskyPermutation;
+		System.arraycopy(covarianceMatrix, 0, matrix, 0, matrix.length);
+		for (int row = 0; row < size; row++) {
+			index[row] = row;
+		}
+
+		for (int rank = 0; rank < size; rank++) {
+			// Find maximal diagonal element
+			int swap = rank;
+			for (int row = rank + 1; row < size; row++) {
+				if (matrix[(index[row] * size) + index[row]] > matrix[(index[swap] * size)
+						+ index[swap]]) {
+					swap = row;
+				}
+			}
+			final int indexSwap = index[rank];
+			index[rank] = index[swap];
+			index[swap] = indexSwap;
+
+			// Check diagonal element
+			final int indexRank = index[rank];
+			final double diagonal = matrix[(indexRank * size) + indexRank];
+			if (diagonal <= 0) {
+				if (rank == 0) {
+					return false;
+				}
+				// Remaining diagonal elements have to be zero
+				for (int row = rank; row < size; row++) {
+					if (matrix[(index[row] * size) + index[row]] < 0) {
+						return false;
+					}
+				}
+				return true;
+			}
+
+			// Transform the matrix
+			final double inverse = 1 / Math.sqrt(diagonal);
+			final double inverse2 = 1 / diagonal;
+			for (int row = rank + 1; row < size; row++) {
+				final int indexRow = index[row];
+				final double valueRow = matrix[(indexRow * size) + indexRank];
+				final double e = inverse * valueRow;
+				matrix[(indexRow * size) + indexRow] -= valueRow * valueRow * inverse2;
+				for (int column = rank + 1; column < row; column++) {
+					final int indexColumn = index[column];
+					final double f = matrix[(indexRow * size) + indexColumn]
+							- (e * inverse * matrix[(indexColumn * size) + indexRank]);
+					matrix[(indexRow * size) + indexColumn] = f;
+					matrix[(indexColumn * size) + indexRow] = f;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Recursive update of covariance matrix (Sherman-Morrison), based on the
+	 * gain vector and the product of sample update and covariance matrix of
+	 * {@link #calculateGainVector(double[])}
 	 */
-	private RealMatrix updateCovarianceMatrix(RealMatrix covarianceMatrix, RealMatrix gainVector,
-			RealMatrix sampleUpdate) {
-		final RealMatrix product = (gainVector.multiply((sampleUpdate.transpose()))
-				.multiply(covarianceMatrix));
-		return (covarianceMatrix.subtract(product)).scalarMultiply(1 / forgettingFactor);
+	private void updateCovarianceMatrix() {
+		final int size = coefficients.length;
+		final double factor = 1 / forgettingFactor;
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+				covarianceMatrix[(row * size) + column] = (covarianceMatrix[(row * size) + column]
+						- (gain[row] * sampleCovariance[column])) * factor;
+			}
+		}
 	}
 
 	/** Initialize model */
@@ -136,17 +226,15 @@ public class RecursiveLeastSquaresModel {
 
 		/* Set initial covariance matrix */
 		// Identity matrix multiplied with scalar
-		final double initialWeightCovarianceMatrix = 100d;
-		covarianceMatrix = MatrixUtils.createRealIdentityMatrix(numberOfSystemVars + 1)
-				.scalarMultiply(initialWeightCovarianceMatrix);
+		final int size = numberOfSystemVars + 1;
+		Arrays.fill(covarianceMatrix, 0d);
+		for (int index = 0; index < size; index++) {
+			covarianceMatrix[(index * size) + index] = INITIAL_WEIGHT_COVARIANCE_MATRIX;
+		}
 
 		/* Coefficients */
 		// Set equal to zero
-		final double[] coefficients = new double[numberOfSystemVars + 1];
-		for (int index = 0; index < coefficients.length; index++) {
-			coefficients[index] = 0d;
-		}
-		coefficientsMatrix = MatrixUtils.createColumnRealMatrix(coefficients);
+		Arrays.fill(coefficients, 0d);
 
 		/* Set lower and upper thresholds */
 		thresholdLower = -5d;
@@ -166,8 +254,12 @@ public class RecursiveLeastSquaresModel {
 	 * Given issues of numerical instability, the model is from times to times
 	 * reinitialized (if prediction errors become to large and covariance matrix
 	 * is no longer positive definite)
+	 * 
+	 * @param sampleUpdate
+	 *            values of the independent variables with 1 for the constant
+	 *            at index 0
 	 */
-	protected void performIteration(double sampleUpdateDepdendentVar, RealMatrix sampleUpdateMatrix,
+	protected void performIteration(double sampleUpdateDepdendentVar, double[] sampleUpdate,
 			int hourOfDay) {
 
 		/* Set lower and upper thresholds */
@@ -178,32 +270,25 @@ public class RecursiveLeastSquaresModel {
 		}
 
 		/* Calculate prediction error */
-		final RealMatrix predictionError = calculatePredictionError(sampleUpdateMatrix,
-				sampleUpdateDepdendentVar, coefficientsMatrix);
+		final double predictionError = calculatePredictionError(sampleUpdate,
+				sampleUpdateDepdendentVar);
 
 		/* Update gain term */
-		final RealMatrix gain = calculateGainVector(covarianceMatrix, sampleUpdateMatrix);
+		calculateGainVector(sampleUpdate);
 
-		/* Gain weighted by prediction error */
-		final RealMatrix coefficientDelta = gain.scalarMultiply(predictionError.getEntry(0, 0));
-
-		/* Update coefficients */
-		coefficientsMatrix = coefficientsMatrix.add(coefficientDelta);
+		/* Update coefficients, gain weighted by prediction error */
+		for (int index = 0; index < coefficients.length; index++) {
+			coefficients[index] += gain[index] * predictionError;
+		}
 
 		/* Update covariance matrix */
-		covarianceMatrix = updateCovarianceMatrix(covarianceMatrix, gain, sampleUpdateMatrix);
+		updateCovarianceMatrix();
 
 		/* Reinitialize model if covariance matrix no longer positive definite */
-		if (checkCovarianceMatrix) {
-			try {
-				@SuppressWarnings("unused")
-				final RectangularCholeskyDecomposition test = new RectangularCholeskyDecomposition(
-						covarianceMatrix);
-			} catch (final NonPositiveDefiniteMatrixException e) {
-				logger.warn("Covariance matrix no longer positive definite (year " + Date.getYear()
-						+ "; hourOfYear " + Date.getHourOfYearFromHourOfDay(hourOfDay) + ")!");
-				initializeModel();
-			}
+		if (checkCovarianceMatrix && !isCovarianceMatrixPositiveSemidefinite()) {
+			logger.warn("Covariance matrix no longer positive definite (year " + Date.getYear()
+					+ "; hourOfYear " + Date.getHourOfYearFromHourOfDay(hourOfDay) + ")!");
+			initializeModel();
 		}
 	}
 
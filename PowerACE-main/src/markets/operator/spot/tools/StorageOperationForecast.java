@@ -2,12 +2,8 @@ package markets.operator.spot.tools;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 
-import org.apache.commons.math3.linear.MatrixUtils;
-import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +12,7 @@ import markets.operator.spot.MarketCouplingOperator;
 import simulations.MarketArea;
 import simulations.scheduling.Date;
 import tools.math.Statistics;
+import tools.other.HourlySeries;
 
 /**
  * Estimation of hourly storage operation using multiple linear regression
@@ -35,14 +32,17 @@ public class StorageOperationForecast {
 		 * (because all elements of input data are equal)
 		 */
 		private boolean excluded;
-		/** (Hourly) Forecast data for next prediction */
-		private List<Float> forecastData;
+		/**
+		 * (Hourly) Forecast data for next prediction, buffer is reused for
+		 * each forecast (therefore forecasts are synchronized)
+		 */
+		private double[] forecastData = new double[0];
 		/** Index in regression model */
 		private int index;
 		/** (Hourly) Input data for next model estimation */
-		private final List<Float> inputDataAll = new ArrayList<>();
+		private final List<Double> inputDataAll = new ArrayList<>();
 		/** (Hourly) Input data for model estimation on current day */
-		private List<Float> inputDataUpdateDaily;
+		private final double[] inputDataUpdateDaily = new double[Date.HOURS_PER_DAY];
 		/** Reference to market area (e.g. relevant for scarcity indicator) */
 		private MarketArea marketArea;
 		/** Type of independent variable */
@@ -91,7 +91,13 @@ public class StorageOperationForecast {
 	private final MarketCouplingOperator marketCouplingOperator;
 	/** Recursive least squares model */
 	private final RecursiveLeastSquaresModel recursiveLeastSquaresModel;
-	private List<Float> storageOperationForecast = new ArrayList<>();
+	/**
+	 * Simulated storage operation of all days, only used for full regression
+	 * model
+	 */
+	private final List<Float> storageOperationForecast = new ArrayList<>();
+	/** Simulated storage operation of the last day */
+	private final float[] storageOperationForecastUpdateDaily = new float[Date.HOURS_PER_DAY];
 	/** Maximum value of simulated storage operation */
 	private float storageOperationMaximum = Float.MIN_VALUE;
 	/** Minimum value of simulated storage operation */
@@ -100,10 +106,10 @@ public class StorageOperationForecast {
 	private final boolean testRegressionFull;
 
 	/**
-	 * Residual load with Key, value pair. One map in order to safe computation
-	 * time
+	 * Residual load [year[hourOfYear]]. Calculated once in order to safe
+	 * computation time
 	 */
-	private final Map<Integer, Float> residualLoad = new TreeMap<>();
+	private final HourlySeries residualLoad = new HourlySeries();
 	/** Public constructor */
 	public StorageOperationForecast(MarketCouplingOperator marketCouplingOperator,
 			MarketArea marketArea) {
@@ -126,7 +132,7 @@ public class StorageOperationForecast {
 	}
 
 	/** Estimate regression model with most recent data */
-	public void estimateModel() {
+	public synchronized void estimateModel() {
 
 		try {
 			Thread.currentThread()
@@ -138,49 +144,43 @@ public class StorageOperationForecast {
 				dayOfYear = Date.DAYS_PER_YEAR;
 			}
 
-			final List<Float> storageOperationForecastUpdateDaily = new ArrayList<>();
-
 			for (int hour = 0; hour < Date.HOURS_PER_DAY; hour++) {
 				final float hourlyStorageOperation = marketArea.getElectricityProduction()
 						.getElectricityPumpedStorage(year,
 								Date.getFirstHourOfDay(dayOfYear) + hour);
-				storageOperationForecastUpdateDaily.add(hourlyStorageOperation);
+				storageOperationForecastUpdateDaily[hour] = hourlyStorageOperation;
 			}
 
-			storageOperationForecast.addAll(storageOperationForecastUpdateDaily);
-
 			// Independent variables (-> regressors)
-			final List<List<Float>> inputDataAllVariables = collectDataIndependentVariables(year,
-					dayOfYear, dayOfYear);
-			for (final IndependentVariable independentVariable : independentVariables) {
-				independentVariable.inputDataUpdateDaily = inputDataAllVariables
-						.get(independentVariable.index);
-				if (testRegressionFull) {
-					independentVariable.inputDataAll
-							.addAll(inputDataAllVariables.get(independentVariable.index));
+			collectDataIndependentVariables(year, dayOfYear, dayOfYear, false);
+
+			if (testRegressionFull) {
+				for (int hour = 0; hour < Date.HOURS_PER_DAY; hour++) {
+					storageOperationForecast.add(storageOperationForecastUpdateDaily[hour]);
+					for (final IndependentVariable independentVariable : independentVariables) {
+						independentVariable.inputDataAll
+								.add(independentVariable.inputDataUpdateDaily[hour]);
+					}
 				}
 			}
 
 			/* Perform iterations in recursive least squares filter */
+			final double[] sampleUpdate = new double[independentVariables.size() + 1];
+			// Set data value of constant to 1d
+			sampleUpdate[0] = 1d;
 			for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
 				try {
 
 					// Get hourly sample update
-					final double[] sampleUpdate = new double[independentVariables.size() + 1];
-					// Set data value of constant to 1d
-					sampleUpdate[0] = 1d;
 					int indexVar = 0;
 					for (final IndependentVariable independentVariable : independentVariables) {
-						sampleUpdate[indexVar + 1] = independentVariable.inputDataUpdateDaily
-								.get(hourOfDay);
+						sampleUpdate[indexVar + 1] = independentVariable.inputDataUpdateDaily[hourOfDay];
 						indexVar++;
 					}
-					final RealMatrix sampleUpdateMatrix = MatrixUtils
-							.createColumnRealMatrix(sampleUpdate);
 
 					// Perform iteration
 					recursiveLeastSquaresModel.performIteration(
-							storageOperationForecastUpdateDaily.get(hourOfDay), sampleUpdateMatrix,
+							storageOperationForecastUpdateDaily[hourOfDay], sampleUpdate,
 							hourOfDay);
 
 					// Set updated coefficients of independent variables
@@ -195,10 +195,10 @@ public class StorageOperationForecast {
 
 					// Cache maximum and minimum values
 					storageOperationMaximum = Math.max(
-							storageOperationForecastUpdateDaily.get(hourOfDay),
+							storageOperationForecastUpdateDaily[hourOfDay],
 							storageOperationMaximum);
 					storageOperationMinimum = Math.min(
-							storageOperationForecastUpdateDaily.get(hourOfDay),
+							storageOperationForecastUpdateDaily[hourOfDay],
 							storageOperationMinimum);
 				} catch (final Exception e) {
 					logger.error(e.getMessage(), e);
@@ -255,7 +255,8 @@ public class StorageOperationForecast {
 	/**
 	 * Estimate hourly storage operation
 	 */
-	public List<Float> getStorageOperationForecast(int forecastLengthInHours, int year) {
+	public synchronized List<Float> getStorageOperationForecast(int forecastLengthInHours,
+			int year) {
 		final List<Float> storageOperationForecast = new ArrayList<>();
 
 		/* Define forecast period */
@@ -275,16 +276,7 @@ public class StorageOperationForecast {
 		}
 
 		/* Get forecasts for all independent variable */
-		final List<List<Float>> inputDataAllVariables = collectDataIndependentVariables(year,
-				firstDayOfYear, lastDayOfYear);
-		for (final IndependentVariable independentVariable : independentVariables) {
-			try {
-				independentVariable.forecastData = inputDataAllVariables
-						.get(independentVariable.index);
-			} catch (final Exception e) {
-				logger.error(e.getMessage(), e);
-			}
-		}
+		collectDataIndependentVariables(year, firstDayOfYear, lastDayOfYear, true);
 
 		/* Determine expected storage operation for each hour of day */
 		for (int hourOfForecastPeriod = 0; hourOfForecastPeriod < forecastLengthInHours; hourOfForecastPeriod++) {
@@ -312,77 +304,61 @@ public class StorageOperationForecast {
 
 	private void calculateResdiualLoad() {
 		for (int year = Date.getStartYear(); year <= Date.getLastYear(); year++) {
+			final float[] residualLoadYear = new float[Date.HOURS_PER_YEAR];
 			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
-				final int key = Date.getKeyHourlyWithHourOfYear(year, hourOfYear);
-				final float residualLoadHourly = marketArea.getManagerRenewables()
-						.getRemainingLoad(year).get(hourOfYear)
+				residualLoadYear[hourOfYear] = marketArea.getManagerRenewables()
+						.getRemainingLoad(year, hourOfYear)
 						+ marketArea.getExchange().getHourlyFlowForecast(year, hourOfYear);
-				residualLoad.put(key, residualLoadHourly);
 			}
+			residualLoad.putYear(year, residualLoadYear);
 		}
 	}
 
-	private List<Float> collectDataIndependentVariables(IndependentVariableTypes type, int year,
-			int dayOfYearStart, int dayOfYearEnd) {
-		List<Float> values = new ArrayList<>();
-		List<Float> valuesCurrentVariable;
+	/**
+	 * Write the hourly values of the independent variable for the period into
+	 * <code>values</code>, starting at index 0.
+	 */
+	private void collectDataIndependentVariables(IndependentVariableTypes type, int year,
+			int dayOfYearStart, int dayOfYearEnd, double[] values) {
 
 		switch (type) {
 			case RESIDUAL_DEMAND:
-				valuesCurrentVariable = new ArrayList<>();
 				for (int dayOfYear = dayOfYearStart; dayOfYear <= dayOfYearEnd; dayOfYear++) {
 					// If last day of the year is exceeded within forecast
 					// period, corresponding values at the beginning of the
 					// current year will be used
-					if (dayOfYear > Date.DAYS_PER_YEAR) {
-						valuesCurrentVariable.addAll(getResidualLoadWithoutMarketCouplingDaily(
-								marketArea, year, dayOfYear - Date.DAYS_PER_YEAR));
-					} else {
-						valuesCurrentVariable.addAll(getResidualLoadWithoutMarketCouplingDaily(
-								marketArea, year, dayOfYear));
+					final int dayOfYearData = dayOfYear > Date.DAYS_PER_YEAR
+							? dayOfYear - Date.DAYS_PER_YEAR
+							: dayOfYear;
+					final int hourOfYearStart = Date.getHourOfYearFromHourOfDay(dayOfYearData, 0);
+					final int offset = (dayOfYear - dayOfYearStart) * Date.HOURS_PER_DAY;
+					for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
+						values[offset + hourOfDay] = residualLoad.get(year,
+								hourOfYearStart + hourOfDay);
 					}
 				}
-				values = valuesCurrentVariable;
 				break;
 
 			case DAILY_AVG_RESIDUAL_DEMAND:
-				valuesCurrentVariable = collectDataIndependentVariables(
-						IndependentVariableTypes.RESIDUAL_DEMAND, year, dayOfYearStart,
-						dayOfYearEnd);
+				collectDataIndependentVariables(IndependentVariableTypes.RESIDUAL_DEMAND, year,
+						dayOfYearStart, dayOfYearEnd, values);
 				for (int dayOfYear = dayOfYearStart; dayOfYear <= dayOfYearEnd; dayOfYear++) {
+					final int offset = (dayOfYear - dayOfYearStart) * Date.HOURS_PER_DAY;
 					float avgLoadBeforeStorageOperation = 0f;
-					int length = 0;
 					for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
-						if ((((dayOfYear - dayOfYearStart) * Date.HOURS_PER_DAY)
-								+ hourOfDay) < valuesCurrentVariable.size()) {
-							avgLoadBeforeStorageOperation += valuesCurrentVariable
-									.get(((dayOfYear - dayOfYearStart) * Date.HOURS_PER_DAY)
-											+ hourOfDay);
-							length++;
-						} else {
-							break;
-						}
+						avgLoadBeforeStorageOperation += (float) values[offset + hourOfDay];
 					}
-					avgLoadBeforeStorageOperation /= length;
+					avgLoadBeforeStorageOperation /= Date.HOURS_PER_DAY;
 
 					for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
-						if ((((dayOfYear - dayOfYearStart) * Date.HOURS_PER_DAY)
-								+ hourOfDay) < valuesCurrentVariable.size()) {
-							valuesCurrentVariable.set(
-									((dayOfYear - dayOfYearStart) * Date.HOURS_PER_DAY) + hourOfDay,
-									avgLoadBeforeStorageOperation);
-						} else {
-							break;
-						}
+						values[offset + hourOfDay] = avgLoadBeforeStorageOperation;
 					}
 				}
-				values = valuesCurrentVariable;
 				break;
 			default:
 				logger.warn("Type of independet variable undefined!");
 				break;
 		}
-		return values;
 	}
 
 	/**
@@ -397,44 +373,39 @@ public class StorageOperationForecast {
 	 *            first day (including)
 	 * @param dayOfYearEnd
 	 *            last day (including)
+	 * @param forecast
+	 *            write into the forecast data of each variable, otherwise into
+	 *            the input data of the current day
 	 */
-	private List<List<Float>> collectDataIndependentVariables(int year, int dayOfYearStart,
-			int dayOfYearEnd) {
-
-		/* Initialize list */
-		final List<List<Float>> values = new ArrayList<>();
+	private void collectDataIndependentVariables(int year, int dayOfYearStart,
+			int dayOfYearEnd, boolean forecast) {
+		final int numberOfHours = ((dayOfYearEnd - dayOfYearStart) + 1) * Date.HOURS_PER_DAY;
 
 		/* Get data */
 		for (final IndependentVariable independentVariable : independentVariables) {
 			try {
-				values.add(collectDataIndependentVariables(independentVariable.type, year,
-						dayOfYearStart, dayOfYearEnd));
+				final double[] values;
+				if (forecast) {
+					if (independentVariable.forecastData.length < numberOfHours) {
+						independentVariable.forecastData = new double[numberOfHours];
+					}
+					values = independentVariable.forecastData;
+				} else {
+					values = independentVariable.inputDataUpdateDaily;
+				}
+				collectDataIndependentVariables(independentVariable.type, year, dayOfYearStart,
+						dayOfYearEnd, values);
 			} catch (final Exception e) {
 				logger.error(e.getMessage(), e);
 			}
 		}
-
-		return values;
-	}
-
-	private List<Float> getResidualLoadWithoutMarketCouplingDaily(MarketArea marketArea, int year,
-			int dayOfYear) {
-		final List<Float> residualLoadDaily = new ArrayList<>();
-		final int hourOfYear = Date.getHourOfYearFromHourOfDay(dayOfYear, 0);
-		final int keyStart = Date.getKeyHourlyWithHourOfYear(year, hourOfYear);
-		for (int key = keyStart; key < (keyStart + Date.HOURS_PER_DAY); key++) {
-			final Float residualLoadHourly = residualLoad.get(key);
-			residualLoadDaily.add(residualLoadHourly);
-		}
-
-		return residualLoadDaily;
 	}
 
 	/** Get expected hourly exchange from market coupling */
 	private double getStorageOperationForecastHourly(int hourOfForecastPeriod) {
 		double prediction = constant;
 		for (final IndependentVariable independentVariable : independentVariables) {
-			prediction += independentVariable.forecastData.get(hourOfForecastPeriod)
+			prediction += independentVariable.forecastData[hourOfForecastPeriod]
 					* independentVariable.coefficient;
 		}
 		return prediction;
@@ -0,0 +1,196 @@
+package markets.trader.future.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import simulations.MarketArea;
+import simulations.scheduling.Date;
+import supply.invest.Investment;
+import supply.powerplant.PlantOption;
+
+/**
+ * Long-term price forecasts with additional plants of the current year,
+ * stored for each forecast year. The forecast of a year only depends on the
+ * number of additional plants of each capacity option that are available in
+ * that year, so the key consists of the year offset and these numbers.
+ * Different lists of additional plants can therefore lead to the same
+ * forecast, e.g. if they only differ in plants that are not finished yet.
+ * <p>
+ * The least recently used forecasts are removed if more than the specified
+ * number of forecasts are stored. If spilling is activated, they are written
+ * to temporary files instead and read again when needed.
+ * <p>
+ * The cache has to be cleared whenever other inputs of the forecast change,
+ * e.g. if new plants are built. Forecasts of previous years are removed
+ * automatically.
+ */
+final class ForecastCache {
+
+	/**
+	 * Instance of logger to give out warnings, errors to console and or files
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(ForecastCache.class.getName());
+
+	/**
+	 * Key of the forecast for the specified year offset, i.e. the number of
+	 * additional plants per market area and capacity option that are available
+	 * in that year
+	 */
+	static String getKey(Set<MarketArea> marketAreas, List<Investment> additionalPlants,
+			int yearOffset) {
+		final StringBuilder key = new StringBuilder();
+		key.append(Date.getYear()).append(';').append(yearOffset);
+		for (final MarketArea area : marketAreas) {
+			key.append(';').append(area.getInitials()).append(':');
+			for (final PlantOption plantOption : area.getGenerationData()
+					.getCopyOfCapacityOptions(Date.getYear())) {
+				int numberOfNewPlants = 0;
+				for (final Investment newPlant : additionalPlants) {
+					if (newPlant.getMarketArea().isEqualMarketArea(area.getMarketAreaType())
+							&& newPlant.getInvestmentOption().isSameInvestmentOption(plantOption)
+							&& (yearOffset >= newPlant.getInvestmentOption()
+									.getConstructionTime())) {
+						numberOfNewPlants += 1;
+					}
+				}
+				key.append(numberOfNewPlants).append(',');
+			}
+		}
+		return key.toString();
+	}
+
+	/** Maximum number of forecasts in memory */
+	private final int capacity;
+	/** Forecasts [marketArea[hourOfYear]] in order of their last use */
+	private final LinkedHashMap<String, float[][]> forecasts = new LinkedHashMap<>(16, 0.75f,
+			true);
+	private int hits;
+	private int misses;
+	/** Write removed forecasts to temporary files */
+	private final boolean spill;
+	private Path spillFolder;
+	/** Files of spilled forecasts */
+	private final Map<String, Path> spilledForecasts = new HashMap<>();
+	/** Year of the stored forecasts */
+	private int year = Date.getYear();
+
+	ForecastCache(int capacity, boolean spill) {
+		this.capacity = capacity;
+		this.spill = spill;
+	}
+
+	private void checkYear() {
+		if (year != Date.getYear()) {
+			clear();
+		}
+	}
+
+	/** Remove all forecasts */
+	synchronized void clear() {
+		if ((hits + misses) > 0) {
+			logger.debug("Forecast cache in year " + year + ": " + hits + " hits, " + misses
+					+ " misses");
+		}
+		hits = 0;
+		misses = 0;
+		forecasts.clear();
+		for (final Path file : spilledForecasts.values()) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (final IOException e) {
+				logger.error(e.getLocalizedMessage(), e);
+			}
+		}
+		spilledForecasts.clear();
+		year = Date.getYear();
+	}
+
+	/**
+	 * @return forecast [marketArea[hourOfYear]] or <code>null</code> if not
+	 *         stored
+	 */
+	synchronized float[][] get(String key) {
+		checkYear();
+		float[][] forecast = forecasts.get(key);
+		if ((forecast == null) && spilledForecasts.containsKey(key)) {
+			forecast = read(spilledForecasts.remove(key));
+			if (forecast != null) {
+				put(key, forecast);
+			}
+		}
+		if (forecast == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return forecast;
+	}
+
+	/** Store forecast [marketArea[hourOfYear]] */
+	synchronized void put(String key, float[][] forecast) {
+		checkYear();
+		forecasts.put(key, forecast);
+		if (forecasts.size() > capacity) {
+			final Map.Entry<String, float[][]> eldest = forecasts.entrySet().iterator().next();
+			forecasts.remove(eldest.getKey());
+			if (spill) {
+				write(eldest.getKey(), eldest.getValue());
+			}
+		}
+	}
+
+	private float[][] read(Path file) {
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(file)))) {
+			final float[][] forecast = new float[in.readInt()][];
+			for (int area = 0; area < forecast.length; area++) {
+				forecast[area] = new float[in.readInt()];
+				for (int hourOfYear = 0; hourOfYear < forecast[area].length; hourOfYear++) {
+					forecast[area][hourOfYear] = in.readFloat();
+				}
+			}
+			Files.delete(file);
+			return forecast;
+		} catch (final IOException e) {
+			logger.error(e.getLocalizedMessage(), e);
+			return null;
+		}
+	}
+
+	private void write(String key, float[][] forecast) {
+		try {
+			if (spillFolder == null) {
+				spillFolder = Files.createTempDirectory("PowerACE_forecasts");
+				spillFolder.toFile().deleteOnExit();
+			}
+			final Path file = Files.createTempFile(spillFolder, null, null);
+			file.toFile().deleteOnExit();
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(file)))) {
+				out.writeInt(forecast.length);
+				for (final float[] forecastArea : forecast) {
+					out.writeInt(forecastArea.length);
+					for (final float price : forecastArea) {
+						out.writeFloat(price);
+					}
+				}
+			}
+			spilledForecasts.put(key, file);
+		} catch (final IOException e) {
+			logger.error(e.getLocalizedMessage(), e);
+		}
+	}
+}
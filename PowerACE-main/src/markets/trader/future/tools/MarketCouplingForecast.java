@@ -28,6 +28,7 @@ import simulations.initialization.Settings;
 import simulations.scheduling.Date;
 import supply.powerplant.CostCap;
 import supply.powerplant.PlantOption;
+import tools.other.Concurrency;
 
 /** Market coupling algorithm for one hour */
 public class MarketCouplingForecast {
@@ -287,7 +288,7 @@ public class MarketCouplingForecast {
 
 			/* Solve model */
 
-			model.optimize();
+			Concurrency.executeBlocking(model::optimize);
 
 			if (model.get(GRB.IntAttr.Status) != GRB.Status.OPTIMAL) {
 				logger.error(
@@ -1111,7 +1112,7 @@ public class MarketCouplingForecast {
 		model.setObjective(objective, GRB.MAXIMIZE);
 
 		/* Solve model */
-		model.optimize();
+		Concurrency.executeBlocking(model::optimize);
 		if (model.get(GRB.IntAttr.Status) == GRB.Status.INFEASIBLE) {
 			logger.error("Market clearing infeasible! Please check the bid lists for Bugs.");
 		}
@@ -183,6 +183,9 @@ public class PriceForecastFuture {
 			int iteration) {
 		try {
 			operationSeasonalStorage = operationSeasonal;
+			// Stored forecasts with additional plants depend on the seasonal
+			// storage operation
+			PriceForecastFutureOptimization.clearForecastCache();
 			final Map<MarketArea, Map<Integer, Float>> forwardPriceListCapped = new ConcurrentHashMap<>();
 			final float forwardPriceMax = 1000;
 			Map<MarketArea, Map<Integer, Float>> forwardPriceList = null;
@@ -45,6 +45,16 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 	// One thread is enough for logging
 	private static final ExecutorService exec = Executors.newSingleThreadExecutor();
 
+	/**
+	 * Forecasts with additional plants, <code>null</code> if
+	 * {@link Settings#getForecastCacheSize()} is 0
+	 */
+	private static ForecastCache forecastCache;
+	/**
+	 * Inputs of the forecast without additional plants have not changed since
+	 * it has been calculated, see {@link Settings#isForecastIncremental()}
+	 */
+	private static volatile boolean forecastWithoutAdditionalPlantsValid;
 	private static Map<MarketArea, Map<Integer, Map<Integer, Float>>> forecastWithAdditionalPlants;
 	/**
 	 * calcMarketCouplingForecast() and recalculate() is possible to be called
@@ -61,13 +71,17 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 			.getLogger(PriceForecastFutureOptimization.class.getName());
 
 	private static final OptimizationPeriodType optimizationPeriodType = OptimizationPeriodType.WEEKLY;
+	/**
+	 * Minimal difference between price without additional plants and their bid
+	 * price for periods that are not solved again
+	 */
+	private static final float PRICE_TOLERANCE_INCREMENTAL = 0.01f;
 	private static Queue<Map<MarketArea, Map<MarketArea, Map<Integer, Float>>>> resultsFlows = new LinkedBlockingQueue<>();
 	private static Queue<Map<MarketArea, Map<Integer, Map<Integer, Float>>>> resultsQueue = new LinkedBlockingQueue<>();
 
 	private static Map<MarketArea, Map<Integer, Float>> surplusStartup = new ConcurrentHashMap<>();
 
 	private static final boolean useSurplusStartup = false;
-
 	/**
 	 * Only for seasonal forecast
 	 * 
@@ -77,6 +91,28 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 		resultsFlows.add(results);
 	}
 
+	/**
+	 * Add prices of the forecast without additional plants for the period to
+	 * the results
+	 */
+	private static void addForecastWithoutAdditionalPlants(Set<MarketArea> marketAreas, int year,
+			int period) {
+		final int[] hoursOfPeriod = getHoursOfPeriod(period);
+		final Map<MarketArea, Map<Integer, Map<Integer, Float>>> results = new ConcurrentHashMap<>();
+		for (final MarketArea marketArea : marketAreas) {
+			final Map<Integer, Float> pricesWithoutAdditionalPlants = forwardPrices
+					.get(Date.getYear()).get(marketArea).get(year);
+			final Map<Integer, Float> prices = new ConcurrentHashMap<>();
+			for (int hourOfYear = hoursOfPeriod[0]; hourOfYear < (hoursOfPeriod[0]
+					+ hoursOfPeriod[1]); hourOfYear++) {
+				prices.put(hourOfYear, pricesWithoutAdditionalPlants.get(hourOfYear));
+			}
+			results.put(marketArea, new ConcurrentHashMap<>());
+			results.get(marketArea).put(year, prices);
+		}
+		addToQueue(results, true);
+	}
+
 	protected static void addToQueue(Map<MarketArea, Map<Integer, Map<Integer, Float>>> results,
 			boolean withAdditioalPlants) {
 		resultsQueue.add(results);
@@ -461,6 +497,17 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 		}
 	}
 
+	/**
+	 * Remove all stored forecasts with additional plants. Has to be called if
+	 * inputs of the forecast change, e.g. if new plants are built.
+	 */
+	public static void clearForecastCache() {
+		forecastWithoutAdditionalPlantsValid = false;
+		if (forecastCache != null) {
+			forecastCache.clear();
+		}
+	}
+
 	/**
 	 * Write all log files and wait for shutdown. Create a new instance of the
 	 * Executor in case of multiruns.
@@ -491,19 +538,8 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 		// For every market Area
 		for (final MarketArea area : marketAreas) {
 
-			futureMeritOrder.put(area,
-					Collections.unmodifiableList(getFutureMeritOrder(area, yearOffset, iteration)));
-
-			futureDemand.put(area, Collections.unmodifiableMap(getFutureDemand(area, year)));
-			// Renewables load
-			futureRenewableLoad.put(area, Collections.unmodifiableMap(
-					area.getManagerRenewables().getRenewableLoadHourlyTotalMap(year)));
-
 			startupSurplus.put(area, getSurplusStartup(area, Date.getYear()));
 
-			futureStorageUnits.put(area, Collections
-					.unmodifiableList(getFutureStorageUnits(area, yearOffset, new ArrayList<>())));
-
 			// Map with number of planned new plants structured by market area
 			// and technology
 			newPlants.put(area, new LinkedHashMap<>());
@@ -528,8 +564,48 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 
 		}
 
+		// Periods that are not changed by the additional plants take the
+		// prices of the forecast without additional plants
+		boolean[] periodsToSolve = null;
+		if (!additionalPlants.isEmpty() && (iteration == 0)) {
+			periodsToSolve = getPeriodsToSolve(marketAreas, year, newPlants, newStorages,
+					startupSurplus);
+		}
+		if (periodsToSolve != null) {
+			int periodsSolved = 0;
+			for (int period = getFirstPeriod(); period <= getLastPeriod(); period++) {
+				if (periodsToSolve[period]) {
+					periodsSolved++;
+				} else {
+					addForecastWithoutAdditionalPlants(marketAreas, year, period);
+				}
+			}
+			logger.debug("Incremental long-term price forecast for year " + year + ": "
+					+ periodsSolved + " periods solved");
+			if (periodsSolved == 0) {
+				return;
+			}
+		}
+
+		for (final MarketArea area : marketAreas) {
+
+			futureMeritOrder.put(area,
+					Collections.unmodifiableList(getFutureMeritOrder(area, yearOffset, iteration)));
+
+			futureDemand.put(area, Collections.unmodifiableMap(getFutureDemand(area, year)));
+			// Renewables load
+			futureRenewableLoad.put(area, Collections.unmodifiableMap(
+					area.getManagerRenewables().getRenewableLoadHourlyTotalMap(year)));
+
+			futureStorageUnits.put(area, Collections
+					.unmodifiableList(getFutureStorageUnits(area, yearOffset, new ArrayList<>())));
+		}
+
 		if (optimizationPeriodType.equals(OptimizationPeriodType.HOURLY)) {
 			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
+				if ((periodsToSolve != null) && !periodsToSolve[hourOfYear]) {
+					continue;
+				}
 				final Map<MarketArea, Float> demand = getValuesPerMarketAreaHourly(futureDemand,
 						hourOfYear);
 				final Map<MarketArea, Float> renewableLoad = getValuesPerMarketAreaHourly(
@@ -556,6 +632,9 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 					Collections.unmodifiableMap(startupSurplus)));
 		} else if (optimizationPeriodType.equals(OptimizationPeriodType.MONTHLY)) {
 			for (int monthOfYear = 1; monthOfYear <= Date.MONTH_PER_YEAR; monthOfYear++) {
+				if ((periodsToSolve != null) && !periodsToSolve[monthOfYear]) {
+					continue;
+				}
 				final Map<MarketArea, Map<Integer, Float>> demand = getValuesPerMarketAreaMonthly(
 						futureDemand, monthOfYear);
 				final Map<MarketArea, Map<Integer, Float>> renewableLoad = getValuesPerMarketAreaMonthly(
@@ -570,6 +649,9 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 			}
 		} else if (optimizationPeriodType.equals(OptimizationPeriodType.WEEKLY)) {
 			for (int weekOfYear = 1; weekOfYear <= Date.WEEKS_PER_YEAR; weekOfYear++) {
+				if ((periodsToSolve != null) && !periodsToSolve[weekOfYear]) {
+					continue;
+				}
 				final Map<MarketArea, Map<Integer, Float>> demand = getValuesPerMarketAreaWeekly(
 						futureDemand, weekOfYear);
 				final Map<MarketArea, Map<Integer, Float>> renewableLoad = getValuesPerMarketAreaWeekly(
@@ -588,6 +670,39 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 		}
 	}
 
+	/** Index of the first optimization period */
+	private static int getFirstPeriod() {
+		if (optimizationPeriodType.equals(OptimizationPeriodType.MONTHLY)
+				|| optimizationPeriodType.equals(OptimizationPeriodType.WEEKLY)) {
+			return 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * @return forecast of the year [marketArea[hourOfYear]] or
+	 *         <code>null</code> if incomplete
+	 */
+	private static float[][] getForecastWithAdditionalPlants(Set<MarketArea> marketAreas,
+			int year) {
+		final float[][] forecast = new float[marketAreas.size()][Date.HOURS_PER_YEAR];
+		int index = 0;
+		for (final MarketArea marketArea : marketAreas) {
+			final Map<Integer, Map<Integer, Float>> pricesMarketArea = forecastWithAdditionalPlants
+					.get(marketArea);
+			if ((pricesMarketArea == null) || !pricesMarketArea.containsKey(year)
+					|| (pricesMarketArea.get(year).size() != Date.HOURS_PER_YEAR)) {
+				return null;
+			}
+			final Map<Integer, Float> prices = pricesMarketArea.get(year);
+			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
+				forecast[index][hourOfYear] = prices.get(hourOfYear);
+			}
+			index++;
+		}
+		return forecast;
+	}
+
 	/**
 	 * 
 	 * @param marketArea
@@ -729,6 +844,112 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 		return Collections.unmodifiableList(bidPoints);
 	}
 
+	/**
+	 * Hours of the optimization period
+	 * 
+	 * @return [first hour of year, number of hours]
+	 */
+	private static int[] getHoursOfPeriod(int period) {
+		if (optimizationPeriodType.equals(OptimizationPeriodType.HOURLY)) {
+			return new int[] {period, 1};
+		} else if (optimizationPeriodType.equals(OptimizationPeriodType.MONTHLY)) {
+			// Adjust if leap years are used
+			return new int[] {Date.getFirstYearlyHourOfMonth(period, 2015),
+					Date.HOURS_PER_DAY * java.time.Month.of(period).length(false)};
+		} else if (optimizationPeriodType.equals(OptimizationPeriodType.WEEKLY)) {
+			return new int[] {(period - 1) * Date.HOURS_PER_WEEK,
+					period < Date.WEEKS_PER_YEAR ? Date.HOURS_PER_WEEK : Date.HOURS_PER_DAY};
+		}
+		return new int[] {0, Date.HOURS_PER_YEAR};
+	}
+
+	/** Index of the last optimization period */
+	private static int getLastPeriod() {
+		if (optimizationPeriodType.equals(OptimizationPeriodType.HOURLY)) {
+			return Date.HOURS_PER_YEAR - 1;
+		} else if (optimizationPeriodType.equals(OptimizationPeriodType.MONTHLY)) {
+			return Date.MONTH_PER_YEAR;
+		} else if (optimizationPeriodType.equals(OptimizationPeriodType.WEEKLY)) {
+			return Date.WEEKS_PER_YEAR;
+		}
+		return 0;
+	}
+
+	/**
+	 * Screens which optimization periods of the forecast with additional plants
+	 * can differ from the forecast without additional plants. The prices of
+	 * the forecast without additional plants are the shadow prices of the
+	 * market area balances. If these prices are below the bid price of the
+	 * additional plants of a market area in all hours of a period, accepting
+	 * the additional plants cannot increase the welfare, i.e. the previous
+	 * solution and its prices stay optimal. This holds for congested
+	 * interconnectors as well, since congestion is already reflected in the
+	 * prices of the market areas. Additional storage units can change the
+	 * solution in any period.
+	 * 
+	 * @return periods [period] that have to be solved or <code>null</code> if
+	 *         all periods have to be solved
+	 */
+	private static boolean[] getPeriodsToSolve(Set<MarketArea> marketAreas, int year,
+			Map<MarketArea, Map<PlantOption, Integer>> newPlants,
+			Map<MarketArea, Map<PlantOption, Integer>> newStorages,
+			Map<MarketArea, Float> startupSurplus) {
+		if (!Settings.isForecastIncremental() || !forecastWithoutAdditionalPlantsValid
+				|| !forwardPrices.containsKey(Date.getYear())) {
+			return null;
+		}
+
+		// Lowest bid price of additional plants per market area
+		final Map<MarketArea, Float> bidPriceMin = new HashMap<>();
+		for (final MarketArea marketArea : marketAreas) {
+			for (final PlantOption newStorageUnit : newStorages.get(marketArea).keySet()) {
+				if (newStorages.get(marketArea).get(newStorageUnit) > 0) {
+					return null;
+				}
+			}
+			final Map<Integer, Map<Integer, Float>> pricesMarketArea = forwardPrices
+					.get(Date.getYear()).get(marketArea);
+			if ((pricesMarketArea == null) || !pricesMarketArea.containsKey(year)
+					|| (pricesMarketArea.get(year).size() != Date.HOURS_PER_YEAR)) {
+				return null;
+			}
+			for (final PlantOption newPowerPlant : newPlants.get(marketArea).keySet()) {
+				if (newPlants.get(marketArea).get(newPowerPlant) > 0) {
+					final float bidPrice = newPowerPlant.getCostsVar(year, marketArea)
+							+ startupSurplus.get(marketArea);
+					if (!bidPriceMin.containsKey(marketArea)
+							|| (bidPrice < bidPriceMin.get(marketArea))) {
+						bidPriceMin.put(marketArea, bidPrice);
+					}
+				}
+			}
+		}
+
+		final boolean[] periodsToSolve = new boolean[getLastPeriod() + 1];
+		for (int period = getFirstPeriod(); period <= getLastPeriod(); period++) {
+			final int[] hoursOfPeriod = getHoursOfPeriod(period);
+			for (final MarketArea marketArea : bidPriceMin.keySet()) {
+				final Map<Integer, Float> prices = forwardPrices.get(Date.getYear())
+						.get(marketArea).get(year);
+				// Prices are capped at the maximum price
+				final float priceLimit = Math.min(bidPriceMin.get(marketArea),
+						marketArea.getDayAheadMarketOperator().getMaxPriceAllowed())
+						- PRICE_TOLERANCE_INCREMENTAL;
+				for (int hourOfYear = hoursOfPeriod[0]; hourOfYear < (hoursOfPeriod[0]
+						+ hoursOfPeriod[1]); hourOfYear++) {
+					if (prices.get(hourOfYear) >= priceLimit) {
+						periodsToSolve[period] = true;
+						break;
+					}
+				}
+				if (periodsToSolve[period]) {
+					break;
+				}
+			}
+		}
+		return periodsToSolve;
+	}
+
 	/** determines surplus that is added to the bids */
 	private static float getSurplusStartup(MarketArea marketArea, int year) {
 		if (!surplusStartup.containsKey(marketArea)) {
@@ -867,6 +1088,18 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 			if (additionalPlants.isEmpty() || !forwardPrices.containsKey(Date.getYear())) {
 				forwardPrices.put(Date.getYear(), new ConcurrentHashMap<>());
 			}
+			// Forecasts with additional plants are reused as long as the
+			// forecast without additional plants has not changed
+			if ((forecastCache == null) && (Settings.getForecastCacheSize() > 0)) {
+				forecastCache = new ForecastCache(Settings.getForecastCacheSize(),
+						Settings.isForecastCacheSpill());
+			}
+			final boolean useCache = (forecastCache != null) && !additionalPlants.isEmpty();
+			if (additionalPlants.isEmpty()) {
+				clearForecastCache();
+			}
+			// Keys of the forecasts that are calculated, key is the year
+			final Map<Integer, String> forecastKeys = new LinkedHashMap<>();
 			for (final MarketArea area : marketAreas) {
 				if (!forwardPrices.get(Date.getYear()).containsKey(area)) {
 					forwardPrices.get(Date.getYear()).put(area, new ConcurrentHashMap<>());
@@ -893,12 +1126,34 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 								new ConcurrentHashMap<>());
 					}
 				}
+				if (useCache) {
+					final String key = ForecastCache.getKey(marketAreas, additionalPlants,
+							yearOffset);
+					final float[][] forecast = forecastCache.get(key);
+					if (forecast != null) {
+						setForecastWithAdditionalPlants(marketAreas, year, forecast);
+						yearOffset++;
+						continue;
+					}
+					forecastKeys.put(year, key);
+				}
 				forecastPrice(marketAreas, additionalPlants, clearing, yearOffset, year, 0);
 				yearOffset++;
 			}
 			clearing.shutdown();
 			clearing.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
 			calculateQueue(!additionalPlants.isEmpty());
+			if (additionalPlants.isEmpty()) {
+				forecastWithoutAdditionalPlantsValid = true;
+			}
+			if (useCache) {
+				for (final Integer year : forecastKeys.keySet()) {
+					final float[][] forecast = getForecastWithAdditionalPlants(marketAreas, year);
+					if (forecast != null) {
+						forecastCache.put(forecastKeys.get(year), forecast);
+					}
+				}
+			}
 			logger.info("End forecast threads");
 			if (additionalPlants.isEmpty()) {
 				logging(marketAreas,
@@ -908,6 +1163,7 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 			logger.error(e.getMessage(), e);
 		}
 	}
+
 	protected static Map<MarketArea, Map<Integer, Float>> priceForecastSeasonalStorage(
 			Set<MarketArea> marketAreas, int iteration) {
 		try {
@@ -945,6 +1201,7 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 		}
 		return null;
 	}
+
 	public static void recalculate(Set<MarketArea> marketAreas) {
 		try {
 			// Logger for settings
@@ -978,4 +1235,24 @@ public final class PriceForecastFutureOptimization extends PriceForecastFuture {
 		}
 	}
 
+	/**
+	 * Set stored forecast [marketArea[hourOfYear]] for year and following year
+	 * (two year steps)
+	 */
+	private static void setForecastWithAdditionalPlants(Set<MarketArea> marketAreas, int year,
+			float[][] forecast) {
+		int index = 0;
+		for (final MarketArea marketArea : marketAreas) {
+			final Map<Integer, Float> prices = new ConcurrentHashMap<>();
+			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
+				prices.put(hourOfYear, forecast[index][hourOfYear]);
+			}
+			final Map<Integer, Map<Integer, Float>> pricesMarketArea = forecastWithAdditionalPlants
+					.computeIfAbsent(marketArea, key -> new ConcurrentHashMap<>());
+			pricesMarketArea.put(year, prices);
+			pricesMarketArea.put(year + 1, new ConcurrentHashMap<>(prices));
+			index++;
+		}
+	}
+
 }
\ No newline at end of file
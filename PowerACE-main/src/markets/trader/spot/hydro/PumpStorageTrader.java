@@ -30,6 +30,7 @@ import markets.trader.future.tools.PriceForecastFuture;
 import markets.trader.spot.DayAheadTrader;
 import markets.trader.spot.supply.tools.AssignPowerPlantsForecast;
 import markets.trader.spot.supply.tools.ForecastTypeDayAhead;
+import markets.trader.spot.supply.tools.MeritOrderSnapshot;
 import simulations.initialization.Settings;
 import simulations.scheduling.Date;
 import supply.Generator;
@@ -37,6 +38,7 @@ import supply.powerplant.Plant;
 import supply.scenarios.ScenarioList;
 import tools.logging.Folder;
 import tools.logging.LoggerCSV;
+import tools.other.Concurrency;
 import tools.types.FuelType;
 
 public class PumpStorageTrader extends Trader implements DayAheadTrader {
@@ -68,6 +70,11 @@ public class PumpStorageTrader extends Trader implements DayAheadTrader {
 	 * the optimization period after the day ahead dispatch of the pump storage.
 	 */
 	private static final float REQUIRED_LOAD_DIFFERENCE = 0;
+	/**
+	 * Number of discrete storage levels for the dispatch via dynamic
+	 * programming
+	 */
+	private static final int STORAGE_LEVELS_DYNAMIC_PROGRAMMING = 1000;
 
 	private static float[] staticpumpStorageProfile = {1500f, 2200f, 2500f, 2100f, 2000f, 1900f,
 			700f, 0f, -1000f, -800f, -900f, -1100f, -1200f, -1100f, -800f, -900f, -800f, -1000f,
@@ -98,6 +105,11 @@ public class PumpStorageTrader extends Trader implements DayAheadTrader {
 	}
 
 	/*** Variables defined in the xml file */
+	/**
+	 * If true, the load-smoothing operation is determined via dynamic
+	 * programming instead of Gurobi
+	 */
+	private boolean dispatchDynamicProgramming;
 	private boolean dynamicPriceForecast;
 
 	/**
@@ -118,6 +130,7 @@ public class PumpStorageTrader extends Trader implements DayAheadTrader {
 	private float[] residualLoadForecast = new float[MarketCouplingOperator
 			.getForecastLengthShort()];
 	private float[] soldCapacities = new float[HOURS_PER_YEAR];
+	private StorageDispatchDP storageDispatch;
 	private float[] summedCapacity = new float[HOURS_PER_DAY];
 	private float[] summedOperation = new float[HOURS_PER_DAY];
 	private float[] summedOperationDayAhead = new float[HOURS_PER_DAY];
@@ -198,7 +211,11 @@ public class PumpStorageTrader extends Trader implements DayAheadTrader {
 				getDynamicPumpProfile();
 			} else if (tradingDayAhead == 4) {
 				// optimizer
-				determineOperationOptimization();
+				if (dispatchDynamicProgramming) {
+					determineOperationDynamicProgramming();
+				} else {
+					determineOperationOptimization();
+				}
 			}
 
 			// generate Bids
@@ -1113,7 +1130,7 @@ public class PumpStorageTrader extends Trader implements DayAheadTrader {
 					model.setObjective(objective, GRB.MINIMIZE);
 				}
 				/* Solve model */
-				model.optimize();
+				Concurrency.executeBlocking(model::optimize);
 
 				if ((model.get(GRB.IntAttr.Status) != GRB.Status.OPTIMAL)
 						|| Date.isFirstDayOfYear()) {
@@ -1152,6 +1169,84 @@ public class PumpStorageTrader extends Trader implements DayAheadTrader {
 
 	}
 
+	/**
+	 * Determines the load-smoothing operation of all pumped storage plants via
+	 * dynamic programming. Same objective as
+	 * {@link #determineOperationOptimization()}, i.e. maximize the reduction of
+	 * the deviation from the average load, but efficiency and inflows are
+	 * considered. The plants are dispatched one after another, each plant can
+	 * only reduce the deviation that remains after the previous plants.
+	 */
+	private void determineOperationDynamicProgramming() {
+		Arrays.fill(summedOperation, 0f);
+		Arrays.fill(residualLoadForecast, 0f);
+		try {
+			if (storageDispatch == null) {
+				storageDispatch = new StorageDispatchDP(STORAGE_LEVELS_DYNAMIC_PROGRAMMING);
+			}
+			final int forecastLength = MarketCouplingOperator.getForecastLengthShort();
+			residualLoadForecast = getLoadForecast();
+			final float avgLoadBeforePumpStorageDispatch = getAvgLoadBeforePumpStorageDispatch();
+
+			// Deviation that can still be reduced
+			final float[] deviationRemaining = new float[forecastLength];
+			for (int hour = 0; hour < forecastLength; hour++) {
+				deviationRemaining[hour] = Math
+						.abs(residualLoadForecast[hour] - avgLoadBeforePumpStorageDispatch);
+			}
+
+			final float[] inflow = new float[forecastLength];
+			final float[] pumpMax = new float[forecastLength];
+			final float[] turbineMax = new float[forecastLength];
+			final float[] valuePump = new float[forecastLength];
+			final float[] valueTurbine = new float[forecastLength];
+			for (final PumpStoragePlant pumper : pumpy) {
+				pumper.resetPlannedOperation();
+				pumper.resetOperation();
+				final float availableTurbineCapacity = DAY_AHEAD_SHARE_OF_CAPACITY
+						* pumper.getGenerationCapacity();
+				final float availablePumpCapacity = DAY_AHEAD_SHARE_OF_CAPACITY
+						* pumper.getPumpCapacity();
+				for (int hour = 0; hour < forecastLength; hour++) {
+					// If last day of the year is exceeded, corresponding
+					// values at the beginning of the current year will be used
+					inflow[hour] = pumper.getStorageInflow(
+							Date.getHourOfYearFromHourOfDay(hour) % HOURS_PER_YEAR);
+					final float deviation = residualLoadForecast[hour]
+							- avgLoadBeforePumpStorageDispatch;
+					// Only reduction of deviation is valued
+					final float value = residualLoadForecast[hour] > 0 ? 1 : 0;
+					if (deviation > 0) {
+						turbineMax[hour] = Math.min(availableTurbineCapacity,
+								deviationRemaining[hour]);
+						valueTurbine[hour] = value;
+						pumpMax[hour] = 0;
+						valuePump[hour] = 0;
+					} else {
+						turbineMax[hour] = 0;
+						valueTurbine[hour] = 0;
+						pumpMax[hour] = Math.min(availablePumpCapacity, deviationRemaining[hour]);
+						valuePump[hour] = value;
+					}
+				}
+
+				final float[] operationPlant = storageDispatch.optimize(pumper.getStorageStatus(),
+						pumper.getStorageVolume(), pumper.getEfficiency(), inflow, pumpMax,
+						turbineMax, valuePump, valueTurbine);
+				for (int hour = 0; hour < forecastLength; hour++) {
+					deviationRemaining[hour] = Math.max(0,
+							deviationRemaining[hour] - Math.abs(operationPlant[hour]));
+				}
+				for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
+					pumper.setPlannedOperation(hourOfDay, operationPlant[hourOfDay]);
+				}
+				setLevelsAndStatus(pumper);
+			}
+		} catch (final Exception e) {
+			logger.error(e.getLocalizedMessage(), e);
+		}
+	}
+
 	/**
 	 * Determines the optimized operation of all pumped storage plants using the
 	 * objective of maximizing the profit or smoothing the load
@@ -1570,6 +1665,7 @@ public class PumpStorageTrader extends Trader implements DayAheadTrader {
 				powerPlants.add(plant);
 			}
 		}
+		final MeritOrderSnapshot meritOrder = getMeritOrder(powerPlants);
 		final float[] availableFlexibleCapacity = new float[MarketCouplingOperator
 				.getForecastLengthShort()];
 		for (int hour = 0; hour < MarketCouplingOperator.getForecastLengthShort(); hour++) {
@@ -1608,9 +1704,14 @@ public class PumpStorageTrader extends Trader implements DayAheadTrader {
 			loadResidual[hour] = (((demandLoadForecast + exchangeForecast) - renewablesForecast
 					- seasonalOperation));
 
-			// Available Capacity PowerPlants
-			for (final Plant plant : powerPlants) {
-				availableFlexibleCapacity[hour] += plant.getCapacityUnusedExpected(hourOfYear);
+			// Available Capacity PowerPlants, the merit order only covers the
+			// current year
+			if (hour < meritOrder.getForecastLength()) {
+				availableFlexibleCapacity[hour] = meritOrder.getCapacityUnused(hour);
+			} else {
+				for (final Plant plant : powerPlants) {
+					availableFlexibleCapacity[hour] += plant.getCapacityUnusedExpected(hourOfYear);
+				}
 			}
 			if (loadResidual[hour] >= availableFlexibleCapacity[hour]) {
 				isExtremeSituation = true;
@@ -1625,12 +1726,24 @@ public class PumpStorageTrader extends Trader implements DayAheadTrader {
 		return loadResidual;
 	}
 
+	/**
+	 * Merit order of today, shared by all storage traders of the market area
+	 * so that the plants are sorted and their capacities are read only once.
+	 */
+	private MeritOrderSnapshot getMeritOrder(List<Plant> powerPlants) {
+		return MeritOrderSnapshot.get(marketArea, powerPlants,
+				Math.min(MarketCouplingOperator.getForecastLengthShort(),
+						HOURS_PER_YEAR - Date.getFirstHourOfToday()));
+	}
+
 	private float[] getPriceForecastHeuristic(List<Plant> powerPlants) {
 		int forecastLength = MarketCouplingOperator.getForecastLengthShort();
 		if (Date.isLastDayOfYear()) {
 			forecastLength = 24;
 		}
-		Collections.sort(powerPlants);
+		// Plants are sorted again by AssignPowerPlantsForecast, so use copy
+		final List<Plant> powerPlantsSorted = new ArrayList<>(
+				getMeritOrder(powerPlants).getPlants());
 		final float[] priceForecast = new float[forecastLength];
 		final List<Float> loadForecast = new ArrayList<>(forecastLength);
 		final List<ScenarioList<Float>> loadScenario = new ArrayList<>(1);
@@ -1646,7 +1759,7 @@ public class PumpStorageTrader extends Trader implements DayAheadTrader {
 
 		// Actual price forecast
 		final AssignPowerPlantsForecast assignPowerPlantsForecast = new AssignPowerPlantsForecast(
-				powerPlants, loadScenario, marketArea);
+				powerPlantsSorted, loadScenario, marketArea);
 		assignPowerPlantsForecast.assignPlants();
 		final List<ScenarioList<Float>> costScenario = assignPowerPlantsForecast.getMarginalCosts();
 
@@ -1969,7 +2082,7 @@ public class PumpStorageTrader extends Trader implements DayAheadTrader {
 			}
 
 			// perform optimization
-			model.optimize();
+			Concurrency.executeBlocking(model::optimize);
 
 			// transfer operation and storage status
 			for (int hour = 0; hour < optimizationPeriod; hour++) {
@@ -2,12 +2,15 @@ package markets.trader.spot.hydro;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -17,6 +20,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.gurobi.gurobi.GRB;
+import com.gurobi.gurobi.GRBConstr;
 import com.gurobi.gurobi.GRBEnv;
 import com.gurobi.gurobi.GRBException;
 import com.gurobi.gurobi.GRBLinExpr;
@@ -45,27 +49,217 @@ import tools.types.Unit;
  */
 public class SeasonalStorageTrader extends Trader implements DayAheadTrader {
 
+	/**
+	 * Gurobi model of the yearly operation, reused for all iterations of a
+	 * year. Each model has its own environment, so the models of different
+	 * market areas can be solved concurrently. The solver threads are shared
+	 * between the models.
+	 */
+	private static final class YearlyModel {
+
+		private final GRBEnv env;
+		private final GRBModel model;
+		/** Hourly operation [hourOfYear] */
+		private final GRBVar[] operation;
+		/** Minimum production [hourOfYear] */
+		private final GRBConstr[] operationMinimum;
+		/** Penalty for not producing the minimum [hourOfYear] */
+		private final GRBVar[] penaltyMinProd;
+		/** Weekly storage level [weekOfYear] */
+		private final GRBVar[] storageLevel;
+		/** Storage balance of each week [weekOfYear] */
+		private final GRBConstr[] storageLevelBalance;
+		private final GRBVar[] storageLevelPenaltyNeg;
+		private final GRBVar[] storageLevelPenaltyPos;
+		private final SeasonalStorageTrader trader;
+
+		private YearlyModel(SeasonalStorageTrader trader) throws GRBException {
+			this.trader = trader;
+			env = new GRBEnv();
+			// Enables (1) or disables (0) console logging.
+			env.set(GRB.IntParam.LogToConsole, 0);
+			model = new GRBModel(env);
+
+			// The MIP solver will terminate (with an optimal result) when the
+			// relative gap between the lower and upper objective bound is less
+			// than MIPGap times the upper bound.
+			model.set(GRB.DoubleParam.MIPGap, 1E-4);
+			/* Define solving method */
+			model.set(GRB.IntParam.Method, GRB.METHOD_DUAL);
+			// Share available processors between models of all market areas
+			model.set(GRB.IntParam.Threads, Math.max(1,
+					Runtime.getRuntime().availableProcessors() / Math.max(1, traders.size())));
+			model.set(GRB.IntAttr.ModelSense, GRB.MAXIMIZE);
+
+			/*********************
+			 * Decision variables *
+			 *********************/
+			// hourly operation, objective and bounds are set in each iteration
+			operation = new GRBVar[Date.HOURS_PER_YEAR];
+			penaltyMinProd = new GRBVar[Date.HOURS_PER_YEAR];
+			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
+				// maximum Production
+				operation[hourOfYear] = model.addVar(0,
+						trader.availableTurbineCapacity / iterations, 0.0, GRB.CONTINUOUS,
+						"Operation_hour_" + hourOfYear);
+				// Penalty for minimum production
+				penaltyMinProd[hourOfYear] = model.addVar(0, 0, -1.0, GRB.CONTINUOUS,
+						"Penalty_hour_" + hourOfYear + "_min_prod" + trader.minimumProduction);
+			}
+
+			// weekly storage level
+			storageLevel = new GRBVar[Date.WEEKS_PER_YEAR + 1];
+			storageLevelPenaltyPos = new GRBVar[Date.WEEKS_PER_YEAR + 1];
+			storageLevelPenaltyNeg = new GRBVar[Date.WEEKS_PER_YEAR + 1];
+			for (int weekOfYear = 0; weekOfYear < (Date.WEEKS_PER_YEAR + 1); weekOfYear++) {
+				storageLevel[weekOfYear] = model.addVar(trader.storageLevelLower[weekOfYear],
+						trader.storageLevelUpper[weekOfYear], 0.0, GRB.CONTINUOUS,
+						"Storage_Level_week_" + weekOfYear + "_minVol_"
+								+ trader.storageLevelLower[weekOfYear] + "_maxVol_"
+								+ trader.storageLevelUpper[weekOfYear]);
+				storageLevelPenaltyPos[weekOfYear] = model.addVar(0, 10000000, 0.0, GRB.CONTINUOUS,
+						"Penalty_for_storage_level_Pos_deviation");
+				storageLevelPenaltyNeg[weekOfYear] = model.addVar(0, 10000000, 0.0, GRB.CONTINUOUS,
+						"Penalty_for_storage_level_Neg_deviation");
+			}
+			model.update();
+
+			/*********************
+			 * Constraints *
+			 *********************/
+			final GRBLinExpr expr = new GRBLinExpr();
+
+			// Minimum Production with penalty if negative prices occure
+			operationMinimum = new GRBConstr[Date.HOURS_PER_YEAR];
+			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
+				expr.addTerm(1, operation[hourOfYear]);
+				expr.addTerm(1, penaltyMinProd[hourOfYear]);
+				operationMinimum[hourOfYear] = model.addConstr(expr, GRB.GREATER_EQUAL, 0,
+						"operation_minimum_hour_" + hourOfYear);
+				expr.clear();
+			}
+
+			// Add initial storage volume
+			expr.addTerm(1, storageLevel[0]);
+			model.addConstr(expr, GRB.EQUAL, trader.storageLevelStart,
+					"Initial_Storage_level_" + trader.storageLevelStart);
+			expr.clear();
+
+			// combine operation in hours per week to weekly storage volume
+			// Volume_t+1=Volume_t-operation_week_t/efficiency+inflow, inflow
+			// and already allocated operation are set in each iteration
+			storageLevelBalance = new GRBConstr[Date.WEEKS_PER_YEAR];
+			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
+				// Consider efficiency
+				expr.addTerm(-1 / trader.efficiency, operation[hourOfYear]);
+				final int weekOfYear = Date.getWeekOfWeekyearFromHourOfYear(hourOfYear) - 1;
+				if ((weekOfYear < (Date.getWeekOfWeekyearFromHourOfYear(hourOfYear + 1) - 1))
+						|| (hourOfYear == (Date.HOURS_PER_YEAR - 1))) {
+					expr.addTerm(1, storageLevel[weekOfYear]);
+					// Storagelevel next week
+					expr.addTerm(-1, storageLevel[weekOfYear + 1]);
+					expr.addTerm(-1, storageLevelPenaltyPos[weekOfYear + 1]);
+					expr.addTerm(1, storageLevelPenaltyNeg[weekOfYear + 1]);
+					storageLevelBalance[weekOfYear] = model.addConstr(expr, GRB.EQUAL, 0,
+							"Storage_Level_weekly_" + weekOfYear);
+					expr.clear();
+				}
+			}
+			model.update();
+		}
+
+		private void dispose() throws GRBException {
+			model.dispose();
+			env.dispose();
+		}
+
+		private float[] getOperation() throws GRBException {
+			final double[] values = model.get(GRB.DoubleAttr.X, operation);
+			final float[] result = new float[values.length];
+			for (int hourOfYear = 0; hourOfYear < values.length; hourOfYear++) {
+				result[hourOfYear] = (float) values[hourOfYear];
+			}
+			return result;
+		}
+
+		private double[] getStorageLevels() throws GRBException {
+			return model.get(GRB.DoubleAttr.X, storageLevel);
+		}
+
+		/**
+		 * Solve model, write model and restrictive constraints if no optimal
+		 * solution is found
+		 *
+		 * @return <code>true</code> if optimal
+		 */
+		private boolean optimize(int iteration) throws GRBException {
+			Concurrency.executeBlocking(model::optimize);
+			if (model.get(GRB.IntAttr.Status) == GRB.Status.OPTIMAL) {
+				return true;
+			}
+			logger.error("Seasonal Storage infeasible! Please check . Status: "
+					+ model.get(GRB.IntAttr.Status));
+			final String path = Settings.getLogPathName(
+					trader.marketArea.getIdentityAndNameLong(), Folder.HYDROPOWER);
+			model.write(path + File.separator + trader.marketArea.getInitials()
+					+ "_SeasonalStorage_" + Date.getYear() + "_iteration_" + iteration + ".lp");
+			if (model.get(GRB.IntAttr.Status) == GRB.Status.INFEASIBLE) {
+				// compute IIS to find restrictive constraints
+				Concurrency.executeBlocking(model::computeIIS);
+				for (final GRBConstr constraint : model.getConstrs()) {
+					if (constraint.get(GRB.IntAttr.IISConstr) > 0) {
+						logger.error("IIS-constraint (y" + Date.getYear() + "): "
+								+ constraint.get(GRB.StringAttr.ConstrName));
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Set price forecast, minimum production, penalties and weekly
+		 * storage balances of the current iteration
+		 */
+		private void update(float[] prices, float operationMin, float share, float[] inflow,
+				Map<Integer, Float> operationPlanned) throws GRBException {
+			final double[] objective = new double[Date.HOURS_PER_YEAR];
+			final double[] minimum = new double[Date.HOURS_PER_YEAR];
+			final double[] balance = new double[Date.WEEKS_PER_YEAR];
+			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
+				// Maximize revenues: price * operation
+				objective[hourOfYear] = prices[hourOfYear];
+				minimum[hourOfYear] = operationMin;
+				// already allocated operation
+				balance[Date.getWeekOfWeekyearFromHourOfYear(hourOfYear) - 1] += operationPlanned
+						.get(hourOfYear) / trader.efficiency;
+			}
+			for (int weekOfYear = 0; weekOfYear < Date.WEEKS_PER_YEAR; weekOfYear++) {
+				balance[weekOfYear] -= inflow[weekOfYear];
+			}
+			// weekly deviation
+			final double[] penalty = new double[Date.WEEKS_PER_YEAR + 1];
+			Arrays.fill(penalty, -PENALTY * share);
+
+			model.set(GRB.DoubleAttr.Obj, operation, objective);
+			model.set(GRB.DoubleAttr.UB, penaltyMinProd, minimum);
+			model.set(GRB.DoubleAttr.RHS, operationMinimum, minimum);
+			model.set(GRB.DoubleAttr.RHS, storageLevelBalance, balance);
+			model.set(GRB.DoubleAttr.Obj, storageLevelPenaltyPos, penalty);
+			model.set(GRB.DoubleAttr.Obj, storageLevelPenaltyNeg, penalty);
+		}
+	}
+
 	/**
 	 * Instance of logger to give out warnings, errors to console and or files
 	 */
 	private static final Logger logger = LoggerFactory
 			.getLogger(SeasonalStorageTrader.class.getName());
 	private static final ExecutorService executorLogFiles = Executors.newSingleThreadExecutor();
-	/**
-	 * Create Gurobi environment object. Just use one environment for runtime
-	 * reasons
-	 */
-	private static GRBEnv env;
-	static {
-		try {
-			env = new GRBEnv();
-		} catch (final GRBException e) {
-			logger.error(e.getLocalizedMessage(), e);
-		}
-	}
 
 	private static int iterations = 20;
 	private static final long PENALTY = 1_000_000_000l;
+	/** All traders, needed to dispose their models */
+	private static final Set<SeasonalStorageTrader> traders = ConcurrentHashMap.newKeySet();
 
 	/**
 	 * Write all log files and wait for shutdown. Create a new instance of the
@@ -78,15 +272,13 @@ public class SeasonalStorageTrader extends Trader implements DayAheadTrader {
 		} catch (final Exception e) {
 			logger.error(e.getMessage(), e);
 		}
+		traders.clear();
 	}
 
+	/** Dispose models and environments of all traders */
 	public static void dispose() {
-		try {
-			// dispose environment
-			env.dispose();
-			env = new GRBEnv();
-		} catch (final Exception e) {
-			logger.error(e.getLocalizedMessage(), e);
+		for (final SeasonalStorageTrader trader : traders) {
+			trader.disposeModel();
 		}
 	}
 	/**
@@ -113,6 +305,11 @@ public class SeasonalStorageTrader extends Trader implements DayAheadTrader {
 
 	private float efficiency;
 	private float minimumProduction;
+	/**
+	 * Variables defined in the xml file. If true, the operation is determined
+	 * via dynamic programming instead of Gurobi.
+	 */
+	private boolean dispatchDynamicProgramming;
 
 	private int weatherYear = 2018;
 
@@ -135,6 +332,13 @@ public class SeasonalStorageTrader extends Trader implements DayAheadTrader {
 	private Map<Integer, Map<Integer, Float>> storageLevelPreMarket = new HashMap<>();
 	private Map<Integer, Map<Integer, Float>> storageLevelPostMarket = new HashMap<>();
 	private final List<Double> listStorageLevel = new ArrayList<>();
+	private YearlyModel model;
+	private final float[] inflowStorageLevelDiff = new float[Date.WEEKS_PER_YEAR];
+	private final float[] outflowHistProduction = new float[Date.WEEKS_PER_YEAR];
+	private final float[] storageLevelLower = new float[Date.WEEKS_PER_YEAR + 1];
+	private float storageLevelStart;
+	private final float[] storageLevelUpper = new float[Date.WEEKS_PER_YEAR + 1];
+	private int storageLevelYear;
 	/**
 	 * Define upper and lower limit of bidding energy for the bids of the agent
 	 */
@@ -343,6 +547,7 @@ public class SeasonalStorageTrader extends Trader implements DayAheadTrader {
 		logger.info(marketArea.getInitialsBrackets() + "Initialize " + getName());
 
 		marketArea.addSeasonalTrader(this);
+		traders.add(this);
 		// downloadData
 		final Collection<Callable<Void>> tasks = new ArrayList<>();
 		Concurrency.executeConcurrently(tasks);
@@ -351,7 +556,7 @@ public class SeasonalStorageTrader extends Trader implements DayAheadTrader {
 	}
 	private void logDataOptimization(final Map<Integer, Float> forecastprice,
 			final List<Double> storageLevel, final int weatherYear,
-			final Map<Integer, Float> operationPlanned) throws GRBException {
+			final Map<Integer, Float> operationPlanned) {
 		final int year = Date.getYear();
 		final int logFileOptimization = logInitializeOptimization(year);
 		executorLogFiles.execute(() -> {
@@ -463,12 +668,91 @@ public class SeasonalStorageTrader extends Trader implements DayAheadTrader {
 		}
 
 	}
-	private void setOperation(GRBVar[] operation) throws GRBException {
+
+	/**
+	 * Storage levels and weekly in- and outflows of the current year, the same
+	 * for all iterations
+	 */
+	private void initializeYear() {
+		// WeatherYear
+		storageLevelYear = weatherYear;
+		if (storageVolumeWeeklyHistorical.containsKey("" + Date.getYear())) {
+			storageLevelYear = Date.getYear();
+		}
+		storageLevelStart = getStorageLevelHistorical(storageLevelYear, 0);
+		for (int weekOfYear = 0; weekOfYear < (Date.WEEKS_PER_YEAR + 1); weekOfYear++) {
+			storageLevelUpper[weekOfYear] = Math.min(
+					getStorageLevelHistorical(storageLevelYear, weekOfYear) * (1 + deviation),
+					storageVolumeMax);
+			// not negative
+			storageLevelLower[weekOfYear] = Math.min(Math.max(0,
+					getStorageLevelHistorical(storageLevelYear, weekOfYear) * (1 - deviation)),
+					storageVolumeMax);
+		}
+		for (int weekOfYear = 0; weekOfYear < Date.WEEKS_PER_YEAR; weekOfYear++) {
+			// net inflow = historical production
+			outflowHistProduction[weekOfYear] = getProductionHistorical(storageLevelYear,
+					weekOfYear) / efficiency;
+			inflowStorageLevelDiff[weekOfYear] = getStorageLevelHistorical(storageLevelYear,
+					weekOfYear + 1) - getStorageLevelHistorical(storageLevelYear, weekOfYear);
+			if (((outflowHistProduction[weekOfYear] + inflowStorageLevelDiff[weekOfYear]) < 0)) {
+				logger.error(marketArea.getInitialsBrackets()
+						+ " Net outflow without production weekly seasonal storage operation.Not Possile! Check input data");
+			}
+		}
+	}
+
+	private void disposeModel() {
+		if (model != null) {
+			try {
+				model.dispose();
+			} catch (final GRBException e) {
+				logger.error(e.getLocalizedMessage(), e);
+			}
+			model = null;
+		}
+	}
+
+	private void setOperation(float[] operation) {
 		for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
-			operationPlanned.put(hourOfYear, (float) operation[hourOfYear].get(GRB.DoubleAttr.X)
-					+ operationPlanned.get(hourOfYear));
+			operationPlanned.put(hourOfYear, operation[hourOfYear] + operationPlanned.get(hourOfYear));
 		}
 	}
+
+	/**
+	 * Optimize the yearly operation with the Gurobi model. The model is built in
+	 * the first iteration and reused in the following iterations of the year,
+	 * only objective, bounds and right-hand sides are changed.
+	 *
+	 * @return <code>true</code> if an optimal solution was found
+	 */
+	private boolean storageOptimizationModel(int iteration, float[] prices, float operationMin,
+			float share, float[] inflow) throws GRBException {
+		if ((model == null) || (iteration == 0)) {
+			disposeModel();
+			model = new YearlyModel(this);
+		}
+		model.update(prices, operationMin, share, inflow, operationPlanned);
+		if (!model.optimize(iteration)) {
+			return false;
+		}
+		setOperation(model.getOperation());
+		listStorageLevel.clear();
+		for (final double level : model.getStorageLevels()) {
+			listStorageLevel.add(level);
+		}
+		return true;
+	}
+
+	/**
+	 * Optimize the yearly operation of the storage. Each iteration adds a share
+	 * of the yearly operation to the planned operation, based on the price
+	 * forecast that considers the operation planned so far.
+	 * <p>
+	 * The Gurobi model is used unless dynamic programming is set in the xml
+	 * file. If the model fails, the operation is determined via dynamic
+	 * programming ({@link WaterValueDP}) instead.
+	 */
 	public Map<Integer, Float> storageOptimization(int iteration,
 			Map<Integer, Float> priceForecast) {
 		try {
@@ -481,284 +765,61 @@ public class SeasonalStorageTrader extends Trader implements DayAheadTrader {
 
 					operationPlanned.put(hourOfYear, 0f);
 				}
+				initializeYear();
 			}
-			// Create Gurobi model object
-			final GRBModel model = new GRBModel(env);
-
-			// Set Gurobi model parameters
-
-			// The MIPFocus parameter allows you to modify your high-level
-			// solution strategy, depending on your goals. By default
-			// (MIPFocus=0), the Gurobi MIP solver strikes a balance between
-			// finding new feasible solutions and proving that the current
-			// solution is optimal. If you are more interested in good quality
-			// feasible solutions, you can select MIPFocus=1. If you believe the
-			// solver is having no trouble finding the optimal solution, and
-			// wish to focus more attention on proving optimality, select
-			// MIPFocus=2. If the best objective bound is moving very slowly (or
-			// bound.
-			int MIPFocus;
-			MIPFocus = 0;
-			model.getEnv().set(GRB.IntParam.MIPFocus, MIPFocus);
-
-			// Limits the total time expended (in seconds). Optimization returns
-			// with a TIME_LIMIT status if the limit is exceeded.
-			// Default value: Infinity
-			// Range [0, infinity]
-			// Gurobi was designed to be deterministic, meaning that it will
-			// produce
-			// the same results so long as you don't change the computer, Gurobi
-			// version, matrix, or parameters. One of the known exception is
-			// setting
-			// a time limit
-
-			// The MIP solver will terminate (with an optimal result) when the
-			// relative gap between the lower and upper objective bound is less
-			// than MIPGap times the upper bound.
-			// Default value: 1e-4
-			// Range [0, infinity]
-			double MIPGap;
-			MIPGap = 1E-4;
-			model.getEnv().set(GRB.DoubleParam.MIPGap, MIPGap);
-
-			// Enables (1) or disables (0) console logging.
-			int LogToConsole;
-			LogToConsole = 0;
-			model.getEnv().set(GRB.IntParam.LogToConsole, LogToConsole);
-
-			/* Define solving method */
-			model.set(GRB.IntParam.Method, GRB.METHOD_DUAL);
-
-			// WeatherYear
-			int storageLevelYear = weatherYear;
-			if (storageVolumeWeeklyHistorical.containsKey("" + Date.getYear())) {
-				storageLevelYear = Date.getYear();
-			}
-
-			/*********************
-			 * Decision variables *
-			 *********************/
-			/* Definition of variables */
-
-			///////////////////////////
-			// Hourly
-			//////////////////////////
-			// hourly operation
-			// - Set dimension of array
-			final GRBVar[] operation = new GRBVar[Date.HOURS_PER_YEAR];
-			// Penalty for not producing the minimum
-			final GRBVar[] penaltyMinProd = new GRBVar[Date.HOURS_PER_YEAR];
 			float operationMin = 0;
 			if (iteration == (iterations - 1)) {
 				operationMin = minimumProduction;
 			}
 			final float share = (float) (iteration + 1) / iterations;
-			// - Add variables to model
-			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
-
-				// Operation
-				String variableName = "Operation_hour_" + hourOfYear + "_priceForecast_"
-						+ priceForecast.get(hourOfYear);
-				// Gurobi only alows Names with a maximal length of 255
-				// characters
-				if (variableName.length() > 254) {
-					variableName = variableName.substring(0, 254);
-				}
-				// maximum Production
-				operation[hourOfYear] = model.addVar(0, availableTurbineCapacity / iterations, 0.0,
-						GRB.CONTINUOUS, variableName);
-
-				// Penalty
-				variableName = "Penalty_hour_" + hourOfYear + "_min_prod" + minimumProduction;
-				// Gurobi only alows Names with a maximal length of 255
-				// characters
-				if (variableName.length() > 254) {
-					variableName = variableName.substring(0, 254);
-				}
-
-				// maximum Production
-				penaltyMinProd[hourOfYear] = model.addVar(0, operationMin, 0.0, GRB.CONTINUOUS,
-						variableName);
-			}
-
-			////////////////////////////
-			// Weekly
-			////////////////////////////
-			// operation in week
-
-			final GRBVar[] storageLevel = new GRBVar[Date.WEEKS_PER_YEAR + 1];
-			final GRBVar[] storageLevelPenaltyPos = new GRBVar[Date.WEEKS_PER_YEAR + 1];
-			final GRBVar[] storageLevelPenaltyNeg = new GRBVar[Date.WEEKS_PER_YEAR + 1];
-
-			// - Add variables to model
-			for (int weekOfYear = 0; weekOfYear < (Date.WEEKS_PER_YEAR + 1); weekOfYear++) {
-
-				final float storageVolumeUpper = Math.min(
-						getStorageLevelHistorical(storageLevelYear, weekOfYear) * (1 + deviation),
-						storageVolumeMax);
-				// not negative
-				final float storageVolumeLower = Math.min(Math.max(0,
-						getStorageLevelHistorical(storageLevelYear, weekOfYear) * (1 - deviation)),
-						storageVolumeMax);
-
-				String variableName = "Storage_Level_week_" + weekOfYear + "_minVol_"
-						+ storageVolumeLower + "_maxVol_" + storageVolumeUpper;
-				// Gurobi only alows Names with a maximal length of 255
-				// characters
-				if (variableName.length() > 254) {
-					variableName = variableName.substring(0, 254);
-				}
-
-				storageLevel[weekOfYear] = model.addVar(storageVolumeLower, storageVolumeUpper, 0.0,
-						GRB.CONTINUOUS, variableName);
-				storageLevelPenaltyPos[weekOfYear] = model.addVar(0, 10000000, 0.0, GRB.CONTINUOUS,
-						"Penalty_for_storage_level_Pos_deviation");
-				storageLevelPenaltyNeg[weekOfYear] = model.addVar(0, 10000000, 0.0, GRB.CONTINUOUS,
-						"Penalty_for_storage_level_Neg_deviation");
-			}
-
-			// Update model
-			model.update();
-
-			/*********************
-			 * Target function *
-			 *********************/
-			/* Objective function */
-			final GRBLinExpr objective = new GRBLinExpr();
-			// Maximize revenues
-
-			// add to objective function: price * operation
+			final float[] prices = new float[Date.HOURS_PER_YEAR];
 			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
-				objective.addTerm(priceForecast.get(hourOfYear), operation[hourOfYear]);
-				// Plus penalties
-				// For min Production
-				objective.addTerm(-1, penaltyMinProd[hourOfYear]);
-
+				prices[hourOfYear] = priceForecast.get(hourOfYear);
 			}
-
-			// add to objective function: slag
-			for (int hourOfWeek = 0; hourOfWeek < (Date.WEEKS_PER_YEAR + 1); hourOfWeek++) {
-
-				// weekly deviation
-				objective.addTerm(-PENALTY * share, storageLevelPenaltyPos[hourOfWeek]);
-				objective.addTerm(-PENALTY * share, storageLevelPenaltyNeg[hourOfWeek]);
-
+			// Inflow in week in share of current iteration
+			final float[] inflow = new float[Date.WEEKS_PER_YEAR];
+			for (int weekOfYear = 0; weekOfYear < Date.WEEKS_PER_YEAR; weekOfYear++) {
+				inflow[weekOfYear] = (share * outflowHistProduction[weekOfYear])
+						+ Math.max(0, share * inflowStorageLevelDiff[weekOfYear]);
 			}
 
-			model.setObjective(objective, GRB.MAXIMIZE);
-
-			// Update model
-			model.update();
-
-			/*********************
-			 * Constraints *
-			 *********************/
-			// Needed for constraints
-			final GRBLinExpr expr1 = new GRBLinExpr();
-
-			/* Boundaries for operation variables */
-			// Minimum Production with penalty if negative prices occure
-			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
-				expr1.addTerm(1, operation[hourOfYear]);
-				expr1.addTerm(1, penaltyMinProd[hourOfYear]);
-				model.addConstr(expr1, GRB.GREATER_EQUAL, operationMin, "operation_minimum_"
-						+ minimumProduction + "_max_" + availableTurbineCapacity);
-				expr1.clear();
-			}
-
-			// maximum storage level
-
-			// minimum storage level
-
-			// Add initial storage volume
-			final float initalStorageLevel = getStorageLevelHistorical(storageLevelYear, 0);
-			expr1.addTerm(1, storageLevel[0]);
-			expr1.addConstant(-initalStorageLevel);
-			model.addConstr(expr1, GRB.EQUAL, 0, "Initial_Storage_level_" + initalStorageLevel);
-			expr1.clear();
-			// combine operation in hours per week to weekly storage volume
-			// Volume_t+1=operation_week_t+inflow+Volume_t
-			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
-				// Consider efficiency
-				// Operation in week
-				expr1.addTerm(-1 / efficiency, operation[hourOfYear]);
-
-				// already allocated operation
-
-				expr1.addConstant((-1 / efficiency) * operationPlanned.get(hourOfYear));
-
-				final int weekOfYear = Date.getWeekOfWeekyearFromHourOfYear(hourOfYear) - 1;
-
-				if ((weekOfYear < (Date.getWeekOfWeekyearFromHourOfYear(hourOfYear + 1) - 1))
-						|| (hourOfYear == (Date.HOURS_PER_YEAR - 1))) {
-
-					// Storage level_t, Field starts with 0
-					expr1.addTerm(1, storageLevel[weekOfYear]);
-
-					// net inflow = historical production
-					final float outflowHistProduction = (getProductionHistorical(storageLevelYear,
-							weekOfYear) / efficiency);
-
-					final float inflowStorageLevelDiff = getStorageLevelHistorical(storageLevelYear,
-							weekOfYear + 1)
-							- getStorageLevelHistorical(storageLevelYear, weekOfYear);
-					if (((outflowHistProduction + inflowStorageLevelDiff) < 0)) {
-						logger.error(marketArea.getInitialsBrackets()
-								+ " Net outflow without production weekly seasonal storage operation.Not Possile! Check input data");
-					}
-					expr1.addConstant(share * outflowHistProduction);
-					expr1.addConstant(Math.max(0, share * inflowStorageLevelDiff));
-					// Storagelevel next week
-					// what about week 53
-					expr1.addTerm(-1, storageLevel[weekOfYear + 1]);
-					expr1.addTerm(-1, storageLevelPenaltyPos[weekOfYear + 1]);
-					expr1.addTerm(1, storageLevelPenaltyNeg[weekOfYear + 1]);
-					model.addConstr(expr1, GRB.EQUAL, 0, "Storage_Level_weekly_" + weekOfYear);
-					expr1.clear();
+			boolean optimal = false;
+			if (!dispatchDynamicProgramming) {
+				try {
+					optimal = storageOptimizationModel(iteration, prices, operationMin, share,
+							inflow);
+				} catch (final GRBException e) {
+					logger.error(e.getLocalizedMessage(), e);
+					disposeModel();
+				}
+				if (!optimal) {
+					logger.warn(marketArea.getInitialsBrackets()
+							+ "Seasonal storage operation is determined via dynamic programming.");
 				}
 			}
-
-			// Storagelevel end of week after operation +/-x%
-
-			// stroagelevel hist(beginn next week)- storagelevel(end last week)
-			// + production hist (week) -operation
-
-			// Storagelevel after operation (end of week) = storagelevel (beginn
-			// week) + (inflow: level beginn next week-level beinn week + hist
-			// operation)
-
-			// Write model
-			final String path = Settings.getLogPathName(marketArea.getIdentityAndNameLong(),
-					Folder.HYDROPOWER);
-			model.write(path + File.separator + marketArea.getInitials() + "_SeasonalStorage_"
-					+ Date.getYear() + "_iteration_" + iteration + ".lp");
-
-			/* Solve model */
-			model.optimize();
-			if (model.get(GRB.IntAttr.Status) != GRB.Status.OPTIMAL) {
-				logger.error("Seasonal Storage infeasible! Please check . Status: "
-						+ model.get(GRB.IntAttr.Status));
-				// compute IIS to find restrictive constraints
-				model.computeIIS();
-				for (int constrIndex = 0; constrIndex < model.getConstrs().length; constrIndex++) {
-					if (model.getConstr(constrIndex).get(GRB.IntAttr.IISConstr) > 0) {
-						logger.error("IIS-constraint (y" + Date.getYear() + "): "
-								+ model.getConstr(constrIndex).get(GRB.StringAttr.ConstrName));
-					}
+			if (!optimal) {
+				final float[] operationPlannedArray = new float[Date.HOURS_PER_YEAR];
+				for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
+					operationPlannedArray[hourOfYear] = operationPlanned.get(hourOfYear);
+				}
+				final double[] storageLevels = new double[Date.WEEKS_PER_YEAR + 1];
+				setOperation(WaterValueDP.optimize(prices,
+						(float) (availableTurbineCapacity / iterations), operationMin, efficiency,
+						storageLevelStart, storageLevelLower, storageLevelUpper, inflow,
+						operationPlannedArray, PENALTY * share, storageLevels));
+				listStorageLevel.clear();
+				for (final double level : storageLevels) {
+					listStorageLevel.add(level);
 				}
 			}
 
-			setOperation(operation);
-			// for logging
-			listStorageLevel.clear();
-			for (final GRBVar element : storageLevel) {
-				listStorageLevel.add(element.get(GRB.DoubleAttr.X));
+			// Only the last iteration is relevant for the yearly log file
+			if (iteration == (iterations - 1)) {
+				disposeModel();
+				logDataOptimization(new HashMap<>(priceForecast),
+						new ArrayList<>(listStorageLevel), storageLevelYear,
+						new HashMap<>(operationPlanned));
 			}
-			model.dispose();
-
-			logDataOptimization(Collections.unmodifiableMap(priceForecast),
-					Collections.unmodifiableList(listStorageLevel), storageLevelYear,
-					Collections.unmodifiableMap(operationPlanned));
 		} catch (final Exception e) {
 			logger.error(e.getLocalizedMessage(), e);
 		}
@@ -766,4 +827,4 @@ public class SeasonalStorageTrader extends Trader implements DayAheadTrader {
 				Collections.unmodifiableMap(operationPlanned));
 		return operationPlanned;
 	}
-}
\ No newline at end of file
+}
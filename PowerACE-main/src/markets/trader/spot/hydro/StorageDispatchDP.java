@@ -0,0 +1,160 @@
+package markets.trader.spot.hydro;
+
+import java.util.Arrays;
+
+/**
+ * Dispatch of a single storage plant via dynamic programming over discretised
+ * storage levels. In each hour the plant can pump or turbine up to the given
+ * limits, each pumped or turbined MWh is valued with an hourly value. Pumping
+ * is subject to the efficiency, natural inflows are added to the storage
+ * level (water exceeding the volume is spilled).
+ * <p>
+ * Since the value of an hour is linear in the operation, the best transition
+ * for all storage levels of an hour is found with a sliding window maximum
+ * (monotone queue). Effort is linear in hours times levels, so no solver is
+ * needed. The result is optimal up to the discretisation of the storage
+ * level.
+ * <p>
+ * Arrays are reused between calls, i.e. an instance must not be used by
+ * several threads at the same time.
+ */
+final class StorageDispatchDP {
+
+	/** Tolerance when converting capacities into numbers of levels */
+	private static final double EPSILON = 1e-9;
+
+	/** Best level after each hour [hour][level] */
+	private int[][] choice = new int[0][];
+	/** Indices of the sliding window */
+	private final int[] deque;
+	/** Number of storage levels - 1 */
+	private final int levels;
+	/** Level change by inflow for each hour */
+	private int[] shifts = new int[0];
+	/** Value of the remaining hours [level] */
+	private double[] value;
+	/** Value of the remaining hours after current hour [level] */
+	private double[] valueNext;
+	/** Value after inflow [level before inflow] */
+	private double[] valueShifted;
+
+	StorageDispatchDP(int levels) {
+		this.levels = levels;
+		value = new double[levels + 1];
+		valueNext = new double[levels + 1];
+		valueShifted = new double[levels + 1];
+		deque = new int[levels + 1];
+	}
+
+	/**
+	 * Find the operation with the highest total value.
+	 *
+	 * @param levelStart
+	 *            storage level before the first hour in MWh
+	 * @param volume
+	 *            storage volume in MWh
+	 * @param efficiency
+	 *            share of pumped energy that is stored
+	 * @param inflow
+	 *            natural inflow [hour] in MWh
+	 * @param pumpMax
+	 *            maximal pumping [hour] in MW
+	 * @param turbineMax
+	 *            maximal turbining [hour] in MW
+	 * @param valuePump
+	 *            value of pumping one MWh [hour]
+	 * @param valueTurbine
+	 *            value of turbining one MWh [hour]
+	 * @return operation [hour], positive for pumping, negative for turbining
+	 */
+	float[] optimize(float levelStart, float volume, float efficiency, float[] inflow,
+			float[] pumpMax, float[] turbineMax, float[] valuePump, float[] valueTurbine) {
+		final int hours = pumpMax.length;
+		final float[] operation = new float[hours];
+		if (volume <= 0) {
+			return operation;
+		}
+		if (choice.length < hours) {
+			choice = new int[hours][levels + 1];
+			shifts = new int[hours];
+		}
+
+		final double step = (double) volume / levels;
+		Arrays.fill(valueNext, 0);
+		for (int hour = hours - 1; hour >= 0; hour--) {
+			shifts[hour] = (int) Math.round(inflow[hour] / step);
+			for (int level = 0; level <= levels; level++) {
+				valueShifted[level] = valueNext[getLevel(level + shifts[hour])];
+			}
+			final int[] choiceHour = choice[hour];
+
+			// Turbining: level after is in [level - turbineLevels, level]
+			final int turbineLevels = (int) Math.floor((turbineMax[hour] / step) + EPSILON);
+			final double valueTurbineLevel = valueTurbine[hour] * step;
+			int first = 0;
+			int last = -1;
+			for (int level = 0; level <= levels; level++) {
+				final double key = valueShifted[level] - (valueTurbineLevel * level);
+				while ((last >= first) && ((valueShifted[deque[last]]
+						- (valueTurbineLevel * deque[last])) <= key)) {
+					last--;
+				}
+				deque[++last] = level;
+				if (deque[first] < (level - turbineLevels)) {
+					first++;
+				}
+				final int best = deque[first];
+				value[level] = valueShifted[best] + (valueTurbineLevel * (level - best));
+				choiceHour[level] = best;
+			}
+
+			// Pumping: level after is in [level, level + pumpLevels]
+			if (efficiency > 0) {
+				final int pumpLevels = (int) Math
+						.floor(((efficiency * pumpMax[hour]) / step) + EPSILON);
+				final double valuePumpLevel = (valuePump[hour] * step) / efficiency;
+				first = 0;
+				last = -1;
+				for (int level = levels; level >= 0; level--) {
+					final double key = valueShifted[level] + (valuePumpLevel * level);
+					while ((last >= first) && ((valueShifted[deque[last]]
+							+ (valuePumpLevel * deque[last])) <= key)) {
+						last--;
+					}
+					deque[++last] = level;
+					if (deque[first] > (level + pumpLevels)) {
+						first++;
+					}
+					final int best = deque[first];
+					final double valuePumping = valueShifted[best]
+							+ (valuePumpLevel * (best - level));
+					if (valuePumping > value[level]) {
+						value[level] = valuePumping;
+						choiceHour[level] = best;
+					}
+				}
+			}
+
+			final double[] temp = valueNext;
+			valueNext = value;
+			value = temp;
+		}
+
+		// Follow best choices from start level
+		int level = getLevel((int) Math.round(levelStart / step));
+		for (int hour = 0; hour < hours; hour++) {
+			final int levelNext = choice[hour][level];
+			if (levelNext < level) {
+				operation[hour] = (float) (-(level - levelNext) * step);
+			} else if (levelNext > level) {
+				operation[hour] = (float) (((levelNext - level) * step) / efficiency);
+			}
+			level = getLevel(levelNext + shifts[hour]);
+		}
+		return operation;
+	}
+
+	private int getLevel(int level) {
+		return Math.max(0, Math.min(levels, level));
+	}
+}
@@ -0,0 +1,209 @@
+package markets.trader.spot.hydro;
+
+import java.util.Arrays;
+
+import simulations.scheduling.Date;
+
+/**
+ * Yearly operation of a seasonal storage via dynamic programming over the
+ * storage levels at the beginning of each week (water values). Solves the same
+ * problem as the Gurobi model of {@link SeasonalStorageTrader}:
+ * <ul>
+ * <li>the storage level at the beginning of each week has to stay within the
+ * given bounds, deviations from the weekly storage balance are penalised</li>
+ * <li>within a week, the operation is not restricted by the storage level, so
+ * the released energy is allocated to the hours with the highest prices</li>
+ * <li>not reaching the minimum production is penalised with 1 per MWh</li>
+ * </ul>
+ * The storage levels are discretised, otherwise the result is optimal.
+ */
+final class WaterValueDP {
+
+	/** Number of discrete storage levels per week - 1 */
+	private static final int LEVELS = 200;
+
+	/**
+	 * Find the operation with the highest revenues.
+	 *
+	 * @param prices
+	 *            [hourOfYear]
+	 * @param operationMax
+	 *            maximal operation per hour in MW
+	 * @param operationMin
+	 *            minimum production per hour in MW
+	 * @param efficiency
+	 *            of the turbine
+	 * @param levelStart
+	 *            storage level at the beginning of the year in MWh
+	 * @param levelLower
+	 *            lower bound of the storage level at the beginning of each
+	 *            week [week] in MWh, including the week after the last week
+	 * @param levelUpper
+	 *            upper bound of the storage level [week] in MWh
+	 * @param inflow
+	 *            inflow into the storage during each week [week] in MWh
+	 * @param operationPlanned
+	 *            already planned operation [hourOfYear] in MW
+	 * @param penalty
+	 *            for each MWh deviation from the storage balance
+	 * @param storageLevel
+	 *            resulting storage level at the beginning of each week [week]
+	 * @return additional operation [hourOfYear] in MW
+	 */
+	static float[] optimize(float[] prices, float operationMax, float operationMin,
+			float efficiency, float levelStart, float[] levelLower, float[] levelUpper,
+			float[] inflow, float[] operationPlanned, double penalty, double[] storageLevel) {
+		final int weeks = levelLower.length - 1;
+		final float operationMinHour = Math.min(operationMin, operationMax);
+
+		// Value of releasing energy in each week as piecewise linear function
+		final WeeklyValue[] weeklyValues = new WeeklyValue[weeks];
+		final float[] outflowPlanned = new float[weeks];
+		for (int week = 0; week < weeks; week++) {
+			final int hourStart = week * Date.HOURS_PER_WEEK;
+			final int hourEnd = Math.min(hourStart + Date.HOURS_PER_WEEK, Date.HOURS_PER_YEAR);
+			weeklyValues[week] = new WeeklyValue(prices, hourStart, hourEnd, operationMax,
+					operationMinHour);
+			for (int hourOfYear = hourStart; hourOfYear < hourEnd; hourOfYear++) {
+				outflowPlanned[week] += operationPlanned[hourOfYear] / efficiency;
+			}
+		}
+
+		// Backward: best value of remaining weeks for each storage level
+		double[] valueNext = new double[getNumberOfLevels(weeks, levelLower, levelUpper)];
+		final int[][] choice = new int[weeks][];
+		for (int week = weeks - 1; week >= 0; week--) {
+			final int levels = week == 0 ? 1 : getNumberOfLevels(week, levelLower, levelUpper);
+			final int levelsNext = valueNext.length;
+			final double[] value = new double[levels];
+			choice[week] = new int[levels];
+			for (int level = 0; level < levels; level++) {
+				final double levelCurrent = week == 0
+						? levelStart
+						: getLevel(week, level, levelLower, levelUpper);
+				final double available = (levelCurrent + inflow[week]) - outflowPlanned[week];
+				double valueBest = Double.NEGATIVE_INFINITY;
+				for (int levelNext = 0; levelNext < levelsNext; levelNext++) {
+					final double target = getLevel(week + 1, levelNext, levelLower, levelUpper);
+					final double release = weeklyValues[week]
+							.getRelease(efficiency * (available - target));
+					final double deviation = Math
+							.abs(available - (release / efficiency) - target);
+					final double valueTransition = (weeklyValues[week].getValue(release)
+							- (penalty * deviation)) + valueNext[levelNext];
+					if (valueTransition > valueBest) {
+						valueBest = valueTransition;
+						choice[week][level] = levelNext;
+					}
+				}
+				value[level] = valueBest;
+			}
+			valueNext = value;
+		}
+
+		// Forward: follow best choices and allocate release to hours
+		final float[] operation = new float[Date.HOURS_PER_YEAR];
+		double levelCurrent = levelStart;
+		int level = 0;
+		storageLevel[0] = levelStart;
+		for (int week = 0; week < weeks; week++) {
+			final int levelNext = choice[week][level];
+			final double target = getLevel(week + 1, levelNext, levelLower, levelUpper);
+			final double available = (levelCurrent + inflow[week]) - outflowPlanned[week];
+			final double release = weeklyValues[week]
+					.getRelease(efficiency * (available - target));
+			weeklyValues[week].allocate(release, operation);
+			levelCurrent = target;
+			level = levelNext;
+			storageLevel[week + 1] = target;
+		}
+		return operation;
+	}
+
+	private static double getLevel(int week, int level, float[] levelLower, float[] levelUpper) {
+		if (levelUpper[week] <= levelLower[week]) {
+			return levelLower[week];
+		}
+		return levelLower[week] + (((double) level * (levelUpper[week] - levelLower[week])) / LEVELS);
+	}
+
+	private static int getNumberOfLevels(int week, float[] levelLower, float[] levelUpper) {
+		return levelUpper[week] <= levelLower[week] ? 1 : LEVELS + 1;
+	}
+
+	/**
+	 * Value of the energy released in one week. Each hour consists of the
+	 * minimum production, valued with price plus penalty, and the remaining
+	 * capacity, valued with the price. Released energy is allocated to the
+	 * segments with the highest values.
+	 */
+	private static final class WeeklyValue {
+
+		/** Hour of year of each segment */
+		private final int[] hours;
+		/** Cumulated length of the segments before each segment in MWh */
+		private final double[] lengthsCumulated;
+		/** Cumulated value of the segments before each segment */
+		private final double[] valuesCumulated;
+		/** Value of each segment per MWh */
+		private final double[] values;
+
+		private WeeklyValue(float[] prices, int hourStart, int hourEnd, float operationMax,
+				float operationMin) {
+			final int numberOfHours = hourEnd - hourStart;
+			final Integer[] segments = new Integer[2 * numberOfHours];
+			final double[] segmentValues = new double[segments.length];
+			final double[] segmentLengths = new double[segments.length];
+			for (int hour = 0; hour < numberOfHours; hour++) {
+				segments[2 * hour] = 2 * hour;
+				segmentValues[2 * hour] = prices[hourStart + hour] + 1;
+				segmentLengths[2 * hour] = operationMin;
+				segments[(2 * hour) + 1] = (2 * hour) + 1;
+				segmentValues[(2 * hour) + 1] = prices[hourStart + hour];
+				segmentLengths[(2 * hour) + 1] = operationMax - operationMin;
+			}
+			Arrays.sort(segments, (s1, s2) -> Double.compare(segmentValues[s2], segmentValues[s1]));
+
+			hours = new int[segments.length];
+			values = new double[segments.length];
+			lengthsCumulated = new double[segments.length + 1];
+			valuesCumulated = new double[segments.length + 1];
+			for (int index = 0; index < segments.length; index++) {
+				final int segment = segments[index];
+				hours[index] = hourStart + (segment / 2);
+				values[index] = segmentValues[segment];
+				lengthsCumulated[index + 1] = lengthsCumulated[index] + segmentLengths[segment];
+				valuesCumulated[index + 1] = valuesCumulated[index]
+						+ (segmentValues[segment] * segmentLengths[segment]);
+			}
+		}
+
+		/** Add the release to the operation of the hours */
+		private void allocate(double release, float[] operation) {
+			double remaining = release;
+			for (int index = 0; (index < hours.length) && (remaining > 0); index++) {
+				final double length = Math.min(remaining,
+						lengthsCumulated[index + 1] - lengthsCumulated[index]);
+				operation[hours[index]] += length;
+				remaining -= length;
+			}
+		}
+
+		/** Release limited to the possible operation of the week */
+		private double getRelease(double release) {
+			return Math.max(0, Math.min(release, lengthsCumulated[lengthsCumulated.length - 1]));
+		}
+
+		private double getValue(double release) {
+			int index = Arrays.binarySearch(lengthsCumulated, release);
+			if (index < 0) {
+				index = -index - 2;
+			}
+			index = Math.min(index, values.length - 1);
+			return valuesCumulated[index] + ((release - lengthsCumulated[index]) * values[index]);
+		}
+	}
+
+	private WaterValueDP() {
+	}
+}
@@ -0,0 +1,173 @@
+package markets.trader.spot.supply.tools;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import simulations.MarketArea;
+import simulations.scheduling.Date;
+import supply.powerplant.Plant;
+
+/**
+ * Merit order of the power plants of a market area for the current day, shared
+ * read-only by all price forecasts of the market area.
+ * <p>
+ * The variable costs, capacities and ids of the plants are read once before
+ * sorting, so the order stays consistent even if the costs of the plants are
+ * changed at the same time. For each hour the unused capacity is cumulated
+ * along the merit order, so the last plant needed for a residual load is found
+ * via binary search and the total unused capacity is read in constant time.
+ */
+public final class MeritOrderSnapshot {
+
+	/** Snapshot of the current day for each market area */
+	private static final Map<MarketArea, MeritOrderSnapshot> snapshots = new ConcurrentHashMap<>();
+
+	/**
+	 * Remove the snapshots of all market areas. Called at the begin of each
+	 * year, since the snapshots refer to the plants of the last year.
+	 */
+	public static void clear() {
+		snapshots.clear();
+	}
+
+	/**
+	 * Get the snapshot of the current day for the market area. The snapshot is
+	 * created by the first forecast of the day, all other forecasts with the
+	 * same plants and a forecast length that is not longer wait for it and use
+	 * it as well.
+	 *
+	 * @param plants
+	 *            All power plants, available and non-available, in any order.
+	 * @param forecastLength
+	 *            Number of hours of the forecast starting with the first hour
+	 *            of today. Must not exceed the current year.
+	 */
+	public static MeritOrderSnapshot get(MarketArea marketArea, List<Plant> plants,
+			int forecastLength) {
+		final int year = Date.getYear();
+		final int dayOfYear = Date.getDayOfYear();
+		return snapshots.compute(marketArea,
+				(area, snapshot) -> (snapshot != null)
+						&& snapshot.isValid(year, dayOfYear, plants, forecastLength)
+								? snapshot
+								: new MeritOrderSnapshot(year, dayOfYear, plants, forecastLength));
+	}
+
+	/** Cumulated unused capacity along the merit order [hour][plantIndex] */
+	private final float[][] capacityCumulated;
+	private final int dayOfYear;
+	private final int forecastLength;
+	/** All power plants sorted by their variable costs */
+	private final List<Plant> plants;
+	/** Plants of the snapshot to check whether a forecast uses other plants */
+	private final Set<Plant> plantsSet;
+	private final int year;
+
+	private MeritOrderSnapshot(int year, int dayOfYear, List<Plant> plants, int forecastLength) {
+		this.year = year;
+		this.dayOfYear = dayOfYear;
+		this.forecastLength = forecastLength;
+		plantsSet = new HashSet<>(plants);
+
+		// Same order as Plant.compareTo but with fixed values
+		final int numberOfPlants = plants.size();
+		final float[] costs = new float[numberOfPlants];
+		final float[] capacities = new float[numberOfPlants];
+		final int[] unitIds = new int[numberOfPlants];
+		final Integer[] order = new Integer[numberOfPlants];
+		for (int index = 0; index < numberOfPlants; index++) {
+			final Plant plant = plants.get(index);
+			costs[index] = plant.getCostsVar();
+			capacities[index] = plant.getNetCapacity();
+			unitIds[index] = plant.getUnitID();
+			order[index] = index;
+		}
+		Arrays.sort(order, (index1, index2) -> {
+			int compare = Float.compare(costs[index1], costs[index2]);
+			if (compare == 0) {
+				compare = Float.compare(capacities[index2], capacities[index1]);
+			}
+			if (compare == 0) {
+				compare = Integer.compare(unitIds[index1], unitIds[index2]);
+			}
+			return compare;
+		});
+		final Plant[] plantsSorted = new Plant[numberOfPlants];
+		for (int index = 0; index < numberOfPlants; index++) {
+			plantsSorted[index] = plants.get(order[index]);
+		}
+		this.plants = Collections.unmodifiableList(Arrays.asList(plantsSorted));
+
+		final int firstHourOfToday = Date.getFirstHourOfToday();
+		capacityCumulated = new float[forecastLength][plantsSorted.length];
+		for (int hour = 0; hour < forecastLength; hour++) {
+			float supply = 0;
+			for (int plantIndex = 0; plantIndex < plantsSorted.length; plantIndex++) {
+				supply += plantsSorted[plantIndex].getCapacityUnusedExpected(firstHourOfToday + hour);
+				capacityCumulated[hour][plantIndex] = supply;
+			}
+		}
+	}
+
+	/**
+	 * Total unused capacity of all plants.
+	 *
+	 * @param hour
+	 *            [0,forecastLength)
+	 */
+	public float getCapacityUnused(int hour) {
+		final float[] supply = capacityCumulated[hour];
+		return supply.length == 0 ? 0 : supply[supply.length - 1];
+	}
+
+	/** Number of hours starting with the first hour of today */
+	public int getForecastLength() {
+		return forecastLength;
+	}
+
+	/**
+	 * Determine the last (most expensive) power plant that runs in order to
+	 * satisfy the residual load.
+	 *
+	 * @param hour
+	 *            [0,forecastLength)
+	 * @param resLoad
+	 *            The residual load
+	 * @return Index of the plant in {@link #getPlants()}. If demand cannot be
+	 *         met or if there are no plants, Integer.MIN_VALUE.
+	 */
+	int getLastPlantIndex(int hour, float resLoad) {
+		final float[] supply = capacityCumulated[hour];
+		if ((supply.length == 0) || (supply[supply.length - 1] < resLoad)) {
+			return Integer.MIN_VALUE;
+		}
+		int low = 0;
+		int high = supply.length - 1;
+		// First plant for which supply is equal or greater than residual load
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (supply[middle] >= resLoad) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return low;
+	}
+
+	/** All power plants sorted by their variable costs, unmodifiable */
+	public List<Plant> getPlants() {
+		return plants;
+	}
+
+	private boolean isValid(int year, int dayOfYear, List<Plant> plants, int forecastLength) {
+		return (this.year == year) && (this.dayOfYear == dayOfYear)
+				&& (this.forecastLength >= forecastLength) && (this.plants.size() == plants.size())
+				&& plantsSet.containsAll(plants);
+	}
+}
@@ -22,7 +22,6 @@ import simulations.scheduling.Date;
 import supply.powerplant.Plant;
 import supply.powerplant.technique.Type;
 import supply.scenarios.ScenarioList;
-import tools.Sorting;
 import tools.logging.Folder;
 import tools.logging.LoggerCSV;
 import tools.types.FuelName;
@@ -311,14 +310,14 @@ public class PriceForecastDayAhead {
 	private List<ScenarioList<Float>> demandForecastDaily;
 	/** The number of hours for which forecast is made, e.g. 30 hours. */
 	private final int forecastLength;
+	/** Merit order of the market area for the current day */
+	private MeritOrderSnapshot meritOrder;
 	/** Number of total scenarios */
 	private int numberOfScenarios;
 	private final List<ForecastOutcome> outcomes = new ArrayList<>();
-	/** The daily market prices, each scenario is in a new list. */
-	private Map<Integer, Map<Integer, Float>> powerPlantCapacityUnused;
 
 	/** All power plants sorted by their variable costs. */
-	private final List<Plant> powerPlants;
+	private List<Plant> powerPlants;
 	/** The daily market prices, each scenario is in a new list. */
 	private List<ScenarioList<Float>> priceForecastDaily;
 	private final float probabilityMedium = 0.5f;
@@ -373,15 +372,10 @@ public class PriceForecastDayAhead {
 	 */
 	public void forecastMarketPricesFast(MarketArea marketArea) {
 
-		// sort can lead to problems with threads if the costs are set at
-		// the same time
-		try {
-			Collections.sort(powerPlants);
-		} catch (final java.lang.IllegalArgumentException e) {
-			logger.error(
-					"Maybe this has to to do with an concurrency error where determineDailyPlantCosts sets the cost of power plants at the same time?",
-					e);
-		}
+		// Merit order is shared by all forecasts of the market area, costs
+		// are read once so concurrent cost updates cannot break the sorting
+		meritOrder = MeritOrderSnapshot.get(marketArea, powerPlants, forecastLength);
+		powerPlants = meritOrder.getPlants();
 
 		try {
 			forecastDemand();
@@ -389,11 +383,6 @@ public class PriceForecastDayAhead {
 			logger.error(e.getMessage());
 		}
 
-		try {
-			calcCapacityUnused();
-		} catch (final Exception e) {
-			logger.error(e.getMessage());
-		}
 		try {
 			calcMarketOutcomes(marketArea);
 		} catch (final Exception e) {
@@ -420,18 +409,11 @@ public class PriceForecastDayAhead {
 	 */
 	public void forecastMarketPricesNew(MarketArea marketArea) {
 
-		// sort can lead to problems with threads if the costs are set at
-		// the same time
-		try {
-			Collections.sort(powerPlants);
-		} catch (final java.lang.IllegalArgumentException e) {
-			logger.error(
-					"Maybe this has to to do with an concurrency error where determineDailyPlantCosts sets the cost of power plants at the same time?",
-					e);
-		}
+		// Plants are sorted again by AssignPowerPlantsForecast, so use copy
+		meritOrder = MeritOrderSnapshot.get(marketArea, powerPlants, forecastLength);
+		powerPlants = new ArrayList<>(meritOrder.getPlants());
 
 		forecastDemand();
-		calcCapacityUnused();
 		calcMarketOutcomesAssign(marketArea);
 	}
 
@@ -487,29 +469,6 @@ public class PriceForecastDayAhead {
 
 	}
 
-	/**
-	 * Access to powerPlant.getCapacityUnused is rather slow. Therefore store
-	 * values here.
-	 */
-	private void calcCapacityUnused() {
-
-		powerPlantCapacityUnused = new HashMap<>(powerPlants.size());
-
-		final int firstHourOfToday = Date.getFirstHourOfToday();
-		for (final Plant powerPlant : powerPlants) {
-
-			final int plantIndex = powerPlant.getUnitID();
-			final HashMap<Integer, Float> plantCapacityUnused = new HashMap<>(forecastLength);
-			for (int hour = 0; hour < forecastLength; hour++) {
-				plantCapacityUnused.put(hour,
-						powerPlant.getCapacityUnusedExpected(firstHourOfToday + hour));
-
-			}
-			powerPlantCapacityUnused.put(plantIndex, plantCapacityUnused);
-		}
-
-	}
-
 	/**
 	 * Calculate the market price for a given combination of the demand, the
 	 * renewable feed-in and available power plants.
@@ -533,7 +492,7 @@ public class PriceForecastDayAhead {
 			final List<Integer> lastIndex = new ArrayList<>(
 					Collections.nCopies(forecastLength, Integer.MIN_VALUE));
 
-			determineLastPwrPlant(powerPlants, thermalResLoadLocal, lastIndex);
+			determineLastPwrPlant(thermalResLoadLocal, lastIndex);
 			final List<Float> varCosts = new ArrayList<>();
 			final List<Float> startupCosts = new ArrayList<>();
 
@@ -712,100 +671,21 @@ public class PriceForecastDayAhead {
 
 	/**
 	 * Determine the last power plant for each hour that runs in order to
-	 * satisfy the demand. <BR>
-	 * Add the moment only works if power plants are out of the market for a
-	 * whole day and not less! This code was optimized for performance reasons
-	 * since the old method took too much time. (compare with Revision 728)
+	 * satisfy the demand via the merit order of the current day.
 	 *
-	 * @param plants
-	 *            All power plants, available and non-available. Plants need to
-	 *            be sorted.
 	 * @param resLoad
 	 *            The residual load,
 	 * @param lastIndex
 	 *            For each hour the index of the last (most expensive) power
 	 *            plant that is running.
 	 */
-	private void determineLastPwrPlant(List<Plant> plants, List<Float> resLoad,
-			List<Integer> lastIndex) {
-
-		// First day, since real outages can differ from day to day, create
-		// list of demand
-		final Map<Integer, Float> resLoadFirstDay = new HashMap<>(HOURS_PER_DAY);
-		for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
-			resLoadFirstDay.put(hour, resLoad.get(hour));
-		}
-		determineLastPwrPlantFast(plants, resLoad, lastIndex, resLoadFirstDay);
-
-		// Second day
-		final Map<Integer, Float> resLoadSecondDay = new HashMap<>(forecastLength - HOURS_PER_DAY);
-		for (int hour = HOURS_PER_DAY; hour < forecastLength; hour++) {
-			resLoadSecondDay.put(hour, resLoad.get(hour));
-		}
-		determineLastPwrPlantFast(plants, resLoad, lastIndex, resLoadSecondDay);
-
-	}
-
-	/**
-	 * Determines the last power plant for each value <code>resLoad</code>.
-	 * Starts with hour with lowest residual demand and goes to the hour with
-	 * next higher demand.
-	 *
-	 * @param plants
-	 *            All power plants, available and non-available. Plants need to
-	 *            be in a sorted order!
-	 * @param thermalResLoad
-	 *            The residual load
-	 * @param lastIndex
-	 *            The index of the last power plant that is running in each hour
-	 * @param resLoad
-	 *            The hourly values for which the last running power plants are
-	 *            determined.
-	 *
-	 */
-	private void determineLastPwrPlantFast(List<Plant> plants, List<Float> thermalResLoad,
-			List<Integer> lastIndex, Map<Integer, Float> resLoad) {
-
-		// Sort Map by value
-		final Map<Integer, Float> resLoadMap = Sorting.sortByValueIncreasing(resLoad);
-
-		float supply = 0;
-		int plantIndex = 0;
-
-		// start with lowest demand on list
-		for (final Integer hour : resLoadMap.keySet()) {
-
-			// check if demand is already satisfied
-			if (supply >= thermalResLoad.get(hour)) {
-				// plantIndex is incremented when supply is met, so current
-				// plantIndex is equal to last power plant + 1 and price setting
-				// plant is power plant -1, but if plant is the first plant that
-				// satisfies the demand has no been incremented so plant index
-				// would be 0
-				lastIndex.set(hour, Math.max(0, plantIndex - 1));
-				continue;
-			}
-
-			// get last power plant that needs to be running and that is also
-			// available on the next day due to maintenance (index starts with
-			// 0, day with 1) or assumed to be out of the market in a scenario
-			for (; plantIndex < plants.size(); plantIndex++) {
-				final Plant powerPlant = plants.get(plantIndex);
-
-				supply += powerPlantCapacityUnused.get(powerPlant.getUnitID()).get(hour);
-				if (supply >= thermalResLoad.get(hour)) {
-					// This plant does need to be counted again, therefore
-					// increment index
-					lastIndex.set(hour, plantIndex++);
-					break;
-				}
-
-			}
+	private void determineLastPwrPlant(List<Float> resLoad, List<Integer> lastIndex) {
+		for (int hour = 0; hour < forecastLength; hour++) {
+			lastIndex.set(hour, meritOrder.getLastPlantIndex(hour, resLoad.get(hour)));
 
 			// If demand cannot be met, set last index to most expensive plant
 			if (lastIndex.get(hour) == Integer.MIN_VALUE) {
-
-				lastIndex.set(hour, lastAvailablePlant(plants));
+				lastIndex.set(hour, lastAvailablePlant(powerPlants));
 			}
 		}
 	}
@@ -185,23 +185,23 @@ public class DayAheadDispatch {
 		// RES
 		final int hoursOfCurrentYear = Date.getLastHourOfYear(year);
 		for (final FuelName renewableType : marketArea.getManagerRenewables().getRenewableTypes()) {
-			final Map<Integer, Float> hourlyProfile = marketArea.getManagerRenewables()
-					.getRenewableLoadOfYear(renewableType, year);
 			String dataLine = "";
 			dataLine += renewableType + ";" + marketArea.getInitials() + "_" + renewableType + ";"
 					+ renewableType + ";-;" + marketArea.getInitials() + ";";
 			for (int hour = 0; hour < hoursOfCurrentYear; hour++) {
-				dataLine += String.valueOf(hourlyProfile.get(hour)) + ";";
+				dataLine += String.valueOf(marketArea.getManagerRenewables()
+						.getRenewableLoad(renewableType, year, hour)) + ";";
 			}
 			LoggerCSV.writeLine(logIDDispatchProfiles, dataLine);
 		}
 		// Demand
-		final List<Float> hourlyProfile = marketArea.getDemandData().getYearlyDemandList(year);
+		final int yearDemand = Math.min(year, Date.getLastYear());
 		String dataLine = "";
 		dataLine += "DEMAND;" + marketArea.getInitials() + "_DEMAND" + ";-;-;"
 				+ marketArea.getInitials() + ";";
 		for (int hour = 0; hour < hoursOfCurrentYear; hour++) {
-			dataLine += String.valueOf(hourlyProfile.get(hour)) + ";";
+			dataLine += String.valueOf(
+					marketArea.getDemandData().getHourlyDemand(yearDemand, hour)) + ";";
 		}
 		LoggerCSV.writeLine(logIDDispatchProfiles, dataLine);
 
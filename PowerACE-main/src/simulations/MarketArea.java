@@ -1014,17 +1014,7 @@ public class MarketArea implements Comparable<MarketArea> {
 	 */
 	public void initialize() {
 		try {
-			// Initialize market area for market coupling
-			if (marketCoupling) {
-				// Create new instance of MarketCouplingOperator
-				if (model.getMarketScheduler().getMarketCouplingOperator() == null) {
-					model.getMarketScheduler().createNewMarketCouplingOperator();
-				}
-				// Set market area for market coupling
-				idMarketCoupling = countMarketCoupling;
-				countMarketCoupling++;
-				model.getMarketScheduler().getMarketCouplingOperator().addMarketArea(this);
-			}
+			initializeMarketCoupling();
 
 			long startTime = 0;
 			startTime = System.currentTimeMillis();
@@ -1068,6 +1058,26 @@ public class MarketArea implements Comparable<MarketArea> {
 		}
 	}
 
+	/**
+	 * Add market area to market coupling. Done before the market areas are
+	 * initialized concurrently, so that the ids follow the order of the xml
+	 * file.
+	 */
+	public void initializeMarketCoupling() {
+		// Initialize market area for market coupling only once
+		if (!marketCoupling || (idMarketCoupling != 0)) {
+			return;
+		}
+		// Create new instance of MarketCouplingOperator
+		if (model.getMarketScheduler().getMarketCouplingOperator() == null) {
+			model.getMarketScheduler().createNewMarketCouplingOperator();
+		}
+		// Set market area for market coupling
+		idMarketCoupling = countMarketCoupling;
+		countMarketCoupling++;
+		model.getMarketScheduler().getMarketCouplingOperator().addMarketArea(this);
+	}
+
 	private void initializeLogFiles() {
 		// Add log files
 
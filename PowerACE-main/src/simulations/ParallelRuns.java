@@ -0,0 +1,154 @@
+package simulations;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import simulations.initialization.Settings;
+
+/**
+ * Executes the runs of a multi-run concurrently in one JVM, see
+ * {@link Settings#getParallelRuns()}. Settings, loggers, date and the other
+ * state of a run are kept in static fields, so each run is loaded by its own
+ * {@link RunClassLoader} and gets its own copy of all classes of the model
+ * and its libraries. Only the JDK and Gurobi, whose native library can be
+ * loaded only once per JVM, are shared.
+ * <p>
+ * The first run is built and executed as usual by {@link PowerMarkets#main}.
+ * The following runs are started after it has been built, since the number
+ * of runs is only known after the settings have been read and the first run
+ * prepares the common log folder. All runs use the start time of the first
+ * run, so they log into the same folder, and share the lock of the user
+ * settings file, whose counter is incremented by each run.
+ * <p>
+ * Input data is read by each run itself and not shared between runs. Since
+ * each run has its own thread pool (see {@link Settings#getNumberOfCores()}),
+ * database connections and Gurobi environments, these should be sized for
+ * the number of parallel runs.
+ */
+final class ParallelRuns {
+
+	/**
+	 * Loads the classes of the model and its libraries from the class path
+	 * itself before asking the application class loader, so that the static
+	 * fields of each run are separate.
+	 */
+	private static final class RunClassLoader extends URLClassLoader {
+
+		/** Packages loaded by the application class loader for all runs */
+		private static final String[] SHARED_PACKAGES = {"java.", "javax.", "jdk.", "sun.",
+				"com.sun.", "com.gurobi."};
+
+		static {
+			registerAsParallelCapable();
+		}
+
+		private RunClassLoader(int multiRun, URL[] classPath) {
+			super("Run" + multiRun, classPath, ParallelRuns.class.getClassLoader());
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			for (final String sharedPackage : SHARED_PACKAGES) {
+				if (name.startsWith(sharedPackage)) {
+					return super.loadClass(name, resolve);
+				}
+			}
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> loadedClass = findLoadedClass(name);
+				if (loadedClass == null) {
+					try {
+						loadedClass = findClass(name);
+					} catch (final ClassNotFoundException e) {
+						// Not on the class path, e.g. classes of the platform
+						return super.loadClass(name, resolve);
+					}
+				}
+				if (resolve) {
+					resolveClass(loadedClass);
+				}
+				return loadedClass;
+			}
+		}
+	}
+
+	/**
+	 * Instance of logger to give out warnings, errors to console and or files
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(ParallelRuns.class.getName());
+
+	/** Class path of the application, loaded again for each run */
+	private static URL[] getClassPath() throws MalformedURLException {
+		final String[] entries = System.getProperty("java.class.path").split(File.pathSeparator);
+		final URL[] classPath = new URL[entries.length];
+		for (int index = 0; index < entries.length; index++) {
+			classPath[index] = Paths.get(entries[index]).toUri().toURL();
+		}
+		return classPath;
+	}
+
+	private final ExecutorService executor;
+	private final List<Future<?>> runs = new ArrayList<>();
+
+	/**
+	 * Start the runs <code>firstRun</code> to <code>lastRun</code>, at most
+	 * <code>numberOfThreads</code> of them at the same time.
+	 */
+	ParallelRuns(int firstRun, int lastRun, int numberOfThreads, LocalDateTime startTime,
+			Object userSettingsLock) {
+		executor = Executors.newFixedThreadPool(numberOfThreads);
+		for (int multiRun = firstRun; multiRun <= lastRun; multiRun++) {
+			final int run = multiRun;
+			runs.add(executor.submit(() -> execute(run, startTime, userSettingsLock)));
+		}
+		executor.shutdown();
+	}
+
+	/** Wait until all runs are finished */
+	void await() {
+		for (final Future<?> run : runs) {
+			try {
+				run.get();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				logger.error(e.getLocalizedMessage(), e);
+				return;
+			} catch (final Exception e) {
+				logger.error(e.getLocalizedMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Load the model in a new {@link RunClassLoader} and execute the run via
+	 * {@link PowerMarkets#executeRun(int, LocalDateTime, Object)}.
+	 */
+	private void execute(int multiRun, LocalDateTime startTime, Object userSettingsLock) {
+		final Thread thread = Thread.currentThread();
+		final ClassLoader contextClassLoader = thread.getContextClassLoader();
+		try (RunClassLoader classLoader = new RunClassLoader(multiRun, getClassPath())) {
+			// Libraries like logback look up classes and resources via the
+			// context class loader
+			thread.setContextClassLoader(classLoader);
+			Class.forName(PowerMarkets.class.getName(), true, classLoader)
+					.getMethod("executeRun", int.class, LocalDateTime.class, Object.class)
+					.invoke(null, multiRun, startTime, userSettingsLock);
+		} catch (final IOException | ReflectiveOperationException e) {
+			logger.error("Run " + multiRun + " could not be executed", e);
+		} finally {
+			thread.setContextClassLoader(contextClassLoader);
+		}
+	}
+}
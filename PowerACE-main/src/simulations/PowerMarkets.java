@@ -26,6 +26,7 @@ import org.jdom2.output.XMLOutputter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import data.ProfileCache;
 import simulations.initialization.FileParser;
 import simulations.initialization.Settings;
 import simulations.scheduling.Date;
@@ -109,6 +110,43 @@ public class PowerMarkets {
 	private static String settingsFolder;
 	private static final String SOURCE_DIRECTORY = "source" + File.separator;
 	private static final String USER_SETTINGS = "userSettings.xml";
+	/**
+	 * Lock for reading and writing the user settings file, shared by the runs
+	 * executed in parallel (see {@link ParallelRuns})
+	 */
+	private static Object userSettingsLock = new Object();
+
+	/**
+	 * Build and execute a single run of a multi-run. Called by
+	 * {@link ParallelRuns} in the class loader of the run, which has its own
+	 * static fields.
+	 *
+	 * @param startTime
+	 *            start time of the first run, which determines the log folder
+	 * @param lock
+	 *            lock of the user settings file of the first run
+	 */
+	public static void executeRun(int multiRun, LocalDateTime startTime, Object lock) {
+		userSettingsLock = lock;
+		multiRunCurrent = multiRun;
+		final PowerMarkets model = new PowerMarkets();
+		Date.setStartTime(startTime);
+		try {
+			model.buildModel();
+			// Set new seed in case of variable multirunRandomNumberSeed in
+			// settings.xml is true
+			Settings.setNewRandomNumberSeed();
+			// Run all steps for current run
+			while (Date.getDayOfTotal() <= Date.getTotalDays()) {
+				model.steps.step();
+			}
+		} catch (final Exception e) {
+			logger.error(e.getMessage(), e);
+		}
+
+		// Logger xlsx
+		LoggerXLSX.closeFinal();
+	}
 
 	public static NumberFormat getDecimalFormat() {
 		return numberFormat.get();
@@ -181,7 +219,17 @@ public class PowerMarkets {
 		final PowerMarkets model = new PowerMarkets();
 		multiRunCurrent = 1;
 		model.buildModel();
-		while (multiRunCurrent <= multiRunsTotal) {
+
+		// Execute following runs concurrently in their own class loaders
+		ParallelRuns parallelRuns = null;
+		int lastRun = multiRunsTotal;
+		if ((Settings.getParallelRuns() > 1) && (multiRunsTotal > 1)) {
+			parallelRuns = new ParallelRuns(2, multiRunsTotal,
+					Math.min(Settings.getParallelRuns(), multiRunsTotal) - 1, Date.getStartTime(),
+					userSettingsLock);
+			lastRun = 1;
+		}
+		while (multiRunCurrent <= lastRun) {
 			if (multiRunCurrent > 1) {
 				System.gc();
 			}
@@ -205,6 +253,9 @@ public class PowerMarkets {
 			multiRunCurrent++;
 
 		}
+		if (parallelRuns != null) {
+			parallelRuns.await();
+		}
 
 		// Logger xlsx
 		LoggerXLSX.closeFinal();
@@ -263,7 +314,10 @@ public class PowerMarkets {
 		try {
 			final long time1 = System.currentTimeMillis();
 
-			readUserSettingsFromFile();
+			// Counter is incremented by each run, also by parallel runs
+			synchronized (userSettingsLock) {
+				readUserSettingsFromFile();
+			}
 
 			steps = new Steps(this);
 			marketScheduler = new MarketScheduler(this);
@@ -276,6 +330,8 @@ public class PowerMarkets {
 			 * instantiating market areas and building general agents
 			 */
 			new AgentsSetup().buildModelFromFile(this);
+			// Profiles have been taken by all market areas
+			ProfileCache.clear();
 
 			final long time2 = System.currentTimeMillis();
 
@@ -1,12 +1,19 @@
 package simulations.initialization;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +23,7 @@ import org.w3c.dom.NodeList;
 
 import simulations.MarketArea;
 import simulations.PowerMarkets;
+import tools.other.Concurrency;
 
 /**
  * A class to call hourly bids parallel and improve running time. Has the same
@@ -26,16 +34,31 @@ import simulations.PowerMarkets;
  */
 public class Agent implements Callable<Map<Object, String>> {
 
+	/** Classes of the xml files by name */
+	private static final Map<String, Class<?>> classes = new ConcurrentHashMap<>();
 	/**
 	 * Instance of logger to give out warnings, errors to console and or files
 	 */
 	private static final Logger logger = LoggerFactory.getLogger(Agent.class.getName());
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+	/**
+	 * Setter of each property as (agent, value as String), key is class, name
+	 * and class of the value. Empty if the property cannot be set.
+	 */
+	private static final Map<String, Optional<MethodHandle>> setters = new ConcurrentHashMap<>();
+	/** Constructor with String argument of each value class */
+	private static final Map<Class<?>, MethodHandle> valueConstructors = new ConcurrentHashMap<>();
 
 	private String agentClass;
 	private String agentName;
 	/** List of all agents of the current class curClass. */
-	private final Map<Object, String> agentsMap = new HashMap<>();
+	private final Map<Object, String> agentsMap = new LinkedHashMap<>();
 	private Class<?> curClass;
+	/**
+	 * Invoke initialize of each agent after construction, otherwise the caller
+	 * has to initialize the agents.
+	 */
+	private final boolean initializeAgents;
 	private MarketArea marketArea;
 	private String marketAreaName;
 	private final PowerMarkets model;
@@ -44,13 +67,77 @@ public class Agent implements Callable<Map<Object, String>> {
 
 	public Agent(PowerMarkets model, Node node, List<ScenarioSetting> multiRunSettings, String marketAreaName,
 			MarketArea marketArea) {
+		this(model, node, multiRunSettings, marketAreaName, marketArea, true);
+	}
+
+	public Agent(PowerMarkets model, Node node, List<ScenarioSetting> multiRunSettings, String marketAreaName,
+			MarketArea marketArea, boolean initializeAgents) {
 		this.model = model;
+		this.initializeAgents = initializeAgents;
 		this.node = node;
 		this.multiRunSettings = multiRunSettings;
 		this.marketAreaName = marketAreaName;
 		this.marketArea = marketArea;
 	}
 
+	/**
+	 * Find class by name. Cached since the same classes are used in the xml
+	 * files of all market areas.
+	 */
+	private static Class<?> forName(String className) throws ClassNotFoundException {
+		Class<?> clazz = classes.get(className);
+		if (clazz == null) {
+			clazz = Class.forName(className);
+			classes.put(className, clazz);
+		}
+		return clazz;
+	}
+
+	/**
+	 * Exception for a throwable of a method handle. Errors are thrown on,
+	 * other throwables are wrapped as by reflection.
+	 */
+	private static Exception asException(Throwable throwable) {
+		if (throwable instanceof final Error error) {
+			throw error;
+		}
+		if (throwable instanceof final Exception exception) {
+			return exception;
+		}
+		return new InvocationTargetException(throwable);
+	}
+
+	/** Constructor of the value class with String argument as (String)Object */
+	private static MethodHandle getValueConstructor(Class<?> clazz) throws ReflectiveOperationException {
+		MethodHandle constructor = valueConstructors.get(clazz);
+		if (constructor == null) {
+			constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class, String.class))
+					.asType(MethodType.methodType(Object.class, String.class));
+			valueConstructors.put(clazz, constructor);
+		}
+		return constructor;
+	}
+
+	/**
+	 * Invoke the method initialize of the agent after all its properties are
+	 * set.
+	 */
+	static void initialize(Object agent) throws Exception {
+		agent.getClass().getMethod("initialize").invoke(agent);
+	}
+
+	/**
+	 * Setter of field or method as (Object, type)void. The agent is ignored
+	 * for static members.
+	 */
+	private static MethodHandle unreflect(MethodHandle setter, boolean isStatic, Class<?> type) {
+		MethodHandle handle = setter;
+		if (isStatic) {
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		}
+		return handle.asType(MethodType.methodType(void.class, Object.class, type));
+	}
+
 	@Override
 	public Map<Object, String> call() {
 		try {
@@ -179,6 +266,115 @@ public class Agent implements Callable<Map<Object, String>> {
 		return nodeAgents;
 	}
 
+	/**
+	 * Find the setter of the property. Enum fields are set directly from the
+	 * value, otherwise the value is constructed from the String and set via
+	 * set(Integer), set(int) or directly via the field.
+	 *
+	 * @return setter as (agent, value as String) or empty if the property is
+	 *         unknown
+	 */
+	private Optional<MethodHandle> findSetter(String name, Class<?> clazz) throws ReflectiveOperationException {
+
+		// Check for enum value
+		try {
+			final Field field = curClass.getDeclaredField(name);
+			if (field.getType().isEnum()) {
+				field.setAccessible(true);
+				final MethodHandle valueOf = MethodHandles
+						.insertArguments(lookup.findStatic(Enum.class, "valueOf",
+								MethodType.methodType(Enum.class, Class.class, String.class)), 0, field.getType())
+						.asType(MethodType.methodType(field.getType(), String.class));
+				final MethodHandle setter = unreflect(lookup.unreflectSetter(field),
+						Modifier.isStatic(field.getModifiers()), field.getType());
+				return Optional.of(MethodHandles.filterArguments(setter, 1, valueOf));
+			}
+		} catch (final NoSuchFieldException e) {
+			// Field is declared in super class or has a setter method
+		}
+
+		// construct value object, clazz must have constructor with String
+		// argument
+		final MethodHandle valueConstructor = getValueConstructor(clazz);
+		final String methodName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+		// In order to set value try different methods use Integer/int
+		// methods or direct setting via the field.
+
+		// First try wrapper class, e.g. Integer for int, then primitive type
+		// variant of parameter, e.g. int (This does not work for String)
+		final List<Class<?>> parameterTypes = new ArrayList<>();
+		parameterTypes.add(clazz);
+		try {
+			parameterTypes.add((Class<?>) clazz.getField("TYPE").get(null));
+		} catch (final NoSuchFieldException e) {
+			// For String fields that do not have a setter method
+		}
+		for (final Class<?> parameterType : parameterTypes) {
+			// Find methods, some are in super classes
+			for (Class<?> clazzForMethod = curClass; clazzForMethod != Object.class; clazzForMethod = clazzForMethod
+					.getSuperclass()) {
+				try {
+					final Method method = clazzForMethod.getDeclaredMethod(methodName, parameterType);
+					method.setAccessible(true);
+					final MethodHandle setter = unreflect(lookup.unreflect(method),
+							Modifier.isStatic(method.getModifiers()), Object.class);
+					return Optional.of(MethodHandles.filterArguments(setter, 1, valueConstructor));
+				} catch (final NoSuchMethodException e) {
+					// Try super class
+				}
+			}
+		}
+
+		// For fields that have neither set(Integer), set(int) or are not a
+		// String, set value directly
+		for (Class<?> clazzForField = curClass; clazzForField != Object.class; clazzForField = clazzForField
+				.getSuperclass()) {
+			try {
+				final Field field = clazzForField.getDeclaredField(name);
+				field.setAccessible(true);
+				final MethodHandle setter = unreflect(lookup.unreflectSetter(field),
+						Modifier.isStatic(field.getModifiers()), Object.class);
+				return Optional.of(MethodHandles.filterArguments(setter, 1, valueConstructor));
+			} catch (final NoSuchFieldException e) {
+				// Try super class
+			}
+		}
+
+		return Optional.empty();
+	}
+
+	/**
+	 * Setter of the property of curClass, cached since the same properties are
+	 * set for many agents.
+	 */
+	private Optional<MethodHandle> getSetter(String name, Class<?> clazz) throws ReflectiveOperationException {
+		final String key = curClass.getName() + "." + name + ":" + clazz.getName();
+		Optional<MethodHandle> setter = setters.get(key);
+		if (setter == null) {
+			setter = findSetter(name, clazz);
+			setters.put(key, setter);
+		}
+		return setter;
+	}
+
+	/**
+	 * Add the market areas to the market coupling in the order of the xml file
+	 * and initialize them concurrently afterwards.
+	 */
+	private void initializeMarketAreas() {
+		final List<Callable<Void>> tasks = new ArrayList<>();
+		for (final Object agent : agentsMap.keySet()) {
+			final MarketArea area = (MarketArea) agent;
+			area.initializeMarketCoupling();
+			tasks.add(() -> {
+				area.initialize();
+				return null;
+			});
+		}
+		Concurrency.executeConcurrently(tasks);
+	}
+
 	/**
 	 * Parse the agentclass element. Write implemented interfaces to curInterfaces,
 	 * set static variables of agentclass and construct agents of this class.
@@ -191,7 +387,11 @@ public class Agent implements Callable<Map<Object, String>> {
 		try {
 			NamedNodeMap nodeMap = node.getAttributes();
 			agentClass = nodeMap.getNamedItem("name").getNodeValue();
-			curClass = Class.forName(agentClass);
+			curClass = forName(agentClass);
+			// Market areas are independent of each other once they are added to
+			// the market coupling
+			final boolean initializeConcurrently = initializeAgents && Settings.isInitializationConcurrent()
+					&& MarketArea.class.isAssignableFrom(curClass);
 			final NodeList childs = node.getChildNodes();
 			String interfaces = "";
 
@@ -252,9 +452,13 @@ public class Agent implements Callable<Map<Object, String>> {
 						value = nodeValue;
 					}
 
-					final Class<?> clazz = Class.forName(nodeMap.getNamedItem("class").getNodeValue());
-					final Object val = clazz.getConstructor(new Class[] { value.getClass() })
-							.newInstance(new Object[] { value });
+					final Class<?> clazz = forName(nodeMap.getNamedItem("class").getNodeValue());
+					final Object val;
+					try {
+						val = getValueConstructor(clazz).invoke(value);
+					} catch (final Throwable e) {
+						throw asException(e);
+					}
 
 					// Set field accessible
 					try {
@@ -279,12 +483,18 @@ public class Agent implements Callable<Map<Object, String>> {
 					final List<Object> agents = constructAgent(childNode, globalProperties);
 					for (final Object agent : agents) {
 						// Invoke initalize
-						agent.getClass().getMethod("initialize").invoke(agent);
+						if (initializeAgents && !initializeConcurrently) {
+							initialize(agent);
+						}
 						agentsMap.put(agent, interfaces);
 					}
 				}
 			}
 
+			if (initializeConcurrently) {
+				initializeMarketAreas();
+			}
+
 		} catch (final Exception e) {
 			logger.error(
 					"Current " + curClass.toString() + " for which initalization failed in Agent.parseClass()! Index: "
@@ -295,26 +505,19 @@ public class Agent implements Callable<Map<Object, String>> {
 	}
 
 	/**
-	 * Set the agents attributes via reflection.
+	 * Set the agents attributes via the setter of the property.
 	 *
 	 * @param agent
 	 * @param node
 	 * @throws Exception
 	 */
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	private void setProperty(final Object agent, final Node node) throws Exception {
-		Object arg;
-		NamedNodeMap map;
-		String name, value;
-		Class<?> clazz;
-		Method method = null;
-
-		map = node.getAttributes();
+		final NamedNodeMap map = node.getAttributes();
 		if ("property".equals(node.getNodeName()) || "global".equals(node.getNodeName())) {
 
 			// get agent's property
-			name = map.getNamedItem("name").getNodeValue();
-			clazz = Class.forName(map.getNamedItem("class").getNodeValue());
+			final String name = map.getNamedItem("name").getNodeValue();
+			final Class<?> clazz = forName(map.getNamedItem("class").getNodeValue());
 
 			// Check value for multirunsettings (if multirun exist replace value
 			// with multirunvalue)
@@ -324,125 +527,19 @@ public class Agent implements Callable<Map<Object, String>> {
 				agentName = nodeValue;
 			}
 			final ScenarioSetting setting = new ScenarioSetting(agentClass, agentName, marketAreaName, name, nodeValue);
-			value = checkMultiRunValue(setting);
+			final String value = checkMultiRunValue(setting);
 
-			// Check for enum value
-			boolean enumValue = false;
-			boolean enumValueSet = false;
-			Class<?> clazzForEnum = curClass;
-			if (!enumValueSet) {
+			final Optional<MethodHandle> setter = getSetter(name, clazz);
+			if (setter.isPresent()) {
 				try {
-					final Field field = clazzForEnum.getDeclaredField(name);
-					if (field.getType().isEnum()) {
-						field.setAccessible(true);
-						field.set(agent, Enum.valueOf((Class<Enum>) field.getType(), value));
-						enumValue = true;
-						enumValueSet = true;
-					}
-				} catch (final NoSuchFieldException e) {
-					clazzForEnum = clazzForEnum.getSuperclass();
-				}
-			}
-
-			if (!enumValue) {
-
-				// construct value object, clazz must have constructor with
-				// String
-				// argument
-				arg = clazz.getConstructor(new Class[] { value.getClass() }).newInstance(new Object[] { value });
-				final String methodName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
-				boolean valueSet = false;
-
-				// In order to set value try different methods use Integer/int
-				// methods or direct setting via the field.
-
-				// First try wrapper class, e.g. Integer for int
-				Class<?> clazzForMethod = curClass;
-				// Find methods, some are in super classes
-				while (clazzForMethod != Object.class) {
-					try {
-						method = clazzForMethod.getDeclaredMethod(methodName, new Class[] { clazz });
-						break;
-					} catch (final NoSuchMethodException ex) {
-						clazzForMethod = clazzForMethod.getSuperclass();
-					} catch (final NullPointerException e) {
-						logger.error(name + value, e);
-						break;
-					}
+					setter.get().invokeExact(agent, value);
+				} catch (final Throwable e) {
+					throw asException(e);
 				}
-				if (method != null) {
-					method.setAccessible(true);
-					method.invoke(agent, new Object[] { arg });
-					valueSet = true;
-				}
-
-				// Try primitive type variant of parameter,
-				// e.g. int (This this does not work for String)
-				if (!valueSet) {
-					// Find methods, some are in super classes
-					clazzForMethod = curClass;
-					while (clazzForMethod != Object.class) {
-						try {
-							method = clazzForMethod.getDeclaredMethod(methodName,
-									new Class[] { (Class<?>) clazz.getField("TYPE").get(null) });
-							break;
-						} catch (final NoSuchMethodException ex) {
-							clazzForMethod = clazzForMethod.getSuperclass();
-						} catch (final NoSuchFieldException ex) {
-							// For String fields that do not have a setter
-							// method,
-							// or fields that have neither set(Integer),set(int)
-							break;
-						}
-					}
-					if (method != null) {
-						method.setAccessible(true);
-						method.invoke(agent, new Object[] { arg });
-						valueSet = true;
-					}
-				}
-
-				// For String fields that do not have a setter
-				// method
-				if (!valueSet) {
-					// Find methods, some are in super classes
-					clazzForMethod = curClass;
-					while (clazzForMethod != Object.class) {
-						try {
-							clazz = (Class<?>) clazzForMethod.getField("TYPE").get(null);
-							method = clazzForMethod.getMethod(methodName, new Class[] { clazz });
-							method.invoke(agent, new Object[] { arg });
-							valueSet = true;
-						} catch (final NoSuchFieldException | NoSuchMethodException e) {
-							clazzForMethod = clazzForMethod.getSuperclass();
-						}
-					}
-				}
-
-				// For fields that have neither
-				// set(Integer), set(int) or are not a String, set value
-				// directly
-				if (!valueSet) {
-					Class<?> clazzForField = curClass;
-					while (clazzForField != Object.class) {
-						try {
-							final Field field = clazzForField.getDeclaredField(name);
-							field.setAccessible(true);
-							field.set(agent, arg);
-							valueSet = true;
-							break;
-						} catch (final NoSuchFieldException e) {
-							clazzForField = clazzForField.getSuperclass();
-						}
-					}
-				}
-
-				if (!valueSet) {
-					logger.error("Unknown field '" + name + "' for agent '" + agent.getClass().getSimpleName() + "/"
-							+ agent.toString() + "/" + "'.");
-				}
-
+			} else {
+				logger.error("Unknown field '" + name + "' for agent '" + agent.getClass().getSimpleName() + "/"
+						+ agent.toString() + "/" + "'.");
 			}
 		}
 	}
-}
\ No newline at end of file
+}
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -21,6 +22,7 @@ import org.xml.sax.SAXException;
 
 import simulations.MarketArea;
 import simulations.PowerMarkets;
+import tools.other.Concurrency;
 
 /**
  * Parses XML file with agent definitions and their properties. Format of this
@@ -76,8 +78,11 @@ public class FileParser {
 		this.marketArea = marketArea;
 
 		// For market areas this is already known from the first call of the
-		// basesim
-		if (currentRun != PowerMarkets.getMultiRunCurrent()) {
+		// basesim. If market areas are initialized concurrently, the static
+		// multirun values are only read for the basesim, since they must not
+		// be replaced while other market areas are read.
+		if ((!Settings.isInitializationConcurrent() || (marketArea == null))
+				&& (currentRun != PowerMarkets.getMultiRunCurrent())) {
 			// Find settings for multiruns. Multiruns can be set either
 			// indirectly via a separate multirun file (with varying scenario
 			// settings) or directly via settings for Monte Carlo simulation
@@ -88,7 +93,11 @@ public class FileParser {
 		}
 
 		setupTask(agentClassNodes);
-		processTasks();
+		if (Settings.isInitializationConcurrent()) {
+			processTasksConcurrently(parser);
+		} else {
+			processTasks();
+		}
 	}
 
 	public Map<Object, String> getAgents() {
@@ -313,6 +322,51 @@ public class FileParser {
 
 	}
 
+	/**
+	 * Process the tasks according to the dependencies given by their priority.
+	 * High priority tasks depend on all previous tasks and are processed
+	 * sequentially in the order of the xml file. Low priority tasks only depend
+	 * on the high priority tasks, so the agents are constructed concurrently.
+	 * Afterwards the agents are initialized sequentially in the order of the
+	 * xml file, since they add themselves to the market area.
+	 * <p>
+	 * Each low priority task gets a copy of its node in a separate document,
+	 * since the DOM is not thread-safe even for reading.
+	 */
+	private void processTasksConcurrently(DocumentBuilder parser) {
+		final String area = marketArea != null ? marketArea.getName() : null;
+
+		for (final Node node : agentClassesPrioHigh) {
+			new Agent(model, node, multiRunValues, area, marketArea).call();
+		}
+
+		final List<Map<Object, String>> agentsLow = new ArrayList<>();
+		final List<Callable<Void>> tasks = new ArrayList<>();
+		for (final Node node : agentClassesPrioLow) {
+			final Node nodeCopy = parser.newDocument().importNode(node, true);
+			final Map<Object, String> agents = new LinkedHashMap<>();
+			agentsLow.add(agents);
+			tasks.add(() -> {
+				agents.putAll(
+						new Agent(model, nodeCopy, multiRunValues, area, marketArea, false).call());
+				return null;
+			});
+		}
+		Concurrency.executeConcurrently(tasks);
+
+		try {
+			for (final Map<Object, String> agents : agentsLow) {
+				for (final Object agent : agents.keySet()) {
+					Agent.initialize(agent);
+				}
+				agentsMap.putAll(agents);
+			}
+		} catch (final Exception e) {
+			logger.error("Initialization of agents failed", e);
+			System.exit(0);
+		}
+	}
+
 	/**
 	 * Setup different task for the agents based on their priority, e.g. high,
 	 * medium or low.
@@ -25,13 +25,16 @@ import ch.qos.logback.core.FileAppender;
 import ch.qos.logback.core.joran.spi.JoranException;
 import ch.qos.logback.core.spi.FilterReply;
 import ch.qos.logback.core.util.StatusPrinter;
+import markets.clearing.MarketCouplingEngineType;
 import markets.trader.spot.supply.tools.ForecastTypeDayAhead;
 import simulations.PowerMarkets;
 import simulations.scheduling.Date;
+import tools.database.DatabaseBackend;
 import tools.file.Operations;
 import tools.logging.Folder;
 import tools.logging.LoggerCSV;
 import tools.other.Concurrency;
+import tools.other.ConcurrencyMode;
 
 /**
  * Reads basic settings from settings xml file before buidling the model
@@ -48,18 +51,56 @@ public class Settings {
 	private static String carbonPriceScenarioHistorical;
 	private static boolean checkBlackout;
 	private static boolean colorHist;
+	/** Executor for concurrent tasks, see ConcurrencyMode */
+	private static String concurrencyMode = ConcurrencyMode.CACHED.name();
+	/** Log execution times of concurrent tasks at the end of each year */
+	private static boolean concurrencyTaskTiming;
+	/**
+	 * Number of threads of the fork join pool, if 0 the number of available
+	 * processors is used
+	 */
+	private static int concurrencyThreads;
 	private static boolean cumulatedBids;
+	/** Backend of the input database, see DatabaseBackend */
+	private static String databaseBackend = DatabaseBackend.MYSQL.name();
 	private static String databaseEffectiveDate;
+	/** File of the embedded database, default is "input_database/powerace" */
+	private static String databaseFile;
 	private static ForecastTypeDayAhead dayAheadPriceForecastType = ForecastTypeDayAhead.OPTIMIZATION;
 	private static boolean eexLike;
 	/**
 	 * Use "yyyy-MM-dd" pattern!
 	 */
 	public static float FLOATING_POINT_TOLERANCE = 0.001f;
+	/**
+	 * Number of long-term price forecasts with additional plants that are
+	 * stored during the investment planning of a year, 0 deactivates storing
+	 */
+	private static int forecastCacheSize;
+	/** Write forecasts exceeding forecastCacheSize to temporary files */
+	private static boolean forecastCacheSpill;
+	/**
+	 * Long-term price forecasts with additional plants only solve the periods
+	 * in which the additional plants can change the prices of the forecast
+	 * without additional plants
+	 */
+	private static boolean forecastIncremental;
 	private static float greenPenalty;
 	private static boolean hydrogenOptimizeGlobal;
 	private static boolean includeCarbonGlobal;
 	private static double inflation;
+	/**
+	 * Initialize market areas concurrently and construct the agents of each
+	 * market area concurrently
+	 */
+	private static boolean initializationConcurrent;
+	/**
+	 * Read query results of the database from local snapshot files, query the
+	 * database only for results that are not stored yet
+	 */
+	private static boolean inputSnapshot;
+	/** Folder of the snapshot files, default is "input_snapshot" */
+	private static String inputSnapshotFolder;
 	private static String interconnectionDataHourly;
 	private static String interconnectionDataScenario;
 	private static int investDynamicStateTransformationScenario;
@@ -67,12 +108,15 @@ public class Settings {
 	private static int investmentsYearStart;
 
 	private static String languageSettings;
+	public static String LOG_FILE_SUFFIX_BINARY = ".bin";
 	public static String LOG_FILE_SUFFIX_CSV = ".csv";
 	public static String LOG_FILE_SUFFIX_EXCEL = ".xlsx";
 	/** Load logs-intial setting from XML File */
 	private static boolean logAnnualInvestment;
 	private static boolean logBenchmark;
 	private static boolean logBids;
+	/** Write large hourly log files via LoggerBinary instead of LoggerCSV */
+	private static boolean logBinary;
 	private static boolean logDayAheadForecast;
 	private static String logFolderTopLevel;
 	/**
@@ -99,6 +143,12 @@ public class Settings {
 	private static boolean loqLossOperations;
 	private static short mainRegSupportSceme;
 	private static boolean marketClearingPriceSensitive;
+	/** Algorithm for the hourly market coupling, see MarketCouplingEngineType */
+	private static String marketCouplingEngine = MarketCouplingEngineType.GUROBI.name();
+	/**
+	 * Compare Gurobi market coupling results with the network flow algorithm
+	 */
+	private static boolean marketCouplingParityCheck;
 	private static String multiRunName;
 	private static boolean multirunRandomNumberSeed;
 	private static String multiRunsFile;
@@ -111,6 +161,23 @@ public class Settings {
 	private static int numberOfYears;
 	private static String operationMaintenanceScenarioFixed;
 	private static String operationMaintenanceScenarioVar;
+	/**
+	 * Maximal number of runs of a multi-run that are executed at the same
+	 * time in this JVM, each with its own settings, loggers and date (see
+	 * ParallelRuns). Runs are executed one after another if not larger than
+	 * one.
+	 */
+	private static int parallelRuns;
+	/**
+	 * Prepare inputs of the next day, which do not depend on the results of
+	 * the current day, while the markets of the current day are cleared
+	 */
+	private static boolean pipelinedSteps;
+	/**
+	 * Compare the inputs prepared in advance with the inputs calculated on the
+	 * day itself, if steps are pipelined
+	 */
+	private static boolean pipelinedStepsCheck;
 	private static String plantAvailabilityScenario;
 	private static int quotaScenario;
 	private static long randomNumberSeed;
@@ -128,6 +195,11 @@ public class Settings {
 
 	private static String staticExchange;
 
+	/**
+	 * Execute independent phases of the yearly steps concurrently according
+	 * to their dependencies
+	 */
+	private static boolean stepsTaskGraph;
 	private static boolean stratCosts;
 
 	private static float strategicStartUp;
@@ -164,6 +236,21 @@ public class Settings {
 		return carbonPriceScenarioHistorical;
 	}
 
+	public static ConcurrencyMode getConcurrencyMode() {
+		return ConcurrencyMode.valueOf(concurrencyMode);
+	}
+
+	public static int getConcurrencyThreads() {
+		if (concurrencyThreads <= 0) {
+			return Runtime.getRuntime().availableProcessors();
+		}
+		return concurrencyThreads;
+	}
+
+	public static DatabaseBackend getDatabaseBackend() {
+		return DatabaseBackend.valueOf(databaseBackend);
+	}
+
 	/**
 	 *
 	 * @return Effective Date for the power plant Database until the updates
@@ -176,10 +263,21 @@ public class Settings {
 		return LocalDateTime.parse(databaseEffectiveDate, DateTimeFormatter.ISO_DATE);
 	}
 
+	public static String getDatabaseFile() {
+		if ((databaseFile == null) || databaseFile.isEmpty()) {
+			return "input_database/powerace";
+		}
+		return databaseFile;
+	}
+
 	public static ForecastTypeDayAhead getDayAheadPriceForecastType() {
 		return dayAheadPriceForecastType;
 	}
 
+	public static int getForecastCacheSize() {
+		return forecastCacheSize;
+	}
+
 	public static float getGreenPenalty() {
 		return greenPenalty;
 	}
@@ -188,6 +286,13 @@ public class Settings {
 		return inflation;
 	}
 
+	public static String getInputSnapshotFolder() {
+		if ((inputSnapshotFolder == null) || inputSnapshotFolder.isEmpty()) {
+			return "input_snapshot";
+		}
+		return inputSnapshotFolder;
+	}
+
 	public static String getInterconnectionDataHourly() {
 		return interconnectionDataHourly;
 	}
@@ -265,6 +370,10 @@ public class Settings {
 		return mainRegSupportSceme;
 	}
 
+	public static MarketCouplingEngineType getMarketCouplingEngine() {
+		return MarketCouplingEngineType.valueOf(marketCouplingEngine);
+	}
+
 	public static String getMultiRunName() {
 		return multiRunName;
 	}
@@ -293,6 +402,10 @@ public class Settings {
 		return operationMaintenanceScenarioVar;
 	}
 
+	public static int getParallelRuns() {
+		return parallelRuns;
+	}
+
 	public static String getPlantAvailabilityScenario() {
 		return plantAvailabilityScenario;
 	}
@@ -369,6 +482,10 @@ public class Settings {
 		return colorHist;
 	}
 
+	public static boolean isConcurrencyTaskTiming() {
+		return concurrencyTaskTiming;
+	}
+
 	public static boolean isCumulatedBids() {
 		return cumulatedBids;
 	}
@@ -377,6 +494,14 @@ public class Settings {
 		return eexLike;
 	}
 
+	public static boolean isForecastCacheSpill() {
+		return forecastCacheSpill;
+	}
+
+	public static boolean isForecastIncremental() {
+		return forecastIncremental;
+	}
+
 	public static boolean isHydrogenOptimizeGlobal() {
 		return hydrogenOptimizeGlobal;
 	}
@@ -385,6 +510,14 @@ public class Settings {
 		return includeCarbonGlobal;
 	}
 
+	public static boolean isInitializationConcurrent() {
+		return initializationConcurrent;
+	}
+
+	public static boolean isInputSnapshot() {
+		return inputSnapshot;
+	}
+
 	public static boolean isLogAnnualInvestment() {
 		return logAnnualInvestment;
 	}
@@ -397,6 +530,10 @@ public class Settings {
 		return logBids;
 	}
 
+	public static boolean isLogBinary() {
+		return logBinary;
+	}
+
 	public static boolean isLogDayAheadForecast() {
 		return logDayAheadForecast;
 	}
@@ -469,6 +606,10 @@ public class Settings {
 		return marketClearingPriceSensitive;
 	}
 
+	public static boolean isMarketCouplingParityCheck() {
+		return marketCouplingParityCheck;
+	}
+
 	public static boolean isNaturalGasPhaseOut() {
 		return naturalGasPhaseOut;
 	}
@@ -477,6 +618,18 @@ public class Settings {
 		return nuclearPhaseOut;
 	}
 
+	public static boolean isPipelinedSteps() {
+		return pipelinedSteps;
+	}
+
+	public static boolean isPipelinedStepsCheck() {
+		return pipelinedStepsCheck;
+	}
+
+	public static boolean isStepsTaskGraph() {
+		return stepsTaskGraph;
+	}
+
 	public static boolean isStratCosts() {
 		return stratCosts;
 	}
@@ -626,15 +779,10 @@ public class Settings {
 			runCounter = PowerMarkets.getMultiRunCurrent() + "/" + PowerMarkets.getMultiRunsTotal()
 					+ " -";
 		}
-		System.setProperty("runCounter", runCounter);
 
 		// Set output directory
 		// Currently now working correctly for each run
 		final String loggingDirectory = logPathName;
-		// Set to global folder
-
-		// Set output directory
-		System.setProperty("log.dir", loggingDirectory);
 
 		// assume SLF4J is bound to logback in the current environment
 		final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
@@ -649,6 +797,11 @@ public class Settings {
 					+ PowerMarkets.getProjectName() + File.separator
 					+ PowerMarkets.getParamDirectory() + "logback.xml";
 			context.reset();
+			// Properties of the logger context instead of system properties,
+			// since runs executed in parallel have their own logger context
+			// (see ParallelRuns)
+			context.putProperty("runCounter", runCounter);
+			context.putProperty("log.dir", loggingDirectory);
 			configurator.doConfigure(logConfigFile);
 		} catch (final JoranException je) {
 			// StatusPrinter will handle this
@@ -720,6 +873,7 @@ public class Settings {
 			fileNameSuffix = String.format("%02d", PowerMarkets.getMultiRunCurrent()) + "_"
 					+ Date.getStartTimeFormatted("S");
 		}
+		LOG_FILE_SUFFIX_BINARY = "_" + fileNameSuffix + ".bin";
 		LOG_FILE_SUFFIX_CSV = "_" + fileNameSuffix + ".csv";
 		LOG_FILE_SUFFIX_EXCEL = "_" + fileNameSuffix + ".xlsx";
 	}
@@ -6,8 +6,6 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
-import java.time.temporal.WeekFields;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -16,7 +14,6 @@ import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import simulations.initialization.Settings;
 import tools.other.Tuple;
 
 /**
@@ -36,7 +33,6 @@ public class Date implements Callable<Void> {
 	public static final int HOURS_PER_DAY = 24;
 	public static final int HOURS_PER_WEEK = DAYS_PER_WEEK * HOURS_PER_DAY;
 	public static final int HOURS_PER_YEAR = DAYS_PER_YEAR * HOURS_PER_DAY;
-	public static Map<Integer, Integer> lastHourOfYearMap = new HashMap<>();
 	public static final int MONTH_PER_YEAR = 12;
 	public static final int WARM_STARTUP_LENGTH = 48;
 	public static final int WEEKS_PER_YEAR = 53;
@@ -44,42 +40,23 @@ public class Date implements Callable<Void> {
 	private static final int END_PEAK_TIME = 20;
 
 	private static final int LAST_REGULAR_FORECAST_YEAR = 2050;
-	/** Instance of DateTime with current date */
-	private static LocalDateTime currentDate;
-	private static int dayOfMonth;
-	private static int dayOfTotal;
-	private static int dayOfYear;
-	private static int firstHourOfToday;
-	private static Integer keyDaily;
-	private static int lastDayOfYear;
-	/** Last year for which detailed long-term price forecast is made */
-	private static int lastDetailedForecastYear;
-	/** Last simulated year which is fully based on historical input data */
-	private static int lastHistoricalYear = 2014;
 	/**
 	 * Instance of logger to give out warnings, errors to console and or files
 	 */
 	private static final Logger logger = LoggerFactory // NOPMD
 			.getLogger(Date.class.getName());
-	private static int month;
-	private static Map<Integer, LocalDateTime> referenceDays = new HashMap<>(DAYS_PER_YEAR);
-	/** Reference year for scenario data (set via Settings class in xml) */
-	private static int referenceYear;
 	private static LocalDate referenceYearDate = LocalDate.of(2012, 01, 01);
 	/** Start time of simulation */
 	private static LocalDateTime startTime;
-	/** Start year of simulation (set via Settings class in xml) */
-	private static int startYear;
-	/** Start year for plots (set via Settings class in xml) */
-	private static int startYearPlots;
-	/** Total days of simulation (set via Settings class in xml) */
-	private static int totalDays;
-	private static int weekOfWeekyear;
-	private static int year;
-	private static int yearIndex;
+
+	/** Clock of the current thread */
+	public static SimulationClock getClock() {
+		return SimulationClock.current();
+	}
+
 	/** Get DateTime instance of currentDate */
 	public static LocalDateTime getCurrentDateTime() {
-		return currentDate;
+		return getClock().currentDate;
 	}
 
 	/**
@@ -100,7 +77,7 @@ public class Date implements Callable<Void> {
 	 * @return dayOfMonth [1...]
 	 */
 	public static int getDayOfMonth() {
-		return dayOfMonth;
+		return getClock().dayOfMonth;
 	}
 
 	/**
@@ -109,7 +86,7 @@ public class Date implements Callable<Void> {
 	 * @return dayOfTotal [1...totalDays]
 	 */
 	public static int getDayOfTotal() {
-		return dayOfTotal;
+		return getClock().dayOfTotal;
 	}
 
 	/**
@@ -133,7 +110,7 @@ public class Date implements Callable<Void> {
 	 * @return dayOfYear [1...DAYS_PER_YEAR]
 	 */
 	public static int getDayOfYear() {
-		return dayOfYear;
+		return getClock().dayOfYear;
 	}
 
 	/**
@@ -195,6 +172,7 @@ public class Date implements Callable<Void> {
 	 * If leap year, return only 30 days for December
 	 */
 	public static int getDaysInMonth() {
+		final LocalDateTime currentDate = getClock().currentDate;
 		if (currentDate.toLocalDate().isLeapYear() && (currentDate.getMonthValue() == 12)) {
 			return currentDate.getMonth().maxLength() - 1;
 		} else {
@@ -216,11 +194,11 @@ public class Date implements Callable<Void> {
 	 *         be 24 (0-23+1)
 	 */
 	public static int getFirstHourOfToday() {
-		return firstHourOfToday;
+		return getClock().firstHourOfToday;
 	}
 
 	public static int getFirstYearlyHourOfMonth(int month) {
-		return Date.getFirstYearlyHourOfMonth(month, year);
+		return Date.getFirstYearlyHourOfMonth(month, Date.getYear());
 	}
 
 	public static int getFirstYearlyHourOfMonth(int month, int year) {
@@ -266,7 +244,7 @@ public class Date implements Callable<Void> {
 	 * @return A key that can used for Maps based on the parameters.
 	 */
 	public static Integer getKeyDaily() {
-		return keyDaily;
+		return getClock().keyDaily;
 	}
 
 	/**
@@ -275,7 +253,7 @@ public class Date implements Callable<Void> {
 	 * @return A key that can used for Maps based on the parameters.
 	 */
 	public static Integer getKeyDaily(int day) {
-		return getKeyDaily(year, day);
+		return getKeyDaily(Date.getYear(), day);
 	}
 
 	/**
@@ -310,7 +288,7 @@ public class Date implements Callable<Void> {
 	 * @return A key that can used for Maps based on the parameters.
 	 */
 	public static Integer getKeyHourlyWithDay(int day) {
-		return (10000 * year) + day;
+		return (10000 * Date.getYear()) + day;
 	}
 
 	/**
@@ -332,7 +310,8 @@ public class Date implements Callable<Void> {
 	 * @return A key that can used for Maps based on the parameters.
 	 */
 	public static Integer getKeyHourlyWithHourOfDay(int hourOfDay) {
-		return (10000 * year) + ((dayOfYear - 1) * HOURS_PER_DAY) + hourOfDay;
+		return (10000 * Date.getYear()) + ((Date.getDayOfYear() - 1) * HOURS_PER_DAY)
+				+ hourOfDay;
 	}
 
 	/**
@@ -345,7 +324,7 @@ public class Date implements Callable<Void> {
 	 * @return A key that can used for Maps based on the parameters.
 	 */
 	public static Integer getKeyHourlyWithHourOfDay(int day, int hourOfDay) {
-		return (10000 * year) + ((day - 1) * HOURS_PER_DAY) + hourOfDay;
+		return (10000 * Date.getYear()) + ((day - 1) * HOURS_PER_DAY) + hourOfDay;
 	}
 
 	/**
@@ -355,7 +334,7 @@ public class Date implements Callable<Void> {
 	 *         given hour.
 	 */
 	public static Integer getKeyHourlyWithHourOfYear(int hourOfYear) {
-		return (10000 * year) + hourOfYear;
+		return (10000 * Date.getYear()) + hourOfYear;
 	}
 
 	/**
@@ -385,6 +364,7 @@ public class Date implements Callable<Void> {
 	 * @return The number of hours in the requested year, e.g. HOURS_PER_YEAR.
 	 */
 	public static int getLastCompleteMonthOfYear() {
+		final LocalDateTime currentDate = getClock().currentDate;
 
 		// Either december is almost complete (online looking at 8760 hours or
 		// last hour is really last hour of month)
@@ -411,7 +391,7 @@ public class Date implements Callable<Void> {
 	 * @return The last day of the current year [1, DAYS_PER_YEAR]
 	 */
 	public static int getLastDayOfYear() {
-		return lastDayOfYear;
+		return getClock().lastDayOfYear;
 	}
 
 	/**
@@ -419,25 +399,17 @@ public class Date implements Callable<Void> {
 	 * @return The last day of the requested year [1, DAYS_PER_YEAR]
 	 */
 	public static int getLastDayOfYear(int year) {
-		int day;
-
-		if (year == Date.getLastYear()) {
-			day = Date.getLastDayOfLastYear();
-		} else {
-			day = DAYS_PER_YEAR;
-		}
-
-		return day;
+		return getClock().getLastDayOfYear(year);
 	}
 
-	/** {@link Date#lastDetailedForecastYear} */
+	/** Last year for which detailed long-term price forecast is made */
 	public static int getLastDetailedForecastYear() {
-		return lastDetailedForecastYear;
+		return getClock().lastDetailedForecastYear;
 	}
 
-	/** Year index of {@link Date#lastDetailedForecastYear} */
+	/** Year index of {@link Date#getLastDetailedForecastYear()} */
 	public static int getLastDetailedForecastYearIndex() {
-		return Date.getYearIndex(lastDetailedForecastYear);
+		return Date.getYearIndex(getClock().lastDetailedForecastYear);
 	}
 
 	/**
@@ -445,7 +417,7 @@ public class Date implements Callable<Void> {
 	 * @return The number of hours in the requested year, e.g. HOURS_PER_YEAR.
 	 */
 	public static int getLastHourOfYear() {
-		return lastHourOfYearMap.get(year);
+		return getClock().lastHourOfYearMap.get(Date.getYear());
 	}
 
 	/**
@@ -454,6 +426,7 @@ public class Date implements Callable<Void> {
 	 * @return The number of hours in the requested year, e.g. HOURS_PER_YEAR.
 	 */
 	public static int getLastHourOfYear(int year) {
+		final Map<Integer, Integer> lastHourOfYearMap = getClock().lastHourOfYearMap;
 		if (!lastHourOfYearMap.containsKey(year)) {
 			return -1;
 		}
@@ -466,7 +439,7 @@ public class Date implements Callable<Void> {
 	 * @return The number of hours in the requested year, e.g. HOURS_PER_YEAR.
 	 */
 	public static int getLastMonthOfYear() {
-		return currentDate.withDayOfYear(Date.getLastDayOfYear()).getMonthValue();
+		return getClock().currentDate.withDayOfYear(Date.getLastDayOfYear()).getMonthValue();
 	}
 
 	public static int getLastRegularForecastYear() {
@@ -475,11 +448,11 @@ public class Date implements Callable<Void> {
 
 	/** Get last year of simulation */
 	public static int getLastYear() {
-		return startYear + (int) Math.floor((totalDays - 1) / 365.0);
+		return getClock().getLastYear();
 	}
 
 	public static int getLastYearlyHourOfMonth(int month) {
-		return Date.getLastYearlyHourOfMonth(month, year);
+		return Date.getLastYearlyHourOfMonth(month, Date.getYear());
 	}
 
 	public static int getLastYearlyHourOfMonth(int month, int year) {
@@ -494,7 +467,7 @@ public class Date implements Callable<Void> {
 
 	/** Returns the month of the current date */
 	public static int getMonth() {
-		return month;
+		return getClock().month;
 	}
 
 	/** Returns the month of the day of the reference year. */
@@ -509,11 +482,11 @@ public class Date implements Callable<Void> {
 	 * @return numberOfYears
 	 */
 	public static int getNumberOfYears() {
-		return (int) Math.ceil(totalDays / 365.0);
+		return getClock().getNumberOfYears();
 	}
 
 	public static Integer getReferenceYear() {
-		return referenceYear;
+		return getClock().referenceYear;
 	}
 
 	/** Get the start time of simulation in the specified format */
@@ -527,23 +500,23 @@ public class Date implements Callable<Void> {
 	}
 
 	public static int getStartYear() {
-		return startYear;
+		return getClock().startYear;
 	}
 
 	public static int getStartYearPlots() {
-		return Math.max(startYearPlots, startYear);
+		return Math.max(getClock().startYearPlots, getClock().startYear);
 	}
 
 	public static int getTotalDays() {
-		return totalDays;
+		return getClock().totalDays;
 	}
 
 	public static int getTotalHours() {
-		return totalDays * HOURS_PER_DAY;
+		return getClock().totalDays * HOURS_PER_DAY;
 	}
 
 	public static int getWeekOfWeekyear() {
-		return weekOfWeekyear;
+		return getClock().weekOfWeekyear;
 	}
 
 	public static int getWeekOfWeekyearFromHourOfYear(int hourOfYear) {
@@ -555,7 +528,7 @@ public class Date implements Callable<Void> {
 	}
 
 	public static int getYear() {
-		return year;
+		return getClock().year;
 	}
 
 	public static String getYearDayDate() {
@@ -568,7 +541,7 @@ public class Date implements Callable<Void> {
 	 * @return yearIndex, e.g. 2010 - 2008 (startYear) = 2
 	 */
 	public static int getYearIndex() {
-		return yearIndex;
+		return getClock().yearIndex;
 	}
 
 	/**
@@ -578,7 +551,7 @@ public class Date implements Callable<Void> {
 	 * @param year
 	 */
 	public static int getYearIndex(int year) {
-		return year - startYear;
+		return year - getClock().startYear;
 	}
 
 	/**
@@ -588,38 +561,27 @@ public class Date implements Callable<Void> {
 	 * In leap years the last day of the year is skipped.
 	 */
 	public static void incrementDay() {
-		// Increment currentDate by 1 day (except for leap days)
-		if ((currentDate.getDayOfYear() == 365) && currentDate.toLocalDate().isLeapYear()) {
-			currentDate = currentDate.plusDays(2);
-		} else {
-			currentDate = currentDate.plusDays(1);
-		}
-
-		if (currentDate.getDayOfYear() >= 366) {
-			logger.error("Error when incrementing day (day count higher than 365)");
-		}
-
-		Date.updateFields();
+		getClock().incrementDay();
 	}
 
 	/** Check whether current day is first day of simulation */
 	public static boolean isFirstDay() {
-		return (year == startYear) && (dayOfYear == 1);
+		return Date.isFirstYear() && Date.isFirstDayOfYear();
 	}
 
 	/** Check whether current day is first day of current year */
 	public static boolean isFirstDayOfYear() {
-		return dayOfYear == 1;
+		return Date.getDayOfYear() == 1;
 	}
 
 	/** Check whether current year is first year of simulation */
 	public static boolean isFirstYear() {
-		return year == startYear;
+		return Date.getYear() == Date.getStartYear();
 	}
 
 	/** Check whether current day is last day of simulation */
 	public static boolean isLastDay() {
-		return Date.getDayOfTotal() == totalDays;
+		return Date.getDayOfTotal() == Date.getTotalDays();
 	}
 
 	/** Check whether current day is last simulated day of current year */
@@ -629,7 +591,7 @@ public class Date implements Callable<Void> {
 
 	/** Check whether current day is last day of simulation */
 	public static boolean isLastYear() {
-		return Date.getLastYear() == year;
+		return Date.getLastYear() == Date.getYear();
 	}
 
 	/** Check whether hour of year is in peak time */
@@ -695,8 +657,7 @@ public class Date implements Callable<Void> {
 
 	/** Reset date to the end of the previous year */
 	public static void resetDateToEndOfLastYear() {
-		currentDate = currentDate.withYear(Date.getYear() - 1).withDayOfYear(Date.DAYS_PER_YEAR);
-		Date.updateFields();
+		getClock().resetDateToEndOfLastYear();
 	}
 
 	/**
@@ -708,45 +669,7 @@ public class Date implements Callable<Void> {
 	 */
 	public static void setInitialDate(int startYear, int startYearPlots, Integer referenceYear,
 			int totalDays) {
-		currentDate = LocalDateTime.of(startYear, 1, 1, 0, 0);
-		Date.totalDays = totalDays;
-		Date.startYear = startYear;
-		Date.startYearPlots = startYearPlots;
-
-		// Set reference year only if parameter is set in xml file (if it is not
-		// set explicitly the int parameter is initialized in Settings with 0)
-		if (referenceYear == null) {
-			Date.referenceYear = 2012;
-		} else {
-			Date.referenceYear = referenceYear;
-		}
-
-		// Add maximal construction time of new plants, really difficult to
-		// determine therefore add some more years which can represent overhead
-		// values
-		final int additionalBackup = 15;
-		lastDetailedForecastYear = startYear + Date.getNumberOfYears()
-				+ (2 * Settings.getInvestmentHorizonMax()) + additionalBackup;
-
-		lastHourOfYearMap = new HashMap<>();
-		final int lastYear = Date.getLastYear();
-		for (int year = Date.startYear; year <= lastYear; year++) {
-			if (year < lastYear) {
-				lastHourOfYearMap.put(year, HOURS_PER_YEAR);
-			} else {
-				lastHourOfYearMap.put(year, Date.getLastDayOfYear(year) * HOURS_PER_DAY);
-			}
-		}
-
-		// Add reference year map
-		final LocalDateTime firstDayOfYear = LocalDateTime.of(Date.referenceYear, 1, 1, 0, 0);
-		for (int dayOffset = 0; dayOffset < DAYS_PER_YEAR; dayOffset++) {
-			// Attention day starts with 1
-			final int key = Date.getKeyDaily(Date.referenceYear, 1 + dayOffset);
-			referenceDays.put(key, firstDayOfYear.plusDays(dayOffset));
-		}
-
-		Date.updateFields();
+		getClock().setInitialDate(startYear, startYearPlots, referenceYear, totalDays);
 	}
 
 	public static void setStartTime(LocalDateTime startTime) {
@@ -758,33 +681,14 @@ public class Date implements Callable<Void> {
 	 * the adjusted date in the reference year.
 	 */
 	private static LocalDateTime checkReferenceDate() {
-		if (currentDate.getYear() <= lastHistoricalYear) {
-			return currentDate;
+		final SimulationClock clock = getClock();
+		if (clock.currentDate.getYear() <= SimulationClock.LAST_HISTORICAL_YEAR) {
+			return clock.currentDate;
 		} else {
-			return Date.getReferenceDate();
+			return clock.getReferenceDate();
 		}
 	}
 
-	/** Returns the adjusted date in the reference year */
-	private static LocalDateTime getReferenceDate() {
-		final int key = Date.getKeyDaily(referenceYear, dayOfYear);
-		return referenceDays.get(key);
-	}
-
-	private static void updateFields() {
-		year = currentDate.getYear();
-		dayOfYear = currentDate.getDayOfYear();
-		dayOfMonth = currentDate.getDayOfMonth();
-
-		weekOfWeekyear = currentDate.get(WeekFields.of(Locale.GERMANY).weekOfWeekBasedYear());
-		month = currentDate.getMonthValue();
-		yearIndex = Date.getYearIndex(Date.getYear());
-		dayOfTotal = Date.getDayOfYear() + (Date.getYearIndex() * DAYS_PER_YEAR);
-		firstHourOfToday = (Date.getDayOfYear() - 1) * HOURS_PER_DAY;
-		lastDayOfYear = Date.getLastDayOfYear(Date.getYear());
-		keyDaily = ((1000 * year) + dayOfYear) - 1;
-	}
-
 	@Override
 	public Void call() {
 		return null;
@@ -0,0 +1,244 @@
+package simulations.scheduling;
+
+import static simulations.scheduling.Date.DAYS_PER_YEAR;
+import static simulations.scheduling.Date.HOURS_PER_DAY;
+import static simulations.scheduling.Date.HOURS_PER_YEAR;
+
+import java.time.LocalDateTime;
+import java.time.temporal.WeekFields;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import simulations.initialization.Settings;
+
+/**
+ * Date state of the simulation.
+ * <p>
+ * The static methods of {@link Date} work on the global clock. Tasks that
+ * work on another date, e.g. to prepare the inputs of the next day in advance,
+ * bind their own clock to the thread via {@link #wrap(SimulationClock,
+ * Callable)}. Since the date is requested very often, the thread binding is
+ * only looked up while any thread has a clock bound.
+ */
+public final class SimulationClock {
+
+	/** Last simulated year which is fully based on historical input data */
+	static final int LAST_HISTORICAL_YEAR = 2014;
+	/**
+	 * Instance of logger to give out warnings, errors to console and or files
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(SimulationClock.class.getName());
+	/** Clock used by all threads without own clock */
+	private static final SimulationClock global = new SimulationClock();
+	/** Number of threads that have a clock bound */
+	private static final AtomicInteger numberOfBoundThreads = new AtomicInteger();
+	/** Clock bound to the current thread */
+	private static final ThreadLocal<SimulationClock> threadClock = new ThreadLocal<>();
+
+	/**
+	 * Bind clock to the current thread.
+	 *
+	 * @param clock
+	 *            null to remove the binding
+	 * @return the clock that was bound to the thread before
+	 */
+	private static SimulationClock bind(SimulationClock clock) {
+		final SimulationClock previous = threadClock.get();
+		if (previous != null) {
+			numberOfBoundThreads.decrementAndGet();
+		}
+		if (clock == null) {
+			threadClock.remove();
+		} else {
+			threadClock.set(clock);
+			numberOfBoundThreads.incrementAndGet();
+		}
+		return previous;
+	}
+
+	/** Clock of the current thread or the global clock */
+	public static SimulationClock current() {
+		if (numberOfBoundThreads.get() == 0) {
+			return global;
+		}
+		final SimulationClock clock = threadClock.get();
+		return clock == null ? global : clock;
+	}
+
+	/**
+	 * Wrap task so that it is executed with the clock of the calling thread.
+	 */
+	public static <V> Callable<V> wrap(Callable<V> task) {
+		return wrap(SimulationClock.current(), task);
+	}
+
+	/** Wrap task so that it is executed with the specified clock. */
+	public static <V> Callable<V> wrap(SimulationClock clock, Callable<V> task) {
+		return () -> {
+			// No thread has a clock bound, so this thread uses the global
+			// clock anyway
+			if ((clock == global) && (numberOfBoundThreads.get() == 0)) {
+				return task.call();
+			}
+			final SimulationClock previous = SimulationClock.bind(clock);
+			try {
+				return task.call();
+			} finally {
+				SimulationClock.bind(previous);
+			}
+		};
+	}
+
+	/** Instance of DateTime with current date */
+	LocalDateTime currentDate;
+	int dayOfMonth;
+	int dayOfTotal;
+	int dayOfYear;
+	int firstHourOfToday;
+	Integer keyDaily;
+	int lastDayOfYear;
+	/** Last year for which detailed long-term price forecast is made */
+	int lastDetailedForecastYear;
+	/** Number of hours of each simulated year */
+	Map<Integer, Integer> lastHourOfYearMap = new HashMap<>();
+	int month;
+	Map<Integer, LocalDateTime> referenceDays = new HashMap<>(DAYS_PER_YEAR);
+	/** Reference year for scenario data (set via Settings class in xml) */
+	int referenceYear;
+	/** Start year of simulation (set via Settings class in xml) */
+	int startYear;
+	/** Start year for plots (set via Settings class in xml) */
+	int startYearPlots;
+	/** Total days of simulation (set via Settings class in xml) */
+	int totalDays;
+	int weekOfWeekyear;
+	int year;
+	int yearIndex;
+
+	/** The last day of the requested year [1, DAYS_PER_YEAR] */
+	int getLastDayOfYear(int year) {
+		if (year == getLastYear()) {
+			return (totalDays % DAYS_PER_YEAR) == 0 ? DAYS_PER_YEAR : totalDays % DAYS_PER_YEAR;
+		}
+		return DAYS_PER_YEAR;
+	}
+
+	/** Get last year of simulation */
+	int getLastYear() {
+		return startYear + (int) Math.floor((totalDays - 1) / 365.0);
+	}
+
+	/** Number of (started) years of the simulation */
+	int getNumberOfYears() {
+		return (int) Math.ceil(totalDays / 365.0);
+	}
+
+	/** Returns the adjusted date in the reference year */
+	LocalDateTime getReferenceDate() {
+		final int key = Date.getKeyDaily(referenceYear, dayOfYear);
+		return referenceDays.get(key);
+	}
+
+	/** Increment the date by one day, in leap years the last day is skipped */
+	void incrementDay() {
+		// Increment currentDate by 1 day (except for leap days)
+		if ((currentDate.getDayOfYear() == 365) && currentDate.toLocalDate().isLeapYear()) {
+			currentDate = currentDate.plusDays(2);
+		} else {
+			currentDate = currentDate.plusDays(1);
+		}
+
+		if (currentDate.getDayOfYear() >= 366) {
+			logger.error("Error when incrementing day (day count higher than 365)");
+		}
+
+		updateFields();
+	}
+
+	/**
+	 * Copy of this clock that is one day ahead, e.g. to prepare the inputs of
+	 * the next day in advance
+	 */
+	public SimulationClock nextDay() {
+		final SimulationClock clock = new SimulationClock();
+		clock.currentDate = currentDate;
+		clock.lastDetailedForecastYear = lastDetailedForecastYear;
+		clock.lastHourOfYearMap = lastHourOfYearMap;
+		clock.referenceDays = referenceDays;
+		clock.referenceYear = referenceYear;
+		clock.startYear = startYear;
+		clock.startYearPlots = startYearPlots;
+		clock.totalDays = totalDays;
+		clock.incrementDay();
+		return clock;
+	}
+
+	/** Reset date to the end of the previous year */
+	void resetDateToEndOfLastYear() {
+		currentDate = currentDate.withYear(year - 1).withDayOfYear(DAYS_PER_YEAR);
+		updateFields();
+	}
+
+	/** Set the initial date (first day in first year of simulation) */
+	void setInitialDate(int startYear, int startYearPlots, Integer referenceYear, int totalDays) {
+		currentDate = LocalDateTime.of(startYear, 1, 1, 0, 0);
+		this.totalDays = totalDays;
+		this.startYear = startYear;
+		this.startYearPlots = startYearPlots;
+
+		// Set reference year only if parameter is set in xml file (if it is not
+		// set explicitly the int parameter is initialized in Settings with 0)
+		if (referenceYear == null) {
+			this.referenceYear = 2012;
+		} else {
+			this.referenceYear = referenceYear;
+		}
+
+		// Add maximal construction time of new plants, really difficult to
+		// determine therefore add some more years which can represent overhead
+		// values
+		final int additionalBackup = 15;
+		lastDetailedForecastYear = startYear + getNumberOfYears()
+				+ (2 * Settings.getInvestmentHorizonMax()) + additionalBackup;
+
+		lastHourOfYearMap = new HashMap<>();
+		final int lastYear = getLastYear();
+		for (int year = startYear; year <= lastYear; year++) {
+			if (year < lastYear) {
+				lastHourOfYearMap.put(year, HOURS_PER_YEAR);
+			} else {
+				lastHourOfYearMap.put(year, getLastDayOfYear(year) * HOURS_PER_DAY);
+			}
+		}
+
+		// Add reference year map
+		final LocalDateTime firstDayOfYear = LocalDateTime.of(this.referenceYear, 1, 1, 0, 0);
+		for (int dayOffset = 0; dayOffset < DAYS_PER_YEAR; dayOffset++) {
+			// Attention day starts with 1
+			final int key = Date.getKeyDaily(this.referenceYear, 1 + dayOffset);
+			referenceDays.put(key, firstDayOfYear.plusDays(dayOffset));
+		}
+
+		updateFields();
+	}
+
+	private void updateFields() {
+		year = currentDate.getYear();
+		dayOfYear = currentDate.getDayOfYear();
+		dayOfMonth = currentDate.getDayOfMonth();
+
+		weekOfWeekyear = currentDate.get(WeekFields.of(Locale.GERMANY).weekOfWeekBasedYear());
+		month = currentDate.getMonthValue();
+		yearIndex = year - startYear;
+		dayOfTotal = dayOfYear + (yearIndex * DAYS_PER_YEAR);
+		firstHourOfToday = (dayOfYear - 1) * HOURS_PER_DAY;
+		lastDayOfYear = getLastDayOfYear(year);
+		keyDaily = ((1000 * year) + dayOfYear) - 1;
+	}
+}
@@ -11,6 +11,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -27,7 +28,9 @@ import markets.trader.future.tools.StorageOperationForecastFutureRegression;
 import markets.trader.spot.hydro.PumpStorageTrader;
 import markets.trader.spot.hydro.SeasonalStorageTrader;
 import markets.trader.spot.supply.SupplyTrader;
+import markets.trader.spot.supply.tools.MeritOrderSnapshot;
 import results.Validation;
+import results.powerplant.AvailabilitiesPlants;
 import results.powerplant.PlotCapacities;
 import results.powerplant.WritePowerPlantData;
 import results.spot.DayAheadDispatch;
@@ -51,6 +54,7 @@ import tools.logging.LogFile.Frequency;
 import tools.other.Concurrency;
 import tools.other.Mail;
 import tools.other.SpeedTest;
+import tools.other.TaskGraph;
 import tools.other.Tuple;
 
 /**
@@ -66,6 +70,11 @@ public class Steps {
 	private static final Logger logger = LoggerFactory.getLogger(Steps.class.getName());
 
 	private final ExecutorService executorLogFiles = Executors.newSingleThreadExecutor();
+	/**
+	 * Preparation of the inputs of the next day, running while the markets of
+	 * the current day are cleared (see {@link #prepareNextDay()})
+	 */
+	private final List<Future<Void>> nextDayPreparations = new ArrayList<>();
 
 	private final PowerMarkets model;
 
@@ -104,6 +113,7 @@ public class Steps {
 						generator.determineDailyAvailablePlants();
 					}
 
+					// Needs the available plants of today
 					marketArea.getAvailabilitiesPlants().calculateCapacities(marketArea, year, day);
 				} catch (final Exception e) {
 					logger.error(e.getLocalizedMessage(), e);
@@ -153,6 +163,9 @@ public class Steps {
 	private void performOperationsBeginYear() {
 		logger.info("Perform new year operations");
 
+		// Merit orders of the last year refer to the plants of that year
+		MeritOrderSnapshot.clear();
+
 		/**
 		 * Perform operations at the begin of each year (excluding start year)
 		 */
@@ -353,6 +366,7 @@ public class Steps {
 		if (!(model.getMarketScheduler().getMarketCouplingOperator() == null)) {
 			model.getMarketScheduler().getMarketCouplingOperator().getExchangeFlows()
 					.logExchangeFlows("Exchange_Flows_Market_Coupling", Folder.MARKET_COUPLING);
+			model.getMarketScheduler().getMarketCouplingOperator().dispose();
 		}
 		executorLogFiles.execute(() -> {
 			new WritePowerPlantData(model).write();
@@ -380,94 +394,113 @@ public class Steps {
 		logger.info("Perform operations at the end of the year");
 		// Final year, particularly for threads
 		final int year = Date.getYear();
+
+		// Phases without mutual dependency can be executed concurrently, see
+		// Settings.isStepsTaskGraph()
+		final TaskGraph phases = new TaskGraph();
 		// for (final MarketArea marketArea : model.getMarketAreas()) {
-		model.getMarketAreas().parallelStream().forEach(marketArea -> {
-			try {
-				logger.debug("CO2 in year: " + year + ", "
-						+ marketArea.getCarbonEmissions().getEmissionsYearly(year));
-				marketArea.getManagerRenewables().removeOldValues(year);
-			} catch (final Exception e) {
-				logger.error(e.getLocalizedMessage(), e);
-			}
-		});
+		phases.add("Remove old renewable values",
+				() -> model.getMarketAreas().parallelStream().forEach(marketArea -> {
+					try {
+						logger.debug("CO2 in year: " + year + ", "
+								+ marketArea.getCarbonEmissions().getEmissionsYearly(year));
+						marketArea.getManagerRenewables().removeOldValues(year);
+					} catch (final Exception e) {
+						logger.error(e.getLocalizedMessage(), e);
+					}
+				}));
 
 		/** Logging object market area carbon emissions */
-		new EmissionsCarbonMarketArea(model).logResults();
-		model.getMarketAreas().parallelStream().forEach(marketArea -> {
-			new EmissionsCarbonAnalysis(marketArea).logResults();
-		});
+		phases.add("Log carbon emissions", () -> {
+			new EmissionsCarbonMarketArea(model).logResults();
+			model.getMarketAreas().parallelStream().forEach(marketArea -> {
+				new EmissionsCarbonAnalysis(marketArea).logResults();
+			});
+		}, "Remove old renewable values");
 
 		// Exchange by market coupling and storage operation are forecasted,
 		// which is then used for several long-term price predictions
-		exchangeForecastFuture.updateExchangeForecastFutureForAllMarketAreas();
-		storageOperationForecastFuture.updateStorageOperationForecastFutureForAllMarketAreas();
+		phases.add("Update exchange and storage forecasts", () -> {
+			exchangeForecastFuture.updateExchangeForecastFutureForAllMarketAreas();
+			storageOperationForecastFuture.updateStorageOperationForecastFutureForAllMarketAreas();
+		}, "Remove old renewable values");
 
-		// Write log files
-		writeLogFiles(Frequency.YEARLY);
+		// Write log files, carbon emissions are logged before since both use
+		// LoggerXLSX and generator operations change the logged plants
+		phases.add("Write yearly log files", () -> writeLogFiles(Frequency.YEARLY),
+				"Update exchange and storage forecasts", "Log carbon emissions");
 		// for (final MarketArea marketArea : model.getMarketAreas()) {
-		model.getMarketAreas().parallelStream().forEach(marketArea -> {
-			try {
-				for (final Generator generator : marketArea.getGenerators()) {
-					generator.operationsEndYear();
-				}
-			} catch (final Exception e) {
-				logger.error(e.getLocalizedMessage(), e);
-			}
-		});
+		phases.add("Generator operations",
+				() -> model.getMarketAreas().parallelStream().forEach(marketArea -> {
+					try {
+						for (final Generator generator : marketArea.getGenerators()) {
+							generator.operationsEndYear();
+						}
+					} catch (final Exception e) {
+						logger.error(e.getLocalizedMessage(), e);
+					}
+				}), "Write yearly log files");
 
-		model.getMarketAreas().parallelStream().forEach(marketArea -> {
-			try {
+		phases.add("Reset running hours and log prices",
+				() -> model.getMarketAreas().parallelStream().forEach(marketArea -> {
+					try {
 
-				final List<Plant> plants = new ArrayList<>();
-				for (final Generator generator : marketArea.getGenerators()) {
-					plants.addAll(generator.getPowerPlantsList());
-				}
+						final List<Plant> plants = new ArrayList<>();
+						for (final Generator generator : marketArea.getGenerators()) {
+							plants.addAll(generator.getPowerPlantsList());
+						}
 
-				// Reset yearly full load hours
-				for (final Plant powerplant : plants) {
-					powerplant.resetYearlyRunningHours();
-				}
+						// Reset yearly full load hours
+						for (final Plant powerplant : plants) {
+							powerplant.resetYearlyRunningHours();
+						}
 
-				marketArea.logPricesHigh();
-				marketArea.logSecurityOfSupplyWithExchange();
-				marketArea.logSecurityOfSupplyWithoutExchange();
-				marketArea.getFutureMeritOrders().logMeritOrder();
-				marketArea.getFuturePrices().logPrices();
-				marketArea.getFuturePrices().logPricesSorted();
+						marketArea.logPricesHigh();
+						marketArea.logSecurityOfSupplyWithExchange();
+						marketArea.logSecurityOfSupplyWithoutExchange();
+						marketArea.getFutureMeritOrders().logMeritOrder();
+						marketArea.getFuturePrices().logPrices();
+						marketArea.getFuturePrices().logPricesSorted();
 
-				if (marketArea.isDecommissionActive()) {
-					marketArea.getPlantsDecommissioned().logPlants();
-					marketArea.getPlantsDecommissioned().logPlantsDecisions();
-				}
+						if (marketArea.isDecommissionActive()) {
+							marketArea.getPlantsDecommissioned().logPlants();
+							marketArea.getPlantsDecommissioned().logPlantsDecisions();
+						}
 
-			} catch (final Exception e) {
-				logger.error(e.getLocalizedMessage(), e);
-			}
-		});
+					} catch (final Exception e) {
+						logger.error(e.getLocalizedMessage(), e);
+					}
+				}), "Generator operations");
 
 		// Dispatch logging for pumped storage plants only every five years
 		// for (final MarketArea marketArea : model.getMarketAreas()) {
-		model.getMarketAreas().parallelStream().forEach(marketArea -> {
-			try {
-				if (!marketArea.getPumpStorageTraders().isEmpty()
-						&& marketArea.getPumpStorageTraders().get(0).isLogPumpedStorageDispatch()
-						&& ((year % 5) == 0)) {
-					marketArea.getPumpStorageTraders().get(0).logPumpedStorageDispatch();
-				}
-			} catch (final Exception e) {
-				logger.error(e.getLocalizedMessage(), e);
-			}
-		});
+		phases.add("Log pumped storage dispatch",
+				() -> model.getMarketAreas().parallelStream().forEach(marketArea -> {
+					try {
+						if (!marketArea.getPumpStorageTraders().isEmpty()
+								&& marketArea.getPumpStorageTraders().get(0)
+										.isLogPumpedStorageDispatch()
+								&& ((year % 5) == 0)) {
+							marketArea.getPumpStorageTraders().get(0)
+									.logPumpedStorageDispatch();
+						}
+					} catch (final Exception e) {
+						logger.error(e.getLocalizedMessage(), e);
+					}
+				}), "Generator operations");
 
 		// for (final MarketArea marketArea : model.getMarketAreas()) {
-		model.getMarketAreas().parallelStream().forEach(marketArea -> {
-			try {
-				final List<Generator> generators = marketArea.getGenerators();
-				marketArea.getElectricityProduction().summarize(generators);
-			} catch (final Exception e) {
-				logger.error(e.getLocalizedMessage(), e);
-			}
-		});
+		phases.add("Summarize electricity production",
+				() -> model.getMarketAreas().parallelStream().forEach(marketArea -> {
+					try {
+						final List<Generator> generators = marketArea.getGenerators();
+						marketArea.getElectricityProduction().summarize(generators);
+					} catch (final Exception e) {
+						logger.error(e.getLocalizedMessage(), e);
+					}
+				}), "Generator operations");
+
+		phases.execute(Settings.isStepsTaskGraph());
 
 		// Investments
 		new InvestmentPlannerMarketCoupling(model).startInvestments();
@@ -490,11 +523,53 @@ public class Steps {
 		YearlyProfitStorage.dispose();
 		// Log duration of simulation run at the end of each year
 		SpeedTest.speedtest(Date.getStartTime());
+		Concurrency.logTaskTimes();
 
 		// Keep heap space down, suggest garbage collection
 		System.gc();
 	}
 
+	/**
+	 * Prepare the inputs of the next day in advance, if
+	 * {@link Settings#isPipelinedSteps()} is set. The tasks are executed with
+	 * the date of the next day and only calculate inputs that are not changed
+	 * by the operations of the current day, so the results are identical to
+	 * the sequential execution. Not done for the last day of the year, since
+	 * the operations at the begin of the year may change these inputs.
+	 * <p>
+	 * Prepared are the actual units, which are derived from the merit order
+	 * units of the year, and for each generator the variable costs of the
+	 * plants and the plants that are still running (see
+	 * {@link Generator#prepareDailyAvailablePlants()}). The check of the
+	 * unused capacity of the available plants and the capacities of
+	 * {@link AvailabilitiesPlants} are done at the begin of the day, since
+	 * they depend on the state of the plants, which is changed while the
+	 * markets of the current day are cleared. Demand and renewable bids read
+	 * the hourly values of the year directly and the day-ahead forecasts
+	 * depend on the results of the current day, so both are not prepared.
+	 * The prepared inputs can be compared with a sequential calculation via
+	 * {@link Settings#isPipelinedStepsCheck()}.
+	 */
+	private void prepareNextDay() {
+		if (!Settings.isPipelinedSteps() || Date.isLastDayOfYear()) {
+			return;
+		}
+		final SimulationClock clockNextDay = SimulationClock.current().nextDay();
+		for (final MarketArea marketArea : model.getMarketAreas()) {
+			nextDayPreparations.add(Concurrency.submit(() -> {
+				try {
+					marketArea.getGenerationData().prepareActualUnits();
+					for (final Generator generator : marketArea.getGenerators()) {
+						generator.prepareDailyAvailablePlants();
+					}
+				} catch (final Exception e) {
+					logger.error(e.getLocalizedMessage(), e);
+				}
+				return null;
+			}, clockNextDay));
+		}
+	}
+
 	/**
 	 * This method is executed every tick. This method triggers all date events
 	 * especially all the events sketched in the StepManager, such as daily
@@ -519,9 +594,15 @@ public class Steps {
 			/** Perform operations at the begin of each day */
 			performOperationsBeginDay();
 
+			/** Prepare inputs of next day while markets are cleared */
+			prepareNextDay();
+
 			/** Schedule and execute markets */
 			model.getMarketScheduler().executeMarkets();
 
+			/** Wait until inputs of next day are prepared */
+			waitForNextDay();
+
 			/** Perform operations at the end of each day */
 			performOperationsEndDay();
 
@@ -543,6 +624,21 @@ public class Steps {
 		}
 	}
 
+	/** Wait until the preparation of the inputs of the next day is finished */
+	private void waitForNextDay() {
+		if (nextDayPreparations.isEmpty()) {
+			return;
+		}
+		for (final Future<Void> preparation : nextDayPreparations) {
+			try {
+				preparation.get();
+			} catch (final Exception e) {
+				logger.error(e.getLocalizedMessage(), e);
+			}
+		}
+		nextDayPreparations.clear();
+	}
+
 	/**
 	 * Initiates the writing of log files according to the specified update
 	 * frequency
@@ -28,12 +28,43 @@ import supply.powerplant.Plant;
  */
 public class Generator extends Agent {
 
+	/**
+	 * Variable costs of all plants and plants that are still running on a
+	 * day, see {@link Generator#calculateDailyAvailablePlants()}
+	 */
+	private static final class DailyAvailablePlants {
+
+		/** Variable carbon costs of each plant in {@link #plants} */
+		private final float[] costsCarbonVar;
+		/** Variable fuel costs of each plant in {@link #plants} */
+		private final float[] costsFuelVar;
+		/** {@link Date#getKeyDaily()} of the day */
+		private final int key;
+		/** All plants of the generator */
+		private final List<Plant> plants;
+		private final List<Plant> plantsRunning;
+
+		private DailyAvailablePlants(int key, List<Plant> plants, float[] costsFuelVar,
+				float[] costsCarbonVar, List<Plant> plantsRunning) {
+			this.key = key;
+			this.plants = plants;
+			this.costsFuelVar = costsFuelVar;
+			this.costsCarbonVar = costsCarbonVar;
+			this.plantsRunning = plantsRunning;
+		}
+	}
+
 	/**
 	 * Instance of logger to give out warnings, errors to console and or files
 	 */
 	private static final Logger logger = LoggerFactory.getLogger(Generator.class.getName());
 
 	private float[] costs = null;
+	/**
+	 * Available plants prepared in advance for the next day, see
+	 * {@link #prepareDailyAvailablePlants()}
+	 */
+	private volatile DailyAvailablePlants dailyAvailablePlantsPrepared;
 	private float gambleMargin = 0.3f;
 
 	/**
@@ -56,6 +87,29 @@ public class Generator extends Agent {
 	private float[] varcosts = null;
 	private float[] volumes = null;
 
+	/**
+	 * Calculate the variable costs of all plants and the plants that are still
+	 * running for the current date without changing the plants.
+	 */
+	private DailyAvailablePlants calculateDailyAvailablePlants() {
+		final int year = Date.getYear();
+		final LocalDate today = Date.getCurrentDateTime().toLocalDate();
+		final List<Plant> plants = powerPlantsAll;
+		final float[] costsFuelVar = new float[plants.size()];
+		final float[] costsCarbonVar = new float[plants.size()];
+		final List<Plant> plantsRunning = new ArrayList<>();
+		for (int index = 0; index < plants.size(); index++) {
+			final Plant powerPlant = plants.get(index);
+			costsFuelVar[index] = powerPlant.getCostsFuelVar(year, marketArea);
+			costsCarbonVar[index] = powerPlant.getCostsCarbonVar(year, marketArea);
+			if (powerPlant.isStillRunning(today)) {
+				plantsRunning.add(powerPlant);
+			}
+		}
+		return new DailyAvailablePlants(Date.getKeyDaily(), plants, costsFuelVar,
+				costsCarbonVar, plantsRunning);
+	}
+
 	private void calculateFullLoadHours() {
 		for (final Plant powerPlant : powerPlantsAll) {
 			powerPlant.setUtilisation(
@@ -63,49 +117,74 @@ public class Generator extends Agent {
 		}
 	}
 
+	/**
+	 * Compare the plants prepared in advance with the sequential calculation
+	 * and log an error if they differ, see
+	 * {@link Settings#isPipelinedStepsCheck()}.
+	 */
+	private void checkDailyAvailablePlantsPrepared(DailyAvailablePlants prepared,
+			DailyAvailablePlants sequential) {
+		if (!Arrays.equals(prepared.costsFuelVar, sequential.costsFuelVar)
+				|| !Arrays.equals(prepared.costsCarbonVar, sequential.costsCarbonVar)
+				|| !prepared.plantsRunning.equals(sequential.plantsRunning)) {
+			logger.error("Available plants prepared in advance differ from sequential calculation"
+					+ " of " + getName() + " in " + marketArea.getInitials() + " (y"
+					+ Date.getYear() + "_d" + Date.getDayOfYear() + ")");
+		}
+	}
+
 	/**
 	 * In this method a list of daily available power plants for the agent
 	 * supplyBidder is provided
 	 */
 	public void determineDailyAvailablePlants() {
 
-		determinePlantCosts();
+		// Take over the plants prepared in advance for today
+		DailyAvailablePlants dailyAvailablePlants = dailyAvailablePlantsPrepared;
+		dailyAvailablePlantsPrepared = null;
+		if ((dailyAvailablePlants != null) && (dailyAvailablePlants.key == Date.getKeyDaily())
+				&& (dailyAvailablePlants.plants == powerPlantsAll)
+				&& (dailyAvailablePlants.costsFuelVar.length == powerPlantsAll.size())) {
+			if (Settings.isPipelinedStepsCheck()) {
+				checkDailyAvailablePlantsPrepared(dailyAvailablePlants,
+						calculateDailyAvailablePlants());
+			}
+		} else {
+			dailyAvailablePlants = calculateDailyAvailablePlants();
+		}
+
+		// Set variable costs
+		for (int index = 0; index < powerPlantsAll.size(); index++) {
+			powerPlantsAll.get(index).setCostsVar(dailyAvailablePlants.costsFuelVar[index],
+					dailyAvailablePlants.costsCarbonVar[index]);
+		}
+		Collections.sort(powerPlantsAllSorted);
 		powerPlantsAvailable.clear();
 
-		// needed for calculating with dates and in order to avoid to many
-		// object constructions, initiate it only once here
-		final LocalDate today = Date.getCurrentDateTime().toLocalDate();
 		final int firstHourOfToday = Date.getFirstHourOfToday();
 
 		// if Blackout, it is checked whether plants are available
 		if (Settings.isCheckBlackout()) {
 
-			for (final Plant powerPlant : powerPlantsAll) {
-				/**
-				 * If power plant is in operation and already available
-				 * regarding its date, add to the available list of power plants
-				 */
-				if (powerPlant.isStillRunning(today)) {
-
-					// Only available if some capacity is left to sell
-					if (powerPlant.getCapacityUnusedExpected(firstHourOfToday) <= 0) {
-						logger.error("Why is no more capacity available!");
-						continue;
-					}
-
-					// Plant is available if no expected outage occurs and no
-					// unexpected outage. But when no intraday market is running
-					// unexpected outages are not regarded.
-					powerPlantsAvailable.add(powerPlant);
+			/**
+			 * If power plant is in operation and already available regarding
+			 * its date, add to the available list of power plants
+			 */
+			for (final Plant powerPlant : dailyAvailablePlants.plantsRunning) {
 
+				// Only available if some capacity is left to sell
+				if (powerPlant.getCapacityUnusedExpected(firstHourOfToday) <= 0) {
+					logger.error("Why is no more capacity available!");
+					continue;
 				}
+
+				// Plant is available if no expected outage occurs and no
+				// unexpected outage. But when no intraday market is running
+				// unexpected outages are not regarded.
+				powerPlantsAvailable.add(powerPlant);
 			}
 		} else {
-			for (final Plant powerPlant : powerPlantsAll) {
-				if (powerPlant.isStillRunning(today)) {
-					powerPlantsAvailable.add(powerPlant);
-				}
-			}
+			powerPlantsAvailable.addAll(dailyAvailablePlants.plantsRunning);
 		}
 
 		// Blackouts are on daily basis, so for each hour of the day fill with
@@ -140,6 +219,26 @@ public class Generator extends Agent {
 		return new ArrayList<>(powerPlantsAvailable);
 	}
 
+	/**
+	 * Determine the first unit of the merit order whose cumulated capacity
+	 * exceeds the residual load or the last unit if no unit does. The merit
+	 * order is shared by all generators of the market area and the cumulated
+	 * capacities are ascending, so binary search is used.
+	 */
+	private int getMarginalUnit(float loadResidual) {
+		int low = 0;
+		int high = longMeritOrder.size() - 1;
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if ((longMeritOrder.get(middle).getCumulatedNetCapacity() - loadResidual) > 0) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return low;
+	}
+
 	/** Get merit order from GenerationData object */
 	public void getMeritOrder() {
 		meritOrder = marketArea.getGenerationData().getUnitsAggr();
@@ -255,6 +354,18 @@ public class Generator extends Agent {
 		calculateFullLoadHours();
 	}
 
+	/**
+	 * Calculate the variable costs and the plants that are still running for
+	 * the current date in advance, so that
+	 * {@link #determineDailyAvailablePlants()} only has to take them over.
+	 * Called with the date of the next day while the markets of the current
+	 * day are cleared, the plants are not changed.
+	 */
+	public void prepareDailyAvailablePlants() {
+		dailyAvailablePlantsPrepared = null;
+		dailyAvailablePlantsPrepared = calculateDailyAvailablePlants();
+	}
+
 	public void priceForecastNextDay() {
 
 		final float[] scarcity = new float[24];
@@ -269,9 +380,10 @@ public class Generator extends Agent {
 		Arrays.fill(capacityAvailableNet, 0f);
 		Arrays.fill(capacityAvailableReserve, 0f);
 		final int firstHourOfToday = Date.getFirstHourOfToday();
+		final List<Plant> plantsOperating = marketArea.getSupplyData().getPowerPlantsAsList(
+				Date.getYear(), Collections.singleton(StateStrategic.OPERATING));
 		for (int hour = 0; hour < Date.HOURS_PER_DAY; hour++) {
-			for (final Plant plant : marketArea.getSupplyData().getPowerPlantsAsList(Date.getYear(),
-					Collections.singleton(StateStrategic.OPERATING))) {
+			for (final Plant plant : plantsOperating) {
 				capacityAvailable[hour] += plant.getCapacityUnusedExpected(firstHourOfToday + hour);
 			}
 		}
@@ -283,15 +395,8 @@ public class Generator extends Agent {
 		final float resReserveFactor = 0.4f;
 
 		for (int hourOfDay = 0; hourOfDay < Date.HOURS_PER_DAY; hourOfDay++) {
-			int indexLongMeritOrder = 0;
-
-			// Loop merit order in order to determine expected marginal
-			// plant
-			while ((indexLongMeritOrder < (longMeritOrder.size() - 1))
-					&& ((longMeritOrder.get(indexLongMeritOrder).getCumulatedNetCapacity()
-							- loadResidual[hourOfDay]) <= 0)) {
-				indexLongMeritOrder++;
-			}
+			// Expected marginal plant
+			final int indexLongMeritOrder = getMarginalUnit(loadResidual[hourOfDay]);
 
 			if (longMeritOrder.isEmpty()) {
 				logger.warn(marketArea.getInitialsBrackets() + "Error. j=" + indexLongMeritOrder
@@ -0,0 +1,145 @@
+package supply.invest;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import simulations.MarketArea;
+import simulations.scheduling.Date;
+import supply.powerplant.PlantOption;
+
+/**
+ * Hourly forward prices of all forecast years as primitive arrays, capped at
+ * the maximum forward price. Years without detailed forecast take the prices
+ * of the next available forecast year. Created once per price forecast and
+ * shared between the evaluations of the investment options, i.e. the arrays
+ * must not be changed.
+ * <p>
+ * The dispatch with technical restrictions ({@link YearlyProfit}) only depends
+ * on the prices, the variable costs, the minimum run and down times and the
+ * start-up costs of an option. It is therefore calculated once per year for
+ * all options with the same parameters, e.g. options of the same technology
+ * with different investment costs.
+ */
+final class ForwardPriceMatrix {
+
+	/**
+	 * Result of the dispatch with technical restrictions, the same for all
+	 * options with the same parameters.
+	 *
+	 * @param profit
+	 *            profit without fixed costs in EUR/MW, see
+	 *            {@link YearlyProfit#getTotalProfitWithoutFixedCosts()}
+	 * @param running
+	 *            [hourOfYear], true if running
+	 */
+	record Dispatch(float profit, boolean[] running) {
+	}
+
+	/** Parameters of an option that determine its dispatch */
+	private record DispatchKey(int yearCount, MarketArea marketArea, String fuelName,
+			float fuelCosts, float emissionCosts, float costsOperationMaintenanceVar,
+			int minRunTime, int minDownTime, float startupCostsHot, float startupCostsWarm,
+			float startupCostsCold) {
+	}
+
+	/** Workspace of the dispatch calculation for each thread */
+	private static final ThreadLocal<YearlyProfit.Workspace> workspaces = ThreadLocal
+			.withInitial(() -> new YearlyProfit.Workspace(Date.HOURS_PER_YEAR));
+
+	/** Forward prices [yearCount[hourOfYear]] */
+	private final float[][] prices;
+	/** Last year count with price forecast */
+	private final int yearCountMax;
+	/** Dispatch with technical restrictions by parameters of the options */
+	private final Map<DispatchKey, Dispatch> dispatches = new ConcurrentHashMap<>();
+
+	ForwardPriceMatrix(Map<Integer, Map<Integer, Float>> forwardPrices, float priceMax) {
+		yearCountMax = Collections.max(forwardPrices.keySet()) - Date.getYear();
+		prices = new float[yearCountMax + 1][];
+		for (int yearCount = 0; yearCount <= yearCountMax; yearCount++) {
+			final Map<Integer, Float> pricesYear = getForwardPriceMap(forwardPrices,
+					Date.getYear() + yearCount);
+			prices[yearCount] = new float[Date.HOURS_PER_YEAR];
+			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
+				prices[yearCount][hourOfYear] = Math.min(pricesYear.get(hourOfYear), priceMax);
+			}
+		}
+	}
+
+	/**
+	 * Forward prices [hourOfYear] of the year count, prices of the last year
+	 * are used for later years
+	 */
+	float[] getPrices(int yearCount) {
+		return prices[Math.min(yearCount, yearCountMax)];
+	}
+
+	int getYearCountMax() {
+		return yearCountMax;
+	}
+
+	/**
+	 * Dispatch with technical restrictions of the option in the year count.
+	 * The result is shared by all options with the same parameters.
+	 *
+	 * @param fuelCosts
+	 *            in EUR/MWh
+	 * @param emissionCosts
+	 *            in EUR/MWh
+	 */
+	Dispatch getDispatch(int yearCount, float fuelCosts, float emissionCosts,
+			PlantOption capacityOption, MarketArea marketArea) {
+		final float costsOperationMaintenanceVar = capacityOption
+				.getCostsOperationMaintenanceVar();
+		final DispatchKey key = new DispatchKey(Math.min(yearCount, yearCountMax), marketArea,
+				capacityOption.getFuelName(), fuelCosts, emissionCosts,
+				costsOperationMaintenanceVar, capacityOption.getMinRunTime(),
+				capacityOption.getMinDownTime(),
+				marketArea.getStartUpCosts().getMarginalStartupCostsHot(capacityOption),
+				marketArea.getStartUpCosts().getMarginalStartupCostsWarm(capacityOption),
+				marketArea.getStartUpCosts().getMarginalStartupCostsCold(capacityOption));
+		Dispatch dispatch = dispatches.get(key);
+		if (dispatch == null) {
+			final float[] pricesYear = getPrices(yearCount);
+			final YearlyProfit.Workspace workspace = workspaces.get();
+			final float[] margins = workspace.getMargins();
+			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
+				margins[hourOfYear] = pricesYear[hourOfYear] - fuelCosts - emissionCosts
+						- costsOperationMaintenanceVar;
+			}
+			// Only results that are the same for all options with these
+			// parameters are kept, since the margins in the workspace are
+			// overwritten by the next calculation
+			final YearlyProfit yearlyProfit = new YearlyProfit(workspace, capacityOption,
+					marketArea, true);
+			yearlyProfit.calcYearlyProfit();
+			final boolean[] running = new boolean[Date.HOURS_PER_YEAR];
+			for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
+				running[hourOfYear] = yearlyProfit.isRunning(hourOfYear);
+			}
+			dispatch = new Dispatch(yearlyProfit.getTotalProfitWithoutFixedCosts(), running);
+			final Dispatch dispatchOther = dispatches.putIfAbsent(key, dispatch);
+			if (dispatchOther != null) {
+				dispatch = dispatchOther;
+			}
+		}
+		return dispatch;
+	}
+
+	private Map<Integer, Float> getForwardPriceMap(Map<Integer, Map<Integer, Float>> forewardPrices,
+			int year) {
+		final int yearOffsetMax = Collections.max(forewardPrices.keySet());
+		final int yearOffsetMin = Collections.min(forewardPrices.keySet());
+		if (year < yearOffsetMin) {
+			return forewardPrices.get(yearOffsetMin);
+		}
+		if (year > yearOffsetMax) {
+			return forewardPrices.get(yearOffsetMax);
+		}
+		if (forewardPrices.containsKey(year)) {
+			return forewardPrices.get(year);
+		}
+		return getForwardPriceMap(forewardPrices, year + 1);
+	}
+}
@@ -17,6 +17,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import markets.trader.future.tools.PriceForecastFuture;
+import markets.trader.future.tools.PriceForecastFutureOptimization;
 import simulations.MarketArea;
 import simulations.PowerMarkets;
 import simulations.initialization.Settings;
@@ -152,8 +153,13 @@ public class InvestmentPlannerMarketCoupling {
 				+ ", new planned investment are profitable: " + marketAreaBest.getInitialsBrackets()
 				+ capacityOptionBest.getInvestmentOption().getName());
 		setLastPriceForecastWithNewPlantProfitable();
-		return capacityOptionBest.getInvestor()
+		final boolean built = capacityOptionBest.getInvestor()
 				.buildOption(capacityOptionBest.getInvestmentOption());
+		if (built) {
+			// Merit order has changed
+			PriceForecastFutureOptimization.clearForecastCache();
+		}
+		return built;
 	}
 	private Investment chooseBestInvestmentOption() {
 		if (profitableOptionsAllMarketAreasAsList.isEmpty()) {
@@ -170,16 +170,30 @@ public class InvestorNetValue extends Investor {
 
 	public Callable<Void> evaluateProfitabilityPlantOption(
 			Map<Integer, Map<Integer, Float>> forwardPricesMap, PlantOption capacityOption) {
-		final Map<Integer, Map<Integer, Float>> forwardPrices = forwardPricesMap;
+		return evaluateProfitabilityPlantOption(forwardPricesMap, null, capacityOption);
+	}
+
+	/**
+	 * @param forwardPricesMatrix
+	 *            forward prices of <code>forwardPricesMap</code> or
+	 *            <code>null</code> if they have to be converted
+	 */
+	private Callable<Void> evaluateProfitabilityPlantOption(
+			Map<Integer, Map<Integer, Float>> forwardPricesMap,
+			ForwardPriceMatrix forwardPricesMatrix, PlantOption capacityOption) {
 		return () -> {
 			try {
+				final ForwardPriceMatrix forwardPrices = forwardPricesMatrix != null
+						? forwardPricesMatrix
+						: new ForwardPriceMatrix(forwardPricesMap,
+								marketArea.getPriceForwardMaximum());
 				int YEAR_OFFSET = capacityOption.getConstructionTime();
 
 				final int regardedLifeTime = capacityOption.getOperatingLifetime() / 2;
 				capacityOption.setNetPresentValue(0);
 				capacityOption.setAnnuity(0);
 
-				int forwardYearCountMax = Collections.max(forwardPrices.keySet()) - Date.getYear();
+				int forwardYearCountMax = forwardPrices.getYearCountMax();
 				// Calculate and store undiscounted metrics for every year
 				// year, parameter, value
 				final Map<Integer, InvestmentMetrics> yearlyMetricsUndiscounted = new LinkedHashMap<>();
@@ -276,10 +290,13 @@ public class InvestorNetValue extends Investor {
 		// Determine available investment options
 		capacityOptions = determineInvestmentOptions(unprofitablePlantOptionsOtherAgents);
 
+		// Convert prices once for all options
+		final ForwardPriceMatrix forwardPrices = new ForwardPriceMatrix(forecastPrices,
+				marketArea.getPriceForwardMaximum());
 		final Collection<Callable<Void>> evaluateProfitabilityOfAllPlantOptions = new ArrayList<>();
 		for (final PlantOption capacityOption : capacityOptions) {
-			evaluateProfitabilityOfAllPlantOptions
-					.add(evaluateProfitabilityPlantOption(forecastPrices, capacityOption));
+			evaluateProfitabilityOfAllPlantOptions.add(
+					evaluateProfitabilityPlantOption(forecastPrices, forwardPrices, capacityOption));
 		}
 		Concurrency.executeConcurrently(evaluateProfitabilityOfAllPlantOptions);
 
@@ -364,9 +381,8 @@ public class InvestorNetValue extends Investor {
 		return aggregatedMetrics;
 	}
 
-	private InvestmentMetrics calculateYearlyMetricsUndiscounted(
-			Map<Integer, Map<Integer, Float>> forwardPrices, PlantOption capacityOption,
-			Integer yearCount, Integer weatherYear) {
+	private InvestmentMetrics calculateYearlyMetricsUndiscounted(ForwardPriceMatrix forwardPrices,
+			PlantOption capacityOption, Integer yearCount, Integer weatherYear) {
 		final InvestmentMetrics metricsUndiscounted = new InvestmentMetrics();
 
 		// Reset offCounter
@@ -375,7 +391,7 @@ public class InvestorNetValue extends Investor {
 		float powerProfit = 0;
 		float emissionCosts = 0;
 		float fuelCosts = 0;
-		int forwardYearCountMax = Collections.max(forwardPrices.keySet()) - Date.getYear();
+		int forwardYearCountMax = forwardPrices.getYearCountMax();
 
 		// in Euro/MWh
 		final int yearRegarded = Date.getYear() + Math.min(yearCount, forwardYearCountMax);
@@ -391,60 +407,55 @@ public class InvestorNetValue extends Investor {
 		// not relevant here
 		profit -= capacityOption.getCostsOperationMaintenanceFixed();
 
-		// List with temporary profits
-		final List<Float> margins = new ArrayList<>();
-		final List<Float> prices = new ArrayList<>();
-
-		for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
-			float currentForwardPrice = getForwardPriceMap(forwardPrices, yearRegarded)
-					.get(hourOfYear);
-			// set maximum price to upper limit
-			if (currentForwardPrice >= marketArea.getPriceForwardMaximum()) {
-				currentForwardPrice = marketArea.getPriceForwardMaximum();
-			}
-
-			if (!capacityOption.isStorage()) {
-				// profit from selling electricity
-				final float tempProfit = currentForwardPrice - tempFuelCosts - tempEmissionCosts
-						- capacityOption.getCostsOperationMaintenanceVar();
-
-				if (useTechnicalRestrictions) {
-					margins.add(tempProfit);
-					prices.add(currentForwardPrice);
-				} else {
-					// Plant is not available all the time assume
-					// constant
-					// lower availability
-					final float availabilityFactorTechnical = marketArea.getAvailabilityFactors()
-							.getAvailabilityFactors(capacityOption.getFuelName());
-					if (tempProfit > 0) {
-						profit += tempProfit * availabilityFactorTechnical;
-						powerProfit += currentForwardPrice * availabilityFactorTechnical;
-						fuelCosts += tempFuelCosts * availabilityFactorTechnical;
-						emissionCosts += tempEmissionCosts * availabilityFactorTechnical;
+		// Forward prices already capped at maximum price
+		final float[] prices = forwardPrices.getPrices(yearCount);
 
-					}
+		if (!capacityOption.isStorage()) {
+			final float costsOperationMaintenanceVar = capacityOption
+					.getCostsOperationMaintenanceVar();
+			if (!useTechnicalRestrictions) {
+				// Plant is not available all the time assume constant lower
+				// availability
+				final float availabilityFactorTechnical = marketArea.getAvailabilityFactors()
+						.getAvailabilityFactors(capacityOption.getFuelName());
+				// Sum up positive margins and prices of these hours without
+				// branches, so that the loop can be vectorized
+				float marginSum = 0;
+				float priceSum = 0;
+				int hoursRunning = 0;
+				for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
+					// profit from selling electricity
+					final float tempProfit = prices[hourOfYear] - tempFuelCosts
+							- tempEmissionCosts - costsOperationMaintenanceVar;
+					final int running = tempProfit > 0 ? 1 : 0;
+					marginSum += running * tempProfit;
+					priceSum += running * prices[hourOfYear];
+					hoursRunning += running;
 				}
-			} else {
-				prices.add(currentForwardPrice);
+				profit += marginSum * availabilityFactorTechnical;
+				powerProfit += priceSum * availabilityFactorTechnical;
+				fuelCosts += hoursRunning * tempFuelCosts * availabilityFactorTechnical;
+				emissionCosts += hoursRunning * tempEmissionCosts * availabilityFactorTechnical;
 			}
 		}
 
 		if (!capacityOption.isStorage() && useTechnicalRestrictions) {
-			final YearlyProfit yearlyProfit = new YearlyProfit(margins, capacityOption, marketArea);
-			yearlyProfit.calcYearlyProfit();
+			// Dispatch is shared by options with the same parameters
+			final ForwardPriceMatrix.Dispatch dispatch = forwardPrices.getDispatch(yearCount,
+					tempFuelCosts, tempEmissionCosts, capacityOption, marketArea);
 
 			final float availabilityFactorTechnical = marketArea.getAvailabilityFactors()
 					.getAvailabilityFactors(capacityOption.getFuelName());
 
 			// Fixed O&M costs are already subtracted before
-			profit += yearlyProfit.getTotalProfitWithoutFixedCosts();
+			profit += dispatch.profit();
 
+			final boolean[] running = dispatch.running();
 			for (int hour = 0; hour < Date.HOURS_PER_YEAR; hour++) {
-				if (yearlyProfit.isRunning(hour)) {
+				if (running[hour]) {
 					fuelCosts += tempFuelCosts * availabilityFactorTechnical;
 					emissionCosts += tempEmissionCosts * availabilityFactorTechnical;
-					powerProfit += prices.get(hour) * availabilityFactorTechnical;
+					powerProfit += prices[hour] * availabilityFactorTechnical;
 				}
 			}
 		} else if (capacityOption.isStorage()) {
@@ -465,22 +476,6 @@ public class InvestorNetValue extends Investor {
 
 		return metricsUndiscounted;
 	}
-	private Map<Integer, Float> getForwardPriceMap(Map<Integer, Map<Integer, Float>> forewardPrices,
-			int year) {
-		final int yearOffsetMax = Collections.max(forewardPrices.keySet());
-		final int yearOffsetMin = Collections.min(forewardPrices.keySet());
-		if (year < yearOffsetMin) {
-			return forewardPrices.get(yearOffsetMin);
-		}
-		if (year > yearOffsetMax) {
-			return forewardPrices.get(yearOffsetMax);
-		}
-		if (forewardPrices.containsKey(year)) {
-			return forewardPrices.get(year);
-		}
-		return getForwardPriceMap(forewardPrices, year + 1);
-	}
-
 	private void logCapacityOptions(final List<PlantOption> capOpts) {
 		final List<PlantOption> capOpt = new ArrayList<>(capOpts);
 
@@ -5,9 +5,7 @@ import static simulations.scheduling.Date.WARM_STARTUP_LENGTH;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -142,6 +140,36 @@ public class YearlyProfit {
 
 	}
 
+	/**
+	 * Hourly margins and their cumulated values. Can be reused for the
+	 * calculation of several plants in the same thread, so that no new arrays
+	 * are needed for each plant.
+	 */
+	public static final class Workspace {
+
+		/** The hourly margins */
+		private final float[] margins;
+		/** Sum of the hourly margins before each hour [hour] */
+		private final double[] marginsCumulated;
+
+		public Workspace(int hours) {
+			margins = new float[hours];
+			marginsCumulated = new double[hours + 1];
+		}
+
+		private Workspace(List<Float> margins) {
+			this(margins.size());
+			for (int hour = 0; hour < this.margins.length; hour++) {
+				this.margins[hour] = margins.get(hour);
+			}
+		}
+
+		/** Hourly margins, have to be set before a calculation */
+		public float[] getMargins() {
+			return margins;
+		}
+	}
+
 	private class RunBefore extends Period {
 
 		int hourStart;
@@ -186,9 +214,11 @@ public class YearlyProfit {
 	/** Last hour where plant is running currently */
 	private int lastRunHour;
 	/** The hourly margins */
-	private final List<Float> margins;
+	private final float[] margins;
 	/** The hourly margins */
 	private float marginsAvg;
+	/** Sum of the hourly margins before each hour [hour] */
+	private final double[] marginsCumulated;
 	/** Market area */
 	private final MarketArea marketArea;
 	/** The minimum shut-down time of the plant. */
@@ -200,15 +230,19 @@ public class YearlyProfit {
 	/** The hourly prices */
 	private List<Float> prices;
 	/** If running in hour, contains true */
-	private Map<Integer, Boolean> running;
+	private boolean[] running;
 	/** Periods where plant will be running. */
 	private List<RunningPeriodSimple> runPeriods;
 	/** Periods where margin is positive sorted by time. */
 	private List<RunningPeriodSimple> runPeriodsPossible;
 	/** The current index of possibleRunPeriods */
 	private int runPeriodsPossibleIndex;
-	/** The start-up costs for each length */
-	private Map<Integer, Float> startCostsByLength;
+	/** The start-up costs for cold start */
+	private float startCostsCold;
+	/** The start-up costs for hot start */
+	private float startCostsHot;
+	/** The start-up costs for warm start */
+	private float startCostsWarm;
 	/** The total profit for the year */
 	private float totalProfit;
 	/** The total profit for the year */
@@ -229,9 +263,28 @@ public class YearlyProfit {
 
 	public YearlyProfit(List<Float> margins, List<Float> prices, PlantAbstract plant,
 			MarketArea marketArea, boolean warningsActive) {
-		this.margins = margins;
+		this(new Workspace(margins), plant, marketArea, warningsActive);
 		this.prices = prices;
-		marginsAvg = Statistics.calcAvg(margins);
+	}
+
+	public YearlyProfit(List<Float> margins, PlantAbstract plant, MarketArea marketArea) {
+		this(margins, null, plant, marketArea, true);
+	}
+
+	/**
+	 * Uses the margins of the workspace, which have to be set before. Margins
+	 * of this object are only valid until the workspace is used again, the
+	 * results of {@link #calcYearlyProfit()} stay valid.
+	 */
+	public YearlyProfit(Workspace workspace, PlantAbstract plant, MarketArea marketArea,
+			boolean warningsActive) {
+		margins = workspace.margins;
+		marginsCumulated = workspace.marginsCumulated;
+		marginsCumulated[0] = 0;
+		for (int hour = 0; hour < margins.length; hour++) {
+			marginsCumulated[hour + 1] = marginsCumulated[hour] + margins[hour];
+		}
+		marginsAvg = (float) (marginsCumulated[margins.length] / margins.length);
 		this.plant = plant;
 		this.marketArea = marketArea;
 		minRunTime = plant.getMinRunTime();
@@ -240,10 +293,6 @@ public class YearlyProfit {
 		this.warningsActive = warningsActive;
 	}
 
-	public YearlyProfit(List<Float> margins, PlantAbstract plant, MarketArea marketArea) {
-		this(margins, null, plant, marketArea, true);
-	}
-
 	/**
 	 * Calculate the yearly profit under consideration of start-up costs,
 	 * minimum run time and minimum shut-down time.
@@ -258,7 +307,7 @@ public class YearlyProfit {
 	}
 
 	public float getMargin(int hour) {
-		return margins.get(hour);
+		return margins[hour];
 	}
 
 	public float getMarginsAvg() {
@@ -306,7 +355,7 @@ public class YearlyProfit {
 	 * @return true, if running in hour
 	 */
 	public boolean isRunning(int hour) {
-		return running.containsKey(hour);
+		return (hour >= 0) && (hour < running.length) && running[hour];
 	}
 
 	/**
@@ -329,7 +378,7 @@ public class YearlyProfit {
 		int maxHourAfter;
 		if ((periodIndex + 1) == runPeriodsPossible.size()) {
 			// If last period only dependent on margin number
-			maxHourAfter = margins.size() - 1;
+			maxHourAfter = margins.length - 1;
 		} else {
 			/* Max amount after
 			periodStart (incl): 10,  minShutDownTime = 2
@@ -367,16 +416,16 @@ public class YearlyProfit {
 			float costBefore = 0f;
 			if (minHourBefore <= (hourExtendingPeriodStart - 1)) {
 				// negative margin -> positive costs
-				costBefore = -margins.get(hourExtendingPeriodStart - 1);
+				costBefore = -margins[hourExtendingPeriodStart - 1];
 			} else {
 				costBefore = Float.POSITIVE_INFINITY;
 			}
 
 			float costAfter = 0f;
 			if (((hourExtendingPeriodEnd + 1) <= maxHourAfter)
-					&& ((hourExtendingPeriodEnd + 1) < margins.size())) {
+					&& ((hourExtendingPeriodEnd + 1) < margins.length)) {
 				// negative margin -> positive costs
-				costAfter = -margins.get(hourExtendingPeriodEnd + 1);
+				costAfter = -margins[hourExtendingPeriodEnd + 1];
 			} else {
 				costAfter = Float.POSITIVE_INFINITY;
 			}
@@ -453,7 +502,7 @@ public class YearlyProfit {
 		// nextHourStart (incl) = 10, minShutDownTime 1 -> newHourEndNeeded
 		// (incl) 8
 		final int newHourEndNeeded = nextHourStart - (minDownTime + 1);
-		newHourEnd = Math.min(Math.min(newHourEnd, newHourEndNeeded), margins.size() - 1);
+		newHourEnd = Math.min(Math.min(newHourEnd, newHourEndNeeded), margins.length - 1);
 
 		final int newLength = (newHourEnd - newHourStart) + 1;
 		if (newLength < minRunTime) {
@@ -514,14 +563,14 @@ public class YearlyProfit {
 		// Get next end hour
 		int newHourEnd;
 		if ((index + 1) >= runPeriodsPossible.size()) {
-			newHourEnd = Math.min(currentHourStart + minRunTime, margins.size() - 1);
+			newHourEnd = Math.min(currentHourStart + minRunTime, margins.length - 1);
 		} else {
 			newHourEnd = runPeriodsPossible.get(index + 1).getEndHour();
 		}
 
 		// see if problem is caused, at the end year it assumed that this does
 		// not occur
-		if ((newHourEnd < (margins.size() - 1)) && (newHourEnd <= (currentHourEnd + 1))) {
+		if ((newHourEnd < (margins.length - 1)) && (newHourEnd <= (currentHourEnd + 1))) {
 			logger.error("What is going on here? NewHourEnd " + newHourEnd + ", CurrentEnd+1"
 					+ (currentHourEnd + 1) + ", minDownTime " + minDownTime + ", minRunTime"
 					+ minRunTime);
@@ -564,12 +613,10 @@ public class YearlyProfit {
 	 * @return
 	 */
 	private float calcMarginSum(int startHour, int endHour) {
-
-		float marginSum = 0f;
-		for (int hour = startHour; hour <= endHour; hour++) {
-			marginSum += margins.get(hour);
+		if (endHour < startHour) {
+			return 0f;
 		}
-		return marginSum;
+		return (float) (marginsCumulated[endHour + 1] - marginsCumulated[startHour]);
 	}
 
 	/**
@@ -578,11 +625,7 @@ public class YearlyProfit {
 	 * @return margin for period
 	 */
 	private float calcMarginSum(RunningPeriodSimple period) {
-		float marginSum = 0f;
-		for (int hour = period.getStartHour(); hour <= period.getEndHour(); hour++) {
-			marginSum += margins.get(hour);
-		}
-		return marginSum;
+		return calcMarginSum(period.getStartHour(), period.getEndHour());
 	}
 
 	/**
@@ -629,13 +672,16 @@ public class YearlyProfit {
 
 		// Check for extreme events
 		if ((totalProfit > 1_000_000) && warningsActive) {
-			final List<Float> marginsSorted = new ArrayList<>(margins);
+			final List<Float> marginsSorted = new ArrayList<>(margins.length);
+			for (final float margin : margins) {
+				marginsSorted.add(margin);
+			}
 			Collections.sort(marginsSorted);
 			final int size = marginsSorted.size();
 			final List<Float> marginsSortedHighest = marginsSorted.subList(size - 101, size - 1);
 			logger.warn("Seems unrealistic, profit too high " + totalProfit + " of plant " + plant);
-			logger.warn("Avg margin " + Statistics.calcAvg(margins) + ", avg 100 highest values "
-					+ Statistics.calcAvg(marginsSortedHighest));
+			logger.warn("Avg margin " + Statistics.calcAvg(marginsSorted)
+					+ ", avg 100 highest values " + Statistics.calcAvg(marginsSortedHighest));
 		}
 
 	}
@@ -707,10 +753,10 @@ public class YearlyProfit {
 
 		}
 
-		running = new HashMap<>();
+		running = new boolean[margins.length];
 		for (final RunningPeriodSimple runPeriod : runPeriods) {
 			for (int hour = runPeriod.getStartHour(); hour <= runPeriod.getEndHour(); hour++) {
-				running.put(hour, true);
+				running[hour] = true;
 			}
 		}
 
@@ -925,10 +971,9 @@ public class YearlyProfit {
 
 	/**
 	 * Get the startup costs based on the length of out-of-market-time. Costs
-	 * are stored in a map for faster access.
+	 * are stored in fields for faster access.
 	 *
 	 * @param length
-	 * @param startCostsByLength
 	 * @return start-up costs
 	 */
 	private float getStartupCostsByLength(int length) {
@@ -938,11 +983,11 @@ public class YearlyProfit {
 		if (length <= 0) {
 			costs = 0f;
 		} else if (length <= HOT_STARTUP_LENGTH) {
-			costs = startCostsByLength.get(HOT_STARTUP_LENGTH);
+			costs = startCostsHot;
 		} else if (length <= WARM_STARTUP_LENGTH) {
-			costs = startCostsByLength.get(WARM_STARTUP_LENGTH);
+			costs = startCostsWarm;
 		} else {
-			costs = startCostsByLength.get(Integer.MAX_VALUE);
+			costs = startCostsCold;
 		}
 
 		return costs;
@@ -978,14 +1023,9 @@ public class YearlyProfit {
 	 */
 	private void setStartCosts() {
 
-		startCostsByLength = new HashMap<>();
-
-		startCostsByLength.put(Date.HOT_STARTUP_LENGTH,
-				marketArea.getStartUpCosts().getMarginalStartupCostsHot(plant));
-		startCostsByLength.put(Date.WARM_STARTUP_LENGTH,
-				marketArea.getStartUpCosts().getMarginalStartupCostsWarm(plant));
-		startCostsByLength.put(Integer.MAX_VALUE,
-				marketArea.getStartUpCosts().getMarginalStartupCostsCold(plant));
+		startCostsHot = marketArea.getStartUpCosts().getMarginalStartupCostsHot(plant);
+		startCostsWarm = marketArea.getStartUpCosts().getMarginalStartupCostsWarm(plant);
+		startCostsCold = marketArea.getStartUpCosts().getMarginalStartupCostsCold(plant);
 
 	}
 
@@ -24,6 +24,7 @@ import com.gurobi.gurobi.GRBVar;
 import simulations.initialization.Settings;
 import simulations.scheduling.Date;
 import supply.powerplant.PlantOption;
+import tools.other.Concurrency;
 
 public class YearlyProfitStorage {
 
@@ -117,6 +118,12 @@ public class YearlyProfitStorage {
 	private float[] yearlyPriceForecast = new float[Date.HOURS_PER_YEAR];
 	private float[] yearlyStorageLevel = new float[Date.HOURS_PER_YEAR];
 
+	/** This is the constructor */
+	public YearlyProfitStorage(float[] prices, PlantOption storagePlant) {
+		System.arraycopy(prices, 0, yearlyPriceForecast, 0, Date.HOURS_PER_YEAR);
+		this.storagePlant = storagePlant;
+	}
+
 	/** This is the constructor */
 	public YearlyProfitStorage(List<Float> prices, PlantOption storagePlant) {
 		for (int hourOfYear = 0; hourOfYear < Date.HOURS_PER_YEAR; hourOfYear++) {
@@ -621,7 +628,7 @@ public class YearlyProfitStorage {
 		model.update();
 
 		// perform optimization
-		model.optimize();
+		Concurrency.executeBlocking(model::optimize);
 
 		// transfer operation
 		final Map<Integer, Float> yearlyOperation = new HashMap<>();
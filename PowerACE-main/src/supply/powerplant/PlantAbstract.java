@@ -118,18 +118,7 @@ public abstract class PlantAbstract {
 	 * Calculate the variable costs for this unit.
 	 */
 	public void determineCostsVar(Integer year, MarketArea marketArea) {
-
-		// Fuel costs
-		costsFuelVar = getCostsFuelVar(
-				marketArea.getFuelPrices().getPricesYearly(getFuelName(), year));
-
-		// Carbon emission costs
-		costsCarbonVar = getCostsCarbonVar(year,
-				CarbonPrices.getPricesYearlyAverage(year, marketArea));
-
-		float variableOMCosts = getCostsOperationMaintenanceVar();
-		costsVar = costsFuelVar + costsCarbonVar + variableOMCosts;
-
+		setCostsVar(getCostsFuelVar(year, marketArea), getCostsCarbonVar(year, marketArea));
 	}
 
 	/** Returns the date from which on the unit is available. */
@@ -170,6 +159,14 @@ public abstract class PlantAbstract {
 				* (fuelName.getCarbonEmissionFactor(year) * (1 - carbonCapturePercentage)));
 	}
 
+	/**
+	 * Carbon costs for relevant year including possible carbon capture and
+	 * storage. The costs of the unit are not changed.
+	 */
+	public float getCostsCarbonVar(int year, MarketArea marketArea) {
+		return getCostsCarbonVar(year, CarbonPrices.getPricesYearlyAverage(year, marketArea));
+	}
+
 	/**
 	 * Amount the fixed costs increase per year after keeping operation after
 	 * technical lifetime.
@@ -189,6 +186,13 @@ public abstract class PlantAbstract {
 		return fuelPrice / efficiency;
 	}
 
+	/**
+	 * Fuel costs for relevant year. The costs of the unit are not changed.
+	 */
+	public float getCostsFuelVar(int year, MarketArea marketArea) {
+		return getCostsFuelVar(marketArea.getFuelPrices().getPricesYearly(getFuelName(), year));
+	}
+
 	public float getCostsOperationMaintenanceFixed() {
 		return getCostsOperationMaintenanceFixed(0);
 	}
@@ -216,19 +220,8 @@ public abstract class PlantAbstract {
 	 * Return costs for given year.
 	 */
 	public float getCostsVar(int year, MarketArea marketArea) {
-
-		/** Fuel costs for relevant year */
-		final float costsFuelVar = getCostsFuelVar(
-				marketArea.getFuelPrices().getPricesYearly(getFuelName(), year));
-
-		/**
-		 * Carbon costs for relevant year including possible carbon capture and
-		 * storage
-		 */
-		final float costsCarbonVar = getCostsCarbonVar(year,
-				CarbonPrices.getPricesYearlyAverage(year, marketArea));
-
-		return costsCarbonVar + costsFuelVar + costsOperationMaintenanceVar;
+		return getCostsCarbonVar(year, marketArea) + getCostsFuelVar(year, marketArea)
+				+ costsOperationMaintenanceVar;
 
 	}
 
@@ -592,6 +585,16 @@ public abstract class PlantAbstract {
 		this.costsOperationMaintenanceVar = costsOperationMaintenanceVar;
 	}
 
+	/**
+	 * Set the variable fuel and carbon costs, the total variable costs include
+	 * the variable operation and maintenance costs.
+	 */
+	public void setCostsVar(float costsFuelVar, float costsCarbonVar) {
+		this.costsFuelVar = costsFuelVar;
+		this.costsCarbonVar = costsCarbonVar;
+		costsVar = costsFuelVar + costsCarbonVar + getCostsOperationMaintenanceVar();
+	}
+
 	public void setEfficiency(float efficiency) {
 		this.efficiency = efficiency;
 	}
@@ -134,6 +134,38 @@ public final class PeriodTools {
 		return periods;
 	}
 
+	/**
+	 * Same as {@link #determineProfitableMarginPeriods(List)} for the net
+	 * margin as primitive array.
+	 */
+	public static List<RunningPeriodSimple> determineProfitableMarginPeriods(
+			float[] hourlyMargin) {
+
+		final List<RunningPeriodSimple> periods = new ArrayList<>();
+
+		// Start of current period where margin is positive, -1 if margin is
+		// not positive
+		int periodStartHour = -1;
+		for (int hour = 0; hour < hourlyMargin.length; hour++) {
+			if (hourlyMargin[hour] > 0) {
+				if (periodStartHour < 0) {
+					periodStartHour = hour;
+				}
+			} else if (periodStartHour >= 0) {
+				periods.add(new RunningPeriodSimple(periodStartHour, hour - 1, true));
+				periodStartHour = -1;
+			}
+		}
+
+		// Add last period where plant was running (assume that plant will be
+		// running for another hour)
+		if (periodStartHour >= 0) {
+			periods.add(new RunningPeriodSimple(periodStartHour, hourlyMargin.length - 1, true));
+		}
+
+		return periods;
+	}
+
 	/**
 	 * 
 	 * @param hourlyMargin
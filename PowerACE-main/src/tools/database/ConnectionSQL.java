@@ -1,10 +1,12 @@
 package tools.database;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,10 +15,12 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
 import simulations.MarketArea;
+import simulations.initialization.Settings;
 
 /**
- * This class provides an easy method to connect to the MySQL Server. It uses a
- * connection pool (Hikari) in order to speed up the connections.
+ * This class provides an easy method to connect to the MySQL Server or to an
+ * embedded database file (see {@link DatabaseBackend}). It uses a connection
+ * pool (Hikari) in order to speed up the connections.
  *
  * @author
  * @version 1.2
@@ -25,11 +29,23 @@ import simulations.MarketArea;
  */
 public final class ConnectionSQL implements AutoCloseable {
 
+	/**
+	 * Processes one row of the result of
+	 * {@link ConnectionSQL#query(String, RowMapper, Object...)}, e.g. writes
+	 * the values into arrays. Values should be accessed via column index.
+	 */
+	@FunctionalInterface
+	public interface RowMapper {
+		void mapRow(ResultSet resultSet) throws SQLException;
+	}
+
 	/** The time out for the connection [ms]. */
 	private static final long CONNECTION_TIMEOUT = 60000;
 	/** The data source (new). */
 	private static HikariDataSource dataSource;
 
+	/** Number of rows fetched at once by prepared queries. */
+	private static final int FETCH_SIZE = 10000;
 	/** The Constant HOST_NAME_DB. */
 	private static final String HOST_NAME = "DatabaseHostName";
 	/** The time for the leak detection [ms]. */
@@ -48,6 +64,26 @@ public final class ConnectionSQL implements AutoCloseable {
 
 	/** The Constant USER. */
 	private static final String USER = "Username";
+	/** User of the embedded database */
+	static final String USER_H2 = "sa";
+
+	/**
+	 * Column list for a query, e.g. <code>`area`, `2020`</code>.
+	 *
+	 * @param columnNames
+	 *            the column names
+	 * @return the column names in backticks, separated by commas
+	 */
+	public static String columns(String... columnNames) {
+		final StringBuilder columns = new StringBuilder();
+		for (final String columnName : columnNames) {
+			if (columns.length() > 0) {
+				columns.append(", ");
+			}
+			columns.append('`').append(columnName).append('`');
+		}
+		return columns.toString();
+	}
 
 	public static void closeDataSource() {
 		logger.info("Try to close datasource.");
@@ -83,16 +119,26 @@ public final class ConnectionSQL implements AutoCloseable {
 
 		// Pool for Database
 		if ((dataSource == null) || dataSource.isClosed()) {
+			final DatabaseBackend backend = Settings.getDatabaseBackend();
 			final HikariConfig config = new HikariConfig();
 			config.setConnectionTimeout(CONNECTION_TIMEOUT);
 			config.setLeakDetectionThreshold(LEAK_DETECTION_TIMEOUT);
-			config.setJdbcUrl("jdbc:mysql://" + HOST_NAME);
-			config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+			config.setDriverClassName(backend.getDriverClassName());
+			config.setMaximumPoolSize(POOL_SIZE_MAXIMUM);
+
+			if (backend == DatabaseBackend.H2) {
+				config.setJdbcUrl(backend.getJdbcUrl(Settings.getDatabaseFile()));
+				config.setUsername(USER_H2);
+				config.setPassword("");
+				dataSource = new HikariDataSource(config);
+				return;
+			}
+
+			config.setJdbcUrl(backend.getJdbcUrl(HOST_NAME));
 			config.addDataSourceProperty("serverTimezone", "Europe/Paris");
 			config.addDataSourceProperty("serverName", HOST_NAME);
 			config.addDataSourceProperty("port", PORT);
 			config.setUsername(USER);
-			config.setMaximumPoolSize(POOL_SIZE_MAXIMUM);
 			config.setPassword(PASSWORD);
 
 			// MySQL optimizations, see
@@ -110,6 +156,8 @@ public final class ConnectionSQL implements AutoCloseable {
 			config.addDataSourceProperty("maintainTimeStats", false);
 			config.addDataSourceProperty("sslMode", "DISABLED");
 			config.addDataSourceProperty("allowPublicKeyRetrieval", false);
+			// Fetch large results in blocks, see setResultSetStreaming
+			config.addDataSourceProperty("useCursorFetch", true);
 			dataSource = new HikariDataSource(config);
 		}
 
@@ -186,8 +234,14 @@ public final class ConnectionSQL implements AutoCloseable {
 		return false;
 	}
 
-	/** The connection. */
-	private final Connection connection;
+	/**
+	 * The connection. If input snapshots are used, it is only opened if a
+	 * query is not in the snapshot.
+	 */
+	private Connection connection;
+
+	/** The database to use. */
+	private final NameDatabase database;
 
 	/**
 	 * The result set that is visible for easier access.
@@ -195,7 +249,7 @@ public final class ConnectionSQL implements AutoCloseable {
 	private ResultSet resultSet;
 
 	/** The statement. */
-	private final Statement statement;
+	private Statement statement;
 
 	/**
 	 * Creates a new object with access to the given <code>database</code> on
@@ -209,20 +263,10 @@ public final class ConnectionSQL implements AutoCloseable {
 	 *             the SQL exception
 	 */
 	public ConnectionSQL(NameDatabase database) throws SQLException {
-
-		connection = getConnectionWorking();
-
-		statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE,
-				ResultSet.CONCUR_UPDATABLE);
-		// Database information_schema in Institute Database has no prefix,
-		// so use just the name for reading
-		if (database == NameDatabase.INFORMATION_SCHEMA) {
-			statement.execute("USE `" + database + "`");
-		} else {
-			statement.execute(
-					"USE `" + String.valueOf(NameDatabase.getDatabaseName(database)) + "`");
+		this.database = database;
+		if (!Settings.isInputSnapshot()) {
+			openConnection();
 		}
-
 	}
 
 	/**
@@ -239,17 +283,7 @@ public final class ConnectionSQL implements AutoCloseable {
 	 *             the SQL exception
 	 */
 	public ConnectionSQL(NameDatabase database, MarketArea marketArea) throws SQLException {
-		connection = getConnectionWorking();
-
-		statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE,
-				ResultSet.CONCUR_UPDATABLE);
-		// Database information_schema in Institute Database has no prefix,
-		// so use just the name for reading
-		if (database == NameDatabase.INFORMATION_SCHEMA) {
-			statement.execute("USE `" + database + "`");
-		} else {
-			statement.execute("USE `" + NameDatabase.getDatabaseName(database) + "`");
-		}
+		this(database);
 	}
 
 	/**
@@ -307,6 +341,7 @@ public final class ConnectionSQL implements AutoCloseable {
 		if (resultSet != null) {
 			resultSet.close();
 		}
+		openConnection();
 		statement.execute(query);
 	}
 
@@ -324,6 +359,7 @@ public final class ConnectionSQL implements AutoCloseable {
 		if (resultSet != null) {
 			resultSet.close();
 		}
+		openConnection();
 		statement.executeUpdate(query);
 	}
 
@@ -332,7 +368,8 @@ public final class ConnectionSQL implements AutoCloseable {
 	 *
 	 * @return the connection
 	 */
-	public Connection getConnection() {
+	public Connection getConnection() throws SQLException {
+		openConnection();
 		return connection;
 	}
 
@@ -361,6 +398,49 @@ public final class ConnectionSQL implements AutoCloseable {
 		}
 	}
 
+	/**
+	 * Execute the <code>query</code> as prepared statement and pass each row
+	 * of the result to the <code>rowMapper</code>. Rows are fetched in blocks
+	 * and the result is read only once, so select only the columns that are
+	 * needed.
+	 *
+	 * @param query
+	 *            The query with <code>?</code> for each parameter
+	 * @param rowMapper
+	 *            Called for each row of the result
+	 * @param parameters
+	 *            Values of the parameters in the order of their occurrence
+	 * @return number of rows
+	 * @throws SQLException
+	 *             the SQL exception
+	 */
+	public int query(String query, RowMapper rowMapper, Object... parameters)
+			throws SQLException {
+		ResultSet result;
+		if (Settings.isInputSnapshot()) {
+			final String key = parameters.length == 0
+					? query
+					: query + Arrays.toString(parameters);
+			result = InputSnapshot.read(database, key);
+			if (result == null) {
+				result = InputSnapshot.write(database, key, executePrepared(query, parameters));
+			}
+		} else {
+			result = executePrepared(query, parameters);
+		}
+
+		int rows = 0;
+		try {
+			while (result.next()) {
+				rowMapper.mapRow(result);
+				rows++;
+			}
+		} finally {
+			result.close();
+		}
+		return rows;
+	}
+
 	/**
 	 * Checks for the current result set whether the specified column exists.
 	 *
@@ -395,6 +475,94 @@ public final class ConnectionSQL implements AutoCloseable {
 		if (resultSet != null) {
 			resultSet.close();
 		}
+		if (Settings.isInputSnapshot()) {
+			resultSet = InputSnapshot.read(database, query);
+			if (resultSet == null) {
+				openConnection();
+				resultSet = InputSnapshot.write(database, query, statement.executeQuery(query));
+			}
+			return;
+		}
 		resultSet = statement.executeQuery(query);
 	}
+
+	/**
+	 * Execute the <code>query</code> with a forward-only, read-only result set
+	 * that is fetched in blocks of <code>fetchSize</code> rows. Use for large
+	 * results that are read only once and row by row.
+	 *
+	 * @param query
+	 *            The query to execute
+	 * @param fetchSize
+	 *            Number of rows fetched at once
+	 * @throws SQLException
+	 *             the SQL exception
+	 */
+	public void setResultSetStreaming(String query, int fetchSize) throws SQLException {
+		if (Settings.isInputSnapshot()) {
+			setResultSet(query);
+			return;
+		}
+		if (resultSet != null) {
+			resultSet.close();
+		}
+		openConnection();
+		final Statement statementStreaming = connection
+				.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		statementStreaming.setFetchSize(fetchSize);
+		// Statement is closed together with the result set
+		statementStreaming.closeOnCompletion();
+		resultSet = statementStreaming.executeQuery(query);
+	}
+
+	/**
+	 * Execute the prepared <code>query</code> with the specified parameters.
+	 * The statement is closed together with the result set. Prepared
+	 * statements are cached per pooled connection by the driver
+	 * (<code>cachePrepStmts</code> for MySQL, query cache of the session for
+	 * H2), so a query that is executed again is not parsed again.
+	 *
+	 * @throws SQLException
+	 *             the SQL exception
+	 */
+	private ResultSet executePrepared(String query, Object... parameters) throws SQLException {
+		openConnection();
+		final PreparedStatement preparedStatement = connection.prepareStatement(query,
+				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		try {
+			preparedStatement.setFetchSize(FETCH_SIZE);
+			preparedStatement.closeOnCompletion();
+			for (int index = 0; index < parameters.length; index++) {
+				preparedStatement.setObject(index + 1, parameters[index]);
+			}
+			return preparedStatement.executeQuery();
+		} catch (final SQLException e) {
+			preparedStatement.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens the connection to the database, if not opened yet.
+	 *
+	 * @throws SQLException
+	 *             the SQL exception
+	 */
+	private void openConnection() throws SQLException {
+		if (connection != null) {
+			return;
+		}
+		connection = getConnectionWorking();
+
+		statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE,
+				ResultSet.CONCUR_UPDATABLE);
+		// Database information_schema in Institute Database has no prefix,
+		// so use just the name for reading
+		final DatabaseBackend backend = Settings.getDatabaseBackend();
+		if (database == NameDatabase.INFORMATION_SCHEMA) {
+			statement.execute(backend.getUseStatement(database.toString()));
+		} else {
+			statement.execute(backend.getUseStatement(NameDatabase.getDatabaseName(database)));
+		}
+	}
 }
\ No newline at end of file
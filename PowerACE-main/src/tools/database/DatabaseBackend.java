@@ -0,0 +1,44 @@
+package tools.database;
+
+import simulations.initialization.Settings;
+
+/**
+ * Available database backends of {@link ConnectionSQL}. Can be set via the
+ * static field <code>databaseBackend</code> in the settings xml file.
+ */
+public enum DatabaseBackend {
+	/**
+	 * Embedded H2 database in the file {@link Settings#getDatabaseFile()} with
+	 * one schema for each {@link NameDatabase}. Runs in MySQL compatibility
+	 * mode, so that the same queries can be used. Create it via
+	 * {@link DatabaseImport}.
+	 */
+	H2,
+	/** MySQL server (default) */
+	MYSQL;
+
+	/** Driver class of the backend */
+	public String getDriverClassName() {
+		if (this == H2) {
+			return "org.h2.Driver";
+		}
+		return "com.mysql.cj.jdbc.Driver";
+	}
+
+	/** Connection url of the backend for the specified host or file */
+	public String getJdbcUrl(String location) {
+		if (this == H2) {
+			return "jdbc:h2:file:" + location
+					+ ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+		}
+		return "jdbc:mysql://" + location;
+	}
+
+	/** Statement to select the database (MySQL) or schema (H2) */
+	public String getUseStatement(String databaseName) {
+		if (this == H2) {
+			return "SET SCHEMA `" + databaseName + "`";
+		}
+		return "USE `" + databaseName + "`";
+	}
+}
@@ -0,0 +1,157 @@
+package tools.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import simulations.initialization.Settings;
+
+/**
+ * Copies all tables of the MySQL databases listed in {@link NameDatabase}
+ * into an embedded H2 database file (see {@link DatabaseBackend#H2}).
+ * Existing tables in the file are replaced.
+ * <p>
+ * Usage: <code>DatabaseImport [file]</code>, default file is
+ * {@link Settings#getDatabaseFile()}.
+ */
+public final class DatabaseImport {
+
+	/** Number of rows inserted at once */
+	private static final int BATCH_SIZE = 10000;
+	/**
+	 * Instance of logger to give out warnings, errors to console and or files
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(DatabaseImport.class.getName());
+
+	public static void main(String[] args) {
+		final String file = args.length > 0 ? args[0] : Settings.getDatabaseFile();
+		try {
+			importDatabases(file);
+		} catch (final SQLException e) {
+			logger.error(e.getLocalizedMessage(), e);
+		} finally {
+			ConnectionSQL.closeDataSource();
+		}
+	}
+
+	/** Copy all databases into the H2 file */
+	public static void importDatabases(String file) throws SQLException {
+		try (Connection target = DriverManager
+				.getConnection(DatabaseBackend.H2.getJdbcUrl(file), ConnectionSQL.USER_H2, "")) {
+			target.setAutoCommit(false);
+			for (final NameDatabase database : NameDatabase.values()) {
+				if (database == NameDatabase.INFORMATION_SCHEMA) {
+					continue;
+				}
+				final String schema = NameDatabase.getDatabaseName(database);
+				try (Statement statement = target.createStatement()) {
+					statement.execute("CREATE SCHEMA IF NOT EXISTS `" + schema + "`");
+				}
+				try (ConnectionSQL source = new ConnectionSQL(database)) {
+					final List<String> tables = new ArrayList<>();
+					source.setResultSet("SHOW TABLES");
+					while (source.getResultSet().next()) {
+						tables.add(source.getResultSet().getString(1));
+					}
+					for (final String table : tables) {
+						importTable(source, target, schema, table);
+					}
+				}
+			}
+		}
+	}
+
+	/** Column definition of the H2 table based on the MySQL column */
+	private static String getColumnType(ResultSetMetaData metaData, int column)
+			throws SQLException {
+		switch (metaData.getColumnType(column)) {
+			case Types.BIT:
+			case Types.BOOLEAN:
+				return "BOOLEAN";
+			case Types.TINYINT:
+			case Types.SMALLINT:
+				return "SMALLINT";
+			case Types.INTEGER:
+				return "INTEGER";
+			case Types.BIGINT:
+				return "BIGINT";
+			case Types.REAL:
+				return "REAL";
+			case Types.FLOAT:
+			case Types.DOUBLE:
+				return "DOUBLE PRECISION";
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+				return "DECIMAL(" + metaData.getPrecision(column) + ","
+						+ metaData.getScale(column) + ")";
+			case Types.DATE:
+				return "DATE";
+			case Types.TIME:
+				return "TIME";
+			case Types.TIMESTAMP:
+				return "TIMESTAMP";
+			default:
+				return "VARCHAR";
+		}
+	}
+
+	private static void importTable(ConnectionSQL source, Connection target, String schema,
+			String table) throws SQLException {
+		final long startTime = System.currentTimeMillis();
+		source.setResultSetStreaming("SELECT * FROM `" + table + "`", BATCH_SIZE);
+		final ResultSet resultSet = source.getResultSet();
+		final ResultSetMetaData metaData = resultSet.getMetaData();
+		final int numberOfColumns = metaData.getColumnCount();
+
+		final StringBuilder create = new StringBuilder(
+				"CREATE TABLE `" + schema + "`.`" + table + "` (");
+		final StringBuilder insert = new StringBuilder(
+				"INSERT INTO `" + schema + "`.`" + table + "` VALUES (");
+		for (int column = 1; column <= numberOfColumns; column++) {
+			if (column > 1) {
+				create.append(", ");
+				insert.append(", ");
+			}
+			create.append('`').append(metaData.getColumnLabel(column)).append("` ")
+					.append(getColumnType(metaData, column));
+			insert.append('?');
+		}
+		create.append(')');
+		insert.append(')');
+
+		try (Statement statement = target.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS `" + schema + "`.`" + table + "`");
+			statement.execute(create.toString());
+		}
+
+		int rows = 0;
+		try (PreparedStatement statement = target.prepareStatement(insert.toString())) {
+			while (resultSet.next()) {
+				for (int column = 1; column <= numberOfColumns; column++) {
+					statement.setObject(column, resultSet.getObject(column));
+				}
+				statement.addBatch();
+				if ((++rows % BATCH_SIZE) == 0) {
+					statement.executeBatch();
+				}
+			}
+			statement.executeBatch();
+		}
+		target.commit();
+		logger.info("Imported " + schema + "." + table + " (" + rows + " rows, "
+				+ (System.currentTimeMillis() - startTime) + "ms)");
+	}
+
+	private DatabaseImport() {
+	}
+}
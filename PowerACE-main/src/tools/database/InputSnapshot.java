@@ -0,0 +1,140 @@
+package tools.database;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import javax.sql.RowSetMetaData;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import simulations.initialization.Settings;
+
+/**
+ * Local snapshot of the input data read via {@link ConnectionSQL}. The result
+ * of each query is stored once in a binary file in the folder
+ * {@link Settings#getInputSnapshotFolder()}, one subfolder per database and
+ * one file per query. Later runs read the results from these files, so no
+ * connection to the database server is needed anymore.
+ * <p>
+ * Snapshots are not updated automatically. If the data in the database
+ * changes, the snapshot folder has to be deleted.
+ */
+final class InputSnapshot {
+
+	/**
+	 * Instance of logger to give out warnings, errors to console and or files
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(InputSnapshot.class.getName());
+	private static final String SUFFIX = ".snapshot";
+	/** Version of the file format, older files are ignored */
+	private static final int VERSION = 2;
+
+	/**
+	 * Copies the result into a cached row set that can be serialized.
+	 * <p>
+	 * A cached row set finds columns by their name, while a result from the
+	 * database finds them by their label. Therefore, the labels are used as
+	 * names, so that columns with an alias can be read from the copy as well.
+	 */
+	static CachedRowSet copy(ResultSet resultSet) throws SQLException {
+		final CachedRowSet cachedRowSet = RowSetProvider.newFactory().createCachedRowSet();
+		cachedRowSet.populate(resultSet);
+		final ResultSetMetaData metaData = resultSet.getMetaData();
+		final RowSetMetaData metaDataCached = (RowSetMetaData) cachedRowSet.getMetaData();
+		for (int column = 1; column <= metaData.getColumnCount(); column++) {
+			metaDataCached.setColumnName(column, metaData.getColumnLabel(column));
+		}
+		return cachedRowSet;
+	}
+
+	/**
+	 * Reads the result of the query from the snapshot.
+	 *
+	 * @return result or <code>null</code> if no valid snapshot exists
+	 */
+	static ResultSet read(NameDatabase database, String query) {
+		final Path file = getFile(database, query);
+		if (!Files.exists(file)) {
+			return null;
+		}
+		try (ObjectInputStream in = new ObjectInputStream(
+				new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+			if ((in.readInt() != VERSION) || !query.equals(in.readObject())) {
+				return null;
+			}
+			return (CachedRowSet) in.readObject();
+		} catch (final IOException | ClassNotFoundException e) {
+			logger.warn("Snapshot " + file + " could not be read, query database instead.", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the result of the query in the snapshot.
+	 *
+	 * @param resultSet
+	 *            result from the database, is closed afterwards
+	 * @return result that can be used instead of <code>resultSet</code>
+	 */
+	static ResultSet write(NameDatabase database, String query, ResultSet resultSet)
+			throws SQLException {
+		final CachedRowSet cachedRowSet = copy(resultSet);
+		resultSet.close();
+
+		final Path file = getFile(database, query);
+		try {
+			Files.createDirectories(file.getParent());
+			// Write into temporary file first, since other threads could read
+			// the same snapshot at the same time
+			final Path fileTemporary = Files.createTempFile(file.getParent(), null, null);
+			try (ObjectOutputStream out = new ObjectOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(fileTemporary), 1 << 16))) {
+				out.writeInt(VERSION);
+				out.writeObject(query);
+				out.writeObject(cachedRowSet);
+			}
+			Files.move(fileTemporary, file, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (final IOException e) {
+			logger.error("Snapshot " + file + " could not be written.", e);
+		}
+		cachedRowSet.beforeFirst();
+		return cachedRowSet;
+	}
+
+	/** File of the snapshot, name is the hash of the query */
+	private static Path getFile(NameDatabase database, String query) {
+		final StringBuilder fileName = new StringBuilder();
+		try {
+			final byte[] hash = MessageDigest.getInstance("SHA-256")
+					.digest(query.getBytes(StandardCharsets.UTF_8));
+			for (final byte value : hash) {
+				fileName.append(String.format("%02x", value));
+			}
+		} catch (final NoSuchAlgorithmException e) {
+			fileName.append(Integer.toHexString(query.hashCode()));
+		}
+		fileName.append(SUFFIX);
+		return Paths.get(Settings.getInputSnapshotFolder(),
+				NameDatabase.getDatabaseName(database), fileName.toString());
+	}
+
+	private InputSnapshot() {
+	}
+}
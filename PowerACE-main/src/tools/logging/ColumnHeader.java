@@ -1,6 +1,7 @@
 package tools.logging;
 
 import tools.database.NameColumnsPowerPlant;
+import tools.logging.LoggerBinary.ColumnType;
 import tools.types.Unit;
 
 /**
@@ -12,6 +13,8 @@ import tools.types.Unit;
 public class ColumnHeader {
 
 	private String columnTitle;
+	/** Type of the values, <code>null</code> if determined by the values */
+	private ColumnType columnType;
 	private Unit columnUnit;
 
 	public ColumnHeader(NameColumnsPowerPlant nameColumnsPowerPlant) {
@@ -24,10 +27,19 @@ public class ColumnHeader {
 		this.columnUnit = columnUnit;
 	}
 
+	public ColumnHeader(String columnTitle, Unit columnUnit, ColumnType columnType) {
+		this(columnTitle, columnUnit);
+		this.columnType = columnType;
+	}
+
 	public String getColumnTitle() {
 		return columnTitle;
 	}
 
+	public ColumnType getColumnType() {
+		return columnType;
+	}
+
 	public String getColumnUnit() {
 		return columnUnit.getUnit();
 	}
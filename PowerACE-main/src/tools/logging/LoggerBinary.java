@@ -0,0 +1,392 @@
+package tools.logging;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import simulations.initialization.Settings;
+
+/**
+ * Produces column-wise, compressed binary log files. Alternative to
+ * {@link LoggerCSV} for large (e.g. hourly) log files, since values are not
+ * formatted as text and each column is compressed separately.
+ * <p>
+ * The type of each column ({@link ColumnType}) is taken from its
+ * {@link ColumnHeader} or otherwise determined by the first written line:
+ * Integer values are stored as int, other numbers as float, everything else as
+ * String. Use {@link LoggerBinaryConverter} to convert the files to csv or
+ * xlsx.
+ * <p>
+ * File format (big-endian):
+ * <ul>
+ * <li>Header: {@link #MAGIC}, {@link #VERSION}, description, number of
+ * columns and for each column title, unit and type</li>
+ * <li>Chunks of up to {@link #CHUNK_SIZE} lines: number of lines and for each
+ * column the length of the compressed values and the values compressed via
+ * {@link Deflater}</li>
+ * </ul>
+ */
+public final class LoggerBinary {
+
+	public enum ColumnType {
+		FLOAT,
+		INT,
+		STRING;
+	}
+
+	/** Log file of a logID */
+	private static final class LogObject {
+		private final byte[] buffer = new byte[1 << 16];
+		private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		private final String description;
+		private final List<ColumnHeader> columns;
+		private final String fileName;
+		private final DataOutputStream out;
+		private int lines;
+		private ColumnType[] types;
+		private float[][] valuesFloat;
+		private int[][] valuesInt;
+		private String[][] valuesString;
+
+		private LogObject(String fileName, String description, List<ColumnHeader> columns)
+				throws IOException {
+			this.fileName = fileName;
+			this.description = description;
+			this.columns = columns;
+			out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16));
+		}
+	}
+
+	/** Number of lines that are compressed together */
+	static final int CHUNK_SIZE = 8760;
+	/** Identifier of the file format */
+	static final int MAGIC = 0x50414342;
+	/** Version of the file format */
+	static final int VERSION = 1;
+	/**
+	 * Instance of logger to give out warnings, errors to console and or files
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(LoggerBinary.class.getName());
+	private static final AtomicInteger logObjectID = new AtomicInteger();
+	private static final Map<Integer, LogObject> logObjects = new ConcurrentHashMap<>();
+
+	/**
+	 * Writes the remaining lines and closes the file
+	 *
+	 * @param logID
+	 */
+	public static void close(int logID) {
+		final LogObject logObject = logObjects.remove(logID);
+		if (logObject == null) {
+			return;
+		}
+		synchronized (logObject) {
+			try {
+				if (logObject.types == null) {
+					initializeColumns(logObject, null);
+				}
+				writeChunk(logObject);
+				logObject.out.close();
+			} catch (final IOException e) {
+				logger.error("Logfile: " + logObject.fileName + " could not be closed.", e);
+			} finally {
+				logObject.deflater.end();
+			}
+		}
+	}
+
+	/**
+	 * Creates a new log file and assigns a logID
+	 *
+	 * @param folder
+	 * @param fileName
+	 * @param description
+	 * @param columns
+	 * @param marketArea
+	 * @return logID or -1 if file could not be created
+	 */
+	public static int newLogObject(Folder folder, String fileName, String description,
+			List<ColumnHeader> columns, String marketArea) {
+		return newLogObject(Settings.getLogPathName(marketArea, folder) + fileName, description,
+				columns);
+	}
+
+	/**
+	 * Writes the numbers to the log file, one value for each column. Lines are
+	 * written to disk in chunks.
+	 *
+	 * @param logID
+	 * @param values
+	 *            <code>NaN</code> for missing values
+	 */
+	public static void writeLine(int logID, float... values) {
+		writeLine(logID, null, values);
+	}
+
+	/**
+	 * Writes the data (either as String or Number) to the log file. Lines are
+	 * written to disk in chunks.
+	 *
+	 * @param logID
+	 * @param values
+	 *            one value for each column
+	 */
+	public static void writeLine(int logID, List<Object> values) {
+		final LogObject logObject = logObjects.get(logID);
+		if (logObject == null) {
+			return;
+		}
+		synchronized (logObject) {
+			try {
+				if (logObject.types == null) {
+					initializeColumns(logObject, typesOf(values));
+				}
+				final int line = logObject.lines;
+				for (int column = 0; column < logObject.types.length; column++) {
+					final Object value = column < values.size() ? values.get(column) : null;
+					switch (logObject.types[column]) {
+						case FLOAT:
+							logObject.valuesFloat[column][line] = value instanceof Number
+									? ((Number) value).floatValue()
+									: Float.NaN;
+							break;
+						case INT:
+							logObject.valuesInt[column][line] = value instanceof Number
+									? ((Number) value).intValue()
+									: 0;
+							break;
+						case STRING:
+						default:
+							logObject.valuesString[column][line] = value == null
+									? ""
+									: value.toString();
+							break;
+					}
+				}
+				logObject.lines++;
+				if (logObject.lines == CHUNK_SIZE) {
+					writeChunk(logObject);
+				}
+			} catch (final IOException e) {
+				logger.error("Logfile: " + logObject.fileName + " could not be written.", e);
+			}
+		}
+	}
+
+	/**
+	 * Writes the label (e.g. the market area) into the first column and the
+	 * numbers into the following columns. Lines are written to disk in chunks.
+	 *
+	 * @param logID
+	 * @param label
+	 *            value of the first column, <code>null</code> if the line has
+	 *            no label
+	 * @param values
+	 *            <code>NaN</code> for missing values
+	 */
+	public static void writeLine(int logID, String label, float... values) {
+		final LogObject logObject = logObjects.get(logID);
+		if (logObject == null) {
+			return;
+		}
+		synchronized (logObject) {
+			try {
+				final int offset = label == null ? 0 : 1;
+				if (logObject.types == null) {
+					final ColumnType[] types = new ColumnType[offset + values.length];
+					Arrays.fill(types, ColumnType.FLOAT);
+					if (label != null) {
+						types[0] = ColumnType.STRING;
+					}
+					initializeColumns(logObject, types);
+				}
+				final int line = logObject.lines;
+				for (int column = 0; column < logObject.types.length; column++) {
+					final int index = column - offset;
+					final float value = (index >= 0) && (index < values.length)
+							? values[index]
+							: Float.NaN;
+					switch (logObject.types[column]) {
+						case FLOAT:
+							logObject.valuesFloat[column][line] = value;
+							break;
+						case INT:
+							logObject.valuesInt[column][line] = (int) value;
+							break;
+						case STRING:
+						default:
+							if (index < 0) {
+								logObject.valuesString[column][line] = label;
+							} else {
+								logObject.valuesString[column][line] = Float.isNaN(value)
+										? ""
+										: Float.toString(value);
+							}
+							break;
+					}
+				}
+				logObject.lines++;
+				if (logObject.lines == CHUNK_SIZE) {
+					writeChunk(logObject);
+				}
+			} catch (final IOException e) {
+				logger.error("Logfile: " + logObject.fileName + " could not be written.", e);
+			}
+		}
+	}
+
+	/**
+	 * Creates a new log file with the full file name and assigns a logID
+	 *
+	 * @return logID or -1 if file could not be created
+	 */
+	static int newLogObject(String fileNameFull, String description,
+			List<ColumnHeader> columns) {
+		try {
+			final int logID = logObjectID.getAndIncrement();
+			logObjects.put(logID, new LogObject(fileNameFull, description, columns));
+			return logID;
+		} catch (final IOException e) {
+			logger.error("Logfile: " + fileNameFull + " could not be created.", e);
+			return -1;
+		}
+	}
+
+	/** Compress values of one column and write them to the file */
+	private static void compress(LogObject logObject, byte[] values, int length)
+			throws IOException {
+		final Deflater deflater = logObject.deflater;
+		deflater.reset();
+		deflater.setInput(values, 0, length);
+		deflater.finish();
+		logObject.compressed.reset();
+		while (!deflater.finished()) {
+			final int bytes = deflater.deflate(logObject.buffer);
+			logObject.compressed.write(logObject.buffer, 0, bytes);
+		}
+		logObject.out.writeInt(logObject.compressed.size());
+		logObject.compressed.writeTo(logObject.out);
+	}
+
+	/**
+	 * Set column types based on the headers or the types of the first line and
+	 * write header
+	 *
+	 * @param typesLine
+	 *            types of the values of the first line, <code>null</code> if
+	 *            no line has been written
+	 */
+	private static void initializeColumns(LogObject logObject, ColumnType[] typesLine)
+			throws IOException {
+		final int numberOfColumns = Math.max(logObject.columns.size(),
+				typesLine == null ? 0 : typesLine.length);
+		logObject.types = new ColumnType[numberOfColumns];
+		logObject.valuesFloat = new float[numberOfColumns][];
+		logObject.valuesInt = new int[numberOfColumns][];
+		logObject.valuesString = new String[numberOfColumns][];
+
+		final DataOutputStream out = logObject.out;
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeUTF(logObject.description);
+		out.writeInt(numberOfColumns);
+		for (int column = 0; column < numberOfColumns; column++) {
+			ColumnType type = ColumnType.FLOAT;
+			if ((column < logObject.columns.size())
+					&& (logObject.columns.get(column).getColumnType() != null)) {
+				type = logObject.columns.get(column).getColumnType();
+			} else if ((typesLine != null) && (column < typesLine.length)) {
+				type = typesLine[column];
+			}
+			logObject.types[column] = type;
+			switch (type) {
+				case FLOAT:
+					logObject.valuesFloat[column] = new float[CHUNK_SIZE];
+					break;
+				case INT:
+					logObject.valuesInt[column] = new int[CHUNK_SIZE];
+					break;
+				case STRING:
+				default:
+					logObject.valuesString[column] = new String[CHUNK_SIZE];
+					break;
+			}
+			if (column < logObject.columns.size()) {
+				out.writeUTF(logObject.columns.get(column).getColumnTitle());
+				out.writeUTF(logObject.columns.get(column).getColumnUnit());
+			} else {
+				out.writeUTF("");
+				out.writeUTF("");
+			}
+			out.writeByte(logObject.types[column].ordinal());
+		}
+	}
+
+	/** Types of the values of a line written as objects */
+	private static ColumnType[] typesOf(List<Object> values) {
+		final ColumnType[] types = new ColumnType[values.size()];
+		for (int column = 0; column < types.length; column++) {
+			final Object value = values.get(column);
+			if ((value instanceof Integer) || (value instanceof Short)
+					|| (value instanceof Byte)) {
+				types[column] = ColumnType.INT;
+			} else if ((value == null) || (value instanceof Number)) {
+				types[column] = ColumnType.FLOAT;
+			} else {
+				types[column] = ColumnType.STRING;
+			}
+		}
+		return types;
+	}
+
+	/** Write all buffered lines as one chunk */
+	private static void writeChunk(LogObject logObject) throws IOException {
+		final int lines = logObject.lines;
+		if (lines == 0) {
+			return;
+		}
+		logObject.out.writeInt(lines);
+		for (int column = 0; column < logObject.types.length; column++) {
+			switch (logObject.types[column]) {
+				case FLOAT: {
+					final ByteBuffer bytes = ByteBuffer.allocate(lines * Float.BYTES);
+					bytes.asFloatBuffer().put(logObject.valuesFloat[column], 0, lines);
+					compress(logObject, bytes.array(), bytes.capacity());
+					break;
+				}
+				case INT: {
+					final ByteBuffer bytes = ByteBuffer.allocate(lines * Integer.BYTES);
+					bytes.asIntBuffer().put(logObject.valuesInt[column], 0, lines);
+					compress(logObject, bytes.array(), bytes.capacity());
+					break;
+				}
+				case STRING:
+				default: {
+					final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+					final DataOutputStream strings = new DataOutputStream(bytes);
+					for (int line = 0; line < lines; line++) {
+						strings.writeUTF(logObject.valuesString[column][line]);
+					}
+					strings.flush();
+					compress(logObject, bytes.toByteArray(), bytes.size());
+					break;
+				}
+			}
+		}
+		logObject.lines = 0;
+	}
+}
@@ -0,0 +1,279 @@
+package tools.logging;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tools.logging.LoggerBinary.ColumnType;
+
+/**
+ * Converts binary log files written by {@link LoggerBinary} into csv files
+ * (same layout as {@link LoggerCSV}) or xlsx files.
+ * <p>
+ * Usage: <code>LoggerBinaryConverter [-xlsx] file|folder...</code>. For
+ * folders all <code>.bin</code> files are converted. The converted file is
+ * written next to the binary file.
+ */
+public final class LoggerBinaryConverter {
+
+	/** Content of a binary log file, read chunk by chunk */
+	private static final class BinaryLog implements AutoCloseable {
+		private final byte[] buffer = new byte[1 << 16];
+		private final String[] titles;
+		private final ColumnType[] types;
+		private final String[] units;
+		private final String description;
+		private final DataInputStream in;
+		private final Inflater inflater = new Inflater();
+
+		private BinaryLog(Path input) throws IOException {
+			in = new DataInputStream(new BufferedInputStream(Files.newInputStream(input), 1 << 16));
+			if (in.readInt() != LoggerBinary.MAGIC) {
+				in.close();
+				throw new IOException(input + " is no binary log file.");
+			}
+			final int version = in.readInt();
+			if (version != LoggerBinary.VERSION) {
+				in.close();
+				throw new IOException("Version " + version + " of " + input + " not supported.");
+			}
+			description = in.readUTF();
+			final int numberOfColumns = in.readInt();
+			titles = new String[numberOfColumns];
+			units = new String[numberOfColumns];
+			types = new ColumnType[numberOfColumns];
+			for (int column = 0; column < numberOfColumns; column++) {
+				titles[column] = in.readUTF();
+				units[column] = in.readUTF();
+				types[column] = ColumnType.values()[in.readByte()];
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			inflater.end();
+			in.close();
+		}
+
+		/**
+		 * @return values of the next chunk <code>[column][line]</code> (float[],
+		 *         int[] or String[]) or <code>null</code> if end of file is
+		 *         reached
+		 */
+		private Object[] readChunk() throws IOException {
+			final int lines;
+			try {
+				lines = in.readInt();
+			} catch (final EOFException e) {
+				return null;
+			}
+			final Object[] values = new Object[types.length];
+			for (int column = 0; column < types.length; column++) {
+				final byte[] compressed = new byte[in.readInt()];
+				in.readFully(compressed);
+				final byte[] bytes = uncompress(compressed);
+				switch (types[column]) {
+					case FLOAT: {
+						final float[] valuesColumn = new float[lines];
+						ByteBuffer.wrap(bytes).asFloatBuffer().get(valuesColumn);
+						values[column] = valuesColumn;
+						break;
+					}
+					case INT: {
+						final int[] valuesColumn = new int[lines];
+						ByteBuffer.wrap(bytes).asIntBuffer().get(valuesColumn);
+						values[column] = valuesColumn;
+						break;
+					}
+					case STRING:
+					default: {
+						final String[] valuesColumn = new String[lines];
+						final DataInputStream strings = new DataInputStream(
+								new ByteArrayInputStream(bytes));
+						for (int line = 0; line < lines; line++) {
+							valuesColumn[line] = strings.readUTF();
+						}
+						values[column] = valuesColumn;
+						break;
+					}
+				}
+			}
+			return values;
+		}
+
+		private byte[] uncompress(byte[] compressed) throws IOException {
+			inflater.reset();
+			inflater.setInput(compressed);
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream(compressed.length * 4);
+			try {
+				while (!inflater.finished()) {
+					final int length = inflater.inflate(buffer);
+					if ((length == 0) && inflater.needsInput()) {
+						throw new EOFException("Compressed values are incomplete.");
+					}
+					bytes.write(buffer, 0, length);
+				}
+			} catch (final DataFormatException e) {
+				throw new IOException(e);
+			}
+			return bytes.toByteArray();
+		}
+	}
+
+	/**
+	 * Instance of logger to give out warnings, errors to console and or files
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(LoggerBinaryConverter.class.getName());
+
+	public static void main(String[] args) {
+		boolean xlsx = false;
+		for (final String argument : args) {
+			if ("-xlsx".equals(argument)) {
+				xlsx = true;
+				continue;
+			}
+			final Path path = Paths.get(argument);
+			try {
+				final List<Path> files;
+				if (Files.isDirectory(path)) {
+					try (Stream<Path> stream = Files.walk(path)) {
+						files = stream.filter(file -> file.toString().endsWith(".bin"))
+								.collect(Collectors.toList());
+					}
+				} else {
+					files = List.of(path);
+				}
+				for (final Path file : files) {
+					final String fileName = file.getFileName().toString().replaceAll("\\.bin$",
+							"");
+					if (xlsx) {
+						toXLSX(file, file.resolveSibling(fileName + ".xlsx"));
+					} else {
+						toCSV(file, file.resolveSibling(fileName + ".csv"));
+					}
+				}
+			} catch (final IOException e) {
+				logger.error(e.getLocalizedMessage(), e);
+			}
+		}
+	}
+
+	/** Convert binary log file into csv file */
+	public static void toCSV(Path input, Path output) throws IOException {
+		try (BinaryLog log = new BinaryLog(input);
+				BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+			out.write("#Logfile: " + output.getFileName() + " contains " + log.description + ".");
+			out.newLine();
+			out.write(String.join(";", log.titles));
+			out.newLine();
+			out.write(String.join(";", log.units));
+			out.newLine();
+
+			final StringBuilder line = new StringBuilder();
+			Object[] values;
+			while ((values = log.readChunk()) != null) {
+				final int lines = getNumberOfLines(values);
+				for (int index = 0; index < lines; index++) {
+					line.setLength(0);
+					for (int column = 0; column < values.length; column++) {
+						if (column > 0) {
+							line.append(';');
+						}
+						appendValue(line, values[column], index);
+					}
+					out.write(line.toString());
+					out.newLine();
+				}
+			}
+		}
+	}
+
+	/** Convert binary log file into xlsx file */
+	public static void toXLSX(Path input, Path output) throws IOException {
+		final SXSSFWorkbook workBook = new SXSSFWorkbook(1000);
+		try (BinaryLog log = new BinaryLog(input);
+				OutputStream out = Files.newOutputStream(output)) {
+			final SXSSFSheet sheet = workBook.createSheet("Sheet0");
+			int rowNumber = 0;
+			sheet.createRow(rowNumber++).createCell(0).setCellValue(log.description);
+			final Row titleRow = sheet.createRow(rowNumber++);
+			final Row unitRow = sheet.createRow(rowNumber++);
+			for (int column = 0; column < log.titles.length; column++) {
+				titleRow.createCell(column).setCellValue(log.titles[column]);
+				unitRow.createCell(column).setCellValue(log.units[column]);
+			}
+
+			Object[] values;
+			while ((values = log.readChunk()) != null) {
+				final int lines = getNumberOfLines(values);
+				for (int index = 0; index < lines; index++) {
+					final Row row = sheet.createRow(rowNumber++);
+					for (int column = 0; column < values.length; column++) {
+						if (values[column] instanceof float[]) {
+							final float value = ((float[]) values[column])[index];
+							if (!Float.isNaN(value)) {
+								row.createCell(column).setCellValue(value);
+							}
+						} else if (values[column] instanceof int[]) {
+							row.createCell(column).setCellValue(((int[]) values[column])[index]);
+						} else {
+							row.createCell(column)
+									.setCellValue(((String[]) values[column])[index]);
+						}
+					}
+				}
+			}
+			workBook.write(out);
+		} finally {
+			workBook.dispose();
+			workBook.close();
+		}
+	}
+
+	private static void appendValue(StringBuilder line, Object values, int index) {
+		if (values instanceof float[]) {
+			final float value = ((float[]) values)[index];
+			if (!Float.isNaN(value)) {
+				line.append(value);
+			}
+		} else if (values instanceof int[]) {
+			line.append(((int[]) values)[index]);
+		} else {
+			line.append(((String[]) values)[index]);
+		}
+	}
+
+	private static int getNumberOfLines(Object[] values) {
+		if (values.length == 0) {
+			return 0;
+		}
+		if (values[0] instanceof float[]) {
+			return ((float[]) values[0]).length;
+		} else if (values[0] instanceof int[]) {
+			return ((int[]) values[0]).length;
+		}
+		return ((String[]) values[0]).length;
+	}
+}
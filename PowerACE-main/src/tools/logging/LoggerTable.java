@@ -0,0 +1,110 @@
+package tools.logging;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import simulations.initialization.Settings;
+import tools.logging.LoggerBinary.ColumnType;
+
+/**
+ * Writes log files with a label (e.g. the market area) in the first column and
+ * numbers in the following columns. Depending on {@link Settings#isLogBinary()}
+ * the file is written via {@link LoggerBinary} or {@link LoggerCSV}, so callers
+ * do not have to distinguish both formats.
+ * <p>
+ * Columns with type {@link ColumnType#INT} in their {@link ColumnHeader} are
+ * written as integers, missing values (<code>NaN</code>) as empty values.
+ */
+public final class LoggerTable {
+
+	/** Column types of the csv files, needed to format the values */
+	private static final Map<Integer, ColumnType[]> columnTypesCSV = new ConcurrentHashMap<>();
+
+	/**
+	 * Writes the remaining lines and closes the file
+	 *
+	 * @param logID
+	 */
+	public static void close(int logID) {
+		if (Settings.isLogBinary()) {
+			LoggerBinary.close(logID);
+			return;
+		}
+		columnTypesCSV.remove(logID);
+		LoggerCSV.close(logID);
+	}
+
+	/**
+	 * Creates a new log file and assigns a logID
+	 *
+	 * @param folder
+	 * @param fileName
+	 *            without suffix, which is added depending on the format
+	 * @param description
+	 * @param columns
+	 * @param marketArea
+	 * @return logID or -1 if file could not be created
+	 */
+	public static int newLogObject(Folder folder, String fileName, String description,
+			List<ColumnHeader> columns, String marketArea) {
+		if (Settings.isLogBinary()) {
+			return LoggerBinary.newLogObject(folder, fileName + Settings.LOG_FILE_SUFFIX_BINARY,
+					description, columns, marketArea);
+		}
+
+		final StringBuilder titleLine = new StringBuilder();
+		final StringBuilder unitLine = new StringBuilder();
+		final ColumnType[] types = new ColumnType[columns.size()];
+		for (int column = 0; column < columns.size(); column++) {
+			if (column > 0) {
+				titleLine.append(';');
+				unitLine.append(';');
+			}
+			titleLine.append(columns.get(column).getColumnTitle());
+			unitLine.append(columns.get(column).getColumnUnit());
+			types[column] = columns.get(column).getColumnType();
+		}
+		final int logID = LoggerCSV.newLogObject(folder, fileName + Settings.LOG_FILE_SUFFIX_CSV,
+				description, titleLine.toString(), unitLine.toString(), marketArea);
+		if (logID != -1) {
+			columnTypesCSV.put(logID, types);
+		}
+		return logID;
+	}
+
+	/**
+	 * Writes the label into the first column and the numbers into the following
+	 * columns.
+	 *
+	 * @param logID
+	 * @param label
+	 *            value of the first column, e.g. the market area
+	 * @param values
+	 *            <code>NaN</code> for missing values
+	 */
+	public static void writeLine(int logID, String label, float... values) {
+		if (Settings.isLogBinary()) {
+			LoggerBinary.writeLine(logID, label, values);
+			return;
+		}
+		final ColumnType[] types = columnTypesCSV.get(logID);
+		if (types == null) {
+			return;
+		}
+		final StringBuilder line = new StringBuilder(label);
+		for (int index = 0; index < values.length; index++) {
+			line.append(';');
+			if (Float.isNaN(values[index])) {
+				continue;
+			}
+			final int column = index + 1;
+			if ((column < types.length) && (types[column] == ColumnType.INT)) {
+				line.append((int) values[index]);
+			} else {
+				line.append(values[index]);
+			}
+		}
+		LoggerCSV.writeLine(logID, line.toString(), false);
+	}
+}
@@ -4,16 +4,17 @@ import static simulations.scheduling.Date.DAYS_PER_YEAR;
 import static simulations.scheduling.Date.HOURS_PER_YEAR;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -52,6 +53,7 @@ public final class LoggerXLSX {
 	private static boolean compress = false;
 	private static final Map<Integer, Map<Sheet, Integer>> currentRows = new ConcurrentHashMap<>();
 	private static String decimalFormat = "#,##0.00";
+	private static final Map<Integer, String> decimalFormats = new ConcurrentHashMap<>();
 	// One thread is enough for logging
 	private static final ExecutorService exec = Executors.newSingleThreadExecutor();
 	private static final Map<Integer, String> fileNames = new ConcurrentHashMap<>();
@@ -72,6 +74,17 @@ public final class LoggerXLSX {
 	// there has been already one log.
 	private static int logObjectID = 100;
 	private static final Map<Integer, SXSSFWorkbook> logObjects = new ConcurrentHashMap<>();
+	/** Numeric values are rounded to four decimal places in order to save space */
+	private static final double ROUNDING_FACTOR = 10000;
+	/**
+	 * Log files that are written yearly and merged in {@link #closeFinal()}
+	 */
+	private static final Set<Integer> yearlyLogIDs = ConcurrentHashMap.newKeySet();
+	/**
+	 * Files with the rows written in each year, merged into one file in
+	 * {@link #closeFinal()}
+	 */
+	private static final Map<Integer, List<Path>> yearlyParts = new ConcurrentHashMap<>();
 
 	/**
 	 * Checks whether in the specified workbook a sheet with the given name
@@ -112,10 +125,15 @@ public final class LoggerXLSX {
 
 			final String fileName = fileNames.get(logID) + Settings.LOG_FILE_SUFFIX_EXCEL;
 			try {
+				if (writeYearly) {
+					writePart(logID, true);
+					return;
+				}
+
 				Path file = Paths.get(fileName);
 				// Check for other filenames if current one already existing
 				// until maximum number of files are reached
-				if (Files.exists(file) && !writeYearly) {
+				if (Files.exists(file)) {
 					for (int index = 0; index < numberOfMultipleFilesMax; index++) {
 						final String alternativeFilename = fileNames.get(logID) + index
 								+ Settings.LOG_FILE_SUFFIX_EXCEL;
@@ -136,12 +154,8 @@ public final class LoggerXLSX {
 				workBook.close();
 				workBook.dispose();
 
-				if (!writeYearly) {
-					// Remove temporary files
-					removeLogIDFromLists(logID);
-				} else {
-					readFileAfterWriting(logID, file);
-				}
+				// Remove temporary files
+				removeLogIDFromLists(logID);
 
 				// Compress large files, effect for xlsx files is rather small
 				// (10-25%)
@@ -162,6 +176,10 @@ public final class LoggerXLSX {
 	 */
 	public static void closeFinal() {
 		try {
+			for (final Integer logID : yearlyLogIDs) {
+				exec.execute(() -> mergeParts(logID));
+			}
+			yearlyLogIDs.clear();
 			exec.shutdown();
 			exec.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
 		} catch (final Exception e) {
@@ -170,11 +188,15 @@ public final class LoggerXLSX {
 	}
 
 	/**
-	 * Closes the file
+	 * Writes the rows added since the last call into a separate part file and
+	 * continues logging in a new, empty workbook. All parts are merged into
+	 * one file in {@link #closeFinal()}, so that writing costs the same each
+	 * year.
 	 *
 	 * @param logID
 	 */
 	public static void closeYearly(int logID) {
+		yearlyLogIDs.add(logID);
 		close(logID, false, true);
 	}
 
@@ -260,18 +282,9 @@ public final class LoggerXLSX {
 		cellStyleHeader.setFont(fontHeader);
 
 		// Set Row font
-		final Font fontRow = workBook.createFont();
-		fontRow.setFontHeightInPoints((short) 10); // NOPMD
-		fontRow.setFontName("Arial");
-		final CellStyle cellStyleRowDouble = workBook.createCellStyle();
-		cellStyleRowDouble.setFont(fontRow);
-		final DataFormat dataFormat = workBook.createDataFormat();
-		cellStyleRowDouble.setDataFormat(dataFormat.getFormat(decimalFormat));
-		cellStylesDouble.put(logID, cellStyleRowDouble);
-
-		final CellStyle cellStyleRowInteger = workBook.createCellStyle();
-		cellStyleRowInteger.setFont(fontRow);
-		cellStylesInteger.put(logID, cellStyleRowInteger);
+		final Font fontRow = LoggerXLSX.createRowFont(workBook);
+		LoggerXLSX.createRowStyles(logID, workBook, fontRow, decimalFormat);
+		final CellStyle cellStyleRowInteger = cellStylesInteger.get(logID);
 
 		Row row = LoggerXLSX.getRow(logID, sheet);
 		final List<String> valueList = Arrays.asList(description.split(";"));
@@ -462,9 +475,8 @@ public final class LoggerXLSX {
 					cell.setCellStyle(cellStylesDouble.get(logID));
 					double value = ((Number) object).doubleValue();
 					// Round in order save space
-					if (!(object instanceof Integer) && Double.isFinite(value)) {
-						value = new BigDecimal(value).setScale(4, RoundingMode.HALF_UP)
-								.doubleValue();
+					if (!(object instanceof Integer)) {
+						value = LoggerXLSX.round(value);
 					}
 					cell.setCellValue(value);
 					// Integer does not number after comma
@@ -481,6 +493,28 @@ public final class LoggerXLSX {
 		}
 	}
 
+	private static Font createRowFont(SXSSFWorkbook workBook) {
+		final Font fontRow = workBook.createFont();
+		fontRow.setFontHeightInPoints((short) 10); // NOPMD
+		fontRow.setFontName("Arial");
+		return fontRow;
+	}
+
+	/** Creates the styles for numeric values in rows */
+	private static void createRowStyles(int logID, SXSSFWorkbook workBook, Font fontRow,
+			String decimalFormat) {
+		final CellStyle cellStyleRowDouble = workBook.createCellStyle();
+		cellStyleRowDouble.setFont(fontRow);
+		final DataFormat dataFormat = workBook.createDataFormat();
+		cellStyleRowDouble.setDataFormat(dataFormat.getFormat(decimalFormat));
+		cellStylesDouble.put(logID, cellStyleRowDouble);
+
+		final CellStyle cellStyleRowInteger = workBook.createCellStyle();
+		cellStyleRowInteger.setFont(fontRow);
+		cellStylesInteger.put(logID, cellStyleRowInteger);
+		decimalFormats.put(logID, decimalFormat);
+	}
+
 	/**
 	 * Increases row of log file and returns row before increase.
 	 *
@@ -525,27 +559,150 @@ public final class LoggerXLSX {
 		return sheet;
 	}
 
-	private static void readFileAfterWriting(int logID, Path pathInput) throws IOException {
+	/**
+	 * Merges all yearly part files into one file and removes the parts.
+	 *
+	 * @param logID
+	 */
+	private static void mergeParts(int logID) {
+		final String fileName = fileNames.get(logID) + Settings.LOG_FILE_SUFFIX_EXCEL;
+		try {
+			// Rows written after the last yearly call
+			final SXSSFWorkbook workBookCurrent = logObjects.get(logID);
+			boolean rowsRemaining = false;
+			for (final Sheet sheet : workBookCurrent) {
+				rowsRemaining |= sheet.getPhysicalNumberOfRows() > 0;
+			}
+			if (rowsRemaining) {
+				writePart(logID, false);
+			} else {
+				workBookCurrent.close();
+				workBookCurrent.dispose();
+			}
+
+			final List<Path> parts = yearlyParts.remove(logID);
+			if (parts == null) {
+				removeLogIDFromLists(logID);
+				return;
+			}
+
+			// First part contains header and styles, read it only once
+			final XSSFWorkbook workBookFirst;
+			try (InputStream in = Files.newInputStream(parts.get(0))) {
+				workBookFirst = new XSSFWorkbook(in);
+			}
+			final SXSSFWorkbook workBook = new SXSSFWorkbook(workBookFirst, 1000);
+			// Styles of the parts, all parts are created in the same way
+			final Map<Short, CellStyle> cellStyles = new HashMap<>();
+			for (int index = 1; index < parts.size(); index++) {
+				try (InputStream in = Files.newInputStream(parts.get(index));
+						XSSFWorkbook workBookPart = new XSSFWorkbook(in)) {
+					for (final Sheet sheetPart : workBookPart) {
+						Sheet sheet = workBook.getSheet(sheetPart.getSheetName());
+						if (sheet == null) {
+							sheet = workBook.createSheet(sheetPart.getSheetName());
+						}
+						for (final Row rowPart : sheetPart) {
+							final Row row = sheet.createRow(rowPart.getRowNum());
+							for (final Cell cellPart : rowPart) {
+								final Cell cell = row.createCell(cellPart.getColumnIndex());
+								switch (cellPart.getCellType()) {
+									case NUMERIC:
+										cell.setCellValue(cellPart.getNumericCellValue());
+										break;
+									case STRING:
+										cell.setCellValue(cellPart.getStringCellValue());
+										break;
+									case BOOLEAN:
+										cell.setCellValue(cellPart.getBooleanCellValue());
+										break;
+									default:
+										break;
+								}
+								final CellStyle cellStylePart = cellPart.getCellStyle();
+								cell.setCellStyle(cellStyles.computeIfAbsent(
+										cellStylePart.getIndex(), key -> {
+											final CellStyle cellStyle = workBook
+													.createCellStyle();
+											cellStyle.cloneStyleFrom(cellStylePart);
+											return cellStyle;
+										}));
+							}
+						}
+					}
+				}
+			}
+
+			final Path file = Paths.get(fileName);
+			try (OutputStream out = Files.newOutputStream(file)) {
+				workBook.write(out);
+			}
+			workBook.close();
+			workBook.dispose();
+			for (final Path part : parts) {
+				Files.deleteIfExists(part);
+			}
+			removeLogIDFromLists(logID);
 
-		// read already written file, must be input stream because of bug from
-		// poi
-		final XSSFWorkbook wbFile = new XSSFWorkbook(Files.newInputStream(pathInput));
-		// Create new Workbook based on wb file
-		final SXSSFWorkbook newWorkbook = new SXSSFWorkbook(wbFile);
-		logObjects.put(logID, newWorkbook);
+			if (compress && (Files.size(file) > 1000000)) {
+				Operations.compressFile(file);
+			}
+		} catch (final Exception e) {
+			logger.error("Error occured for file " + fileName);
+			logger.error(e.getMessage(), e);
+		}
+	}
 
-		// Remove old and add new sheet to map
-		currentRows.get(logID).clear();
-		// use physical number from XSSF, because its possible that new workbook
-		// already flushed rows to the temp file on disk thats not reflected in
-		// this method from SXSSF
-		currentRows.get(logID).put(newWorkbook.getSheetAt(0),
-				wbFile.getSheetAt(0).getPhysicalNumberOfRows());
+	/**
+	 * Rounds to four decimal places (half up) without creating objects. Values
+	 * too large to be rounded are returned unchanged.
+	 */
+	private static double round(double value) {
+		final double scaled = value * ROUNDING_FACTOR;
+		if (!(Math.abs(scaled) < Long.MAX_VALUE)) {
+			return value;
+		}
+		final long rounded = scaled < 0 ? -Math.round(-scaled) : Math.round(scaled);
+		return rounded / ROUNDING_FACTOR;
+	}
 
+	/**
+	 * Writes the current workbook into the next part file.
+	 *
+	 * @param logID
+	 * @param continueLogging
+	 *            if <code>true</code> a new workbook with the same sheets and
+	 *            row cursors replaces the written one
+	 */
+	private static void writePart(int logID, boolean continueLogging) throws IOException {
+		final SXSSFWorkbook workBook = logObjects.get(logID);
+		final List<Path> parts = yearlyParts.computeIfAbsent(logID, key -> new ArrayList<>());
+		final Path part = Paths.get(
+				fileNames.get(logID) + "_part" + parts.size() + Settings.LOG_FILE_SUFFIX_EXCEL);
+		try (OutputStream out = Files.newOutputStream(part)) {
+			workBook.write(out);
+		}
+		parts.add(part);
+
+		if (continueLogging) {
+			final SXSSFWorkbook workBookNext = new SXSSFWorkbook(1000);
+			final Map<Sheet, Integer> rows = currentRows.get(logID);
+			for (final Sheet sheet : workBook) {
+				final SXSSFSheet sheetNext = workBookNext.createSheet(sheet.getSheetName());
+				sheetNext.setRandomAccessWindowSize(-1);
+				rows.put(sheetNext, rows.remove(sheet));
+			}
+			LoggerXLSX.createRowStyles(logID, workBookNext,
+					LoggerXLSX.createRowFont(workBookNext), decimalFormats.get(logID));
+			logObjects.put(logID, workBookNext);
+		}
+		workBook.close();
+		workBook.dispose();
 	}
 
 	private synchronized static void removeLogIDFromLists(int logID) {
 		logObjects.remove(logID);
+		decimalFormats.remove(logID);
 		fileNames.remove(logID);
 		currentRows.remove(logID);
 		cellStylesDouble.remove(logID);
@@ -37,6 +37,22 @@ public final class Statistics {
 	 */
 	private static final Logger logger = LoggerFactory.getLogger(Statistics.class.getName());
 
+	/** Check whether all elements in specified array are equal */
+	public static boolean areAllElementsEqual(double[] values) {
+
+		double valuePrevious = values[0];
+		for (int index = 1; index < values.length; index++) {
+			final double valueCurrent = values[index];
+			if (compareFloats((float) valueCurrent, (float) valuePrevious)) {
+				valuePrevious = valueCurrent;
+			} else {
+				// Different value found
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/** Check whether all elements in specified list are equal */
 	public static boolean areAllElementsEqual(List<Float> values) {
 
@@ -1,42 +1,240 @@
 package tools.other;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ManagedBlocker;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import simulations.initialization.Settings;
+import simulations.scheduling.SimulationClock;
+
 /** Contains methods which deal with the concurrent execution of methods */
 public class Concurrency {
 
+	/**
+	 * Task that blocks the executing thread for a long time, e.g. waits for an
+	 * external solver.
+	 */
+	@FunctionalInterface
+	public interface BlockingTask<E extends Exception> {
+		void run() throws E;
+	}
+
+	/**
+	 * Runs a {@link BlockingTask} so that the {@link ForkJoinPool} can start a
+	 * compensation thread while the task blocks.
+	 */
+	private static final class Blocker<E extends Exception> implements ManagedBlocker {
+
+		private Exception exception;
+		private boolean finished;
+		private final BlockingTask<E> task;
+
+		private Blocker(BlockingTask<E> task) {
+			this.task = task;
+		}
+
+		@Override
+		public boolean block() {
+			try {
+				task.run();
+			} catch (final Exception e) {
+				exception = e;
+			}
+			finished = true;
+			return true;
+		}
+
+		@Override
+		public boolean isReleasable() {
+			return finished;
+		}
+	}
+
 	/** Instance of logger */
-	private static final Logger logger = LoggerFactory 
+	private static final Logger logger = LoggerFactory
 			.getLogger(Concurrency.class.getName());
-	private static ExecutorService exec = Executors.newCachedThreadPool();
-	
+	/**
+	 * Executor for all tasks, created on first use according to
+	 * {@link Settings#getConcurrencyMode()}
+	 */
+	private static ExecutorService exec;
+	/** Execution times of tasks in nanoseconds, key is the name of the task */
+	private static final Map<String, LongSummaryStatistics> taskTimes = new ConcurrentHashMap<>();
 
 	public static void close() {
 
 		try {
-			exec.shutdown();
-			exec.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
-			exec = Executors.newCachedThreadPool();
+			final ExecutorService executor;
+			synchronized (Concurrency.class) {
+				executor = exec;
+				exec = null;
+			}
+			if (executor != null) {
+				executor.shutdown();
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			}
 		} catch (final Exception e) {
 			logger.error(e.getMessage(), e);
 		}
 	}
 
-	/** Prepares the concurrent execution of the current tasks */
+	/**
+	 * Execute a task that blocks the calling thread, e.g. a Gurobi
+	 * optimization. If called from a thread of the {@link ForkJoinPool} (see
+	 * {@link ConcurrencyMode#FORK_JOIN}), the pool is informed about the
+	 * blocked thread and keeps its parallelism with a compensation thread,
+	 * otherwise the task is simply executed.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E extends Exception> void executeBlocking(BlockingTask<E> task) throws E {
+		if (!(Thread.currentThread() instanceof ForkJoinWorkerThread)) {
+			task.run();
+			return;
+		}
+		final Blocker<E> blocker = new Blocker<>(task);
+		try {
+			ForkJoinPool.managedBlock(blocker);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (blocker.exception instanceof RuntimeException) {
+			throw (RuntimeException) blocker.exception;
+		}
+		if (blocker.exception != null) {
+			throw (E) blocker.exception;
+		}
+	}
+
+	/**
+	 * Prepares the concurrent execution of the current tasks. The tasks are
+	 * executed with the simulation clock of the calling thread.
+	 * <p>
+	 * Tasks may call this method again (nested tasks). In the
+	 * {@link ConcurrencyMode#FORK_JOIN} mode the waiting thread then executes
+	 * pending tasks itself, so that the number of threads stays bounded.
+	 */
 	public static void executeConcurrently(Collection<Callable<Void>> tasks) {
 		try {
 			Thread.currentThread().setName("Concurrency execution");
-			exec.invokeAll(tasks);
+			final boolean timing = Settings.isConcurrencyTaskTiming();
+			final List<Callable<Void>> tasksWithClock = new ArrayList<>(tasks.size());
+			for (final Callable<Void> task : tasks) {
+				tasksWithClock.add(SimulationClock.wrap(timing ? timed(task) : task));
+			}
+			getExecutor().invokeAll(tasksWithClock);
 		} catch (final Exception e) {
 			logger.error(e.getMessage(), e);
 		}
 	}
 
+	/**
+	 * Submit a single task that is executed in the background with the
+	 * simulation clock of the calling thread.
+	 *
+	 * @return future to wait for the task
+	 */
+	public static Future<Void> submit(Callable<Void> task) {
+		return submit(task, SimulationClock.current());
+	}
+
+	/**
+	 * Submit a single task that is executed in the background with the
+	 * specified simulation clock.
+	 *
+	 * @return future to wait for the task
+	 */
+	public static Future<Void> submit(Callable<Void> task, SimulationClock clock) {
+		final Callable<Void> taskTimed = Settings.isConcurrencyTaskTiming() ? timed(task) : task;
+		return getExecutor().submit(SimulationClock.wrap(clock, taskTimed));
+	}
+
+	/**
+	 * Log the execution times of all tasks executed since the last call, if
+	 * {@link Settings#isConcurrencyTaskTiming()} is set.
+	 */
+	public static void logTaskTimes() {
+		if (!Settings.isConcurrencyTaskTiming() || taskTimes.isEmpty()) {
+			return;
+		}
+		final StringBuilder output = new StringBuilder("Execution times of concurrent tasks");
+		taskTimes.entrySet().stream()
+				.sorted((e1, e2) -> Long.compare(e2.getValue().getSum(), e1.getValue().getSum()))
+				.forEach(entry -> output.append(System.lineSeparator())
+						.append(String.format("%-50s calls %8d, total %10.1f s, max %8.3f s",
+								entry.getKey(), entry.getValue().getCount(),
+								entry.getValue().getSum() / 1e9, entry.getValue().getMax() / 1e9)));
+		logger.info(output.toString());
+		taskTimes.clear();
+	}
+
+	/** Executor according to the settings, created if necessary */
+	static synchronized ExecutorService getExecutor() {
+		if (exec == null) {
+			switch (Settings.getConcurrencyMode()) {
+				case FORK_JOIN:
+					exec = new ForkJoinPool(Settings.getConcurrencyThreads());
+					break;
+				case VIRTUAL:
+					exec = Executors.newVirtualThreadPerTaskExecutor();
+					break;
+				case CACHED:
+				default:
+					exec = Executors.newCachedThreadPool();
+					break;
+			}
+			logger.debug("Concurrent tasks are executed via " + Settings.getConcurrencyMode());
+		}
+		return exec;
+	}
+
+	/** Add the execution time of a task */
+	static void recordTaskTime(String name, long nanos) {
+		taskTimes.compute(name, (key, statistics) -> {
+			final LongSummaryStatistics statisticsTask = statistics == null
+					? new LongSummaryStatistics()
+					: statistics;
+			statisticsTask.accept(nanos);
+			return statisticsTask;
+		});
+	}
+
+	/**
+	 * Name of the task for the timing, i.e. the simple class name of the task
+	 * or of the class in which the lambda expression is defined
+	 */
+	private static String getTaskName(Callable<?> task) {
+		String name = task.getClass().getName();
+		final int lambda = name.indexOf("$$Lambda");
+		if (lambda >= 0) {
+			name = name.substring(0, lambda);
+		}
+		return name.substring(name.lastIndexOf('.') + 1);
+	}
+
+	private static Callable<Void> timed(Callable<Void> task) {
+		final String name = getTaskName(task);
+		return () -> {
+			final long start = System.nanoTime();
+			try {
+				return task.call();
+			} finally {
+				recordTaskTime(name, System.nanoTime() - start);
+			}
+		};
+	}
+
 }
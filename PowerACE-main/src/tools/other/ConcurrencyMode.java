@@ -0,0 +1,23 @@
+package tools.other;
+
+/**
+ * Available executors for {@link Concurrency}. Can be set via the static
+ * field <code>concurrencyMode</code> in the settings xml file.
+ */
+public enum ConcurrencyMode {
+	/**
+	 * Unbounded cached thread pool, i.e. a new thread is created whenever all
+	 * threads are busy (default)
+	 */
+	CACHED,
+	/**
+	 * Work-stealing pool with a fixed number of threads (see
+	 * <code>concurrencyThreads</code>). Threads waiting for nested tasks help
+	 * to execute them instead of blocking. Blocking tasks such as Gurobi
+	 * optimizations have to be executed via
+	 * {@link Concurrency#executeBlocking(Concurrency.BlockingTask)}.
+	 */
+	FORK_JOIN,
+	/** One virtual thread per task */
+	VIRTUAL;
+}
@@ -0,0 +1,245 @@
+package tools.other;
+
+import static simulations.scheduling.Date.HOURS_PER_YEAR;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hourly values for several years, stored as one primitive array per year
+ * <code>[year[hourOfYear]]</code>. Replaces maps with boxed values and keys
+ * of the form <code>{dateKey[year,hourOfYear],{value}}</code>.
+ * <p>
+ * Missing years and hours return <code>NaN</code>. Arrays passed via
+ * {@link #putYear(int, float[])} and returned by {@link #getYear(int)} are
+ * not copied, so the same yearly values can be shared between several years
+ * without using additional memory. Values handed to other classes should be
+ * taken from {@link #getYearView(int)} or {@link #getYearCopy(int)}.
+ */
+public final class HourlySeries {
+
+	/** Year of the first array */
+	private int firstYear;
+	/** [yearIndex[hourOfYear]], null if year is not available */
+	private float[][] values = new float[0][];
+
+	/** Check whether values for the specified year are available */
+	public boolean containsYear(int year) {
+		return getYear(year) != null;
+	}
+
+	/**
+	 * @param hourOfYear
+	 *            [0,HOURS_PER_YEAR)
+	 * @return value or <code>NaN</code> if not available
+	 */
+	public float get(int year, int hourOfYear) {
+		final float[] valuesYear = getYear(year);
+		if ((valuesYear == null) || (hourOfYear < 0) || (hourOfYear >= valuesYear.length)) {
+			return Float.NaN;
+		}
+		return valuesYear[hourOfYear];
+	}
+
+	/** First available year or <code>Integer.MAX_VALUE</code> if empty */
+	public int getFirstYear() {
+		for (int index = 0; index < values.length; index++) {
+			if (values[index] != null) {
+				return firstYear + index;
+			}
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	/** Last available year or <code>Integer.MIN_VALUE</code> if empty */
+	public int getLastYear() {
+		for (int index = values.length - 1; index >= 0; index--) {
+			if (values[index] != null) {
+				return firstYear + index;
+			}
+		}
+		return Integer.MIN_VALUE;
+	}
+
+	/** Number of hours in the year with a value (not <code>NaN</code>) */
+	public int getNumberOfValues(int year) {
+		final float[] valuesYear = getYear(year);
+		int numberOfValues = 0;
+		if (valuesYear != null) {
+			for (final float value : valuesYear) {
+				if (!Float.isNaN(value)) {
+					numberOfValues++;
+				}
+			}
+		}
+		return numberOfValues;
+	}
+
+	/**
+	 * Copy <code>length</code> values starting at <code>hourOfYear</code> into
+	 * <code>target</code>. Missing values are set to <code>NaN</code>.
+	 */
+	public void getRange(int year, int hourOfYear, float[] target, int targetOffset,
+			int length) {
+		final float[] valuesYear = getYear(year);
+		// Hours before the start of the year are missing
+		final int lengthBefore = (int) Math.min(length, Math.max(0L, -(long) hourOfYear));
+		Arrays.fill(target, targetOffset, targetOffset + lengthBefore, Float.NaN);
+		final int start = Math.max(hourOfYear, 0);
+		final int offset = targetOffset + lengthBefore;
+		if ((valuesYear == null) || (start >= valuesYear.length)) {
+			Arrays.fill(target, offset, targetOffset + length, Float.NaN);
+			return;
+		}
+		final int lengthAvailable = Math.min(length - lengthBefore, valuesYear.length - start);
+		System.arraycopy(valuesYear, start, target, offset, lengthAvailable);
+		Arrays.fill(target, offset + lengthAvailable, targetOffset + length, Float.NaN);
+	}
+
+	/**
+	 * @return values of the year (no copy) or <code>null</code> if not
+	 *         available
+	 */
+	public float[] getYear(int year) {
+		final int index = year - firstYear;
+		if ((index < 0) || (index >= values.length)) {
+			return null;
+		}
+		return values[index];
+	}
+
+	/**
+	 * @return copy of the values of the year or <code>null</code> if not
+	 *         available
+	 */
+	public float[] getYearCopy(int year) {
+		final float[] valuesYear = getYear(year);
+		return valuesYear == null ? null : valuesYear.clone();
+	}
+
+	/**
+	 * @return read-only view of the values of the year (no copy) or
+	 *         <code>null</code> if not available
+	 */
+	public FloatBuffer getYearView(int year) {
+		final float[] valuesYear = getYear(year);
+		return valuesYear == null ? null : FloatBuffer.wrap(valuesYear).asReadOnlyBuffer();
+	}
+
+	/**
+	 * @return maximum of the year, <code>NaN</code> values are skipped
+	 */
+	public float max(int year) {
+		float max = Float.NEGATIVE_INFINITY;
+		final float[] valuesYear = getYear(year);
+		if (valuesYear != null) {
+			for (final float value : valuesYear) {
+				if (value > max) {
+					max = value;
+				}
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * @return minimum of the year, <code>NaN</code> values are skipped
+	 */
+	public float min(int year) {
+		float min = Float.POSITIVE_INFINITY;
+		final float[] valuesYear = getYear(year);
+		if (valuesYear != null) {
+			for (final float value : valuesYear) {
+				if (value < min) {
+					min = value;
+				}
+			}
+		}
+		return min;
+	}
+
+	/** Set the values of the year (array is not copied) */
+	public void putYear(int year, float[] valuesYear) {
+		ensureYear(year);
+		values[year - firstYear] = valuesYear;
+	}
+
+	/** Remove the values of the year */
+	public void removeYear(int year) {
+		final int index = year - firstYear;
+		if ((index >= 0) && (index < values.length)) {
+			values[index] = null;
+		}
+	}
+
+	/**
+	 * Set single value. If year is not available yet, an array of
+	 * HOURS_PER_YEAR values, initialized with <code>NaN</code>, is created.
+	 */
+	public void set(int year, int hourOfYear, float value) {
+		float[] valuesYear = getYear(year);
+		if (valuesYear == null) {
+			valuesYear = new float[HOURS_PER_YEAR];
+			Arrays.fill(valuesYear, Float.NaN);
+			putYear(year, valuesYear);
+		}
+		valuesYear[hourOfYear] = value;
+	}
+
+	/**
+	 * Sum of the year for the hours [startHour, endHour].
+	 *
+	 * @return sum or <code>NaN</code> if year is not available or values
+	 *         contain <code>NaN</code> or <code>Infinity</code>
+	 */
+	public float sum(int year, int startHour, int endHour) {
+		final float[] valuesYear = getYear(year);
+		if ((valuesYear == null) || (startHour < 0) || (endHour >= valuesYear.length)) {
+			return Float.NaN;
+		}
+		float sum = 0f;
+		for (int hourOfYear = startHour; hourOfYear <= endHour; hourOfYear++) {
+			if (!Float.isFinite(valuesYear[hourOfYear])) {
+				return Float.NaN;
+			}
+			sum += valuesYear[hourOfYear];
+		}
+		return sum;
+	}
+
+	/** Values of the year as list with the specified length */
+	public List<Float> toList(int year, int length) {
+		final List<Float> list = new ArrayList<>(length);
+		for (int hourOfYear = 0; hourOfYear < length; hourOfYear++) {
+			list.add(get(year, hourOfYear));
+		}
+		return list;
+	}
+
+	/** Values of the year as map <code>{hourOfYear,{value}}</code> */
+	public Map<Integer, Float> toMap(int year, int length) {
+		final Map<Integer, Float> map = new HashMap<>();
+		for (int hourOfYear = 0; hourOfYear < length; hourOfYear++) {
+			map.put(hourOfYear, get(year, hourOfYear));
+		}
+		return map;
+	}
+
+	private void ensureYear(int year) {
+		if (values.length == 0) {
+			firstYear = year;
+			values = new float[1][];
+		} else if (year < firstYear) {
+			final float[][] valuesNew = new float[values.length + (firstYear - year)][];
+			System.arraycopy(values, 0, valuesNew, firstYear - year, values.length);
+			values = valuesNew;
+			firstYear = year;
+		} else if (year >= (firstYear + values.length)) {
+			values = Arrays.copyOf(values, (year - firstYear) + 1);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package tools.other;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import simulations.initialization.Settings;
+import simulations.scheduling.SimulationClock;
+
+/**
+ * Named tasks with dependencies between them, e.g. the phases of a
+ * simulation step.
+ * <p>
+ * Dependencies have to be added before the tasks that depend on them, so the
+ * order in which tasks are added is always a valid order of execution. If
+ * executed concurrently, each task starts as soon as all of its dependencies
+ * are finished, otherwise tasks are executed one after another in the order
+ * they were added.
+ */
+public final class TaskGraph {
+
+	/**
+	 * Instance of logger to give out warnings, errors to console and or files
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(TaskGraph.class.getName());
+
+	/** Names of the tasks each task depends on */
+	private final Map<String, List<String>> dependencies = new HashMap<>();
+	/** All tasks in the order they were added */
+	private final Map<String, Runnable> tasks = new LinkedHashMap<>();
+
+	/**
+	 * Add a task.
+	 *
+	 * @param name
+	 *            unique name of the task
+	 * @param dependsOn
+	 *            names of tasks that have to be finished before this task
+	 *            starts, have to be added before
+	 */
+	public TaskGraph add(String name, Runnable task, String... dependsOn) {
+		if (tasks.containsKey(name)) {
+			throw new IllegalArgumentException("Task " + name + " already exists.");
+		}
+		for (final String dependency : dependsOn) {
+			if (!tasks.containsKey(dependency)) {
+				throw new IllegalArgumentException(
+						"Unknown dependency " + dependency + " of task " + name + ".");
+			}
+		}
+		tasks.put(name, task);
+		dependencies.put(name, Arrays.asList(dependsOn));
+		return this;
+	}
+
+	/**
+	 * Execute all tasks and wait until they are finished.
+	 *
+	 * @param concurrent
+	 *            if <code>true</code> independent tasks are executed
+	 *            concurrently via the executor of {@link Concurrency}
+	 */
+	public void execute(boolean concurrent) {
+		if (!concurrent) {
+			for (final String name : tasks.keySet()) {
+				run(name);
+			}
+			return;
+		}
+
+		final Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+		for (final String name : tasks.keySet()) {
+			final CompletableFuture<?>[] before = dependencies.get(name).stream()
+					.map(futures::get).toArray(CompletableFuture[]::new);
+			final Callable<Void> task = SimulationClock.wrap(() -> {
+				run(name);
+				return null;
+			});
+			futures.put(name, CompletableFuture.allOf(before).thenRunAsync(() -> {
+				try {
+					task.call();
+				} catch (final Exception e) {
+					logger.error(e.getLocalizedMessage(), e);
+				}
+			}, Concurrency.getExecutor()));
+		}
+		CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).join();
+	}
+
+	private void run(String name) {
+		final long start = System.nanoTime();
+		try {
+			tasks.get(name).run();
+		} catch (final Exception e) {
+			logger.error(e.getLocalizedMessage(), e);
+		}
+		if (Settings.isConcurrencyTaskTiming()) {
+			Concurrency.recordTaskTime(name, System.nanoTime() - start);
+		}
+	}
+}
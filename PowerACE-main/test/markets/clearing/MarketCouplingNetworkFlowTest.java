@@ -0,0 +1,262 @@
+package markets.clearing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares {@link MarketCouplingNetworkFlow} with the linear program of
+ * {@link MarketCouplingHourly} on small instances. The optimal welfare,
+ * prices and flows of the linear program are read from
+ * {@value #REFERENCE_FILE}, so that the comparison does not need a Gurobi
+ * license.
+ */
+class MarketCouplingNetworkFlowTest {
+
+	/**
+	 * Cost of interconnector flows, same as the penalty in
+	 * {@link MarketCouplingHourly}. Not read from there, since loading that
+	 * class already needs Gurobi.
+	 */
+	private static final double FLOW_COST = 0.001;
+	private static final double PRICE_TOLERANCE = 0.01;
+	/**
+	 * Optimal solutions of the linear program of {@link MarketCouplingHourly}
+	 * for random instances, computed with exact rational arithmetic. Prices are
+	 * the increase of the costs for one additional MWh of fixed demand (upper
+	 * end of the price interval), flows are only given if they are the same
+	 * in all optimal solutions.
+	 */
+	private static final String REFERENCE_FILE = "MarketCouplingNetworkFlowReference.txt";
+	private static final double VOLUME_TOLERANCE = 1E-4;
+
+	/** Instance of the reference file */
+	private static final class Instance {
+		private final double[][] capacities;
+		/** [fromMarketArea[toMarketArea[flow]]], <code>NaN</code> if not unique */
+		private final double[][] flows;
+		private final String name;
+		/** [marketArea[price]], <code>NaN</code> if not given */
+		private final double[] prices;
+		private final boolean[][] sell;
+		private final double[][] values;
+		private final double[][] volumes;
+		/** <code>NaN</code> if demand cannot be covered */
+		private double welfare = Double.NaN;
+
+		private Instance(String name, List<List<String[]>> bids) {
+			this.name = name;
+			final int numberOfMarketAreas = bids.size();
+			capacities = new double[numberOfMarketAreas][numberOfMarketAreas];
+			flows = new double[numberOfMarketAreas][numberOfMarketAreas];
+			prices = new double[numberOfMarketAreas];
+			sell = new boolean[numberOfMarketAreas][];
+			values = new double[numberOfMarketAreas][];
+			volumes = new double[numberOfMarketAreas][];
+			for (int marketArea = 0; marketArea < numberOfMarketAreas; marketArea++) {
+				final List<String[]> bidsMarketArea = bids.get(marketArea);
+				sell[marketArea] = new boolean[bidsMarketArea.size()];
+				values[marketArea] = new double[bidsMarketArea.size()];
+				volumes[marketArea] = new double[bidsMarketArea.size()];
+				for (int bid = 0; bid < bidsMarketArea.size(); bid++) {
+					final String[] fields = bidsMarketArea.get(bid);
+					sell[marketArea][bid] = "sell".equals(fields[2]);
+					values[marketArea][bid] = "fixed".equals(fields[2])
+							? MarketCouplingNetworkFlow.FIXED_DEMAND_VALUE
+							: Double.parseDouble(fields[3]);
+					volumes[marketArea][bid] = Double.parseDouble(fields[4]);
+				}
+				Arrays.fill(flows[marketArea], Double.NaN);
+			}
+			Arrays.fill(prices, Double.NaN);
+		}
+	}
+
+	/**
+	 * Reads the instances of the reference file. Each instance starts with a
+	 * line <code>instance name</code> followed by its bids (<code>bid
+	 * marketArea sell|ask|fixed value volume</code>) and interconnection
+	 * capacities (<code>capacity from to volume</code>) and the solution of
+	 * the linear program (<code>infeasible</code> or <code>welfare</code>,
+	 * <code>price marketArea</code> and <code>flow from to</code>) and ends
+	 * with <code>end</code>.
+	 */
+	private static List<Instance> readInstances() throws IOException {
+		final List<Instance> instances = new ArrayList<>();
+		try (InputStream input = MarketCouplingNetworkFlowTest.class
+				.getResourceAsStream(REFERENCE_FILE)) {
+			assertNotNull(input, REFERENCE_FILE + " not found");
+			final BufferedReader reader = new BufferedReader(
+					new InputStreamReader(input, StandardCharsets.UTF_8));
+			String name = null;
+			final List<List<String[]>> bids = new ArrayList<>();
+			final List<String[]> results = new ArrayList<>();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final String[] fields = line.trim().split("\\s+");
+				switch (fields[0]) {
+					case "instance":
+						name = fields[1];
+						bids.clear();
+						results.clear();
+						break;
+					case "bid":
+						final int marketArea = Integer.parseInt(fields[1]);
+						while (bids.size() <= marketArea) {
+							bids.add(new ArrayList<>());
+						}
+						bids.get(marketArea).add(fields);
+						break;
+					case "end":
+						final Instance instance = new Instance(name, bids);
+						for (final String[] result : results) {
+							switch (result[0]) {
+								case "capacity":
+									instance.capacities[Integer.parseInt(result[1])][Integer
+											.parseInt(result[2])] = Double.parseDouble(result[3]);
+									break;
+								case "flow":
+									instance.flows[Integer.parseInt(result[1])][Integer
+											.parseInt(result[2])] = Double.parseDouble(result[3]);
+									break;
+								case "price":
+									instance.prices[Integer.parseInt(result[1])] = Double
+											.parseDouble(result[2]);
+									break;
+								case "welfare":
+									instance.welfare = Double.parseDouble(result[1]);
+									break;
+								default:
+									break;
+							}
+						}
+						instances.add(instance);
+						break;
+					default:
+						results.add(fields);
+						break;
+				}
+			}
+		}
+		return instances;
+	}
+
+	/** Objective value of the linear program for the network flow solution */
+	private static double welfare(MarketCouplingNetworkFlow.Solution solution, double[][] values,
+			double[][] volumes, boolean[][] sell) {
+		double welfare = 0;
+		for (int marketArea = 0; marketArea < values.length; marketArea++) {
+			for (int bid = 0; bid < values[marketArea].length; bid++) {
+				if (values[marketArea][bid] == MarketCouplingNetworkFlow.FIXED_DEMAND_VALUE) {
+					continue;
+				}
+				final double volume = sell[marketArea][bid]
+						? -volumes[marketArea][bid]
+						: volumes[marketArea][bid];
+				welfare += volume * values[marketArea][bid]
+						* solution.getAcceptanceRates()[marketArea][bid];
+			}
+			for (final double flow : solution.getFlows()[marketArea]) {
+				welfare -= FLOW_COST * flow;
+			}
+		}
+		return welfare;
+	}
+
+	@Test
+	void congestedInterconnector() {
+		final double[][] values = {
+				{10, MarketCouplingNetworkFlow.FIXED_DEMAND_VALUE},
+				{50, MarketCouplingNetworkFlow.FIXED_DEMAND_VALUE}};
+		final double[][] volumes = {{200, 100}, {200, 100}};
+		final boolean[][] sell = {{true, false}, {true, false}};
+
+		final MarketCouplingNetworkFlow.Solution solution = MarketCouplingNetworkFlow
+				.solve(values, volumes, sell, new double[][] {{0, 50}, {50, 0}}, FLOW_COST);
+
+		assertTrue(solution.isDemandCovered());
+		assertArrayEquals(new double[] {10, 50}, solution.getPrices(), PRICE_TOLERANCE);
+		assertEquals(50, solution.getFlows()[0][1], VOLUME_TOLERANCE);
+		assertEquals(0, solution.getFlows()[1][0], VOLUME_TOLERANCE);
+		assertEquals(0.75, solution.getAcceptanceRates()[0][0], VOLUME_TOLERANCE);
+		assertEquals(0.25, solution.getAcceptanceRates()[1][0], VOLUME_TOLERANCE);
+	}
+
+	@Test
+	void singleMarketArea() {
+		final double[][] values = {{10, 20, 30, MarketCouplingNetworkFlow.FIXED_DEMAND_VALUE}};
+		final double[][] volumes = {{100, 100, 20, 150}};
+		final boolean[][] sell = {{true, true, false, false}};
+
+		final MarketCouplingNetworkFlow.Solution solution = MarketCouplingNetworkFlow
+				.solve(values, volumes, sell, new double[1][1], FLOW_COST);
+
+		assertTrue(solution.isConverged());
+		assertTrue(solution.isDemandCovered());
+		assertArrayEquals(new double[] {20}, solution.getPrices(), PRICE_TOLERANCE);
+		assertArrayEquals(new double[] {1, 0.7, 1, 1}, solution.getAcceptanceRates()[0],
+				VOLUME_TOLERANCE);
+	}
+
+	@Test
+	void uncoveredDemand() {
+		final double[][] values = {{10, MarketCouplingNetworkFlow.FIXED_DEMAND_VALUE},
+				{20, MarketCouplingNetworkFlow.FIXED_DEMAND_VALUE}};
+		final double[][] volumes = {{100, 150}, {100, 100}};
+		final boolean[][] sell = {{true, false}, {true, false}};
+
+		final MarketCouplingNetworkFlow.Solution solution = MarketCouplingNetworkFlow
+				.solve(values, volumes, sell, new double[][] {{0, 10}, {10, 0}}, FLOW_COST);
+
+		assertFalse(solution.isDemandCovered());
+	}
+
+	@Test
+	void parityWithLinearProgram() throws IOException {
+		final List<Instance> instances = readInstances();
+		assertFalse(instances.isEmpty());
+		for (final Instance instance : instances) {
+			final String message = "Instance " + instance.name;
+			final int numberOfMarketAreas = instance.values.length;
+			final MarketCouplingNetworkFlow.Solution solution = MarketCouplingNetworkFlow.solve(
+					instance.values, instance.volumes, instance.sell, instance.capacities,
+					FLOW_COST);
+
+			assertTrue(solution.isConverged(), message);
+			if (Double.isNaN(instance.welfare)) {
+				assertFalse(solution.isDemandCovered(), message);
+				continue;
+			}
+			assertTrue(solution.isDemandCovered(), message);
+			assertEquals(instance.welfare,
+					welfare(solution, instance.values, instance.volumes, instance.sell),
+					VOLUME_TOLERANCE * Math.max(1, Math.abs(instance.welfare)), message);
+			for (int marketArea = 0; marketArea < numberOfMarketAreas; marketArea++) {
+				if (!Double.isNaN(instance.prices[marketArea])) {
+					assertEquals(instance.prices[marketArea], solution.getPrices()[marketArea],
+							PRICE_TOLERANCE, message + ", market area " + marketArea);
+				}
+				for (int to = 0; to < numberOfMarketAreas; to++) {
+					if (!Double.isNaN(instance.flows[marketArea][to])) {
+						assertEquals(instance.flows[marketArea][to],
+								solution.getFlows()[marketArea][to], VOLUME_TOLERANCE,
+								message + ", flow " + marketArea + "-" + to);
+					}
+				}
+			}
+		}
+	}
+}
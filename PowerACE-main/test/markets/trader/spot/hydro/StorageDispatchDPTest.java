@@ -0,0 +1,56 @@
+package markets.trader.spot.hydro;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks {@link StorageDispatchDP} on small instances that can be solved by
+ * hand. Storage volume and number of levels are chosen so that one level
+ * equals one MWh.
+ */
+class StorageDispatchDPTest {
+
+	private static final float TOLERANCE = 1E-4f;
+
+	/**
+	 * Pumping is positive and includes the losses, i.e. 20 MWh have to be
+	 * pumped to store 10 MWh with an efficiency of 0.5. Turbining is negative.
+	 */
+	@Test
+	void pumpsWithLossesAndTurbinesLater() {
+		final float[] operation = new StorageDispatchDP(10).optimize(0, 10, 0.5f, new float[2],
+				new float[] {20, 20}, new float[] {10, 10}, new float[] {-1, -100},
+				new float[] {0, 5});
+		assertArrayEquals(new float[] {20, -10}, operation, TOLERANCE);
+	}
+
+	/**
+	 * Pumping one MWh costs 3 and yields 0.5 MWh worth 2.5, so the storage is
+	 * not used.
+	 */
+	@Test
+	void skipsPumpingThatIsUnprofitableDueToEfficiency() {
+		final float[] operation = new StorageDispatchDP(10).optimize(0, 10, 0.5f, new float[2],
+				new float[] {20, 20}, new float[] {10, 10}, new float[] {-3, -100},
+				new float[] {0, 5});
+		assertArrayEquals(new float[] {0, 0}, operation, TOLERANCE);
+	}
+
+	/** Inflow is available from the hour after it arrives */
+	@Test
+	void turbinesInflow() {
+		final float[] operation = new StorageDispatchDP(10).optimize(0, 10, 1, new float[] {4, 0},
+				new float[] {0, 0}, new float[] {10, 10}, new float[] {0, 0}, new float[] {0, 1});
+		assertArrayEquals(new float[] {0, -4}, operation, TOLERANCE);
+	}
+
+	/** A full storage is turbined in the hours with the highest values */
+	@Test
+	void turbinesInBestHoursWithinLimits() {
+		final float[] operation = new StorageDispatchDP(10).optimize(10, 10, 1, new float[3],
+				new float[] {5, 5, 5}, new float[] {4, 4, 4}, new float[] {-1, -1, -1},
+				new float[] {3, 1, 2});
+		assertArrayEquals(new float[] {-4, -2, -4}, operation, TOLERANCE);
+	}
+}
@@ -0,0 +1,54 @@
+package tools.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reads results of queries with column aliases via the copy that is stored in
+ * {@link InputSnapshot}.
+ */
+class InputSnapshotTest {
+
+	@Test
+	void aliasedColumnsCanBeReadFromSnapshot() throws Exception {
+		try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:snapshot");
+				Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE plant (unit_id INT, shut_down INT)");
+			statement.execute("CREATE TABLE replacement (unit_id INT, shut_down INT)");
+			statement.execute("INSERT INTO plant VALUES (1, 2030)");
+			statement.execute("INSERT INTO replacement VALUES (1, 2045)");
+
+			final ResultSet resultSet = statement
+					.executeQuery("SELECT plant.unit_id, plant.shut_down, "
+							+ "replacement.shut_down AS shut_down_replace FROM plant "
+							+ "JOIN replacement ON plant.unit_id = replacement.unit_id");
+			final Object copy = InputSnapshot.copy(resultSet);
+			resultSet.close();
+
+			// Same serialization as for the snapshot file
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+				out.writeObject(copy);
+			}
+			try (ObjectInputStream in = new ObjectInputStream(
+					new ByteArrayInputStream(bytes.toByteArray()))) {
+				final ResultSet snapshot = (ResultSet) in.readObject();
+				assertTrue(snapshot.next());
+				assertEquals(1, snapshot.getInt("unit_id"));
+				assertEquals(2030, snapshot.getInt("shut_down"));
+				assertEquals(2045, snapshot.getInt("shut_down_replace"));
+			}
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package tools.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tools.logging.LoggerBinary.ColumnType;
+import tools.types.Unit;
+
+/**
+ * Writes binary log files and reads them back via
+ * {@link LoggerBinaryConverter}.
+ */
+class LoggerBinaryTest {
+
+	@TempDir
+	Path folder;
+
+	private static List<ColumnHeader> columns() {
+		return List.of(new ColumnHeader("marketArea", Unit.NONE),
+				new ColumnHeader("year", Unit.YEAR, ColumnType.INT),
+				new ColumnHeader("hourOfYear", Unit.HOUR, ColumnType.INT),
+				new ColumnHeader("opt", Unit.ENERGY_PRICE),
+				new ColumnHeader("sim", Unit.ENERGY_PRICE));
+	}
+
+	@Test
+	void linesOfObjectsAreReadBack() throws Exception {
+		final Path input = folder.resolve("objects.bin");
+		final int logID = LoggerBinary.newLogObject(input.toString(), "objects", columns());
+		LoggerBinary.writeLine(logID, Arrays.asList("DE", 2020, 5, null, 41.5f));
+		LoggerBinary.close(logID);
+
+		final List<String> lines = toCSV(input);
+		assertEquals(4, lines.size());
+		assertEquals("DE;2020;5;;41.5", lines.get(3));
+	}
+
+	@Test
+	void primitiveLinesAreReadBack() throws Exception {
+		final Path input = folder.resolve("primitive.bin");
+		final int logID = LoggerBinary.newLogObject(input.toString(), "primitive values",
+				columns());
+		// More lines than one chunk
+		final int numberOfLines = LoggerBinary.CHUNK_SIZE + 2;
+		for (int line = 0; line < numberOfLines; line++) {
+			LoggerBinary.writeLine(logID, line % 2 == 0 ? "DE" : "FR", 2030, line, Float.NaN,
+					line + 0.25f);
+		}
+		LoggerBinary.close(logID);
+
+		final List<String> lines = toCSV(input);
+		assertEquals("#Logfile: primitive.csv contains primitive values.", lines.get(0));
+		assertEquals("marketArea;year;hourOfYear;opt;sim", lines.get(1));
+		assertEquals(String.join(";", Unit.NONE.getUnit(), Unit.YEAR.getUnit(),
+				Unit.HOUR.getUnit(), Unit.ENERGY_PRICE.getUnit(), Unit.ENERGY_PRICE.getUnit()),
+				lines.get(2));
+		assertEquals(numberOfLines + 3, lines.size());
+		assertEquals("DE;2030;0;;0.25", lines.get(3));
+		assertEquals("FR;2030;" + (numberOfLines - 1) + ";;" + ((numberOfLines - 1) + 0.25f),
+				lines.get(lines.size() - 1));
+	}
+
+	private List<String> toCSV(Path input) throws Exception {
+		final Path output = input.resolveSibling(
+				input.getFileName().toString().replace(".bin", ".csv"));
+		LoggerBinaryConverter.toCSV(input, output);
+		return Files.readAllLines(output, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void unlabelledLinesAreReadBack() throws Exception {
+		final Path input = folder.resolve("unlabelled.bin");
+		final int logID = LoggerBinary.newLogObject(input.toString(), "unlabelled",
+				List.of(new ColumnHeader("hourOfYear", Unit.HOUR, ColumnType.INT),
+						new ColumnHeader("price", Unit.ENERGY_PRICE)));
+		LoggerBinary.writeLine(logID, 7, -3.5f);
+		LoggerBinary.close(logID);
+
+		final List<String> lines = toCSV(input);
+		assertEquals("7;-3.5", lines.get(3));
+	}
+}